@@ -0,0 +1,223 @@
+package com.gamaliev.notes.common;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Comparison of {@link DateCodec}, and previous helpers, which created
+ * {@link SimpleDateFormat} (with lookup of pattern in resources) on every call.<br>
+ * As JMH: warmup iterations, then measured iterations, best time in ns/op.
+ * Results are consumed, so work is not eliminated. Results are written to log,
+ * with tag {@link #TAG}.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class DateCodecBenchmarkTest {
+
+    /* Logger */
+    @NonNull private static final String TAG = DateCodecBenchmarkTest.class.getSimpleName();
+
+    /* ... */
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final int OPERATIONS = 10000;
+    private static final long START_MILLIS = 1493951135000L;
+    private static final long STEP_MILLIS = 3600 * 1000L;
+
+    /* Patterns of previous helpers */
+    @NonNull private static final String PATTERN_SQLITE = "yyyy-MM-dd HH:mm:ss";
+    @NonNull private static final String PATTERN_ISO_8601 = "yyyy-MM-dd'T'HH:mm:ssZZZZZ";
+
+
+    /*
+        Tests
+     */
+
+    /**
+     * Bind of list row before epoch dates: "convertUtcToLocal()", UTC string to local string.
+     */
+    @Test
+    public void convertUtcToLocal() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String[] utc = getSqliteStrings();
+
+        final double before = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                final Date date = getSimpleDateFormat(context, PATTERN_SQLITE, true).parse(utc[i]);
+                return getSimpleDateFormat(context, PATTERN_SQLITE, false).format(date).length();
+            }
+        });
+        final double after = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                return DateCodec.formatSqlite(DateCodec.parseSqlite(utc[i], true), false).length();
+            }
+        });
+
+        log("convertUtcToLocal", before, after);
+
+        // #
+        assertEquals(
+                getSimpleDateFormat(context, PATTERN_SQLITE, false)
+                        .format(new Date(START_MILLIS)),
+                CommonUtils.convertUtcToLocal(utc[0]));
+        assertTrue(after < before);
+    }
+
+    /**
+     * Bind of list row: local date from milliseconds, into reused buffer.
+     */
+    @Test
+    public void formatDate() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final char[] buffer = new char[DateCodec.LENGTH_DATE];
+
+        final double before = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                return getSimpleDateFormat(context, PATTERN_SQLITE, false)
+                        .format(new Date(getMillis(i)))
+                        .split(" ")[0]
+                        .length();
+            }
+        });
+        final double after = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                return DateCodec.formatDate(getMillis(i), false, buffer, 0) + buffer[9];
+            }
+        });
+
+        log("formatDate", before, after);
+
+        // #
+        assertTrue(after < before);
+    }
+
+    /**
+     * Export and sync: ISO-8601 format and parse.
+     */
+    @Test
+    public void iso8601() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        final double before = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                final String iso = getSimpleDateFormat(context, PATTERN_ISO_8601, false)
+                        .format(new Date(getMillis(i)));
+                return getSimpleDateFormat(context, PATTERN_ISO_8601, false).parse(iso).getTime();
+            }
+        });
+        final double after = measure(new Operation() {
+            @Override
+            public long run(final int i) throws Exception {
+                return DateCodec.parseIso8601(DateCodec.formatIso8601(getMillis(i)));
+            }
+        });
+
+        log("iso8601", before, after);
+
+        // #
+        assertEquals(START_MILLIS, DateCodec.parseIso8601(DateCodec.formatIso8601(START_MILLIS)));
+        assertTrue(after < before);
+    }
+
+
+    /*
+        Utils
+     */
+
+    /**
+     * @param operation Operation.
+     * @return Best time of measured iterations, in nanoseconds per operation.
+     */
+    private static double measure(@NonNull final Operation operation) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            for (int j = 0; j < OPERATIONS; j++) {
+                sink += operation.run(j);
+            }
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            final long start = SystemClock.elapsedRealtimeNanos();
+            for (int j = 0; j < OPERATIONS; j++) {
+                sink += operation.run(j);
+            }
+            best = Math.min(best, SystemClock.elapsedRealtimeNanos() - start);
+        }
+
+        // Consume results.
+        if (sink == Long.MIN_VALUE) {
+            Log.i(TAG, "sink");
+        }
+        return (double) best / OPERATIONS;
+    }
+
+    private static void log(
+            @NonNull final String name,
+            final double before,
+            final double after) {
+
+        Log.i(TAG, String.format(
+                Locale.ENGLISH,
+                "%s. SimpleDateFormat per call: %.0f ns/op. DateCodec: %.0f ns/op. x%.1f",
+                name,
+                before,
+                after,
+                before / after));
+    }
+
+    /**
+     * Previous helpers of {@link CommonUtils}.
+     */
+    @NonNull
+    private static DateFormat getSimpleDateFormat(
+            @NonNull final Context context,
+            @NonNull final String pattern,
+            final boolean utc) {
+
+        // Resource lookup, as before.
+        context.getResources().getString(android.R.string.ok);
+        final DateFormat df = new SimpleDateFormat(pattern, Locale.ENGLISH);
+        if (utc) {
+            df.setTimeZone(TimeZone.getTimeZone("UTC"));
+        }
+        return df;
+    }
+
+    @NonNull
+    private static String[] getSqliteStrings() {
+        final String[] strings = new String[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            strings[i] = DateCodec.formatSqlite(getMillis(i), true);
+        }
+        return strings;
+    }
+
+    private static long getMillis(final int i) {
+        return START_MILLIS + i * STEP_MILLIS;
+    }
+
+    private interface Operation {
+        long run(int i) throws Exception;
+    }
+}
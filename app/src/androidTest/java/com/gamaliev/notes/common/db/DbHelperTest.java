@@ -1,19 +1,44 @@
 package com.gamaliev.notes.common.db;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.test.InstrumentationRegistry;
 
+import com.gamaliev.notes.color_picker.db.ColorPickerDbHelper;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.list.db.ListDbHelper;
+import com.gamaliev.notes.list.db.ListDbMockHelper;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
 import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
+import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_COLOR;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_EDITED;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_INDEX_SYNC_ID;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASC_DESC_DEFAULT;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER_ASC;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -25,6 +50,35 @@ import static org.junit.Assert.assertTrue;
  */
 public class DbHelperTest {
 
+    /* ... */
+    private static final long WAIT_TIMEOUT_MS = 10000;
+
+    /* Query plans */
+    private static final String QUERY_PLAN_SCAN     = "SCAN";
+    private static final String QUERY_PLAN_SEARCH   = "SEARCH";
+    private static final String SQL_QUERY_PLAN_SYNC_ID =
+            "SELECT * FROM " + LIST_ITEMS_TABLE_NAME + " WHERE " + COMMON_COLUMN_SYNC_ID + " = 5";
+    private static final String SQL_QUERY_PLAN_COLOR =
+            "SELECT * FROM " + LIST_ITEMS_TABLE_NAME + " WHERE " + LIST_ITEMS_COLUMN_COLOR + " = 5";
+    private static final String SQL_QUERY_PLAN_EDITED =
+            "SELECT * FROM " + LIST_ITEMS_TABLE_NAME + " WHERE " + LIST_ITEMS_COLUMN_EDITED
+                    + " BETWEEN 1483228800000 AND 1485907200000";
+    private static final String SQL_EDITED_OF_FIRST =
+            "SELECT typeof(" + LIST_ITEMS_COLUMN_EDITED + "), " + LIST_ITEMS_COLUMN_EDITED
+                    + " FROM " + LIST_ITEMS_TABLE_NAME + " WHERE " + COMMON_COLUMN_SYNC_ID + " = 0";
+    private static final String SQL_DESCRIPTION_PREVIEW_OF_FIRST =
+            "SELECT " + LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW
+                    + " FROM " + LIST_ITEMS_TABLE_NAME + " WHERE " + COMMON_COLUMN_SYNC_ID + " = 0";
+    private static final String SQL_SYNC_ID_OF_DUPLICATE =
+            "SELECT " + COMMON_COLUMN_SYNC_ID
+                    + " FROM " + LIST_ITEMS_TABLE_NAME
+                    + " WHERE " + LIST_ITEMS_COLUMN_TITLE + " = 'title_duplicate'";
+
+    /* Date of version "A", in "DATETIME" format (UTC), and in milliseconds */
+    private static final String EDITED_A = "2017-05-10 21:25:35";
+    private static final long EDITED_A_MILLIS = 1494451535000L;
+    private static final String DESCRIPTION_A = "description_0";
+
     @Before
     public void before() throws Exception {
         initDefaultPrefs();
@@ -71,6 +125,103 @@ public class DbHelperTest {
 
     @Test
     public void onUpgrade() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 1000;
+
+        clearUserPrefs(userId);
+        DbHelper.clearInstances();
+        context.deleteDatabase(userId);
+
+
+        /*
+            Populated database with version "A".
+         */
+
+        final SQLiteDatabase dbA = SQLiteDatabase.openOrCreateDatabase(
+                context.getDatabasePath(userId),
+                null);
+        dbA.beginTransaction();
+        try {
+            dbA.execSQL(DbHelper.SQL_FAVORITE_CREATE_TABLE);
+            dbA.execSQL(DbHelper.SQL_LIST_ITEMS_CREATE_TABLE);
+            dbA.execSQL(DbHelper.SQL_SYNC_CREATE_TABLE);
+            dbA.execSQL(DbHelper.SQL_SYNC_CONFLICT_CREATE_TABLE);
+            dbA.execSQL(DbHelper.SQL_SYNC_DELETED_CREATE_TABLE);
+            dbA.execSQL(DbHelper.SQL_LIST_ITEMS_MANUALLY_AUTOINCREMENT);
+
+            for (int i = 0; i < number; i++) {
+                final ContentValues cv = new ContentValues();
+                cv.put(LIST_ITEMS_COLUMN_TITLE, "title_" + i);
+                cv.put(COMMON_COLUMN_SYNC_ID, i);
+                cv.put(LIST_ITEMS_COLUMN_COLOR, i % 10);
+                if (i == 0) {
+                    cv.put(LIST_ITEMS_COLUMN_EDITED, EDITED_A);
+                    cv.put(LIST_ITEMS_COLUMN_DESCRIPTION, DESCRIPTION_A);
+                }
+                dbA.insert(LIST_ITEMS_TABLE_NAME, null, cv);
+            }
+
+            // Duplicate of sync id, must be kept by upgrade, without sync id.
+            final ContentValues cv = new ContentValues();
+            cv.put(LIST_ITEMS_COLUMN_TITLE, "title_duplicate");
+            cv.put(COMMON_COLUMN_SYNC_ID, 0);
+            dbA.insert(LIST_ITEMS_TABLE_NAME, null, cv);
+
+            dbA.setVersion(DbHelper.DB_VERSION_A);
+            dbA.setTransactionSuccessful();
+        } finally {
+            dbA.endTransaction();
+        }
+
+        // #
+        assertTrue(getQueryPlan(dbA, SQL_QUERY_PLAN_SYNC_ID).startsWith(QUERY_PLAN_SCAN));
+        assertTrue(getQueryPlan(dbA, SQL_QUERY_PLAN_COLOR).startsWith(QUERY_PLAN_SCAN));
+        assertTrue(getQueryPlan(dbA, SQL_QUERY_PLAN_EDITED).startsWith(QUERY_PLAN_SCAN));
+
+        dbA.close();
+
+
+        /*
+            Upgrade to current version.
+         */
+
+        SpUsers.setSelected(context, userId);
+        final SQLiteDatabase db = DbHelper.getReadableDb(context);
+
+        // #
+        assertNotNull(db);
+        assertTrue(db.getVersion() >= DbHelper.DB_VERSION_B);
+        assertEquals(number + 1, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+        assertTrue(getQueryPlan(db, SQL_QUERY_PLAN_SYNC_ID).startsWith(QUERY_PLAN_SEARCH));
+        assertTrue(getQueryPlan(db, SQL_QUERY_PLAN_COLOR).startsWith(QUERY_PLAN_SEARCH));
+        assertTrue(getQueryPlan(db, SQL_QUERY_PLAN_EDITED).startsWith(QUERY_PLAN_SEARCH));
+        assertTrue(getQueryPlan(db, SQL_QUERY_PLAN_SYNC_ID).contains(LIST_ITEMS_INDEX_SYNC_ID));
+
+        // Duplicate of sync id is not synchronized.
+        try (Cursor cursor = db.rawQuery(SQL_SYNC_ID_OF_DUPLICATE, null)) {
+
+            // #
+            assertTrue(cursor.moveToFirst());
+            assertTrue(cursor.isNull(0));
+        }
+
+        // Dates of version "A" are converted to milliseconds.
+        try (Cursor cursor = db.rawQuery(SQL_EDITED_OF_FIRST, null)) {
+
+            // #
+            assertTrue(cursor.moveToFirst());
+            assertEquals("integer", cursor.getString(0));
+            assertEquals(EDITED_A_MILLIS, cursor.getLong(1));
+        }
+
+        // Description preview is filled for existing entries.
+        try (Cursor cursor = db.rawQuery(SQL_DESCRIPTION_PREVIEW_OF_FIRST, null)) {
+
+            // #
+            assertTrue(cursor.moveToFirst());
+            assertEquals(DESCRIPTION_A, cursor.getString(0));
+        }
     }
 
     @Test
@@ -140,6 +291,108 @@ public class DbHelperTest {
         assertEquals(n3, 0);
     }
 
+    @Test
+    public void getEntriesCounts() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 500;
+
+        clearUserPrefs(userId);
+        DbHelper.clearInstances();
+        context.deleteDatabase(userId);
+        SpUsers.setSelected(context, userId);
+
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
+
+        // #
+        assertNotNull(db);
+
+        ListDbMockHelper.addMockEntries(context, number, db, null);
+
+        final int color = ColorPickerDbHelper.getFavoriteColorsDefault()[0];
+        final DbQueryBuilder colorQueryBuilder = new DbQueryBuilder();
+        colorQueryBuilder.addOr(
+                LIST_ITEMS_COLUMN_COLOR,
+                DbQueryBuilder.OPERATOR_EQUALS,
+                new String[] {String.valueOf(color)});
+        final DbQueryBuilder titleQueryBuilder = new DbQueryBuilder();
+        titleQueryBuilder.addOr(
+                LIST_ITEMS_COLUMN_TITLE,
+                DbQueryBuilder.OPERATOR_EQUALS,
+                new String[] {"title_title"});
+
+        final List<DbQueryBuilder> queryBuilders = new ArrayList<>();
+        queryBuilders.add(null);
+        queryBuilders.add(colorQueryBuilder);
+        queryBuilders.add(titleQueryBuilder);
+
+        final int colorCount = getCountAndClose(
+                DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, colorQueryBuilder));
+        final int[] counts = DbHelper.getEntriesCounts(
+                context,
+                LIST_ITEMS_TABLE_NAME,
+                queryBuilders);
+
+        // #
+        assertNotNull(counts);
+        assertEquals(number, counts[0]);
+        assertTrue(colorCount > 0);
+        assertEquals(colorCount, counts[1]);
+        assertEquals(0, counts[2]);
+        assertEquals(colorCount, DbHelper.getEntriesCount(
+                context,
+                LIST_ITEMS_TABLE_NAME,
+                colorQueryBuilder));
+
+        // Cached counts must be refreshed after insert.
+        DbHelper.insertEntryWithSingleValue(
+                context,
+                db,
+                LIST_ITEMS_TABLE_NAME,
+                LIST_ITEMS_COLUMN_TITLE,
+                "title_title");
+        final int[] counts2 = DbHelper.getEntriesCounts(
+                context,
+                LIST_ITEMS_TABLE_NAME,
+                queryBuilders);
+
+        // #
+        assertNotNull(counts2);
+        assertEquals(number + 1, counts2[0]);
+        assertEquals(1, counts2[2]);
+
+        // After update.
+        final ContentValues cv = new ContentValues();
+        cv.put(LIST_ITEMS_COLUMN_COLOR, color);
+        db.update(
+                LIST_ITEMS_TABLE_NAME,
+                cv,
+                LIST_ITEMS_COLUMN_TITLE + " = ?",
+                new String[] {"title_title"});
+
+        // #
+        assertEquals(colorCount + 1, DbHelper.getEntriesCount(
+                context,
+                LIST_ITEMS_TABLE_NAME,
+                colorQueryBuilder));
+
+        // After delete.
+        db.delete(
+                LIST_ITEMS_TABLE_NAME,
+                LIST_ITEMS_COLUMN_COLOR + " = ?",
+                new String[] {String.valueOf(color)});
+        final int[] counts3 = DbHelper.getEntriesCounts(
+                context,
+                LIST_ITEMS_TABLE_NAME,
+                queryBuilders);
+
+        // #
+        assertNotNull(counts3);
+        assertEquals(number - colorCount, counts3[0]);
+        assertEquals(0, counts3[1]);
+        assertEquals(0, counts3[2]);
+    }
+
     @Test
     public void insertEntryWithSingleValue() throws Exception {
         final Context context = InstrumentationRegistry.getTargetContext();
@@ -369,6 +622,79 @@ public class DbHelperTest {
         assertTrue(readableDb2.isOpen());
     }
 
+    @Test
+    public void readWhileWriteTransaction() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int committed = 10;
+        final int importing = 1000;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
+
+        // #
+        assertNotNull(db);
+        assertTrue(db.isWriteAheadLoggingEnabled());
+
+        db.beginTransaction();
+        try {
+            ListDbMockHelper.addMockEntries(context, committed, db, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        // Long import, which holds write transaction, until the list query is finished.
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread importThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                db.beginTransaction();
+                try {
+                    ListDbMockHelper.addMockEntries(context, importing, db, null);
+                    started.countDown();
+                    release.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    db.setTransactionSuccessful();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        });
+        importThread.start();
+
+        // #
+        assertTrue(started.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        final Map<String, String> profileMap = new HashMap<>();
+        profileMap.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        profileMap.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+
+        final long start = SystemClock.elapsedRealtime();
+        final Cursor cursor = ListDbHelper.getCursorWithParams(context, "", profileMap);
+
+        // #
+        assertNotNull(cursor);
+
+        final int count = cursor.getCount();
+        cursor.close();
+        final long elapsed = SystemClock.elapsedRealtime() - start;
+
+        release.countDown();
+        importThread.join();
+
+        // #
+        assertTrue(elapsed < WAIT_TIMEOUT_MS / 2);
+        assertEquals(committed, count);
+        assertEquals(
+                committed + importing,
+                DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+    }
+
     @Test
     public void getDbFailMessage() throws Exception {
         final String dbFailMessage = DbHelper.getDbFailMessage();
@@ -376,4 +702,43 @@ public class DbHelperTest {
         assertNotNull(dbFailMessage);
         assertTrue(dbFailMessage.length() > 0);
     }
-}
\ No newline at end of file
+
+
+    /*
+        Utils
+     */
+
+    /**
+     * @param db    Database.
+     * @param sql   Query, whose plan is needed.
+     * @return      Details of the first step of query plan, in upper case.
+     *              Example: "SCAN TABLE list_items", "SEARCH TABLE list_items USING INDEX ...".
+     */
+    @NonNull
+    private static String getQueryPlan(
+            @NonNull final SQLiteDatabase db,
+            @NonNull final String sql) {
+
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, null)) {
+            if (!cursor.moveToFirst()) {
+                return "";
+            }
+            return cursor.getString(cursor.getColumnIndex("detail")).toUpperCase(Locale.ENGLISH);
+        }
+    }
+
+    /**
+     * @param cursor Cursor. Rows are fetched, and cursor is closed.
+     * @return Number of rows. If cursor is null, then "-1".
+     */
+    private static int getCountAndClose(@Nullable final Cursor cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        try {
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+}
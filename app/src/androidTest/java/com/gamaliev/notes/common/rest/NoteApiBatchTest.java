@@ -0,0 +1,229 @@
+package com.gamaliev.notes.common.rest;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static com.gamaliev.notes.common.rest.NoteApiBatch.BATCH_SIZE;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+@SuppressWarnings("NullableProblems")
+public class NoteApiBatchTest {
+
+    /* ... */
+    private static final String USER_ID = "123";
+    private static final int NOTES_COUNT = BATCH_SIZE * 2 + 50;
+
+    @NonNull private static NoteApi sNoteApi;
+    @NonNull private NotesHttpServerTest mNotesHttpServerTest;
+
+
+    /*
+        Init
+     */
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        final NoteApi noteApi = NoteApiUtils.newInstance(null);
+        if (noteApi == null) {
+            throw new IllegalArgumentException("NoteApi is null.");
+        }
+        sNoteApi = noteApi;
+    }
+
+    @Before
+    public void before() throws Exception {
+        mNotesHttpServerTest = NotesHttpServerTest.newInstance(Integer.parseInt(NoteApiUtils.TEST_PORT));
+        mNotesHttpServerTest.startServer();
+    }
+
+    @After
+    public void after() throws Exception {
+        mNotesHttpServerTest.stopServer();
+    }
+
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void batch() throws Exception {
+        final NoteApiBatch noteApiBatch = new NoteApiBatch(sNoteApi, USER_ID);
+
+        /*
+            Add. One request per batch.
+         */
+
+        final List<String> ids = noteApiBatch.add(getNotes("title"));
+
+        // #
+        assertTrue(noteApiBatch.isBatchSupported());
+        assertEquals(3, mNotesHttpServerTest.getRequestCount());
+        assertEquals(NOTES_COUNT, ids.size());
+        assertEquals(NOTES_COUNT, new HashSet<>(ids).size());
+        assertFalse(ids.contains(null));
+
+
+        /*
+            Update.
+         */
+
+        final List<JSONObject> updatedNotes = getNotes("updated");
+        final Map<String, JSONObject> updateMap = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            updateMap.put(ids.get(i), updatedNotes.get(i));
+        }
+        final List<String> updated = noteApiBatch.update(updateMap);
+
+        // #
+        assertEquals(6, mNotesHttpServerTest.getRequestCount());
+        assertEquals(ids, updated);
+
+        final JSONArray data = getServerNotes();
+
+        // #
+        assertEquals(NOTES_COUNT, data.length());
+        for (int i = 0; i < data.length(); i++) {
+            final JSONObject note = data.getJSONObject(i);
+            final int index = ids.indexOf(note.getString(API_KEY_ID));
+            assertEquals("updated" + index, note.getString("title"));
+        }
+
+
+        /*
+            Delete.
+         */
+
+        final List<String> deleted = noteApiBatch.delete(ids);
+
+        // #
+        assertEquals(ids, deleted);
+        assertEquals(0, getServerNotes().length());
+
+        noteApiBatch.shutdown();
+    }
+
+    @Test
+    public void fallbackToSingle() throws Exception {
+        mNotesHttpServerTest.setBatchSupported(false);
+        final NoteApiBatch noteApiBatch = new NoteApiBatch(sNoteApi, USER_ID);
+
+        // Add. One rejected batch request, then single requests.
+        final List<JSONObject> notes = getNotes("title").subList(0, 5);
+        final List<String> ids = noteApiBatch.add(notes);
+
+        // #
+        assertFalse(noteApiBatch.isBatchSupported());
+        assertEquals(1 + notes.size(), mNotesHttpServerTest.getRequestCount());
+        assertEquals(notes.size(), ids.size());
+        assertFalse(ids.contains(null));
+
+        // Update and delete. Single requests only.
+        final Map<String, JSONObject> updateMap = new LinkedHashMap<>();
+        for (String id : ids) {
+            updateMap.put(id, notes.get(0));
+        }
+
+        // #
+        assertEquals(ids, noteApiBatch.update(updateMap));
+        assertEquals(ids, noteApiBatch.delete(ids));
+        assertEquals(1 + notes.size() * 3, mNotesHttpServerTest.getRequestCount());
+        assertEquals(0, getServerNotes().length());
+
+        noteApiBatch.shutdown();
+    }
+
+    @Test
+    public void requestsInFlight() throws Exception {
+        mNotesHttpServerTest.setBatchSupported(false);
+        final NoteApiBatch noteApiBatch = new NoteApiBatch(sNoteApi, USER_ID, 8);
+
+        // Single requests are sent concurrently, results are in order of the notes.
+        final List<JSONObject> notes = getNotes("title").subList(0, 40);
+        final List<String> ids = noteApiBatch.add(notes);
+
+        // #
+        assertEquals(8, noteApiBatch.getMaxRequestsInFlight());
+        assertEquals(notes.size(), ids.size());
+        assertEquals(notes.size(), new HashSet<>(ids).size());
+        assertFalse(ids.contains(null));
+
+        final JSONArray data = getServerNotes();
+
+        // #
+        assertEquals(notes.size(), data.length());
+        for (int i = 0; i < data.length(); i++) {
+            final JSONObject note = data.getJSONObject(i);
+            final int index = ids.indexOf(note.getString(API_KEY_ID));
+            assertEquals("title" + index, note.getString("title"));
+        }
+
+        // Pool is kept for the next operations, until shut down.
+        // #
+        assertEquals(ids, noteApiBatch.delete(ids));
+        assertEquals(0, getServerNotes().length());
+
+        noteApiBatch.shutdown();
+    }
+
+
+    /*
+        Utils
+     */
+
+    @NonNull
+    private static List<JSONObject> getNotes(@NonNull final String title) throws Exception {
+        final List<JSONObject> notes = new ArrayList<>(NOTES_COUNT);
+        for (int i = 0; i < NOTES_COUNT; i++) {
+            final JSONObject note = new JSONObject();
+            note.put("title", title + i);
+            note.put("color", "#0010FF");
+            note.put("description", "description" + i);
+            note.put("created", "2017-05-05T02:25:35+05:00");
+            note.put("edited", "2017-05-05T02:25:35+05:00");
+            note.put("viewed", "2017-05-08T02:25:35+05:00");
+            notes.add(note);
+        }
+        return notes;
+    }
+
+    @NonNull
+    private static JSONArray getServerNotes() throws Exception {
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(USER_ID, null, Integer.MAX_VALUE, null)
+                .execute();
+
+        // #
+        assertTrue(response.isSuccessful());
+
+        final JSONArray data = new JSONObject(response.body().string()).getJSONArray(API_KEY_DATA);
+
+        // #
+        assertNotNull(data);
+        return data;
+    }
+}
@@ -9,18 +9,23 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.net.HttpURLConnection;
 import java.util.Map;
 
+import okhttp3.ResponseBody;
 import retrofit2.Response;
 
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_ID;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_NEXT_PAGE_TOKEN;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_STATUS;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_ERROR;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_OK;
 import static com.gamaliev.notes.common.shared_prefs.SpCommon.convertJsonToMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Vadim Gamaliev
@@ -64,7 +69,7 @@ public class NoteApiUtilsTest {
      */
 
     @Test
-    public void getAll() throws Exception {
+    public void getPageAll() throws Exception {
         final String userId = "123";
         final String noteOne = getNoteOneInstance();
         final String noteTwo = getNoteTwoInstance();
@@ -74,12 +79,14 @@ public class NoteApiUtilsTest {
         sNoteApi.add(userId, noteTwo).execute();
 
         // Response 200 OK.
-        final Response<String> response = sNoteApi.getAll(userId).execute();
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
         if (!response.isSuccessful()) {
             throw new Exception("Response is not successful.");
         }
 
-        final JSONObject body = new JSONObject(response.body());
+        final JSONObject body = new JSONObject(response.body().string());
 
         // Status OK.
         final String status = body.optString(API_KEY_STATUS);
@@ -116,6 +123,84 @@ public class NoteApiUtilsTest {
         }
     }
 
+    @Test
+    public void getPage() throws Exception {
+        final String userId = "123";
+
+        // Add to server.
+        sNoteApi.add(userId, getNoteOneInstance()).execute();
+        sNoteApi.add(userId, getNoteTwoInstance()).execute();
+        sNoteApi.add(userId, getNoteOneInstance()).execute();
+
+        // First page.
+        final Response<ResponseBody> response = sNoteApi.getPage(userId, null, 2, null).execute();
+
+        // #
+        assertTrue(response.isSuccessful());
+
+        final JSONObject body = new JSONObject(response.body().string());
+        final JSONArray data = body.getJSONArray(API_KEY_DATA);
+
+        // #
+        assertEquals(API_STATUS_OK, body.getString(API_KEY_STATUS));
+        assertEquals(2, data.length());
+        assertTrue(data.getJSONObject(0).getLong(API_KEY_ID)
+                < data.getJSONObject(1).getLong(API_KEY_ID));
+        assertTrue(body.has(API_KEY_NEXT_PAGE_TOKEN));
+
+        // Last page, follows the first one by ids.
+        final Response<ResponseBody> response2 = sNoteApi
+                .getPage(userId, body.getString(API_KEY_NEXT_PAGE_TOKEN), 2, null)
+                .execute();
+
+        // #
+        assertTrue(response2.isSuccessful());
+
+        final JSONObject body2 = new JSONObject(response2.body().string());
+        final JSONArray data2 = body2.getJSONArray(API_KEY_DATA);
+
+        // #
+        assertEquals(1, data2.length());
+        assertTrue(data.getJSONObject(1).getLong(API_KEY_ID)
+                < data2.getJSONObject(0).getLong(API_KEY_ID));
+        assertFalse(body2.has(API_KEY_NEXT_PAGE_TOKEN));
+    }
+
+    @Test
+    public void getCached() throws Exception {
+        final String userId = "123";
+        final String newId = new JSONObject(
+                sNoteApi.add(userId, getNoteOneInstance()).execute().body())
+                .optString(API_KEY_DATA);
+
+        // First response is downloaded.
+        final Response<String> response = sNoteApi.get(userId, newId).execute();
+
+        // #
+        assertTrue(response.isSuccessful());
+        assertNotNull(response.headers().get(NoteApiUtils.HEADER_ETAG));
+
+        // Not changed. Revalidated, and the cached response is returned.
+        final Response<String> response2 = sNoteApi.get(userId, newId).execute();
+
+        // #
+        assertTrue(response2.isSuccessful());
+        assertNotNull(response2.raw().cacheResponse());
+        assertNotNull(response2.raw().networkResponse());
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, response2.raw().networkResponse().code());
+        assertEquals(response.body(), response2.body());
+
+        // Changed. Downloaded again.
+        sNoteApi.update(userId, newId, getNoteTwoInstance()).execute();
+        final Response<String> response3 = sNoteApi.get(userId, newId).execute();
+
+        // #
+        assertTrue(response3.isSuccessful());
+        assertEquals(
+                "Tatyana Vasilieva",
+                new JSONObject(response3.body()).getJSONObject(API_KEY_DATA).getString("title"));
+    }
+
     @Test
     public void get() throws Exception {
         final String userId = "123";
@@ -212,12 +297,14 @@ public class NoteApiUtilsTest {
         sNoteApi.add(userId, noteTwo).execute();
 
         // Response 200 OK.
-        final Response<String> response = sNoteApi.getAll(userId).execute();
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
         if (!response.isSuccessful()) {
             throw new Exception("Response is not successful.");
         }
 
-        final JSONObject body = new JSONObject(response.body());
+        final JSONObject body = new JSONObject(response.body().string());
 
         // Status OK.
         final String status = body.optString(API_KEY_STATUS);
@@ -0,0 +1,155 @@
+package com.gamaliev.notes.common.rest;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class NoteStreamParserTest {
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void parsePage() throws Exception {
+        final List<JSONObject> notes = new ArrayList<>();
+        final boolean result = NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"ok\", \"data\": ["
+                        + "{\"id\": 1, \"title\": \"title1\", \"extra\": {\"a\": [1, 2.5, null]}},"
+                        + "{\"id\": 2, \"title\": \"title2\", \"done\": true}"
+                        + "]}"),
+                getListener(notes));
+
+        // #
+        assertTrue(result);
+        assertEquals(2, notes.size());
+        assertEquals(1, notes.get(0).getLong("id"));
+        assertEquals("title1", notes.get(0).getString("title"));
+        assertEquals(2.5, notes.get(0).getJSONObject("extra").getJSONArray("a").getDouble(1), 0);
+        assertTrue(notes.get(0).getJSONObject("extra").getJSONArray("a").isNull(2));
+        assertEquals(2, notes.get(1).getLong("id"));
+        assertEquals("title2", notes.get(1).getString("title"));
+        assertTrue(notes.get(1).getBoolean("done"));
+    }
+
+    @Test
+    public void parsePageStatusAfterData() throws Exception {
+        final List<JSONObject> notes = new ArrayList<>();
+
+        // #
+        assertTrue(NoteStreamParser.parseChanges(
+                getStream("{\"data\": [{\"id\": 1}], \"status\": \"ok\"}"),
+                getListener(notes)));
+        assertEquals(1, notes.size());
+    }
+
+    @Test
+    public void parsePageFailed() throws Exception {
+        final List<JSONObject> notes = new ArrayList<>();
+
+        // #
+        assertFalse(NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"error\", \"data\": [{\"id\": 1}]}"),
+                getListener(notes)));
+        assertFalse(NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"ok\"}"),
+                getListener(notes)));
+        assertFalse(NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"ok\", \"data\": \"error\"}"),
+                getListener(notes)));
+    }
+
+    @Test
+    public void parseChanges() throws Exception {
+        final List<JSONObject> notes = new ArrayList<>();
+        final List<String> deleted = new ArrayList<>();
+        final String[] token = new String[2];
+        final boolean result = NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"ok\", \"token\": \"abc-5\", "
+                        + "\"data\": [{\"id\": 1}], \"deleted\": [\"2\", 3], "
+                        + "\"next_page_token\": \"1\"}"),
+                new NoteStreamParser.OnChangeListener() {
+                    @Override
+                    public void onNote(@NonNull final JSONObject note) {
+                        notes.add(note);
+                    }
+
+                    @Override
+                    public void onDeleted(@NonNull final String noteId) {
+                        deleted.add(noteId);
+                    }
+
+                    @Override
+                    public void onToken(@NonNull final String newToken) {
+                        token[0] = newToken;
+                    }
+
+                    @Override
+                    public void onNextPageToken(@NonNull final String pageToken) {
+                        token[1] = pageToken;
+                    }
+                });
+
+        // #
+        assertTrue(result);
+        assertEquals(1, notes.size());
+        assertEquals(Arrays.asList("2", "3"), deleted);
+        assertEquals("abc-5", token[0]);
+        assertEquals("1", token[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void parsePageInvalid() throws Exception {
+        NoteStreamParser.parseChanges(
+                getStream("{\"status\": \"ok\", \"data\": [{\"id\": 1}"),
+                getListener(new ArrayList<JSONObject>()));
+    }
+
+
+    /*
+        Utils
+     */
+
+    @NonNull
+    private static InputStream getStream(@NonNull final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NonNull
+    private static NoteStreamParser.OnChangeListener getListener(
+            @NonNull final List<JSONObject> notes) {
+
+        return new NoteStreamParser.OnChangeListener() {
+            @Override
+            public void onNote(@NonNull final JSONObject note) {
+                notes.add(note);
+            }
+
+            @Override
+            public void onDeleted(@NonNull final String noteId) {}
+
+            @Override
+            public void onToken(@NonNull final String token) {}
+
+            @Override
+            public void onNextPageToken(@NonNull final String pageToken) {}
+        };
+    }
+}
@@ -16,15 +16,20 @@ import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNC_ID_JSON;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DELETED;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_NEXT_PAGE_TOKEN;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_STATUS;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_TOKEN;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_OK;
 
 /**
@@ -45,11 +50,15 @@ public final class NotesHttpServerTest {
 
     /* Supported patterns */
     private static final String GET_INFO            = "^/?info/?$";
-    private static final String GET_ALL             = "^/?user/\\d+/notes/?$";
+    private static final String GET_NOTES           = "^/?user/\\d+/notes/?(\\?[\\w=&-]*)?$";
+    private static final String GET_CHANGES         = "^/?user/\\d+/notes/changes/?\\?since=[\\w-]+$";
     private static final String GET_NOTE            = "^/?user/\\d+/note/\\d+/?$";
     private static final String POST_ADD_NOTE       = "^/?user/\\d+/notes/?$";
     private static final String POST_UPDATE_NOTE    = "^/?user/\\d+/note/\\d+/?$";
     private static final String DELETE_NOTE         = "^/?user/\\d+/note/\\d+/?$";
+    private static final String POST_ADD_BATCH      = "^/?user/\\d+/notes/batch/?$";
+    private static final String POST_UPDATE_BATCH   = "^/?user/\\d+/notes/batch/update/?$";
+    private static final String POST_DELETE_BATCH   = "^/?user/\\d+/notes/batch/delete/?$";
 
     /* ... */
     private static final String ERROR_INVALID_DATA  = "invalid_data";
@@ -57,17 +66,33 @@ public final class NotesHttpServerTest {
     private static final String ERROR_NOT_FOUND     = "not_found";
     private static final String ERROR_SERVER_ERROR  = "server_error";
     private static final String ERROR_INVALID_PORT  = "Port must be >= 1024, <= 65535";
+    private static final String ERROR_INVALID_TOKEN = "invalid_token";
+    private static final String PARAM_PAGE_TOKEN    = "page_token";
+    private static final String PARAM_LIMIT         = "limit";
     private static final String HEADER_CONTENT_LENGTH = "Content-Length:";
+    private static final String HEADER_ETAG         = "ETag:";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match:";
 
     /* Server */
     private final int mPort;
     @NonNull private ServerSocket mServerSocket;
     private boolean mIsRunning = false;
+    private volatile boolean mBatchSupported = true;
+    private volatile boolean mChangesSupported = true;
+    private volatile int mMaxPageSize = 0;
+    @NonNull private AtomicInteger mPagesBeforeDisconnect;
+    @NonNull private AtomicInteger mRequestCounter;
 
     /* Db, <UserId, <NoteId, Note>> */
-    @NonNull private Map<String, Map<String, JSONObject>> mDb;
+    @NonNull private ConcurrentMap<String, Map<String, JSONObject>> mDb;
     @NonNull private AtomicInteger mNoteIdCounter;
 
+    /* Changes, <UserId, <NoteId, Revision>>. Token is "epoch-revision" */
+    @NonNull private ConcurrentMap<String, ConcurrentMap<String, Long>> mRevisions;
+    @NonNull private ConcurrentMap<String, ConcurrentMap<String, Long>> mDeletedRevisions;
+    @NonNull private AtomicLong mRevisionCounter;
+    @NonNull private final String mEpoch;
+
 
     /*
         Init
@@ -76,6 +101,12 @@ public final class NotesHttpServerTest {
     {
         mDb = new ConcurrentHashMap<>();
         mNoteIdCounter = new AtomicInteger();
+        mRequestCounter = new AtomicInteger();
+        mPagesBeforeDisconnect = new AtomicInteger(-1);
+        mRevisions = new ConcurrentHashMap<>();
+        mDeletedRevisions = new ConcurrentHashMap<>();
+        mRevisionCounter = new AtomicLong();
+        mEpoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
     }
 
     private NotesHttpServerTest(@IntRange(from = 1024, to = 65535) final int port) {
@@ -123,6 +154,47 @@ public final class NotesHttpServerTest {
         }
     }
 
+    /**
+     * @param batchSupported If false, then batch requests are responded with "404 Not Found",
+     *                       as by server without batch support.
+     */
+    public void setBatchSupported(final boolean batchSupported) {
+        mBatchSupported = batchSupported;
+    }
+
+    /**
+     * @param changesSupported If false, then requests of changes are responded with
+     *                         "404 Not Found", and pages are without token,
+     *                         as by server without support of changes.
+     */
+    public void setChangesSupported(final boolean changesSupported) {
+        mChangesSupported = changesSupported;
+    }
+
+    /**
+     * @param maxPageSize Max number of notes in the page, whatever the requested limit.
+     *                    If 0, then requested limit only.
+     */
+    public void setMaxPageSize(final int maxPageSize) {
+        mMaxPageSize = maxPageSize;
+    }
+
+    /**
+     * @param pages Number of the page requests, which are responded. Next page requests are
+     *              not responded, and connection is closed, as on network failure.
+     *              If negative, then all page requests are responded.
+     */
+    public void setPagesBeforeDisconnect(final int pages) {
+        mPagesBeforeDisconnect.set(pages);
+    }
+
+    /**
+     * @return Number of received requests (round trips).
+     */
+    public int getRequestCount() {
+        return mRequestCounter.get();
+    }
+
     public void stopServer() {
         mIsRunning = false;
         try {
@@ -151,6 +223,7 @@ public final class NotesHttpServerTest {
                         sendResponse(socket, getErrorResponse(ERROR_INVALID_DATA));
                         throw new RuntimeException("Header: first line is null.");
                     }
+                    mRequestCounter.incrementAndGet();
                     header = header.toLowerCase(Locale.ENGLISH);
                     final String[] split = header.split(" ");
                     if (split.length != 3
@@ -160,25 +233,57 @@ public final class NotesHttpServerTest {
                         sendResponse(socket, get404Response());
 
                     } else if (HTTP_REQUEST_GET.equals(split[0])) {
+                        final String ifNoneMatch = getHeader(br, HEADER_IF_NONE_MATCH);
                         if (split[1].matches(GET_INFO)) {
                             sendResponse(socket, getInfoResponse());
 
-                        } else if (split[1].matches(GET_ALL)) {
+                        } else if (split[1].matches(GET_NOTES)) {
                             final String userId = split[1].split("/")[2];
-                            sendResponse(socket, getAllNotesResponse(userId));
+                            final String pageToken = getQueryParameter(split[1], PARAM_PAGE_TOKEN);
+                            final String limit = getQueryParameter(split[1], PARAM_LIMIT);
+                            if (takePage()) {
+                                sendResponse(socket,
+                                        getNotesResponse(userId, pageToken, limit, ifNoneMatch));
+                            }
+
+                        } else if (split[1].matches(GET_CHANGES)) {
+                            if (!mChangesSupported) {
+                                sendResponse(socket, get404Response());
+                            } else {
+                                final String userId = split[1].split("/")[2];
+                                final String token = split[1].split("since=")[1];
+                                sendResponse(socket, getChangesResponse(userId, token));
+                            }
 
                         } else if (split[1].matches(GET_NOTE)) {
                             final String[] path = split[1].split("/");
                             final String userId = path[2];
                             final String noteId = path[4];
-                            sendResponse(socket, getNoteResponse(userId, noteId));
+                            sendResponse(socket, getNoteResponse(userId, noteId, ifNoneMatch));
 
                         } else {
                             sendResponse(socket, get404Response());
                         }
 
                     } else if (HTTP_REQUEST_POST.equals(split[0])) {
-                        if (split[1].matches(POST_ADD_NOTE)) {
+                        if (split[1].matches(POST_ADD_BATCH)
+                                || split[1].matches(POST_UPDATE_BATCH)
+                                || split[1].matches(POST_DELETE_BATCH)) {
+
+                            if (!mBatchSupported) {
+                                sendResponse(socket, get404Response());
+                            } else {
+                                final String userId = split[1].split("/")[2];
+                                final JSONArray ids =
+                                        handleBatch(split[1], userId, getContent(br));
+                                if (ids != null) {
+                                    sendResponse(socket, getBatchResponse(ids));
+                                } else {
+                                    sendResponse(socket, getErrorResponse(ERROR_INVALID_DATA));
+                                }
+                            }
+
+                        } else if (split[1].matches(POST_ADD_NOTE)) {
                             final String userId = split[1].split("/")[2];
                             final String newNoteId = addNote(userId, getContent(br));
                             if (newNoteId != null) {
@@ -303,6 +408,13 @@ public final class NotesHttpServerTest {
                 + "<h1>404 Not Found</h1><h3>The page you have requested could not be found.</h3>";
     }
 
+    @NonNull
+    private String getNotModifiedResponse(@NonNull final String eTag) {
+        return "HTTP/1.1 304 Not Modified" + "\n"
+                + HEADER_ETAG + ' ' + eTag + "\n"
+                + "\n";
+    }
+
     @NonNull
     private String getInfoResponse() {
         return getSuccessResponseHeader()
@@ -320,21 +432,130 @@ public final class NotesHttpServerTest {
                 + errorResult;
     }
 
+    /**
+     * @param pageToken Id of the last note of the previous page, or null, for the first page.
+     * @param limit     Max number of notes, or null, then all notes.
+     * @param eTag      ETag from the request, or null.
+     * @return Notes in ascending order of ids, and token of the next page,
+     * if not all notes are in the response. ETag is the revision of the whole server,
+     * so it is the same for all pages. If it is equal to the given ETag,
+     * then "304 Not Modified".
+     */
     @NonNull
-    private String getAllNotesResponse(@NonNull final String userId) {
+    private String getNotesResponse(
+            @NonNull final String userId,
+            @Nullable final String pageToken,
+            @Nullable final String limit,
+            @Nullable final String eTag) {
+
+        final long revision = mRevisionCounter.get();
+        final String currentETag = getETag(revision);
+        if (currentETag.equals(eTag)) {
+            return getNotModifiedResponse(currentETag);
+        }
+
+        final long afterId;
+        int maxCount;
+        try {
+            afterId = pageToken == null ? -1 : Long.parseLong(pageToken);
+            maxCount = limit == null ? Integer.MAX_VALUE : Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            return getErrorResponse(ERROR_INVALID_TOKEN);
+        }
+        if (limit != null && mMaxPageSize > 0) {
+            maxCount = Math.min(maxCount, mMaxPageSize);
+        }
+        if (maxCount <= 0) {
+            return getErrorResponse(ERROR_INVALID_DATA);
+        }
+
         final JSONObject responseBody = new JSONObject();
         try {
             responseBody.put(API_KEY_STATUS, API_STATUS_OK);
 
-            final JSONArray notes = new JSONArray();
+            // Before the notes, so notes, changed at the same time, are in the next changes.
+            if (mChangesSupported) {
+                responseBody.put(API_KEY_TOKEN, getToken(revision));
+            }
+
+            final Map<Long, JSONObject> sorted = new TreeMap<>();
             final Map<String, JSONObject> map = mDb.get(userId);
             if (map != null) {
-                for (JSONObject jsonObject : map.values()) {
-                    notes.put(jsonObject);
+                for (Map.Entry<String, JSONObject> entry : map.entrySet()) {
+                    final long id = Long.parseLong(entry.getKey());
+                    if (id > afterId) {
+                        sorted.put(id, entry.getValue());
+                    }
+                }
+            }
+
+            final JSONArray notes = new JSONArray();
+            long lastId = afterId;
+            for (Map.Entry<Long, JSONObject> entry : sorted.entrySet()) {
+                if (notes.length() == maxCount) {
+                    responseBody.put(API_KEY_NEXT_PAGE_TOKEN, String.valueOf(lastId));
+                    break;
+                }
+                notes.put(entry.getValue());
+                lastId = entry.getKey();
+            }
+            responseBody.put(API_KEY_DATA, notes);
+
+            final String body = responseBody.toString();
+
+            return getSuccessResponseHeader()
+                    + HEADER_ETAG + ' ' + currentETag + '\n'
+                    + HEADER_CONTENT_LENGTH + body.length() + '\n'
+                    + '\n'
+                    + body;
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return getErrorResponse(ERROR_SERVER_ERROR);
+    }
+
+    @NonNull
+    private String getChangesResponse(
+            @NonNull final String userId,
+            @NonNull final String token) {
+
+        final long since = parseToken(token);
+        final long revision = mRevisionCounter.get();
+        if (since < 0 || since > revision) {
+            return getErrorResponse(ERROR_INVALID_TOKEN);
+        }
+
+        final JSONObject responseBody = new JSONObject();
+        try {
+            responseBody.put(API_KEY_STATUS, API_STATUS_OK);
+            responseBody.put(API_KEY_TOKEN, getToken(revision));
+
+            final JSONArray notes = new JSONArray();
+            final Map<String, JSONObject> map = mDb.get(userId);
+            final Map<String, Long> revisions = mRevisions.get(userId);
+            if (map != null && revisions != null) {
+                for (Map.Entry<String, JSONObject> entry : map.entrySet()) {
+                    final Long noteRevision = revisions.get(entry.getKey());
+                    if (noteRevision == null || noteRevision > since) {
+                        notes.put(entry.getValue());
+                    }
                 }
             }
             responseBody.put(API_KEY_DATA, notes);
 
+            final JSONArray deleted = new JSONArray();
+            final Map<String, Long> deletedRevisions = mDeletedRevisions.get(userId);
+            if (deletedRevisions != null) {
+                for (Map.Entry<String, Long> entry : deletedRevisions.entrySet()) {
+                    if (entry.getValue() > since) {
+                        deleted.put(entry.getKey());
+                    }
+                }
+            }
+            responseBody.put(API_KEY_DELETED, deleted);
+
             final String body = responseBody.toString();
 
             return getSuccessResponseHeader()
@@ -349,8 +570,23 @@ public final class NotesHttpServerTest {
         return getErrorResponse(ERROR_SERVER_ERROR);
     }
 
+    /**
+     * @param eTag ETag from the request, or null. If it is equal to the revision of the note,
+     *             then "304 Not Modified".
+     */
     @NonNull
-    private String getNoteResponse(@NonNull final String userId, @NonNull final String noteId) {
+    private String getNoteResponse(
+            @NonNull final String userId,
+            @NonNull final String noteId,
+            @Nullable final String eTag) {
+
+        final Map<String, Long> revisions = mRevisions.get(userId);
+        final Long revision = revisions == null ? null : revisions.get(noteId);
+        final String currentETag = revision == null ? null : getETag(revision);
+        if (currentETag != null && currentETag.equals(eTag)) {
+            return getNotModifiedResponse(currentETag);
+        }
+
         final JSONObject responseBody = new JSONObject();
         try {
             responseBody.put(API_KEY_STATUS, API_STATUS_OK);
@@ -369,6 +605,7 @@ public final class NotesHttpServerTest {
             final String body = responseBody.toString();
 
             return getSuccessResponseHeader()
+                    + (currentETag == null ? "" : HEADER_ETAG + ' ' + currentETag + '\n')
                     + HEADER_CONTENT_LENGTH + body.length() + '\n'
                     + '\n'
                     + body;
@@ -389,6 +626,15 @@ public final class NotesHttpServerTest {
                 + body;
     }
 
+    @NonNull
+    private String getBatchResponse(@NonNull final JSONArray ids) {
+        final String body = "{\"status\": \"ok\", \"data\": " + ids.toString() + "}";
+        return getSuccessResponseHeader()
+                + HEADER_CONTENT_LENGTH + body.length() + "\n"
+                + "\n"
+                + body;
+    }
+
     @NonNull
     private String getUpdatedNoteResponse() {
         return getSuccessResponse();
@@ -410,19 +656,15 @@ public final class NotesHttpServerTest {
             @NonNull final String noteJson) {
 
         String newNoteId = null;
-        final Map<String, JSONObject> map = mDb.get(userId);
         try {
             final JSONObject noteJsonObject = new JSONObject(noteJson);
             newNoteId = String.valueOf(mNoteIdCounter.incrementAndGet());
             noteJsonObject.put(LIST_ITEMS_COLUMN_SYNC_ID_JSON, newNoteId);
 
-            if (map == null) {
-                final HashMap<String, JSONObject> newNotes = new HashMap<>();
-                newNotes.put(newNoteId, noteJsonObject);
-                mDb.put(userId, newNotes);
-            } else {
-                map.put(newNoteId, noteJsonObject);
-            }
+            // Requests are handled concurrently.
+            setRevision(userId, newNoteId);
+            mDb.putIfAbsent(userId, new ConcurrentHashMap<String, JSONObject>());
+            mDb.get(userId).put(newNoteId, noteJsonObject);
 
             return newNoteId;
 
@@ -451,6 +693,7 @@ public final class NotesHttpServerTest {
         try {
             final JSONObject noteJsonObject = new JSONObject(noteJson);
             noteJsonObject.put(LIST_ITEMS_COLUMN_SYNC_ID_JSON, noteId);
+            setRevision(userId, noteId);
             map.put(noteId, noteJsonObject);
             return true;
 
@@ -466,7 +709,145 @@ public final class NotesHttpServerTest {
             @NonNull final String noteId) {
 
         final Map<String, JSONObject> map = mDb.get(userId);
-        return map != null && map.remove(noteId) != null;
+        if (map == null || map.remove(noteId) == null) {
+            return false;
+        }
+
+        mDeletedRevisions.putIfAbsent(userId, new ConcurrentHashMap<String, Long>());
+        mDeletedRevisions.get(userId).put(noteId, mRevisionCounter.incrementAndGet());
+        mRevisions.get(userId).remove(noteId);
+        return true;
+    }
+
+    /**
+     * Remember, that note is changed with the next revision.
+     */
+    private void setRevision(
+            @NonNull final String userId,
+            @NonNull final String noteId) {
+
+        mRevisions.putIfAbsent(userId, new ConcurrentHashMap<String, Long>());
+        mRevisions.get(userId).put(noteId, mRevisionCounter.incrementAndGet());
+    }
+
+    @NonNull
+    private String getToken(final long revision) {
+        return mEpoch + '-' + revision;
+    }
+
+    @NonNull
+    private String getETag(final long revision) {
+        return '"' + getToken(revision) + '"';
+    }
+
+    /**
+     * @return Revision of token. If token is not issued by this server, then "-1".
+     */
+    private long parseToken(@NonNull final String token) {
+        final String[] split = token.split("-");
+        if (split.length != 2 || !mEpoch.equals(split[0])) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(split[1]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+
+    /**
+     * @return Ids of added, updated or deleted notes, by path. If error, then null.
+     */
+    @Nullable
+    private JSONArray handleBatch(
+            @NonNull final String path,
+            @NonNull final String userId,
+            @NonNull final String content) {
+
+        if (path.matches(POST_ADD_BATCH)) {
+            return addNotes(userId, content);
+        } else if (path.matches(POST_UPDATE_BATCH)) {
+            return updateNotes(userId, content);
+        } else {
+            return deleteNotes(userId, content);
+        }
+    }
+
+    /**
+     * @return Ids of added notes, in order of the notes. If error, then null.
+     */
+    @Nullable
+    private JSONArray addNotes(
+            @NonNull final String userId,
+            @NonNull final String notesJson) {
+
+        try {
+            final JSONArray notes = new JSONArray(notesJson);
+            final JSONArray ids = new JSONArray();
+            for (int i = 0; i < notes.length(); i++) {
+                ids.put(addNote(userId, notes.getJSONObject(i).toString()));
+            }
+            return ids;
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return Ids of updated notes. If error, then null.
+     */
+    @Nullable
+    private JSONArray updateNotes(
+            @NonNull final String userId,
+            @NonNull final String notesJson) {
+
+        try {
+            final JSONArray notes = new JSONArray(notesJson);
+            final JSONArray ids = new JSONArray();
+            for (int i = 0; i < notes.length(); i++) {
+                final JSONObject note = notes.getJSONObject(i);
+                final String noteId = note.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
+                if (noteId != null && updateNote(userId, noteId, note.toString())) {
+                    ids.put(noteId);
+                }
+            }
+            return ids;
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return Ids of deleted notes. If error, then null.
+     */
+    @Nullable
+    private JSONArray deleteNotes(
+            @NonNull final String userId,
+            @NonNull final String noteIdsJson) {
+
+        try {
+            final JSONArray noteIds = new JSONArray(noteIdsJson);
+            final JSONArray ids = new JSONArray();
+            for (int i = 0; i < noteIds.length(); i++) {
+                final String noteId = noteIds.getString(i);
+                if (deleteNote(userId, noteId)) {
+                    ids.put(noteId);
+                }
+            }
+            return ids;
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return null;
     }
 
 
@@ -474,6 +855,61 @@ public final class NotesHttpServerTest {
         Utils
      */
 
+    /**
+     * @return True, if page request must be responded, otherwise false.
+     * See {@link #setPagesBeforeDisconnect(int)}.
+     */
+    private boolean takePage() {
+        final int pages = mPagesBeforeDisconnect.get();
+        if (pages < 0) {
+            return true;
+        }
+        if (pages == 0) {
+            return false;
+        }
+        mPagesBeforeDisconnect.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Read request headers, till the empty line.
+     * @param name Header name, with colon.
+     * @return Value of the header, or null, if not found.
+     */
+    @Nullable
+    private static String getHeader(
+            @NonNull final BufferedReader br,
+            @NonNull final String name) throws IOException {
+
+        String value = null;
+        String header = br.readLine();
+        while (header != null && !header.isEmpty()) {
+            if (header.regionMatches(true, 0, name, 0, name.length())) {
+                value = header.substring(name.length()).trim();
+            }
+            header = br.readLine();
+        }
+        return value;
+    }
+
+    @Nullable
+    private static String getQueryParameter(
+            @NonNull final String path,
+            @NonNull final String name) {
+
+        final int index = path.indexOf('?');
+        if (index < 0) {
+            return null;
+        }
+        for (String parameter : path.substring(index + 1).split("&")) {
+            final String[] pair = parameter.split("=", 2);
+            if (pair.length == 2 && name.equals(pair[0])) {
+                return pair[1];
+            }
+        }
+        return null;
+    }
+
     @NonNull
     private static String getSuccessResponseHeader() {
         return "HTTP/1.1 200 OK" + "\n"
@@ -142,11 +142,12 @@ public class ListEntryTest {
         final String description = "description";
         final String color      = "123456";
         final String imageUrl   = "imageUrl";
+        final String millis     = "1494451535000";
+
+        // Json format. Dates are compared in UTC.
         final String created    = "2017-05-10 21:25:35";
         final String edited     = "2017-05-10 21:25:35";
         final String viewed     = "2017-05-10 21:25:35";
-
-        // Json format.
         final String colorExpected = "#01E240";
 
         final Map<String, String> entryExpectedMap = new HashMap<>();
@@ -165,9 +166,9 @@ public class ListEntryTest {
                 description,
                 color,
                 imageUrl,
-                created,
-                edited,
-                viewed});
+                millis,
+                millis,
+                millis});
         matrixCursor.moveToNext();
 
         // Convert cursor to json.
@@ -185,19 +186,19 @@ public class ListEntryTest {
 
         // Convert dates.
         final Date createdDate =
-                getDateFromIso8601String(context, entryActualMap.get(LIST_ITEMS_COLUMN_CREATED));
+                getDateFromIso8601String(entryActualMap.get(LIST_ITEMS_COLUMN_CREATED));
         final Date editedDate =
-                getDateFromIso8601String(context, entryActualMap.get(LIST_ITEMS_COLUMN_EDITED));
+                getDateFromIso8601String(entryActualMap.get(LIST_ITEMS_COLUMN_EDITED));
         final Date viewedDate =
-                getDateFromIso8601String(context, entryActualMap.get(LIST_ITEMS_COLUMN_VIEWED));
+                getDateFromIso8601String(entryActualMap.get(LIST_ITEMS_COLUMN_VIEWED));
 
         if (createdDate == null || editedDate == null || viewedDate == null) {
             throw new IllegalArgumentException();
         }
 
-        final String createdString = getStringDateFormatSqlite(context, createdDate, true);
-        final String editedString = getStringDateFormatSqlite(context, editedDate, true);
-        final String viewedString = getStringDateFormatSqlite(context, viewedDate, true);
+        final String createdString = getStringDateFormatSqlite(createdDate, true);
+        final String editedString = getStringDateFormatSqlite(editedDate, true);
+        final String viewedString = getStringDateFormatSqlite(viewedDate, true);
 
         entryActualMap.put(LIST_ITEMS_COLUMN_CREATED, createdString);
         entryActualMap.put(LIST_ITEMS_COLUMN_EDITED, editedString);
@@ -213,9 +214,9 @@ public class ListEntryTest {
                 description,
                 "abc",
                 imageUrl,
-                created,
-                edited,
-                viewed});
+                millis,
+                millis,
+                millis});
         matrixCursorNull.moveToNext();
         final JSONObject jsonObjectNull = ListEntry.getJsonObjectFromCursor(
                 InstrumentationRegistry.getTargetContext(),
@@ -236,6 +237,17 @@ public class ListEntryTest {
 
         // #2
         assertNull(ListEntry.convertJsonToListEntry(context, "123"));
+
+        // Dates in milliseconds, as stored in database.
+        final ListEntry entryMillis = ListEntry.convertJsonToListEntry(
+                context,
+                "{\"color\": \"#0010FF\", \"created\": 1494451535000, \"edited\": \"1\"}");
+
+        // #3
+        assertNotNull(entryMillis);
+        assertNotNull(entryMillis.getCreated());
+        assertEquals(1494451535000L, entryMillis.getCreated().getTime());
+        assertNull(entryMillis.getEdited());
     }
 
     @Test
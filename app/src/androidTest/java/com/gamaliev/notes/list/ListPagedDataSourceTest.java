@@ -0,0 +1,326 @@
+package com.gamaliev.notes.list;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Debug;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.v4.app.FragmentManager;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import com.gamaliev.notes.R;
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.recycler_view_item_touch_helper.OnStartDragListener;
+import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.list.db.ListDbMockHelper;
+import com.gamaliev.notes.main.MainActivity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
+import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
+import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASC_DESC_DEFAULT;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER_ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+@SuppressWarnings("NullableProblems")
+public class ListPagedDataSourceTest {
+
+    /* ... */
+    private static final int NUMBER = ListPagedDataSource.PAGE_SIZE + 50;
+    private static final int BIND_PASSES = 10;
+    private static final int VIEW_HOLDERS = 10;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @NonNull private ListPagedDataSource mDataSource;
+    @NonNull private CountDownLatch mLoadedLatch;
+    @NonNull private ListRecyclerViewAdapter mAdapter;
+    @NonNull private ListRecyclerViewAdapter.ViewHolder[] mViewHolders;
+
+
+    /*
+        Init
+     */
+
+    @Rule
+    public ActivityTestRule<MainActivity> mActivityTestRule =
+            new ActivityTestRule<>(MainActivity.class, false, false);
+
+    @Before
+    public void before() throws Exception {
+        initDefaultPrefs();
+
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
+
+        // #
+        assertNotNull(db);
+
+        db.beginTransaction();
+        try {
+            ListDbMockHelper.addMockEntries(context, NUMBER, db, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        final Map<String, String> profileMap = new HashMap<>();
+        profileMap.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        profileMap.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+
+        mLoadedLatch = new CountDownLatch(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDataSource = new ListPagedDataSource(
+                        context,
+                        "",
+                        profileMap,
+                        new EmptyListener(),
+                        new ListSearchSession());
+                mDataSource.loadAsync(ListPagedDataSource.Snapshot.EMPTY);
+            }
+        });
+
+        // #
+        assertTrue(mLoadedLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Adapter of the list, with view holders, which are bound in turn, as recycled.
+        final MainActivity activity = mActivityTestRule.launchActivity(null);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter = new ListRecyclerViewAdapter(
+                        activity,
+                        new DataSourcePresenter(),
+                        new OnStartDragListener() {
+                            @Override
+                            public void onStartDrag(final RecyclerView.ViewHolder viewHolder) {}
+                        });
+                final FrameLayout parent = new FrameLayout(activity);
+                mViewHolders = new ListRecyclerViewAdapter.ViewHolder[VIEW_HOLDERS];
+                for (int i = 0; i < VIEW_HOLDERS; i++) {
+                    mViewHolders[i] = mAdapter.onCreateViewHolder(parent, 0);
+                }
+            }
+        });
+    }
+
+    @After
+    public void after() throws Exception {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mDataSource.close();
+            }
+        });
+    }
+
+
+    /*
+        Tests
+     */
+
+    /**
+     * Adapter binds the prepared texts of the loaded pages, as they are. So nothing is
+     * allocated on the main thread, while rows are bound, and every pass binds
+     * the same instances.
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void bindWithoutAllocations() throws Exception {
+
+        // First pass loads the next page.
+        bindAll();
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (!isLoaded(NUMBER - 1) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // #
+        assertTrue(isLoaded(NUMBER - 1));
+
+        // Second pass creates the cached color filters of the loaded rows.
+        bindAll();
+
+        final long[] allocations = new long[1];
+        final int[] items = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                for (int i = 0; i < BIND_PASSES; i++) {
+                    items[0] += bind();
+                }
+                Debug.stopAllocCounting();
+                allocations[0] = Debug.getThreadAllocCount();
+            }
+        });
+
+        // #
+        assertEquals(NUMBER * BIND_PASSES, items[0]);
+        assertEquals(0, allocations[0]);
+    }
+
+
+    /*
+        Utils
+     */
+
+    private void bindAll() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bind();
+            }
+        });
+    }
+
+    /**
+     * Bind every row with the adapter, and check, that views show the texts of data source.
+     * @return Number of loaded rows.
+     */
+    private int bind() {
+        int loaded = 0;
+        for (int position = 0; position < mAdapter.getItemCount(); position++) {
+            final ListRecyclerViewAdapter.ViewHolder holder =
+                    mViewHolders[position % VIEW_HOLDERS];
+            mAdapter.onBindViewHolder(holder, position);
+
+            final CharSequence title = getText(holder, R.id.fragment_list_item_title);
+            final CharSequence description = getText(holder, R.id.fragment_list_item_description);
+            final CharSequence edited = getText(holder, R.id.fragment_list_item_edited);
+            if (!mDataSource.isLoaded(position)) {
+
+                // #
+                assertEquals(0, title.length());
+                continue;
+            }
+
+            // #
+            assertSame(mDataSource.getTitleText(position), title);
+            assertSame(mDataSource.getDescriptionText(position), description);
+            assertSame(mDataSource.getEditedDate(position), edited);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    @NonNull
+    private static CharSequence getText(
+            @NonNull final RecyclerView.ViewHolder holder,
+            final int viewId) {
+
+        return ((TextView) holder.itemView.findViewById(viewId)).getText();
+    }
+
+    private boolean isLoaded(final int position) {
+        final boolean[] loaded = new boolean[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                loaded[0] = mDataSource.isLoaded(position);
+            }
+        });
+        return loaded[0];
+    }
+
+    private final class EmptyListener implements ListPagedDataSource.Listener {
+
+        @Override
+        public void onLoaded(
+                @NonNull final ListPagedDataSource dataSource,
+                @Nullable final DiffUtil.DiffResult diffResult) {
+
+            mLoadedLatch.countDown();
+        }
+
+        @Override
+        public void onItemRangeInserted(final int positionStart, final int itemCount) {}
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount) {}
+
+        @Override
+        public void onTotalCountLoaded(final int count) {}
+    }
+
+    /**
+     * Presenter, which provides the data source to the adapter, in the same order.
+     */
+    private final class DataSourcePresenter implements ListContract.Presenter {
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void loadFilterProfile() {}
+
+        @Override
+        public void updateAdapter(@NonNull final String text) {}
+
+        @Override
+        public void initRecyclerView(@NonNull final RecyclerView rv) {}
+
+        @Nullable
+        @Override
+        public ListPagedDataSource getDataSource() {
+            return mDataSource;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mDataSource.getItemCount();
+        }
+
+        @Override
+        public int getDataPosition(final int position) {
+            return position;
+        }
+
+        @Override
+        public boolean moveItem(final int from, final int to) {
+            return false;
+        }
+
+        @Override
+        public void commitMovedItem() {}
+
+        @NonNull
+        @Override
+        public FragmentManager getSupportFragmentManager() {
+            return mActivityTestRule.getActivity().getSupportFragmentManager();
+        }
+
+        @Override
+        public void onDestroyView() {}
+    }
+}
@@ -0,0 +1,162 @@
+package com.gamaliev.notes.list.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.entity.ListEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
+import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Comparison of insert of every entry with {@link ListDbHelper#insertUpdateEntry(
+ * Context, ListEntry, SQLiteDatabase, boolean)} in one transaction (as import did before),
+ * and bulk insert with {@link ListDbHelper#insertEntries(Context, SQLiteDatabase, Iterable,
+ * boolean)}. Target is at least {@link #TARGET_SPEEDUP} times more rows per second.<br>
+ * Results are written to log, with tag {@link #TAG}.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class ListDbHelperInsertBenchmarkTest {
+
+    /* Logger */
+    @NonNull private static final String TAG = ListDbHelperInsertBenchmarkTest.class.getSimpleName();
+
+    /* ... */
+    private static final int TARGET_SPEEDUP = 5;
+
+
+    /*
+        Init
+     */
+
+    @Before
+    public void before() throws Exception {
+        initDefaultPrefs();
+    }
+
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void insert10k() throws Exception {
+        benchmark(10000);
+    }
+
+    @Test
+    public void insert100k() throws Exception {
+        benchmark(100000);
+    }
+
+
+    /*
+        Utils
+     */
+
+    private static void benchmark(final int number) throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final List<ListEntry> entries = getEntries(number);
+
+        // Every entry, in one transaction.
+        final SQLiteDatabase singleDb = openDb(context, "123");
+        long start = SystemClock.elapsedRealtime();
+        singleDb.beginTransaction();
+        try {
+            for (ListEntry entry : entries) {
+                ListDbHelper.insertUpdateEntry(context, entry, singleDb, false);
+            }
+            singleDb.setTransactionSuccessful();
+        } finally {
+            singleDb.endTransaction();
+        }
+        final long singleTime = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+        // #
+        assertEquals(number, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+
+        // Bulk, committed by chunks.
+        final SQLiteDatabase bulkDb = openDb(context, "124");
+        start = SystemClock.elapsedRealtime();
+        final int inserted = ListDbHelper.insertEntries(context, bulkDb, entries, false);
+        final long bulkTime = Math.max(1, SystemClock.elapsedRealtime() - start);
+
+        // #
+        assertEquals(number, inserted);
+        assertEquals(number, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+
+        final double speedup = (double) singleTime / bulkTime;
+        Log.i(TAG, String.format(
+                Locale.ENGLISH,
+                "Entries: %d. Single: %d ms (%d rows/s). Bulk: %d ms (%d rows/s). "
+                        + "Speedup: %.1fx (target: %dx).",
+                number,
+                singleTime,
+                number * 1000L / singleTime,
+                bulkTime,
+                number * 1000L / bulkTime,
+                speedup,
+                TARGET_SPEEDUP));
+    }
+
+    /**
+     * @param context   Context.
+     * @param userId    Id of user, whose database is opened. Selected.
+     * @return Writable database of the user.
+     */
+    @NonNull
+    private static SQLiteDatabase openDb(
+            @NonNull final Context context,
+            @NonNull final String userId) {
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
+
+        // #
+        assertNotNull(db);
+
+        return db;
+    }
+
+    /**
+     * @param number Number of entries.
+     * @return Entries without sync id, with all fields set.
+     */
+    @NonNull
+    private static List<ListEntry> getEntries(final int number) {
+        final Date date = new Date();
+        final List<ListEntry> entries = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            final ListEntry entry = new ListEntry();
+            entry.setTitle("title " + i);
+            entry.setDescription("description of the entry " + i);
+            entry.setColor(i % 16);
+            entry.setImageUrl("http://jpg.jpg.jpg");
+            entry.setCreated(date);
+            entry.setEdited(date);
+            entry.setViewed(date);
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
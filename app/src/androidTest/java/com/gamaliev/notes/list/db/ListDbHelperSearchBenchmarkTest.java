@@ -0,0 +1,161 @@
+package com.gamaliev.notes.list.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.util.Log;
+
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.db.DbQueryBuilder;
+import com.gamaliev.notes.common.shared_prefs.SpUsers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
+import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
+import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASC_DESC_DEFAULT;
+import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_LIKE;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER;
+import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER_ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Comparison of search with "LIKE" operator (full scan), and full-text search with "MATCH".<br>
+ * Results are written to log, with tag {@link #TAG}.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class ListDbHelperSearchBenchmarkTest {
+
+    /* Logger */
+    @NonNull private static final String TAG = ListDbHelperSearchBenchmarkTest.class.getSimpleName();
+
+    /* ... */
+    @NonNull private static final String SEARCH_TEXT = "serendip";
+    private static final int REPEATS = 5;
+
+
+    /*
+        Init
+     */
+
+    @Before
+    public void before() throws Exception {
+        initDefaultPrefs();
+    }
+
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void search10k() throws Exception {
+        benchmark(10000);
+    }
+
+    @Test
+    public void search100k() throws Exception {
+        benchmark(100000);
+    }
+
+
+    /*
+        Utils
+     */
+
+    private static void benchmark(final int number) throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
+
+        // #
+        assertNotNull(db);
+
+        db.beginTransaction();
+        try {
+            ListDbMockHelper.addMockEntries(context, number, db, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        final Map<String, String> profileMap = new HashMap<>();
+        profileMap.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        profileMap.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+
+        // "title LIKE %text% OR description LIKE %text%", as before full-text search.
+        final DbQueryBuilder likeQueryBuilder = new DbQueryBuilder();
+        likeQueryBuilder
+                .addOr(LIST_ITEMS_COLUMN_TITLE,
+                        OPERATOR_LIKE,
+                        new String[] {SEARCH_TEXT})
+                .addOr(LIST_ITEMS_COLUMN_DESCRIPTION,
+                        OPERATOR_LIKE,
+                        new String[] {SEARCH_TEXT});
+
+        long likeTime = Long.MAX_VALUE;
+        long matchTime = Long.MAX_VALUE;
+        int likeCount = -1;
+        int matchCount = -1;
+
+        for (int i = 0; i < REPEATS; i++) {
+            long start = SystemClock.elapsedRealtime();
+            likeCount = getCountAndClose(
+                    DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, likeQueryBuilder));
+            likeTime = Math.min(likeTime, SystemClock.elapsedRealtime() - start);
+
+            start = SystemClock.elapsedRealtime();
+            matchCount = getCountAndClose(
+                    ListDbHelper.getCursorWithParams(context, SEARCH_TEXT, profileMap));
+            matchTime = Math.min(matchTime, SystemClock.elapsedRealtime() - start);
+        }
+
+        Log.i(TAG, String.format(
+                Locale.ENGLISH,
+                "Entries: %d. Found: %d. LIKE: %d ms. MATCH (with snippets): %d ms.",
+                number,
+                matchCount,
+                likeTime,
+                matchTime));
+
+        // #
+        assertTrue(matchCount > 0);
+        assertEquals(likeCount, matchCount);
+    }
+
+    /**
+     * @param cursor Cursor. Rows are fetched, and cursor is closed.
+     * @return Number of rows. If cursor is null, then "-1".
+     */
+    private static int getCountAndClose(@Nullable final Cursor cursor) {
+        if (cursor == null) {
+            return -1;
+        }
+        try {
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+}
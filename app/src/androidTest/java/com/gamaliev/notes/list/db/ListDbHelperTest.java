@@ -3,9 +3,11 @@ package com.gamaliev.notes.list.db;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.CancellationSignal;
 import android.support.annotation.NonNull;
 import android.support.test.InstrumentationRegistry;
 
+import com.gamaliev.notes.common.DateCodec;
 import com.gamaliev.notes.common.db.DbHelper;
 import com.gamaliev.notes.common.db.DbQueryBuilder;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
@@ -14,20 +16,31 @@ import com.gamaliev.notes.entity.ListEntry;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
 import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
 import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_EDITED;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_IMAGE_URL;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_MANUALLY;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_VIEWED;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_MANUALLY_GAP;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASCENDING;
 import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASC_DESC_DEFAULT;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_DESCENDING;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_DELETED_TABLE_NAME;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_COLOR;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_CREATED;
@@ -35,11 +48,14 @@ import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ORDER_ASC;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_VIEWED;
+import static com.gamaliev.notes.list.db.ListDbHelper.SEARCH_SNIPPET_MATCH_END;
+import static com.gamaliev.notes.list.db.ListDbHelper.SEARCH_SNIPPET_MATCH_START;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -181,6 +197,70 @@ public class ListDbHelperTest {
         assertEquals(entry, entryFromDbUpdated);
     }
 
+    @Test
+    public void insertEntries() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 1200;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final List<ListEntry> entries = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            final ListEntry entry = getNewListEntry();
+            entry.setSyncId(100L + i);
+            entries.add(entry);
+        }
+        // Without sync id, and with duplicate sync id.
+        final ListEntry entryWithoutSyncId = getNewListEntry();
+        entryWithoutSyncId.setSyncId(0L);
+        entries.add(entryWithoutSyncId);
+        entries.add(entries.get(0));
+
+        final int inserted = ListDbHelper.insertEntries(context, entries);
+
+        // #
+        assertEquals(number + 1, inserted);
+        assertEquals(number + 1, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+
+        final ListEntry entryFromDb = ListDbHelper.getEntry(context, 1L);
+
+        // #
+        assertNotNull(entryFromDb);
+        entries.get(0).setId(entryFromDb.getId());
+        assertEquals(entries.get(0), entryFromDb);
+    }
+
+    @Test
+    public void upsertBySyncId() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final String descriptionNew = "new description";
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final ListEntry entry = getNewListEntry();
+
+        // #
+        assertEquals(1, ListDbHelper.upsertBySyncId(context, Arrays.asList(entry)));
+
+        final ListEntry entryNew = getNewListEntry();
+        entryNew.setSyncId(3L);
+        entry.setDescription(descriptionNew);
+
+        // #
+        assertEquals(2, ListDbHelper.upsertBySyncId(context, Arrays.asList(entry, entryNew)));
+        assertEquals(2, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+
+        final ListEntry entryFromDb = ListDbHelper.getEntry(context, 1L);
+
+        // #
+        assertNotNull(entryFromDb);
+        assertEquals(descriptionNew, entryFromDb.getDescription());
+    }
+
     @Test
     public void updateEntryEdited() throws Exception {
         final Context context       = InstrumentationRegistry.getTargetContext();
@@ -729,13 +809,13 @@ public class ListDbHelperTest {
         entry3.setColor(Integer.parseInt(color));
 
         final ListEntry entry4 = new ListEntry();
-        entry4.setTitle("title" + text + "4");
+        entry4.setTitle("title " + text + "4");
         entry4.setDescription("description4");
         entry4.setColor(Integer.parseInt(color));
 
         final ListEntry entry5 = new ListEntry();
         entry5.setTitle("title5");
-        entry5.setDescription("description" + text + "5");
+        entry5.setDescription("description " + text + "5");
         entry5.setColor(Integer.parseInt(color));
 
         final ListEntry entry6 = new ListEntry();
@@ -761,6 +841,234 @@ public class ListDbHelperTest {
         // #
         assertNotNull(cursor);
         assertEquals(cursor.getCount(), 2);
+        assertTrue(cursor.moveToFirst());
+
+        final String titleSnippet = cursor.getString(
+                cursor.getColumnIndex(LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET));
+
+        // #
+        assertEquals(
+                "title " + SEARCH_SNIPPET_MATCH_START + text + "4" + SEARCH_SNIPPET_MATCH_END,
+                titleSnippet);
+
+        cursor.close();
+    }
+
+    @Test
+    public void getSearchIds() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final String color = "123456";
+
+        final Map<String, String> filterProfile = new HashMap<>();
+        filterProfile.put(SP_FILTER_COLOR, color);
+        filterProfile.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        filterProfile.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+
+        final String[] titles = {"meeting", "meet", "meadow", "greet meet"};
+        final List<Long> ids = new ArrayList<>();
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        for (int i = 0; i < titles.length; i++) {
+            final ListEntry entry = new ListEntry();
+            entry.setTitle(titles[i]);
+            entry.setDescription("description");
+            if (i != 1) {
+                entry.setColor(Integer.parseInt(color));
+            }
+            ListDbHelper.insertUpdateEntry(context, entry, false);
+        }
+        try (Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null)) {
+
+            // #
+            assertNotNull(cursor);
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID)));
+            }
+        }
+
+        // #
+        assertArrayEquals(
+                new long[] {ids.get(0), ids.get(3)},
+                ListDbHelper.getSearchIds(context, "mee", filterProfile, null));
+
+        final long[] allIds = {ids.get(0), ids.get(1), ids.get(2), ids.get(3)};
+
+        // #
+        assertArrayEquals(
+                new long[] {ids.get(0), ids.get(1), ids.get(3)},
+                ListDbHelper.getMatchedIds(context, "mee", allIds, null));
+        assertArrayEquals(
+                new long[] {ids.get(3)},
+                ListDbHelper.getMatchedIds(context, "meet gr", allIds, null));
+        assertArrayEquals(
+                new long[] {},
+                ListDbHelper.getMatchedIds(context, "meetings", allIds, null));
+
+        // Restricted to the given ids.
+        // #
+        assertArrayEquals(
+                new long[] {ids.get(1)},
+                ListDbHelper.getMatchedIds(
+                        context, "mee", new long[] {ids.get(1), ids.get(2)}, null));
+
+        try (Cursor cursor = ListDbHelper.getPageWithParams(
+                context,
+                "meet",
+                filterProfile,
+                new long[] {ids.get(1), ids.get(3)},
+                null,
+                -1,
+                titles.length,
+                null)) {
+
+            // #
+            assertNotNull(cursor);
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getCount());
+            assertEquals(
+                    (long) ids.get(3),
+                    cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID)));
+        }
+    }
+
+    @Test
+    public void getCursorWithParamsDescriptionPreview() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+
+        final Map<String, String> filterProfile = new HashMap<>();
+        filterProfile.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        filterProfile.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH * 10) {
+            sb.append("long description ");
+        }
+        final String longDescription = sb.toString();
+
+        final ListEntry entry = new ListEntry();
+        entry.setTitle("title1");
+        entry.setDescription(longDescription);
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        ListDbHelper.insertUpdateEntry(context, entry, false);
+
+        try (Cursor cursor = ListDbHelper.getCursorWithParams(context, "", filterProfile)) {
+
+            // #
+            assertNotNull(cursor);
+            assertTrue(cursor.moveToFirst());
+            assertEquals(-1, cursor.getColumnIndex(LIST_ITEMS_COLUMN_DESCRIPTION));
+            assertEquals(-1, cursor.getColumnIndex(LIST_ITEMS_COLUMN_IMAGE_URL));
+            assertEquals(
+                    longDescription.substring(0, LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH),
+                    cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW)));
+
+            entry.setId(cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID)));
+        }
+
+        // Full description is loaded by id.
+        final ListEntry entryFromDb = ListDbHelper.getEntry(context, entry.getId());
+
+        // #
+        assertNotNull(entryFromDb);
+        assertEquals(longDescription, entryFromDb.getDescription());
+
+        // Preview is updated with description.
+        entry.setDescription("short");
+        ListDbHelper.updateEntry(context, entry, null);
+
+        try (Cursor cursor = ListDbHelper.getCursorWithParams(context, "short", filterProfile)) {
+
+            // #
+            assertNotNull(cursor);
+            assertTrue(cursor.moveToFirst());
+            assertEquals(
+                    "short",
+                    cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW)));
+        }
+    }
+
+    @Test
+    public void getPageWithParams() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 350;
+        final int pageSize = 40;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        // Duplicate and null values of the sort column.
+        final String[] titles = {"b", null, "a", "c", "a"};
+        final List<ListEntry> entries = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            final ListEntry entry = getNewListEntry();
+            entry.setSyncId(0L);
+            entry.setTitle(titles[i % titles.length]);
+            entries.add(entry);
+        }
+        ListDbHelper.insertEntries(context, entries);
+
+        for (String order : new String[] {BASE_COLUMN_ID, LIST_ITEMS_COLUMN_TITLE}) {
+            for (String ascDesc : new String[] {ORDER_ASCENDING, ORDER_DESCENDING}) {
+                final Map<String, String> filterProfile = new HashMap<>();
+                filterProfile.put(SP_FILTER_ORDER, order);
+                filterProfile.put(SP_FILTER_ORDER_ASC, ascDesc);
+
+                final List<Long> expected = new ArrayList<>(number);
+                try (Cursor cursor = ListDbHelper.getCursorWithParams(context, "", filterProfile)) {
+
+                    // #
+                    assertNotNull(cursor);
+                    while (cursor.moveToNext()) {
+                        expected.add(cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID)));
+                    }
+                }
+
+                final List<Long> actual = new ArrayList<>(number);
+                String afterSortKey = null;
+                long afterId = -1;
+                while (true) {
+                    try (Cursor cursor = ListDbHelper.getPageWithParams(
+                            context, "", filterProfile, null, afterSortKey, afterId, pageSize, null)) {
+
+                        // #
+                        assertNotNull(cursor);
+                        assertTrue(cursor.getCount() <= pageSize);
+                        if (!cursor.moveToFirst()) {
+                            break;
+                        }
+                        do {
+                            afterId = cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID));
+                            afterSortKey = cursor.getString(
+                                    cursor.getColumnIndex(ListDbHelper.LIST_COLUMN_SORT_KEY));
+                            actual.add(afterId);
+                        } while (cursor.moveToNext());
+                    }
+                }
+
+                // #
+                assertEquals(number, actual.size());
+                assertEquals(order + " " + ascDesc, expected, actual);
+            }
+        }
+
+        // Canceled query.
+        final Map<String, String> filterProfile = new HashMap<>();
+        filterProfile.put(SP_FILTER_ORDER, BASE_COLUMN_ID);
+        filterProfile.put(SP_FILTER_ORDER_ASC, ORDER_ASC_DESC_DEFAULT);
+        final CancellationSignal signal = new CancellationSignal();
+        signal.cancel();
+
+        // #
+        assertNull(ListDbHelper.getPageWithParams(
+                context, "", filterProfile, null, null, -1, pageSize, signal));
     }
 
     @Test
@@ -778,16 +1086,22 @@ public class ListDbHelperTest {
         filterProfile.put(SP_FILTER_ORDER,      LIST_ITEMS_COLUMN_TITLE);
         filterProfile.put(SP_FILTER_ORDER_ASC,  ORDER_ASC_DESC_DEFAULT);
 
+        // Dates are compared as milliseconds, "to" date is inclusive.
+        final String dateFrom = Long.toString(DateCodec.parseSqlite("2017-05-04 00:00:00", true));
+        final Calendar dateTo = Calendar.getInstance();
+        dateTo.setTimeInMillis(DateCodec.parseSqlite("2017-05-10 00:00:00", true));
+        dateTo.add(Calendar.DATE, 1);
+        final String dateToInclusive = Long.toString(dateTo.getTimeInMillis() - 1);
+
         final String[] selectionArgsExpected = {
-                "2017-05-04",
-                "2017-05-11 00:00:00",
-                "2017-05-04",
-                "2017-05-11 00:00:00",
-                "2017-05-04",
-                "2017-05-11 00:00:00",
+                dateFrom,
+                dateToInclusive,
+                dateFrom,
+                dateToInclusive,
+                dateFrom,
+                dateToInclusive,
                 color,
-                "%" + text + "%",
-                "%" + text + "%"};
+                "\"" + text + "*\""};
         Arrays.sort(selectionArgsExpected);
         final String sortOrderExpected = LIST_ITEMS_COLUMN_TITLE + " " + ORDER_ASC_DESC_DEFAULT;
 
@@ -807,68 +1121,92 @@ public class ListDbHelperTest {
     }
 
     @Test
-    public void swapManuallyColumnValue() throws Exception {
+    public void moveManuallyColumnValue() throws Exception {
         final Context context = InstrumentationRegistry.getTargetContext();
         final String userId = "123";
 
         clearUserPrefs(userId);
         SpUsers.setSelected(context, userId);
 
-        final ListEntry entry1 = getNewListEntry();
-        final ListEntry entry2 = getNewListEntry();
+        final List<String> ids = insertEntriesForManualSorting(context, 3);
+        final String id1 = ids.get(0);
+        final String id2 = ids.get(1);
+        final String id3 = ids.get(2);
 
-        final int n1 = DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null);
+        // #
+        assertEquals(Arrays.asList(id1, id2, id3), getIdsInManualOrder(context));
+
+        // Between.
+        boolean result = ListDbHelper.moveManuallyColumnValue(context, id3, id1, id2);
 
         // #
-        assertEquals(n1, 0);
+        assertTrue(result);
+        assertEquals(Arrays.asList(id1, id3, id2), getIdsInManualOrder(context));
 
-        ListDbHelper.insertUpdateEntry(context, entry1, false);
-        ListDbHelper.insertUpdateEntry(context, entry2, false);
+        // To the end.
+        result = ListDbHelper.moveManuallyColumnValue(context, id1, id2, null);
 
-        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+        // #
+        assertTrue(result);
+        assertEquals(Arrays.asList(id3, id2, id1), getIdsInManualOrder(context));
+
+        // To the beginning.
+        result = ListDbHelper.moveManuallyColumnValue(context, id1, null, id3);
 
         // #
-        assertNotNull(cursor);
-        assertEquals(cursor.getCount(), 2);
+        assertTrue(result);
+        assertEquals(Arrays.asList(id1, id3, id2), getIdsInManualOrder(context));
+
+        // Gap is exhausted, rebalancing is required.
+        for (int i = 0; i < 40; i++) {
+            final List<String> order = getIdsInManualOrder(context);
+            result = ListDbHelper.moveManuallyColumnValue(
+                    context, order.get(2), order.get(0), order.get(1));
+
+            // #
+            assertTrue(result);
+            assertEquals(
+                    Arrays.asList(order.get(0), order.get(2), order.get(1)),
+                    getIdsInManualOrder(context));
+        }
+    }
 
-        cursor.moveToNext();
-        final String entryIdOne1 = cursor.getString(cursor.getColumnIndex(BASE_COLUMN_ID));
-        final String manualIdOne1 =
-                cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_MANUALLY));
-        cursor.moveToNext();
-        final String entryIdTwo1 = cursor.getString(cursor.getColumnIndex(BASE_COLUMN_ID));
-        final String manualIdTwo1 =
-                cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_MANUALLY));
-        cursor.close();
+    @Test
+    public void rebalanceManuallyColumn() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
 
-        boolean result = ListDbHelper.swapManuallyColumnValue(context, entryIdOne1, entryIdTwo1);
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final List<String> ids = insertEntriesForManualSorting(context, 3);
+        ListDbHelper.moveManuallyColumnValue(context, ids.get(2), null, ids.get(0));
+        final List<String> orderExpected = getIdsInManualOrder(context);
+
+        final SQLiteDatabase db = DbHelper.getWritableDb(context);
 
         // #
-        assertTrue(result);
+        assertNotNull(db);
 
-        final Cursor cursor2 = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+        ListDbHelper.rebalanceManuallyColumn(db);
 
         // #
-        assertNotNull(cursor2);
-        assertEquals(cursor2.getCount(), 2);
-
-        cursor2.moveToNext();
-        final String entryIdOne2 = cursor2.getString(cursor2.getColumnIndex(BASE_COLUMN_ID));
-        final String manualIdOne2 = cursor2.getString(cursor2.getColumnIndex(LIST_ITEMS_COLUMN_MANUALLY));
-        cursor2.moveToNext();
-        final String entryIdTwo2 = cursor2.getString(cursor2.getColumnIndex(BASE_COLUMN_ID));
-        final String manualIdTwo2 = cursor2.getString(cursor2.getColumnIndex(LIST_ITEMS_COLUMN_MANUALLY));
-        cursor2.close();
+        assertEquals(orderExpected, getIdsInManualOrder(context));
+
+        final Cursor cursor = db.query(
+                LIST_ITEMS_TABLE_NAME,
+                new String[] {LIST_ITEMS_COLUMN_MANUALLY},
+                null, null, null, null,
+                LIST_ITEMS_COLUMN_MANUALLY);
+
+        long expected = 0;
+        while (cursor.moveToNext()) {
+            expected += LIST_ITEMS_MANUALLY_GAP;
 
-        if (entryIdOne1.equals(entryIdOne2)) {
-            assertEquals(manualIdOne1, manualIdTwo2);
-            assertEquals(manualIdTwo1, manualIdOne2);
-        } else if (entryIdOne1.equals(entryIdTwo2)) {
-            assertEquals(manualIdOne1, manualIdOne2);
-            assertEquals(manualIdTwo1, manualIdTwo2);
-        } else {
-            throw new Exception("Trouble.");
+            // #
+            assertEquals(expected, cursor.getLong(0));
         }
+        cursor.close();
     }
 
 
@@ -876,6 +1214,58 @@ public class ListDbHelperTest {
         Utils
      */
 
+    /**
+     * @param context   Context.
+     * @param number    Number of entries to insert, with different sync id.
+     * @return Ids of inserted entries, in order of inserting.
+     */
+    @NonNull
+    private static List<String> insertEntriesForManualSorting(
+            @NonNull final Context context,
+            final int number) {
+
+        for (int i = 0; i < number; i++) {
+            final ListEntry entry = getNewListEntry();
+            entry.setSyncId(100L + i);
+            ListDbHelper.insertUpdateEntry(context, entry, false);
+        }
+
+        final List<String> ids = new ArrayList<>();
+        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+
+        // #
+        assertNotNull(cursor);
+        assertEquals(number, cursor.getCount());
+
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getString(cursor.getColumnIndex(BASE_COLUMN_ID)));
+        }
+        cursor.close();
+        return ids;
+    }
+
+    /**
+     * @param context Context.
+     * @return Ids of entries, sorted by "manually" column.
+     */
+    @NonNull
+    private static List<String> getIdsInManualOrder(@NonNull final Context context) {
+        final DbQueryBuilder queryBuilder = new DbQueryBuilder();
+        queryBuilder.setOrder(LIST_ITEMS_COLUMN_MANUALLY);
+
+        final List<String> ids = new ArrayList<>();
+        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, queryBuilder);
+
+        // #
+        assertNotNull(cursor);
+
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getString(cursor.getColumnIndex(BASE_COLUMN_ID)));
+        }
+        cursor.close();
+        return ids;
+    }
+
     @NonNull
     private static ListEntry getNewListEntry() {
         final long millis       = System.currentTimeMillis();
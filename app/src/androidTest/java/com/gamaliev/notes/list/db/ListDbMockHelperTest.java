@@ -61,7 +61,7 @@ public class ListDbMockHelperTest {
 
         writableDb.beginTransaction();
         try {
-            ListDbMockHelper.addMockEntries(context, number, writableDb, null, true);
+            ListDbMockHelper.addMockEntries(context, number, writableDb, null);
             writableDb.setTransactionSuccessful();
         } finally {
             writableDb.endTransaction();
@@ -0,0 +1,208 @@
+package com.gamaliev.notes.sync.utils;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.entity.ListEntry;
+import com.gamaliev.notes.list.db.ListDbHelper;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
+import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
+import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_COLOR;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_CONTENT_HASH;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNC_ID_JSON;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_EXTRA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class SyncPlanTest {
+
+    /*
+        Init
+     */
+
+    @Before
+    public void before() throws Exception {
+        initDefaultPrefs();
+    }
+
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void newInstance() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        // Local: 1 - unchanged, 2 - changed, 3 - not received from server, and new without sync id.
+        final List<ListEntry> entries = new ArrayList<>();
+        for (long syncId = 0; syncId <= 3; syncId++) {
+            final ListEntry entry = new ListEntry();
+            entry.setSyncId(syncId);
+            entry.setTitle("title" + syncId);
+            entry.setDescription("description" + syncId);
+            entries.add(entry);
+        }
+
+        // #
+        assertEquals(entries.size(), ListDbHelper.insertEntries(context, entries));
+
+        // Server: 1, 2 (changed), 4 (new).
+        final JSONArray data = new JSONArray();
+        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+
+        // #
+        assertNotNull(cursor);
+
+        while (cursor.moveToNext()) {
+            final String syncId = cursor.getString(cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID));
+            if (!"1".equals(syncId) && !"2".equals(syncId)) {
+                continue;
+            }
+            final JSONObject json = ListEntry.getJsonObjectFromCursor(context, cursor);
+
+            // #
+            assertNotNull(json);
+
+            json.put(LIST_ITEMS_COLUMN_SYNC_ID_JSON, syncId);
+            json.put(API_KEY_EXTRA, "extra");
+            if ("2".equals(syncId)) {
+                json.put(LIST_ITEMS_COLUMN_TITLE, "changed");
+            }
+            data.put(json);
+        }
+
+        final JSONObject jsonNew = new JSONObject();
+        jsonNew.put(LIST_ITEMS_COLUMN_SYNC_ID_JSON, "4");
+        jsonNew.put(LIST_ITEMS_COLUMN_TITLE, "title4");
+        jsonNew.put(LIST_ITEMS_COLUMN_COLOR, "#FF0000");
+        data.put(jsonNew);
+
+        cursor.close();
+
+        final SyncPlan plan = getSyncPlan(context, data);
+        final List<ListEntry> added = plan.takeAdded();
+
+        // #
+        assertEquals(1, added.size());
+        assertEquals(Long.valueOf(4), added.get(0).getSyncId());
+        assertEquals("title4", added.get(0).getTitle());
+        assertTrue(plan.takeAdded().isEmpty());
+
+        // Synced hashes are not set yet, so the changed entry is conflicting.
+        // #
+        assertEquals(Collections.singletonList("2"), plan.getConflictingSyncIds());
+        assertEquals(Collections.singletonList("1"), plan.getUnmarkedSyncIds());
+        assertTrue(plan.takeChangedRemotely().isEmpty());
+
+        // After marking, the same entry is changed on server only.
+        // #
+        assertEquals(2, ListDbHelper.markSynced(context, Arrays.asList("1", "2")));
+
+        final SyncPlan planSynced = getSyncPlan(context, data);
+        final List<ListEntry> changedRemotely = planSynced.takeChangedRemotely();
+
+        // #
+        assertTrue(planSynced.getConflictingSyncIds().isEmpty());
+        assertTrue(planSynced.getUnmarkedSyncIds().isEmpty());
+        assertEquals(1, changedRemotely.size());
+        assertEquals(Long.valueOf(2), changedRemotely.get(0).getSyncId());
+        assertEquals("changed", changedRemotely.get(0).getTitle());
+    }
+
+    @Test
+    public void contentHash() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+
+        final ListEntry entry = new ListEntry();
+        entry.setSyncId(1L);
+        entry.setTitle("title");
+        entry.setDescription("description");
+
+        // #
+        assertEquals(1, ListDbHelper.insertEntries(context, Collections.singletonList(entry)));
+
+        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+
+        // #
+        assertNotNull(cursor);
+        assertTrue(cursor.moveToFirst());
+
+        // Stored hash, hash of the row, and hash of the same entry in server format are equal.
+        final long storedHash = cursor.getLong(cursor.getColumnIndex(LIST_ITEMS_COLUMN_CONTENT_HASH));
+        final JSONObject json = ListEntry.getJsonObjectFromCursor(context, cursor);
+
+        // #
+        assertNotNull(json);
+        assertEquals(storedHash, ListEntry.getContentHash(cursor));
+        assertEquals(storedHash, ListEntry.getContentHash(json));
+
+        json.put(LIST_ITEMS_COLUMN_SYNC_ID_JSON, "1");
+        json.put(API_KEY_EXTRA, "extra");
+
+        // #
+        assertEquals(storedHash, ListEntry.getContentHash(json));
+
+        json.put(LIST_ITEMS_COLUMN_TITLE, "changed");
+
+        // #
+        assertNotEquals(storedHash, ListEntry.getContentHash(json));
+        cursor.close();
+    }
+
+
+    /*
+        Utils
+     */
+
+    @NonNull
+    private static SyncPlan getSyncPlan(
+            @NonNull final Context context,
+            @NonNull final JSONArray data) throws Exception {
+
+        final Cursor cursor = ListDbHelper.getSyncStates(context, null, null);
+
+        // #
+        assertNotNull(cursor);
+        assertEquals(3, cursor.getCount());
+
+        final SyncPlan plan = SyncPlan.newInstance(cursor);
+        cursor.close();
+        for (int i = 0; i < data.length(); i++) {
+            plan.addServerEntry(context, data.getJSONObject(i));
+        }
+        return plan;
+    }
+}
@@ -3,6 +3,7 @@ package com.gamaliev.notes.sync.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
 import android.support.test.InstrumentationRegistry;
 
@@ -11,6 +12,7 @@ import com.gamaliev.notes.common.rest.NoteApi;
 import com.gamaliev.notes.common.rest.NoteApiUtils;
 import com.gamaliev.notes.common.rest.NotesHttpServerTest;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.entity.ListEntry;
 import com.gamaliev.notes.list.db.ListDbHelper;
 
 import org.json.JSONArray;
@@ -22,13 +24,17 @@ import org.junit.Test;
 
 import java.util.concurrent.ExecutorService;
 
+import okhttp3.ResponseBody;
 import retrofit2.Response;
 
 import static android.content.Context.MODE_PRIVATE;
 import static com.gamaliev.notes.UtilsTest.clearUserPrefs;
 import static com.gamaliev.notes.UtilsTest.initDefaultPrefs;
 import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.CHANGE_LOG_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_VIEWED;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_COLUMN_ACTION;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_COLUMN_AMOUNT;
@@ -36,6 +42,7 @@ import static com.gamaliev.notes.common.db.DbHelper.SYNC_COLUMN_FINISHED;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_COLUMN_STATUS;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_TABLE_NAME;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_ID;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.LOCALHOST;
 import static com.gamaliev.notes.common.rest.NoteApiUtils.TEST_PORT;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_API_URL;
@@ -45,6 +52,7 @@ import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_WIFI;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -129,8 +137,10 @@ public class SyncUtilsTest {
         // #
         assertEquals(n1, 0);
 
-        final Response<String> response = sNoteApi.getAll(userId).execute();
-        final JSONObject body = new JSONObject(response.body());
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body = new JSONObject(response.body().string());
         final JSONArray data = body.getJSONArray(API_KEY_DATA);
 
         // #
@@ -142,8 +152,10 @@ public class SyncUtilsTest {
 
         Thread.sleep(1000);
 
-        final Response<String> response2 = sNoteApi.getAll(userId).execute();
-        final JSONObject body2 = new JSONObject(response2.body());
+        final Response<ResponseBody> response2 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body2 = new JSONObject(response2.body().string());
         final JSONArray data2 = body2.getJSONArray(API_KEY_DATA);
 
         // #
@@ -160,8 +172,10 @@ public class SyncUtilsTest {
 
         Thread.sleep(1000);
 
-        final Response<String> response3 = sNoteApi.getAll(userId).execute();
-        final JSONObject body3 = new JSONObject(response3.body());
+        final Response<ResponseBody> response3 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body3 = new JSONObject(response3.body().string());
         final JSONArray data3 = body3.getJSONArray(API_KEY_DATA);
 
         // #
@@ -190,8 +204,10 @@ public class SyncUtilsTest {
 
         Thread.sleep(1000);
 
-        final Response<String> response4 = sNoteApi.getAll(userId).execute();
-        final JSONObject body4 = new JSONObject(response4.body());
+        final Response<ResponseBody> response4 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body4 = new JSONObject(response4.body().string());
         final JSONArray data4 = body4.getJSONArray(API_KEY_DATA);
 
         // #
@@ -275,8 +291,10 @@ public class SyncUtilsTest {
         // #
         assertEquals(n1, 0);
 
-        final Response<String> response = sNoteApi.getAll(userId).execute();
-        final JSONObject body = new JSONObject(response.body());
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body = new JSONObject(response.body().string());
         final JSONArray data = body.getJSONArray(API_KEY_DATA);
 
         // #
@@ -286,8 +304,10 @@ public class SyncUtilsTest {
         ListDbHelper.addMockEntries(context, null, number);
         SyncUtils.makeSynchronize(context);
 
-        final Response<String> response2 = sNoteApi.getAll(userId).execute();
-        final JSONObject body2 = new JSONObject(response2.body());
+        final Response<ResponseBody> response2 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body2 = new JSONObject(response2.body().string());
         final JSONArray data2 = body2.getJSONArray(API_KEY_DATA);
 
         // #
@@ -302,8 +322,10 @@ public class SyncUtilsTest {
         ListDbHelper.addMockEntries(context, null, 1);
         SyncUtils.makeSynchronize(context);
 
-        final Response<String> response3 = sNoteApi.getAll(userId).execute();
-        final JSONObject body3 = new JSONObject(response3.body());
+        final Response<ResponseBody> response3 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body3 = new JSONObject(response3.body().string());
         final JSONArray data3 = body3.getJSONArray(API_KEY_DATA);
 
         // #
@@ -330,8 +352,10 @@ public class SyncUtilsTest {
         ListDbHelper.deleteEntry(context, Long.valueOf(entryId), true);
         SyncUtils.makeSynchronize(context);
 
-        final Response<String> response4 = sNoteApi.getAll(userId).execute();
-        final JSONObject body4 = new JSONObject(response4.body());
+        final Response<ResponseBody> response4 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body4 = new JSONObject(response4.body().string());
         final JSONArray data4 = body4.getJSONArray(API_KEY_DATA);
 
         // #
@@ -388,6 +412,251 @@ public class SyncUtilsTest {
         assertTrue(pos > -1);
     }
 
+    @Test
+    public void makeSynchronizeChanges() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 5;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+        SyncUtils.setSyncRunning(false);
+        setSyncWifiOnly(context, userId, false);
+        setApiUrl(context, userId, LOCALHOST + ':' + TEST_PORT);
+        setSyncId(context, userId, userId);
+
+
+        /*
+            Full synchronization. Token is received, change log is cleared.
+         */
+
+        ListDbHelper.addMockEntries(context, null, number);
+
+        // #
+        assertEquals(number, getChangeLogCount(context));
+        assertNull(SpUsers.getSyncTokenForCurrentUser(context));
+
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertNotNull(SpUsers.getSyncTokenForCurrentUser(context));
+        assertEquals(0, getChangeLogCount(context));
+
+
+        /*
+            Without changes. One request.
+         */
+
+        final int requestCount = mNotesHttpServerTest.getRequestCount();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertEquals(requestCount + 1, mNotesHttpServerTest.getRequestCount());
+
+        final Cursor cursor = DbHelper.getEntries(context, LIST_ITEMS_TABLE_NAME, null);
+
+        // #
+        assertNotNull(cursor);
+
+        final long[] ids = new long[3];
+        final String[] syncIds = new String[3];
+        for (int i = 0; i < ids.length; i++) {
+            cursor.moveToNext();
+            ids[i] = cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID));
+            syncIds[i] = cursor.getString(cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID));
+        }
+        cursor.close();
+
+
+        /*
+            Updated on server.
+         */
+
+        sNoteApi.update(userId, syncIds[0], getNote("server")).execute();
+        SyncUtils.makeSynchronize(context);
+
+        final ListEntry entry0 = ListDbHelper.getEntry(context, ids[0]);
+
+        // #
+        assertNotNull(entry0);
+        assertEquals("server", entry0.getTitle());
+        assertEquals(0, getChangeLogCount(context));
+
+
+        /*
+            Viewed on local. Is not a change.
+         */
+
+        ListDbHelper.updateEntry(context, entry0, LIST_ITEMS_COLUMN_VIEWED);
+
+        // #
+        assertEquals(0, getChangeLogCount(context));
+
+
+        /*
+            Updated on local.
+         */
+
+        final ListEntry entry1 = ListDbHelper.getEntry(context, ids[1]);
+
+        // #
+        assertNotNull(entry1);
+
+        entry1.setTitle("local");
+        ListDbHelper.updateEntry(context, entry1, null);
+
+        // #
+        assertEquals(1, getChangeLogCount(context));
+
+        SyncUtils.makeSynchronize(context);
+
+        final Response<String> response = sNoteApi.get(userId, syncIds[1]).execute();
+        final JSONObject note1 = new JSONObject(response.body()).getJSONObject(API_KEY_DATA);
+
+        // #
+        assertEquals("local", note1.getString(LIST_ITEMS_COLUMN_TITLE));
+        assertEquals(0, getChangeLogCount(context));
+
+
+        /*
+            Deleted on server.
+         */
+
+        sNoteApi.delete(userId, syncIds[2]).execute();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertEquals(number - 1, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+
+
+        /*
+            Server without changes support. Full synchronization, without token.
+         */
+
+        mNotesHttpServerTest.setChangesSupported(false);
+        sNoteApi.add(userId, getNote("new")).execute();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertNull(SpUsers.getSyncTokenForCurrentUser(context));
+        assertEquals(number, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+    }
+
+    @Test
+    public void makeSynchronizePaged() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 5;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+        SyncUtils.setSyncRunning(false);
+        setSyncWifiOnly(context, userId, false);
+        setApiUrl(context, userId, LOCALHOST + ':' + TEST_PORT);
+        setSyncId(context, userId, userId);
+
+        // Pages of 2 entries. Without changes support, every synchronization is full.
+        mNotesHttpServerTest.setMaxPageSize(2);
+        mNotesHttpServerTest.setChangesSupported(false);
+        for (int i = 0; i < number; i++) {
+            sNoteApi.add(userId, getNote("server" + i)).execute();
+        }
+
+
+        /*
+            Interrupted after two pages. Applied pages are kept, checkpoint is saved.
+         */
+
+        mNotesHttpServerTest.setPagesBeforeDisconnect(2);
+
+        // #
+        assertFalse(SyncUtils.makeSynchronize(context));
+        assertEquals(SyncUtils.STATUS_ERROR, getLastCompleteStatus(context));
+        assertEquals(4, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+        assertNotNull(SpUsers.getSyncCheckpointForCurrentUser(context));
+
+
+        /*
+            Resumed from the last page. One request.
+         */
+
+        mNotesHttpServerTest.setPagesBeforeDisconnect(-1);
+        final int requestCount = mNotesHttpServerTest.getRequestCount();
+
+        // #
+        assertTrue(SyncUtils.makeSynchronize(context));
+        assertEquals(SyncUtils.STATUS_OK, getLastCompleteStatus(context));
+        assertEquals(requestCount + 1, mNotesHttpServerTest.getRequestCount());
+        assertEquals(number, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+        assertNull(SpUsers.getSyncCheckpointForCurrentUser(context));
+
+
+        /*
+            Deleted on server, in range of the first page.
+         */
+
+        final Response<ResponseBody> response = sNoteApi.getPage(userId, null, 1, null).execute();
+        final String syncId = new JSONObject(response.body().string())
+                .getJSONArray(API_KEY_DATA)
+                .getJSONObject(0)
+                .getString(API_KEY_ID);
+        sNoteApi.delete(userId, syncId).execute();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertEquals(number - 1, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+        assertNull(SpUsers.getSyncCheckpointForCurrentUser(context));
+    }
+
+    @Test
+    public void makeSynchronizeNotModified() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final String userId = "123";
+        final int number = 5;
+
+        clearUserPrefs(userId);
+        SpUsers.setSelected(context, userId);
+        SyncUtils.setSyncRunning(false);
+        setSyncWifiOnly(context, userId, false);
+        setApiUrl(context, userId, LOCALHOST + ':' + TEST_PORT);
+        setSyncId(context, userId, userId);
+
+        // Without changes support, every synchronization is full.
+        mNotesHttpServerTest.setChangesSupported(false);
+        ListDbHelper.addMockEntries(context, null, number);
+        SyncUtils.makeSynchronize(context);
+
+        // Local entries are added on server after the first page, so ETag is changed.
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertNotNull(SpUsers.getSyncETagForCurrentUser(context));
+
+
+        /*
+            Not modified on server. One request, without server entries.
+         */
+
+        final int requestCount = mNotesHttpServerTest.getRequestCount();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertEquals(requestCount + 1, mNotesHttpServerTest.getRequestCount());
+        assertEquals(number, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+        assertNotNull(SpUsers.getSyncETagForCurrentUser(context));
+
+
+        /*
+            Modified on server. Server entries are received.
+         */
+
+        sNoteApi.add(userId, getNote("new")).execute();
+        SyncUtils.makeSynchronize(context);
+
+        // #
+        assertEquals(number + 1, DbHelper.getEntriesCount(context, LIST_ITEMS_TABLE_NAME, null));
+    }
+
     @Test
     public void deleteAllFromServerAsync() throws Exception {
         final Context context = InstrumentationRegistry.getTargetContext();
@@ -411,8 +680,10 @@ public class SyncUtilsTest {
         // #
         assertEquals(n1, 0);
 
-        final Response<String> response = sNoteApi.getAll(userId).execute();
-        final JSONObject body = new JSONObject(response.body());
+        final Response<ResponseBody> response = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body = new JSONObject(response.body().string());
         final JSONArray data = body.getJSONArray(API_KEY_DATA);
 
         // #
@@ -422,8 +693,10 @@ public class SyncUtilsTest {
         ListDbHelper.addMockEntries(context, null, number);
         SyncUtils.makeSynchronize(context);
 
-        final Response<String> response2 = sNoteApi.getAll(userId).execute();
-        final JSONObject body2 = new JSONObject(response2.body());
+        final Response<ResponseBody> response2 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body2 = new JSONObject(response2.body().string());
         final JSONArray data2 = body2.getJSONArray(API_KEY_DATA);
 
         // #
@@ -444,8 +717,10 @@ public class SyncUtilsTest {
 
         Thread.sleep(1000);
 
-        final Response<String> response3 = sNoteApi.getAll(userId).execute();
-        final JSONObject body3 = new JSONObject(response3.body());
+        final Response<ResponseBody> response3 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body3 = new JSONObject(response3.body().string());
         final JSONArray data3 = body3.getJSONArray(API_KEY_DATA);
 
         // #
@@ -454,8 +729,10 @@ public class SyncUtilsTest {
 
         SyncUtils.makeSynchronize(context);
 
-        final Response<String> response4 = sNoteApi.getAll(userId).execute();
-        final JSONObject body4 = new JSONObject(response4.body());
+        final Response<ResponseBody> response4 = sNoteApi
+                .getPage(userId, null, Integer.MAX_VALUE, null)
+                .execute();
+        final JSONObject body4 = new JSONObject(response4.body().string());
         final JSONArray data4 = body4.getJSONArray(API_KEY_DATA);
 
         // #
@@ -549,6 +826,43 @@ public class SyncUtilsTest {
         Utils
      */
 
+    private static int getChangeLogCount(@NonNull final Context context) {
+        return DbHelper.getEntriesCount(context, CHANGE_LOG_TABLE_NAME, null);
+    }
+
+    /**
+     * @return Status of the last completed synchronization in journal. If not exists, then -1.
+     */
+    private static int getLastCompleteStatus(@NonNull final Context context) {
+        final SQLiteDatabase db = DbHelper.getReadableDb(context);
+
+        // #
+        assertNotNull(db);
+
+        try (Cursor cursor = db.query(
+                SYNC_TABLE_NAME,
+                new String[] {SYNC_COLUMN_STATUS},
+                SYNC_COLUMN_ACTION + " = ?",
+                new String[] {Integer.toString(SyncUtils.ACTION_COMPLETE)},
+                null,
+                null,
+                BASE_COLUMN_ID + " DESC",
+                "1")) {
+
+            return cursor.moveToFirst() ? cursor.getInt(0) : -1;
+        }
+    }
+
+    @NonNull
+    private static String getNote(@NonNull final String title) {
+        return "{\"title\": \"" + title + "\", "
+                + "\"color\": \"#0010FF\", "
+                + "\"description\": \"description\", "
+                + "\"created\": \"2017-05-05T02:25:35+05:00\", "
+                + "\"edited\": \"2017-05-05T02:25:35+05:00\", "
+                + "\"viewed\": \"2017-05-08T02:25:35+05:00\"}";
+    }
+
     private static void setSyncWifiOnly(
             @NonNull final Context context,
             @NonNull final String userId,
@@ -1,15 +1,22 @@
 package com.gamaliev.notes.app;
 
 import android.app.Application;
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.support.annotation.NonNull;
+import android.text.TextUtils;
 
+import com.gamaliev.notes.common.DateCodec;
 import com.gamaliev.notes.common.FileUtils;
 import com.gamaliev.notes.common.db.DbHelper;
 import com.gamaliev.notes.common.observers.ObserverHelper;
 import com.gamaliev.notes.common.shared_prefs.SpCommon;
 import com.gamaliev.notes.sync.utils.SyncUtils;
 
+import java.util.TimeZone;
+
 import static com.gamaliev.notes.conflict.utils.ConflictUtils.checkConflictExistsAndShowStatusBarNotification;
 
 /**
@@ -19,6 +26,9 @@ import static com.gamaliev.notes.conflict.utils.ConflictUtils.checkConflictExist
 
 public class NotesApp extends Application {
 
+    /* Extra of {@link Intent#ACTION_TIMEZONE_CHANGED} */
+    @NonNull private static final String EXTRA_TIME_ZONE = "time-zone";
+
     /* ... */
     @SuppressWarnings("NullableProblems")
     @NonNull private static Context sAppContext;
@@ -43,6 +53,7 @@ public class NotesApp extends Application {
         sAppContext = getApplicationContext();
 
         initObserverHelper();
+        initDateCodec();
         initSharedPreferences();
         initDataBase();
         initFileUtils();
@@ -53,6 +64,21 @@ public class NotesApp extends Application {
         ObserverHelper.notifyAllObservers(0, null);
     }
 
+    /**
+     * Date codec caches the time zone, so it is updated, when time zone of the device is changed.
+     */
+    private void initDateCodec() {
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(final Context context, final Intent intent) {
+                final String timeZoneId = intent.getStringExtra(EXTRA_TIME_ZONE);
+                DateCodec.setTimeZone(TextUtils.isEmpty(timeZoneId)
+                        ? TimeZone.getDefault()
+                        : TimeZone.getTimeZone(timeZoneId));
+            }
+        }, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+    }
+
     private void initSharedPreferences() {
         SpCommon.initSharedPreferences(getApplicationContext());
     }
@@ -32,13 +32,9 @@ import android.widget.Toast;
 
 import com.gamaliev.notes.R;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 import static com.gamaliev.notes.app.NotesApp.getAppContext;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_SYMBOL_DATE_SPLIT;
@@ -414,58 +410,32 @@ public final class CommonUtils {
     // --Commented out by Inspection STOP
 
     /**
-     * @param context   Context.
-     * @param utcDate   Date, whose will be converted to String in ISO-8610 format.
+     * @param millis    Milliseconds since epoch, whose will be converted to String in ISO-8610 format.
      * @return  String, representing a date in ISO-8601 format.<br>
      *          Example pattern: "yyyy-MM-dd'T'HH:mm:ssZZZZZ", "2017-04-22T21:25:35+05:00".
      */
-    @Nullable
+    @NonNull
     public static String getStringDateIso8601(
-            @NonNull final Context context,
-            @NonNull final String utcDate) {
-
-        final DateFormat df = getDateFormatSqlite(context, true);
-        Date date = null;
-        try {
-            date = df.parse(utcDate);
-        } catch (ParseException e) {
-            Log.e(TAG, e.toString());
-        }
+            final long millis) {
 
-        return getDateFormatIso8601(context).format(date);
+        return DateCodec.formatIso8601(millis);
     }
 
     /**
-     * @param context   Context.
      * @param iso8601   String in ISO 8601 format.
      * @return          Date.
      */
     @Nullable
     public static Date getDateFromIso8601String(
-            @NonNull final Context context,
             @NonNull final String iso8601) {
 
-        final DateFormat df = getDateFormatIso8601(context);
-        Date date = null;
         try {
-            date = df.parse(iso8601);
+            return new Date(DateCodec.parseIso8601(iso8601));
         } catch (ParseException e) {
             Log.e(TAG, e.toString());
         }
 
-        return date;
-    }
-
-    /**
-     * @param context Context.
-     * @return  DateFormat with ISO-8601 pattern.<br>
-     *          Example pattern: "yyyy-MM-dd'T'HH:mm:ssZZZZZ", "2017-04-22T21:25:35+05:00".
-     */
-    @NonNull
-    public static DateFormat getDateFormatIso8601(@NonNull final Context context) {
-        return new SimpleDateFormat(
-                context.getResources().getString(R.string.pattern_iso_8601),
-                Locale.ENGLISH);
+        return null;
     }
 
 
@@ -474,7 +444,6 @@ public final class CommonUtils {
      */
 
     /**
-     * @param context   Context.
      * @param date      Date, whose will be converted to String.
      * @param utc       If true, then set UTC time zone, otherwise original time zone.
      * @return  String, representing a UTC date sqlite format.<br>
@@ -482,49 +451,22 @@ public final class CommonUtils {
      */
     @NonNull
     public static String getStringDateFormatSqlite(
-            @NonNull final Context context,
             @NonNull final Date date,
             final boolean utc) {
-        return getDateFormatSqlite(context, utc).format(date);
-    }
-
-    /**
-     * @param context   Context.
-     * @param utc       If true, then set UTC time zone, otherwise original time zone.
-     * @return  DateFormat with sqlite pattern, convert UTC to localtime.<br>
-     *          Example pattern: "YYYY-MM-DD HH:MM:SS", "2017-04-22 21:25:35".
-     */
-    @NonNull
-    public static DateFormat getDateFormatSqlite(
-            @NonNull final Context context,
-            final boolean utc) {
-
-        final DateFormat dateFormat = new SimpleDateFormat(
-                context.getResources().getString(R.string.pattern_date_time_sqlite_format),
-                Locale.ENGLISH);
-        if (utc) {
-            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-        }
-        return dateFormat;
+        return DateCodec.formatSqlite(date.getTime(), utc);
     }
 
     /**
      * Convert string from UTC-format to Localtime-format.
-     * @param context   Context.
      * @param utcString String with UTC format.
      * @return          String with Localtime format.
      */
     @Nullable
     public static String convertUtcToLocal(
-            @NonNull final Context context,
             @NonNull final String utcString) {
 
         try {
-            // Convert UTC string to Date-object.
-            final Date parsedUtcDate = getDateFormatSqlite(context, true).parse(utcString);
-
-            // Convert Date-object to Localtime string, and return.
-            return getDateFormatSqlite(context, false).format(parsedUtcDate);
+            return DateCodec.formatSqlite(DateCodec.parseSqlite(utcString, true), false);
 
         } catch (ParseException e) {
             Log.e(TAG, e.toString());
@@ -535,21 +477,15 @@ public final class CommonUtils {
 
     /**
      * Convert string from Localtime-format to UTC-format.
-     * @param context           Context.
      * @param localtimeString   String with Localtime format.
      * @return                  String with UTC format.
      */
     @Nullable
     public static String convertLocalToUtc(
-            @NonNull final Context context,
             @NonNull final String localtimeString) {
 
         try {
-            // Parse Localtime string to Date-object.
-            final Date parsedLocaltimeDate = getDateFormatSqlite(context, false).parse(localtimeString);
-
-            // Convert Date-object to UTC string, and return.
-            return getDateFormatSqlite(context, true).format(parsedLocaltimeDate);
+            return DateCodec.formatSqlite(DateCodec.parseSqlite(localtimeString, false), true);
 
         } catch (ParseException e) {
             Log.e(TAG, e.toString());
@@ -561,7 +497,6 @@ public final class CommonUtils {
     /**
      * Get date in different formats.
      *
-     * @param context           Context.
      * @param profileMap        Profile.
      * @param filterCategory    {@link com.gamaliev.notes.common.shared_prefs.SpFilterProfiles#SP_FILTER_CREATED},
      *                          {@link com.gamaliev.notes.common.shared_prefs.SpFilterProfiles#SP_FILTER_EDITED},
@@ -571,7 +506,6 @@ public final class CommonUtils {
      */
     @Nullable
     public static String getDateFromProfileMap(
-            @NonNull final Context context,
             @NonNull final Map<String, String> profileMap,
             @NonNull final String filterCategory,
             final int fromToBothReturnResult) {
@@ -594,20 +528,20 @@ public final class CommonUtils {
             case EXTRA_DATES_FROM_DATE:
                 return dateFrom.split(" ")[0];
             case EXTRA_DATES_FROM_DATE_UTC_TO_LOCALTIME:
-                temp = convertUtcToLocal(context, dateFrom);
+                temp = convertUtcToLocal(dateFrom);
                 return temp == null ? null : temp.split(" ")[0];
             case EXTRA_DATES_FROM_DATE_LOCALTIME_TO_UTC:
-                temp = convertLocalToUtc(context, dateFrom);
+                temp = convertLocalToUtc(dateFrom);
                 return temp == null ? null : temp.split(" ")[1];
             case EXTRA_DATES_TO_DATETIME:
                 return dateTo;
             case EXTRA_DATES_TO_DATE:
                 return dateTo.split(" ")[0];
             case EXTRA_DATES_TO_DATE_UTC_TO_LOCALTIME:
-                temp = convertUtcToLocal(context, dateTo);
+                temp = convertUtcToLocal(dateTo);
                 return temp == null ? null : temp.split(" ")[0];
             case EXTRA_DATES_TO_DATE_LOCALTIME_TO_UTC:
-                temp = convertLocalToUtc(context, dateTo);
+                temp = convertLocalToUtc(dateTo);
                 return temp == null ? null : temp.split(" ")[1];
             case EXTRA_DATES_BOTH:
                 return dates;
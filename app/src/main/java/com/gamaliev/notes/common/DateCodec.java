@@ -0,0 +1,403 @@
+package com.gamaliev.notes.common;
+
+import android.support.annotation.NonNull;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe codec of dates, for sqlite and ISO-8601 patterns, without creating of
+ * {@link java.text.SimpleDateFormat}.<br>
+ * Formatting writes into given (or thread local) char buffers, offsets of local time zone
+ * are cached per thread. Supported years are 0000-9999.<br>
+ * <br>
+ * Patterns:<br>
+ *     Date:        "yyyy-MM-dd", "2017-04-22".<br>
+ *     Sqlite:      "yyyy-MM-dd HH:mm:ss", "2017-04-22 21:25:35".<br>
+ *     ISO-8601:    "yyyy-MM-dd'T'HH:mm:ssZZZZZ", "2017-04-22T21:25:35+05:00".<br>
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+
+public final class DateCodec {
+
+    /* Lengths of formatted dates */
+    public static final int LENGTH_DATE         = 10;
+    public static final int LENGTH_SQLITE       = 19;
+    public static final int LENGTH_ISO_8601     = 25;
+
+    /* ... */
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_DAY    = 24 * 60 * MILLIS_PER_MINUTE;
+
+    /* Days from 0000-03-01 to 1970-01-01, and days in 400 years */
+    private static final long DAYS_0000_TO_1970 = 719468L;
+    private static final long DAYS_PER_ERA      = 146097L;
+
+    /* Offset cache. Transitions of time zones are aligned to 15 minutes. */
+    private static final long OFFSET_CACHE_INTERVAL = 15 * MILLIS_PER_MINUTE;
+    private static final int OFFSET_CACHE_SIZE      = 64;
+
+    @NonNull private static volatile TimeZone sTimeZone = TimeZone.getDefault();
+
+    @NonNull private static final ThreadLocal<State> STATE = new ThreadLocal<State>() {
+        @Override
+        protected State initialValue() {
+            return new State();
+        }
+    };
+
+
+    /*
+        Init
+     */
+
+    private DateCodec() {}
+
+    /**
+     * Set time zone, which is used for local time. Should be called, when default time zone
+     * of the device is changed.
+     * @param timeZone Time zone.
+     */
+    public static void setTimeZone(@NonNull final TimeZone timeZone) {
+        sTimeZone = timeZone;
+    }
+
+
+    /*
+        Format
+     */
+
+    /**
+     * @param millis    Milliseconds since epoch.
+     * @param utc       If true, then UTC time zone, otherwise local.
+     * @return String in "yyyy-MM-dd" pattern.
+     */
+    @NonNull
+    public static String formatDate(final long millis, final boolean utc) {
+        final char[] buffer = STATE.get().mBuffer;
+        return new String(buffer, 0, formatDate(millis, utc, buffer, 0));
+    }
+
+    /**
+     * @param millis    Milliseconds since epoch.
+     * @param utc       If true, then UTC time zone, otherwise local.
+     * @return String in "yyyy-MM-dd HH:mm:ss" pattern.
+     */
+    @NonNull
+    public static String formatSqlite(final long millis, final boolean utc) {
+        final char[] buffer = STATE.get().mBuffer;
+        return new String(buffer, 0, formatSqlite(millis, utc, buffer, 0));
+    }
+
+    /**
+     * @param millis Milliseconds since epoch.
+     * @return String in "yyyy-MM-dd'T'HH:mm:ssZZZZZ" pattern, with local time zone.
+     */
+    @NonNull
+    public static String formatIso8601(final long millis) {
+        final char[] buffer = STATE.get().mBuffer;
+        return new String(buffer, 0, formatIso8601(millis, buffer, 0));
+    }
+
+    /**
+     * Write date in "yyyy-MM-dd" pattern to buffer.
+     * @param millis    Milliseconds since epoch.
+     * @param utc       If true, then UTC time zone, otherwise local.
+     * @param buffer    Buffer, with at least {@link #LENGTH_DATE} chars from given position.
+     * @param position  Start position in buffer.
+     * @return Number of written chars.
+     */
+    public static int formatDate(
+            final long millis,
+            final boolean utc,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        final long local = millis + (utc ? 0 : getOffset(millis));
+        writeDate(floorDiv(local, MILLIS_PER_DAY), buffer, position);
+        return LENGTH_DATE;
+    }
+
+    /**
+     * Write date in "yyyy-MM-dd HH:mm:ss" pattern to buffer.
+     * @param millis    Milliseconds since epoch.
+     * @param utc       If true, then UTC time zone, otherwise local.
+     * @param buffer    Buffer, with at least {@link #LENGTH_SQLITE} chars from given position.
+     * @param position  Start position in buffer.
+     * @return Number of written chars.
+     */
+    public static int formatSqlite(
+            final long millis,
+            final boolean utc,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        final long local = millis + (utc ? 0 : getOffset(millis));
+        writeDateTime(local, ' ', buffer, position);
+        return LENGTH_SQLITE;
+    }
+
+    /**
+     * Write date in "yyyy-MM-dd'T'HH:mm:ssZZZZZ" pattern, with local time zone, to buffer.
+     * @param millis    Milliseconds since epoch.
+     * @param buffer    Buffer, with at least {@link #LENGTH_ISO_8601} chars from given position.
+     * @param position  Start position in buffer.
+     * @return Number of written chars.
+     */
+    public static int formatIso8601(
+            final long millis,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        final int offset = getOffset(millis);
+        writeDateTime(millis + offset, 'T', buffer, position);
+
+        final int offsetMinutes = Math.abs(offset) / (int) MILLIS_PER_MINUTE;
+        int i = position + LENGTH_SQLITE;
+        buffer[i++] = offset < 0 ? '-' : '+';
+        i = write2(offsetMinutes / 60, buffer, i);
+        buffer[i++] = ':';
+        write2(offsetMinutes % 60, buffer, i);
+        return LENGTH_ISO_8601;
+    }
+
+
+    /*
+        Parse
+     */
+
+    /**
+     * @param text  String in "yyyy-MM-dd HH:mm:ss" pattern. Trailing chars are ignored.
+     * @param utc   If true, then text is in UTC time zone, otherwise local.
+     * @return Milliseconds since epoch.
+     * @throws ParseException If text has wrong format.
+     */
+    public static long parseSqlite(
+            @NonNull final CharSequence text,
+            final boolean utc) throws ParseException {
+
+        final long local = parseDateTime(text, ' ');
+        if (utc) {
+            return local;
+        }
+        // As java.util.Calendar, offset is taken at the local time shifted by the standard
+        // offset, so ambiguous time (end of daylight saving) is resolved to standard time.
+        return local - getOffset(local - sTimeZone.getRawOffset());
+    }
+
+    /**
+     * @param text String in "yyyy-MM-dd'T'HH:mm:ssZZZZZ" pattern.
+     *             Zone may be "Z", "+HH", "+HHmm" or "+HH:mm".
+     * @return Milliseconds since epoch.
+     * @throws ParseException If text has wrong format.
+     */
+    public static long parseIso8601(@NonNull final CharSequence text) throws ParseException {
+        final long local = parseDateTime(text, 'T');
+        final int length = text.length();
+
+        int i = LENGTH_SQLITE;
+        if (i >= length) {
+            throw new ParseException(text.toString(), i);
+        }
+        final char sign = text.charAt(i);
+        if (sign == 'Z' && length == i + 1) {
+            return local;
+        }
+        if (sign != '+' && sign != '-') {
+            throw new ParseException(text.toString(), i);
+        }
+        i++;
+
+        int minutes = parseNumber(text, i, 2) * 60;
+        i += 2;
+        if (i < length && text.charAt(i) == ':') {
+            i++;
+        }
+        if (i < length) {
+            minutes += parseNumber(text, i, 2);
+            i += 2;
+        }
+        if (i != length) {
+            throw new ParseException(text.toString(), i);
+        }
+
+        final long offset = minutes * MILLIS_PER_MINUTE;
+        return sign == '+' ? local - offset : local + offset;
+    }
+
+
+    /*
+        Utils
+     */
+
+    /**
+     * @param millis Milliseconds since epoch.
+     * @return Offset of local time zone at the given time, in milliseconds.
+     */
+    private static int getOffset(final long millis) {
+        final State state = STATE.get();
+        final TimeZone timeZone = sTimeZone;
+        if (state.mTimeZone != timeZone) {
+            state.mTimeZone = timeZone;
+            Arrays.fill(state.mIntervals, Long.MIN_VALUE);
+        }
+
+        final long interval = floorDiv(millis, OFFSET_CACHE_INTERVAL);
+        final int index = (int) (interval & (OFFSET_CACHE_SIZE - 1));
+        if (state.mIntervals[index] != interval) {
+            state.mIntervals[index] = interval;
+            state.mOffsets[index] = timeZone.getOffset(millis);
+        }
+        return state.mOffsets[index];
+    }
+
+    private static void writeDateTime(
+            final long local,
+            final char separator,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        final long days = floorDiv(local, MILLIS_PER_DAY);
+        final int secondOfDay = (int) ((local - days * MILLIS_PER_DAY) / MILLIS_PER_SECOND);
+
+        int i = writeDate(days, buffer, position);
+        buffer[i++] = separator;
+        i = write2(secondOfDay / 3600, buffer, i);
+        buffer[i++] = ':';
+        i = write2(secondOfDay / 60 % 60, buffer, i);
+        buffer[i++] = ':';
+        write2(secondOfDay % 60, buffer, i);
+    }
+
+    /**
+     * Convert days since epoch to civil date, and write it.
+     * See <a href="http://howardhinnant.github.io/date_algorithms.html">date algorithms</a>.
+     * @return Position after written date.
+     */
+    private static int writeDate(
+            final long days,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        final long z = days + DAYS_0000_TO_1970;
+        final long era = floorDiv(z, DAYS_PER_ERA);
+        final int doe = (int) (z - era * DAYS_PER_ERA);
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        final int day = doy - (153 * mp + 2) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final int year = (int) (yoe + era * 400) + (month <= 2 ? 1 : 0);
+
+        int i = position;
+        i = write2(year / 100, buffer, i);
+        i = write2(year % 100, buffer, i);
+        buffer[i++] = '-';
+        i = write2(month, buffer, i);
+        buffer[i++] = '-';
+        return write2(day, buffer, i);
+    }
+
+    /**
+     * Parse "yyyy-MM-dd?HH:mm:ss", where "?" is separator.
+     * @return Milliseconds since epoch, as if text is in UTC.
+     */
+    private static long parseDateTime(
+            @NonNull final CharSequence text,
+            final char separator) throws ParseException {
+
+        if (text.length() < LENGTH_SQLITE) {
+            throw new ParseException(text.toString(), text.length());
+        }
+        checkChar(text, 4, '-');
+        checkChar(text, 7, '-');
+        checkChar(text, 10, separator);
+        checkChar(text, 13, ':');
+        checkChar(text, 16, ':');
+
+        final int year      = parseNumber(text, 0, 4);
+        final int month     = parseNumber(text, 5, 2);
+        final int day       = parseNumber(text, 8, 2);
+        final int hour      = parseNumber(text, 11, 2);
+        final int minute    = parseNumber(text, 14, 2);
+        final int second    = parseNumber(text, 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > 31
+                || hour > 23 || minute > 59 || second > 59) {
+            throw new ParseException(text.toString(), 0);
+        }
+
+        // Days since epoch of civil date. See writeDate().
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yoe = y - era * 400;
+        final int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        final long days = era * DAYS_PER_ERA + doe - DAYS_0000_TO_1970;
+
+        return days * MILLIS_PER_DAY
+                + (hour * 3600 + minute * 60 + second) * MILLIS_PER_SECOND;
+    }
+
+    private static int parseNumber(
+            @NonNull final CharSequence text,
+            final int position,
+            final int digits) throws ParseException {
+
+        if (position + digits > text.length()) {
+            throw new ParseException(text.toString(), position);
+        }
+        int result = 0;
+        for (int i = position; i < position + digits; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new ParseException(text.toString(), i);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static void checkChar(
+            @NonNull final CharSequence text,
+            final int position,
+            final char expected) throws ParseException {
+
+        if (text.charAt(position) != expected) {
+            throw new ParseException(text.toString(), position);
+        }
+    }
+
+    private static int write2(
+            final int value,
+            @NonNull final char[] buffer,
+            final int position) {
+
+        buffer[position] = (char) ('0' + value / 10);
+        buffer[position + 1] = (char) ('0' + value % 10);
+        return position + 2;
+    }
+
+    private static long floorDiv(final long x, final long y) {
+        final long q = x / y;
+        return (x % y != 0 && (x ^ y) < 0) ? q - 1 : q;
+    }
+
+
+    /*
+        State
+     */
+
+    /**
+     * Buffer and cache of offsets, of one thread.
+     */
+    private static final class State {
+        @NonNull private final char[] mBuffer = new char[LENGTH_ISO_8601];
+        @NonNull private final long[] mIntervals = new long[OFFSET_CACHE_SIZE];
+        @NonNull private final int[] mOffsets = new int[OFFSET_CACHE_SIZE];
+        private TimeZone mTimeZone;
+    }
+}
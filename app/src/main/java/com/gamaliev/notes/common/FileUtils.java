@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import static com.gamaliev.notes.common.CommonUtils.showToastRunOnUiThread;
 import static com.gamaliev.notes.common.codes.ResultCode.RESULT_CODE_NOTES_EXPORTED;
@@ -358,34 +360,13 @@ public final class FileUtils {
                 throw new SQLiteException(getDbFailMessage());
             }
 
+            // Entries are committed by chunks.
             final JSONArray jsonArray = new JSONArray(inputJson);
-            final int size = jsonArray.length();
-            int percent = 0;
-
-            db.beginTransaction();
-            try {
-                for (int i = 0; i < size; i++) {
-                    final JSONObject jsonObject = jsonArray.getJSONObject(i);
-                    final ListEntry entry = convertJsonToListEntry(context, jsonObject);
-                    ListDbHelper.insertUpdateEntry(context, entry, db, false);
-
-                    // Update progress. Without flooding. 0-100%
-                    final int percentNew = i * 100 / size;
-                    if (percentNew > percent) {
-                        percent = percentNew;
-                        notification.setProgress(100, percentNew);
-                    }
-
-                    //
-                    if (i % 100 == 0) {
-                        db.yieldIfContendedSafely();
-                    }
-                }
-                db.setTransactionSuccessful();
-
-            } finally {
-                db.endTransaction();
-            }
+            ListDbHelper.insertEntries(
+                    context,
+                    db,
+                    getListEntriesIterable(context, jsonArray, notification),
+                    false);
 
             makeSuccessImportOperations(
                     context,
@@ -400,6 +381,71 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * @param context       Context.
+     * @param jsonArray     Array of entries in Json-format. Elements, which are not
+     *                      Json-objects, are skipped.
+     * @param notification  Notification, for progress of iteration.
+     * @return Iterable, which lazily converts entries from Json-format, while iterating.
+     */
+    @NonNull
+    private static Iterable<ListEntry> getListEntriesIterable(
+            @NonNull final Context context,
+            @NonNull final JSONArray jsonArray,
+            @NonNull final ProgressNotificationHelper notification) {
+
+        return new Iterable<ListEntry>() {
+            @Override
+            public Iterator<ListEntry> iterator() {
+                return new Iterator<ListEntry>() {
+                    private final int mSize = jsonArray.length();
+                    private int mIndex;
+                    private int mPercent;
+                    @Nullable private JSONObject mNext = findNext();
+
+                    @Override
+                    public boolean hasNext() {
+                        return mNext != null;
+                    }
+
+                    @Override
+                    public ListEntry next() {
+                        if (mNext == null) {
+                            throw new NoSuchElementException();
+                        }
+                        final ListEntry entry = convertJsonToListEntry(context, mNext);
+
+                        // Update progress. Without flooding. 0-100%
+                        final int percentNew = mIndex * 100 / mSize;
+                        if (percentNew > mPercent) {
+                            mPercent = percentNew;
+                            notification.setProgress(100, percentNew);
+                        }
+
+                        mNext = findNext();
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Nullable
+                    private JSONObject findNext() {
+                        while (mIndex < mSize) {
+                            final JSONObject jsonObject = jsonArray.optJSONObject(mIndex++);
+                            if (jsonObject != null) {
+                                return jsonObject;
+                            }
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+    }
+
     private static void makeSuccessImportOperations(
             @NonNull final Context context,
             @NonNull final JSONArray jsonArray,
@@ -0,0 +1,145 @@
+package com.gamaliev.notes.common;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Set of primitive long values, without boxing. Open addressing with linear probing.<br>
+ * Values are only added, not removed. Not thread-safe.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public final class LongHashSet {
+
+    /* ... */
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0;
+
+    /* Table, whose capacity is the power of two. Zero is stored separately */
+    @NonNull private long[] mTable;
+    private int mMask;
+    private int mSize;
+    private boolean mHasEmptyValue;
+
+
+    /*
+        Init
+     */
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Expected number of values. The table is not resized until it.
+     */
+    public LongHashSet(final int expectedSize) {
+        allocate(getCapacity(expectedSize));
+    }
+
+
+    /*
+        ...
+     */
+
+    /**
+     * @param value Value.
+     * @return True if value was not in set, otherwise false.
+     */
+    public boolean add(final long value) {
+        if (value == EMPTY) {
+            if (mHasEmptyValue) {
+                return false;
+            }
+            mHasEmptyValue = true;
+            mSize++;
+            return true;
+        }
+
+        int index = getIndex(value);
+        while (mTable[index] != EMPTY) {
+            if (mTable[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mMask;
+        }
+        mTable[index] = value;
+        mSize++;
+
+        // Load factor is not more than 0.5.
+        if (mSize * 2 > mTable.length) {
+            rehash(mTable.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @param value Value.
+     * @return True if value is in set, otherwise false.
+     */
+    public boolean contains(final long value) {
+        if (value == EMPTY) {
+            return mHasEmptyValue;
+        }
+
+        int index = getIndex(value);
+        while (mTable[index] != EMPTY) {
+            if (mTable[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mMask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+
+    /*
+        Utils
+     */
+
+    private void allocate(final int capacity) {
+        mTable = new long[capacity];
+        mMask = capacity - 1;
+    }
+
+    private void rehash(final int capacity) {
+        final long[] oldTable = mTable;
+        allocate(capacity);
+        for (long value : oldTable) {
+            if (value != EMPTY) {
+                int index = getIndex(value);
+                while (mTable[index] != EMPTY) {
+                    index = (index + 1) & mMask;
+                }
+                mTable[index] = value;
+            }
+        }
+    }
+
+    /**
+     * Sync ids and row ids are mostly sequential, so bits are mixed before masking.
+     */
+    private int getIndex(final long value) {
+        final long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+
+    /**
+     * @return Power of two, which keeps load factor not more than 0.5 for expected size.
+     */
+    private static int getCapacity(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -3,9 +3,12 @@ package com.gamaliev.notes.common.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 import android.provider.BaseColumns;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -13,10 +16,16 @@ import android.text.TextUtils;
 import android.util.Log;
 import android.widget.Toast;
 
+import com.gamaliev.notes.BuildConfig;
 import com.gamaliev.notes.R;
 import com.gamaliev.notes.color_picker.db.ColorPickerDbHelper;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
+import com.gamaliev.notes.entity.ListEntry;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,8 +51,16 @@ public final class DbHelper extends SQLiteOpenHelper {
      */
 
     /* Basic */
-    private static final int DB_VERSION_A                   = 1;
-    private static final int DB_VERSION                     = DB_VERSION_A;
+    static final int DB_VERSION_A                           = 1;
+    static final int DB_VERSION_B                           = 2;
+    static final int DB_VERSION_C                           = 3;
+    static final int DB_VERSION_D                           = 4;
+    static final int DB_VERSION_E                           = 5;
+    static final int DB_VERSION_F                           = 6;
+    static final int DB_VERSION_G                           = 7;
+    static final int DB_VERSION_H                           = 8;
+    static final int DB_VERSION_I                           = 9;
+    private static final int DB_VERSION                     = DB_VERSION_I;
 
     public static final String BASE_COLUMN_ID               = BaseColumns._ID;
     public static final String ORDER_ASCENDING              = "ASC";
@@ -70,9 +87,56 @@ public final class DbHelper extends SQLiteOpenHelper {
     public static final String LIST_ITEMS_COLUMN_CREATED    = "created";
     public static final String LIST_ITEMS_COLUMN_EDITED     = "edited";
     public static final String LIST_ITEMS_COLUMN_VIEWED     = "viewed";
+    public static final String LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW = "description_preview";
+    public static final String LIST_ITEMS_COLUMN_CONTENT_HASH = "content_hash";
+    public static final String LIST_ITEMS_COLUMN_SYNCED_HASH = "synced_hash";
+
+    /* List items table. Temporary table, while converting dates of version "D" */
+    private static final String LIST_ITEMS_TABLE_NAME_EPOCH = "list_items_epoch";
 
     private static final String LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_AUTOINCREMENT
             = "manually_autoincrement";
+    private static final String LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_APPEND
+            = "manually_append";
+    private static final String LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_APPEND_PREVIEW
+            = "manually_append_description_preview";
+    private static final String LIST_ITEMS_TRIGGER_COLUMN_DESCRIPTION_PREVIEW
+            = "description_preview_update";
+
+    /* List items table. Max length of description, which is shown in the list */
+    public static final int LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH = 200;
+
+    /* List items table. Gap between neighbouring "manually" keys, for moving without renumbering */
+    public static final long LIST_ITEMS_MANUALLY_GAP        = 1 << 16;
+
+    /* List items table. Indexes */
+    public static final String LIST_ITEMS_INDEX_SYNC_ID     = "list_items_sync_id_unique";
+    public static final String LIST_ITEMS_INDEX_COLOR       = "list_items_color_idx";
+    public static final String LIST_ITEMS_INDEX_CREATED     = "list_items_created_idx";
+    public static final String LIST_ITEMS_INDEX_EDITED      = "list_items_edited_idx";
+    public static final String LIST_ITEMS_INDEX_VIEWED      = "list_items_viewed_idx";
+    public static final String LIST_ITEMS_INDEX_MANUALLY    = "list_items_manually_idx";
+
+    /* List items table. Full-text search */
+    public static final String LIST_ITEMS_FTS_TABLE_NAME    = "list_items_fts";
+    public static final String LIST_ITEMS_FTS_COLUMN_DOC_ID = "docid";
+    public static final String LIST_ITEMS_FTS_COLUMN_TITLE  = "fts_title";
+    public static final String LIST_ITEMS_FTS_COLUMN_DESCRIPTION = "fts_description";
+    public static final String LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET = "title_snippet";
+    public static final String LIST_ITEMS_FTS_COLUMN_DESCRIPTION_SNIPPET = "description_snippet";
+
+    private static final String LIST_ITEMS_FTS_TRIGGER_INSERT = "list_items_fts_insert";
+    private static final String LIST_ITEMS_FTS_TRIGGER_UPDATE = "list_items_fts_update";
+    private static final String LIST_ITEMS_FTS_TRIGGER_DELETE = "list_items_fts_delete";
+
+    // "unicode61" (case folding of non-ASCII characters) is available since SQLite 3.7.13.
+    private static final String LIST_ITEMS_FTS_TOKENIZER =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP ? "unicode61" : "simple";
+
+    /* List items table. Version, incremented once by every write, which changes entries,
+     * see {@link #incrementListItemsVersion(SQLiteDatabase)} */
+    public static final String LIST_ITEMS_VERSION_TABLE_NAME = "list_items_version";
+    public static final String LIST_ITEMS_VERSION_COLUMN_VERSION = "version";
 
     /* Sync. Journal table */
     public static final String SYNC_TABLE_NAME              = "sync_journal";
@@ -87,20 +151,37 @@ public final class DbHelper extends SQLiteOpenHelper {
     /* Sync. Deleted table */
     public static final String SYNC_DELETED_TABLE_NAME      = "deleted";
 
+    /* Sync. Change log table. Entries, whose content is changed, filled by triggers */
+    public static final String CHANGE_LOG_TABLE_NAME        = "change_log";
+    public static final String CHANGE_LOG_COLUMN_ENTRY_ID   = "entry_id";
+    public static final String CHANGE_LOG_COLUMN_ACTION     = "action";
+
+    public static final int CHANGE_LOG_ACTION_INSERT        = 1;
+    public static final int CHANGE_LOG_ACTION_UPDATE        = 2;
+    public static final int CHANGE_LOG_ACTION_DELETE        = 3;
+
+    private static final String CHANGE_LOG_TRIGGER_INSERT   = "change_log_insert";
+    private static final String CHANGE_LOG_TRIGGER_UPDATE   = "change_log_update";
+    private static final String CHANGE_LOG_TRIGGER_DELETE   = "change_log_delete";
+
 
     /*
         Queries
     */
 
+    /* Current date and time, in milliseconds since epoch */
+    private static final String SQL_NOW_EPOCH_MILLIS =
+            "(CAST(strftime('%s', 'now') AS INTEGER) * 1000)";
+
     /* Colors */
-    private static final String SQL_FAVORITE_CREATE_TABLE =
+    static final String SQL_FAVORITE_CREATE_TABLE =
             "CREATE TABLE " + FAVORITE_TABLE_NAME + " ("
                     + BASE_COLUMN_ID +          " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + FAVORITE_COLUMN_INDEX +   " INTEGER NOT NULL UNIQUE, "
                     + FAVORITE_COLUMN_COLOR +   " INTEGER NOT NULL); ";
 
     /* Entries */
-    private static final String SQL_LIST_ITEMS_CREATE_TABLE =
+    static final String SQL_LIST_ITEMS_CREATE_TABLE =
             "CREATE TABLE " + LIST_ITEMS_TABLE_NAME + " ("
                     + BASE_COLUMN_ID +                  " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + LIST_ITEMS_COLUMN_MANUALLY +      " INTEGER DEFAULT 0, "
@@ -113,6 +194,61 @@ public final class DbHelper extends SQLiteOpenHelper {
                     + LIST_ITEMS_COLUMN_EDITED +        " DATETIME DEFAULT CURRENT_TIMESTAMP, "
                     + LIST_ITEMS_COLUMN_VIEWED +        " DATETIME DEFAULT CURRENT_TIMESTAMP); ";
 
+    /* Entries. Dates are stored as milliseconds since epoch (UTC), instead of "DATETIME" text */
+    private static final String SQL_LIST_ITEMS_EPOCH_CREATE_TABLE =
+            "CREATE TABLE " + LIST_ITEMS_TABLE_NAME_EPOCH + " ("
+                    + BASE_COLUMN_ID +                  " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + LIST_ITEMS_COLUMN_MANUALLY +      " INTEGER DEFAULT 0, "
+                    + LIST_ITEMS_COLUMN_TITLE +         " TEXT, "
+                    + COMMON_COLUMN_SYNC_ID +           " INTEGER, "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION +   " TEXT, "
+                    + LIST_ITEMS_COLUMN_COLOR +         " INTEGER, "
+                    + LIST_ITEMS_COLUMN_IMAGE_URL +     " TEXT, "
+                    + LIST_ITEMS_COLUMN_CREATED +       " INTEGER DEFAULT " + SQL_NOW_EPOCH_MILLIS + ", "
+                    + LIST_ITEMS_COLUMN_EDITED +        " INTEGER DEFAULT " + SQL_NOW_EPOCH_MILLIS + ", "
+                    + LIST_ITEMS_COLUMN_VIEWED +        " INTEGER DEFAULT " + SQL_NOW_EPOCH_MILLIS + "); ";
+
+    /* Entries. Copy with conversion of "YYYY-MM-DD HH:MM:SS" (UTC) to milliseconds */
+    private static final String SQL_LIST_ITEMS_EPOCH_COPY =
+            "INSERT INTO " + LIST_ITEMS_TABLE_NAME_EPOCH + " ("
+                    + BASE_COLUMN_ID + ", "
+                    + LIST_ITEMS_COLUMN_MANUALLY + ", "
+                    + LIST_ITEMS_COLUMN_TITLE + ", "
+                    + COMMON_COLUMN_SYNC_ID + ", "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION + ", "
+                    + LIST_ITEMS_COLUMN_COLOR + ", "
+                    + LIST_ITEMS_COLUMN_IMAGE_URL + ", "
+                    + LIST_ITEMS_COLUMN_CREATED + ", "
+                    + LIST_ITEMS_COLUMN_EDITED + ", "
+                    + LIST_ITEMS_COLUMN_VIEWED + ") "
+                    + "SELECT "
+                    + BASE_COLUMN_ID + ", "
+                    + LIST_ITEMS_COLUMN_MANUALLY + ", "
+                    + LIST_ITEMS_COLUMN_TITLE + ", "
+                    + COMMON_COLUMN_SYNC_ID + ", "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION + ", "
+                    + LIST_ITEMS_COLUMN_COLOR + ", "
+                    + LIST_ITEMS_COLUMN_IMAGE_URL + ", "
+                    + getSqlDatetimeToEpochMillis(LIST_ITEMS_COLUMN_CREATED) + ", "
+                    + getSqlDatetimeToEpochMillis(LIST_ITEMS_COLUMN_EDITED) + ", "
+                    + getSqlDatetimeToEpochMillis(LIST_ITEMS_COLUMN_VIEWED) + " "
+                    + "FROM " + LIST_ITEMS_TABLE_NAME + ";";
+
+    /* Entries. Keep autoincrement sequence, so ids of deleted entries are not reused */
+    private static final String SQL_LIST_ITEMS_EPOCH_DELETE_SEQUENCE =
+            "DELETE FROM sqlite_sequence WHERE name='" + LIST_ITEMS_TABLE_NAME_EPOCH + "';";
+
+    private static final String SQL_LIST_ITEMS_EPOCH_MOVE_SEQUENCE =
+            "UPDATE sqlite_sequence SET name='" + LIST_ITEMS_TABLE_NAME_EPOCH + "' "
+                    + "WHERE name='" + LIST_ITEMS_TABLE_NAME + "';";
+
+    /* Entries. Drop with indexes and triggers of previous versions */
+    private static final String SQL_LIST_ITEMS_DROP_TABLE =
+            "DROP TABLE " + LIST_ITEMS_TABLE_NAME + ";";
+
+    private static final String SQL_LIST_ITEMS_EPOCH_RENAME_TABLE =
+            "ALTER TABLE " + LIST_ITEMS_TABLE_NAME_EPOCH + " RENAME TO " + LIST_ITEMS_TABLE_NAME + ";";
+
     // --Commented out by Inspection START:
     //    /* Entries. Drop */
     //    public static final String SQL_LIST_ITEMS_DROP_TABLE =
@@ -133,24 +269,43 @@ public final class DbHelper extends SQLiteOpenHelper {
             "DROP TABLE " + SYNC_TABLE_NAME + ";";
 
     /* Sync. Conflict table */
-    private static final String SQL_SYNC_CONFLICT_CREATE_TABLE =
+    static final String SQL_SYNC_CONFLICT_CREATE_TABLE =
             "CREATE TABLE " + SYNC_CONFLICT_TABLE_NAME + " ("
                     + BASE_COLUMN_ID +          " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + COMMON_COLUMN_SYNC_ID +   " INTEGER NOT NULL UNIQUE); ";
 
     /* Sync. Deleted table */
-    private static final String SQL_SYNC_DELETED_CREATE_TABLE =
+    static final String SQL_SYNC_DELETED_CREATE_TABLE =
             "CREATE TABLE " + SYNC_DELETED_TABLE_NAME + " ("
                     + BASE_COLUMN_ID +          " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + COMMON_COLUMN_SYNC_ID +   " INTEGER NOT NULL UNIQUE); ";
 
+    /* Sync. Change log table. Entry may be logged many times, until it is synchronized */
+    private static final String SQL_CHANGE_LOG_CREATE_TABLE =
+            "CREATE TABLE " + CHANGE_LOG_TABLE_NAME + " ("
+                    + BASE_COLUMN_ID +              " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + CHANGE_LOG_COLUMN_ENTRY_ID +  " INTEGER NOT NULL, "
+                    + CHANGE_LOG_COLUMN_ACTION +    " INTEGER NOT NULL); ";
+
+    /* Sync. Change log table. Entries, which are changed before the log is created */
+    private static final String SQL_CHANGE_LOG_POPULATE =
+            "INSERT INTO " + CHANGE_LOG_TABLE_NAME + " ("
+                    + CHANGE_LOG_COLUMN_ENTRY_ID + ", "
+                    + CHANGE_LOG_COLUMN_ACTION + ") "
+                    + "SELECT "
+                    + BASE_COLUMN_ID + ", "
+                    + CHANGE_LOG_ACTION_UPDATE + " "
+                    + "FROM " + LIST_ITEMS_TABLE_NAME + " "
+                    + "WHERE " + LIST_ITEMS_COLUMN_CONTENT_HASH + " IS NOT "
+                    + LIST_ITEMS_COLUMN_SYNCED_HASH + ";";
+
 
     /*
         Triggers
      */
 
     /* Entries. Autoincrement "manually" column */
-    private static final String SQL_LIST_ITEMS_MANUALLY_AUTOINCREMENT =
+    static final String SQL_LIST_ITEMS_MANUALLY_AUTOINCREMENT =
             "CREATE TRIGGER " + LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_AUTOINCREMENT + " "
                     + "AFTER INSERT ON " + LIST_ITEMS_TABLE_NAME + " "
                         + "BEGIN "
@@ -161,6 +316,238 @@ public final class DbHelper extends SQLiteOpenHelper {
                         + "WHERE rowid=NEW.rowid; "
                         + "END;";
 
+    /* Entries. Drop trigger of version "A" */
+    private static final String SQL_LIST_ITEMS_MANUALLY_AUTOINCREMENT_DROP =
+            "DROP TRIGGER IF EXISTS " + LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_AUTOINCREMENT + ";";
+
+    /* Entries. Append to the end of "manually" column, with gap. MAX() is an index lookup. */
+    private static final String SQL_LIST_ITEMS_MANUALLY_APPEND =
+            "CREATE TRIGGER " + LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_APPEND + " "
+                    + "AFTER INSERT ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                                + LIST_ITEMS_COLUMN_MANUALLY + "=(SELECT MAX("
+                                + LIST_ITEMS_COLUMN_MANUALLY + ") FROM "
+                                + LIST_ITEMS_TABLE_NAME + ")+" + LIST_ITEMS_MANUALLY_GAP + " "
+                        + "WHERE rowid=NEW.rowid; "
+                        + "END;";
+
+    /* Entries. Description preview of version "F" and earlier */
+    private static final String SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_ADD_COLUMN =
+            "ALTER TABLE " + LIST_ITEMS_TABLE_NAME + " "
+                    + "ADD COLUMN " + LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW + " TEXT;";
+
+    private static final String SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_POPULATE =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW + "="
+                    + getSqlDescriptionPreview(LIST_ITEMS_COLUMN_DESCRIPTION) + ";";
+
+    /* Entries. Drop trigger of version "D" */
+    private static final String SQL_LIST_ITEMS_MANUALLY_APPEND_DROP =
+            "DROP TRIGGER IF EXISTS " + LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_APPEND + ";";
+
+    /* Entries. As "manually_append", and also description preview, with the same update. */
+    private static final String SQL_LIST_ITEMS_MANUALLY_APPEND_PREVIEW =
+            "CREATE TRIGGER " + LIST_ITEMS_TRIGGER_COLUMN_MANUALLY_APPEND_PREVIEW + " "
+                    + "AFTER INSERT ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                                + LIST_ITEMS_COLUMN_MANUALLY + "=(SELECT MAX("
+                                + LIST_ITEMS_COLUMN_MANUALLY + ") FROM "
+                                + LIST_ITEMS_TABLE_NAME + ")+" + LIST_ITEMS_MANUALLY_GAP + ", "
+                                + LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW + "="
+                                + getSqlDescriptionPreview("NEW." + LIST_ITEMS_COLUMN_DESCRIPTION) + " "
+                        + "WHERE rowid=NEW.rowid; "
+                        + "END;";
+
+    private static final String SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_UPDATE =
+            "CREATE TRIGGER " + LIST_ITEMS_TRIGGER_COLUMN_DESCRIPTION_PREVIEW + " "
+                    + "AFTER UPDATE OF " + LIST_ITEMS_COLUMN_DESCRIPTION + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                                + LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW + "="
+                                + getSqlDescriptionPreview("NEW." + LIST_ITEMS_COLUMN_DESCRIPTION) + " "
+                        + "WHERE rowid=NEW.rowid; "
+                        + "END;";
+
+    /* Entries. Hash of synchronized fields, and its value, when entry was last synchronized */
+    private static final String SQL_LIST_ITEMS_CONTENT_HASH_ADD_COLUMN =
+            "ALTER TABLE " + LIST_ITEMS_TABLE_NAME + " "
+                    + "ADD COLUMN " + LIST_ITEMS_COLUMN_CONTENT_HASH + " INTEGER;";
+
+    private static final String SQL_LIST_ITEMS_SYNCED_HASH_ADD_COLUMN =
+            "ALTER TABLE " + LIST_ITEMS_TABLE_NAME + " "
+                    + "ADD COLUMN " + LIST_ITEMS_COLUMN_SYNCED_HASH + " INTEGER;";
+
+    private static final String SQL_LIST_ITEMS_CONTENT_HASH_UPDATE =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + LIST_ITEMS_COLUMN_CONTENT_HASH + "=? "
+                    + "WHERE " + BASE_COLUMN_ID + "=?;";
+
+    /* Entries. Keys of version "A" are consecutive, spread them with gaps, keeping the order. */
+    private static final String SQL_LIST_ITEMS_MANUALLY_SPREAD =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + LIST_ITEMS_COLUMN_MANUALLY + "="
+                    + LIST_ITEMS_COLUMN_MANUALLY + "*" + LIST_ITEMS_MANUALLY_GAP + ";";
+
+
+    /*
+        Indexes
+     */
+
+    /* Entries. Duplicates of sync id, which prevents creating of unique index.
+     * The oldest keeps sync id, others become not synchronized, and are added on server
+     * as new entries with the next synchronization. */
+    private static final String SQL_LIST_ITEMS_CLEAR_SYNC_ID_DUPLICATES =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + COMMON_COLUMN_SYNC_ID + "=NULL "
+                    + "WHERE " + COMMON_COLUMN_SYNC_ID + " IS NOT NULL "
+                    + "AND " + BASE_COLUMN_ID + " NOT IN ("
+                        + "SELECT MIN(" + BASE_COLUMN_ID + ") FROM " + LIST_ITEMS_TABLE_NAME + " "
+                        + "WHERE " + COMMON_COLUMN_SYNC_ID + " IS NOT NULL "
+                        + "GROUP BY " + COMMON_COLUMN_SYNC_ID + ");";
+
+    /* Entries. Sync id. Multiple NULL values (not synchronized entries) are allowed. */
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_SYNC_ID =
+            "CREATE UNIQUE INDEX " + LIST_ITEMS_INDEX_SYNC_ID + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + COMMON_COLUMN_SYNC_ID + ");";
+
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_COLOR =
+            "CREATE INDEX " + LIST_ITEMS_INDEX_COLOR + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + LIST_ITEMS_COLUMN_COLOR + ");";
+
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_CREATED =
+            "CREATE INDEX " + LIST_ITEMS_INDEX_CREATED + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + LIST_ITEMS_COLUMN_CREATED + ");";
+
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_EDITED =
+            "CREATE INDEX " + LIST_ITEMS_INDEX_EDITED + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + LIST_ITEMS_COLUMN_EDITED + ");";
+
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_VIEWED =
+            "CREATE INDEX " + LIST_ITEMS_INDEX_VIEWED + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + LIST_ITEMS_COLUMN_VIEWED + ");";
+
+    private static final String SQL_LIST_ITEMS_CREATE_INDEX_MANUALLY =
+            "CREATE INDEX " + LIST_ITEMS_INDEX_MANUALLY + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " (" + LIST_ITEMS_COLUMN_MANUALLY + ");";
+
+
+    /*
+        Full-text search
+     */
+
+    /* Entries. Shadow table. Columns are renamed, to avoid ambiguity, when joined with entries. */
+    private static final String SQL_LIST_ITEMS_FTS_CREATE_TABLE =
+            "CREATE VIRTUAL TABLE " + LIST_ITEMS_FTS_TABLE_NAME + " USING fts4("
+                    + LIST_ITEMS_FTS_COLUMN_TITLE + ", "
+                    + LIST_ITEMS_FTS_COLUMN_DESCRIPTION + ", "
+                    + "tokenize=" + LIST_ITEMS_FTS_TOKENIZER + ");";
+
+    /* Entries. Shadow table. Fill with existing entries */
+    private static final String SQL_LIST_ITEMS_FTS_POPULATE =
+            "INSERT INTO " + LIST_ITEMS_FTS_TABLE_NAME + " ("
+                    + LIST_ITEMS_FTS_COLUMN_DOC_ID + ", "
+                    + LIST_ITEMS_FTS_COLUMN_TITLE + ", "
+                    + LIST_ITEMS_FTS_COLUMN_DESCRIPTION + ") "
+                    + "SELECT "
+                    + BASE_COLUMN_ID + ", "
+                    + LIST_ITEMS_COLUMN_TITLE + ", "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION + " "
+                    + "FROM " + LIST_ITEMS_TABLE_NAME + ";";
+
+    private static final String SQL_LIST_ITEMS_FTS_INSERT_TRIGGER =
+            "CREATE TRIGGER " + LIST_ITEMS_FTS_TRIGGER_INSERT + " "
+                    + "AFTER INSERT ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "INSERT INTO " + LIST_ITEMS_FTS_TABLE_NAME + " ("
+                                + LIST_ITEMS_FTS_COLUMN_DOC_ID + ", "
+                                + LIST_ITEMS_FTS_COLUMN_TITLE + ", "
+                                + LIST_ITEMS_FTS_COLUMN_DESCRIPTION + ") "
+                            + "VALUES ("
+                                + "NEW." + BASE_COLUMN_ID + ", "
+                                + "NEW." + LIST_ITEMS_COLUMN_TITLE + ", "
+                                + "NEW." + LIST_ITEMS_COLUMN_DESCRIPTION + "); "
+                        + "END;";
+
+    /* Only text columns, so reordering, viewing etc. does not touch the index. */
+    private static final String SQL_LIST_ITEMS_FTS_UPDATE_TRIGGER =
+            "CREATE TRIGGER " + LIST_ITEMS_FTS_TRIGGER_UPDATE + " "
+                    + "AFTER UPDATE OF "
+                        + LIST_ITEMS_COLUMN_TITLE + ", "
+                        + LIST_ITEMS_COLUMN_DESCRIPTION + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "UPDATE " + LIST_ITEMS_FTS_TABLE_NAME + " SET "
+                                + LIST_ITEMS_FTS_COLUMN_TITLE + "=NEW." + LIST_ITEMS_COLUMN_TITLE + ", "
+                                + LIST_ITEMS_FTS_COLUMN_DESCRIPTION + "=NEW."
+                                + LIST_ITEMS_COLUMN_DESCRIPTION + " "
+                            + "WHERE " + LIST_ITEMS_FTS_COLUMN_DOC_ID + "=NEW." + BASE_COLUMN_ID + "; "
+                        + "END;";
+
+    private static final String SQL_LIST_ITEMS_FTS_DELETE_TRIGGER =
+            "CREATE TRIGGER " + LIST_ITEMS_FTS_TRIGGER_DELETE + " "
+                    + "AFTER DELETE ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + "DELETE FROM " + LIST_ITEMS_FTS_TABLE_NAME + " "
+                            + "WHERE " + LIST_ITEMS_FTS_COLUMN_DOC_ID + "=OLD." + BASE_COLUMN_ID + "; "
+                        + "END;";
+
+
+    /*
+        Version of entries
+     */
+
+    private static final String SQL_LIST_ITEMS_VERSION_CREATE_TABLE =
+            "CREATE TABLE " + LIST_ITEMS_VERSION_TABLE_NAME + " ("
+                    + LIST_ITEMS_VERSION_COLUMN_VERSION + " INTEGER NOT NULL); ";
+
+    private static final String SQL_LIST_ITEMS_VERSION_POPULATE =
+            "INSERT INTO " + LIST_ITEMS_VERSION_TABLE_NAME + " ("
+                    + LIST_ITEMS_VERSION_COLUMN_VERSION + ") VALUES (0);";
+
+    private static final String SQL_LIST_ITEMS_VERSION_INCREMENT =
+            "UPDATE " + LIST_ITEMS_VERSION_TABLE_NAME + " SET "
+                    + LIST_ITEMS_VERSION_COLUMN_VERSION + "="
+                    + LIST_ITEMS_VERSION_COLUMN_VERSION + "+1;";
+
+    /* Subquery, which is selected together with counts, so both are from the same snapshot */
+    private static final String SQL_LIST_ITEMS_VERSION_SELECT =
+            "(SELECT " + LIST_ITEMS_VERSION_COLUMN_VERSION + " "
+                    + "FROM " + LIST_ITEMS_VERSION_TABLE_NAME + ")";
+
+
+    /*
+        Change log
+     */
+
+    private static final String SQL_CHANGE_LOG_INSERT_TRIGGER =
+            "CREATE TRIGGER " + CHANGE_LOG_TRIGGER_INSERT + " "
+                    + "AFTER INSERT ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + getSqlChangeLogInsert("NEW", CHANGE_LOG_ACTION_INSERT)
+                        + "END;";
+
+    /* Only content (see ListEntry#getContentHash(Cursor)), so reordering, viewing,
+     * marking as synchronized etc. are not logged. */
+    private static final String SQL_CHANGE_LOG_UPDATE_TRIGGER =
+            "CREATE TRIGGER " + CHANGE_LOG_TRIGGER_UPDATE + " "
+                    + "AFTER UPDATE OF " + LIST_ITEMS_COLUMN_CONTENT_HASH + " "
+                    + "ON " + LIST_ITEMS_TABLE_NAME + " "
+                    + "WHEN OLD." + LIST_ITEMS_COLUMN_CONTENT_HASH + " IS NOT NEW."
+                    + LIST_ITEMS_COLUMN_CONTENT_HASH + " "
+                        + "BEGIN "
+                            + getSqlChangeLogInsert("NEW", CHANGE_LOG_ACTION_UPDATE)
+                        + "END;";
+
+    private static final String SQL_CHANGE_LOG_DELETE_TRIGGER =
+            "CREATE TRIGGER " + CHANGE_LOG_TRIGGER_DELETE + " "
+                    + "AFTER DELETE ON " + LIST_ITEMS_TABLE_NAME + " "
+                        + "BEGIN "
+                            + getSqlChangeLogInsert("OLD", CHANGE_LOG_ACTION_DELETE)
+                        + "END;";
+
 
     /*
         ...
@@ -170,6 +557,12 @@ public final class DbHelper extends SQLiteOpenHelper {
     @SuppressWarnings("NullableProblems")
     @NonNull private static final String DB_FAILED_MESSAGE;
 
+    @NonNull private final String mUserId;
+
+    /* Counts of entries, by selection. Valid while version of entries is not changed */
+    @NonNull private final Map<String, Integer> mEntriesCountCache;
+    private long mEntriesCountCacheVersion;
+
 
     /*
         Init
@@ -209,6 +602,13 @@ public final class DbHelper extends SQLiteOpenHelper {
 
         // userId as Database name.
         super(context, userId, null, DB_VERSION);
+        mUserId = userId;
+
+        // Readers use own connections from the pool, and are not blocked by the writer.
+        setWriteAheadLoggingEnabled(true);
+
+        mEntriesCountCache = new HashMap<>();
+        mEntriesCountCacheVersion = -1;
     }
 
 
@@ -216,8 +616,22 @@ public final class DbHelper extends SQLiteOpenHelper {
         Init database
      */
 
+    /**
+     * Storage tuning of primary (writer) connection, see "DB_*" fields of {@link BuildConfig}.
+     */
+    @Override
+    public void onConfigure(final SQLiteDatabase db) {
+        execPragma(db, "cache_size = -" + BuildConfig.DB_CACHE_SIZE_KB);
+        execPragma(db, "mmap_size = " + BuildConfig.DB_MMAP_SIZE);
+        execPragma(db, "synchronous = " + BuildConfig.DB_SYNCHRONOUS);
+    }
+
     @Override
     public void onCreate(final SQLiteDatabase db) {
+        // Database may be recreated with the same name, so version of entries starts again,
+        // and changes since the last synchronization are not known.
+        clearEntriesCountCache();
+        SpUsers.setSyncToken(getAppContext(), mUserId, null);
         updateDatabase(db, 0, DB_VERSION);
     }
 
@@ -226,13 +640,19 @@ public final class DbHelper extends SQLiteOpenHelper {
         updateDatabase(db, oldVersion, newVersion);
     }
 
-    // Creating a new table and populating with default values, or update if database exist.
+    /**
+     * Creating a new tables and populating with default values, or update if database exist.
+     * Every version step is applied in order, so new database passes through all of them.
+     * @param db            Database.
+     * @param oldVersion    Current version of database. "0" if database is new.
+     * @param newVersion    Target version of database.
+     */
     private void updateDatabase(
             @NonNull final SQLiteDatabase db,
             final int oldVersion,
             @SuppressWarnings("UnusedParameters") final int newVersion) {
 
-        if (oldVersion == 0) {
+        if (oldVersion < DB_VERSION_A) {
             db.beginTransaction();
             try {
                 db.execSQL(SQL_FAVORITE_CREATE_TABLE);
@@ -253,6 +673,245 @@ public final class DbHelper extends SQLiteOpenHelper {
                 db.endTransaction();
             }
         }
+
+        if (oldVersion < DB_VERSION_B) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_LIST_ITEMS_CLEAR_SYNC_ID_DUPLICATES);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_SYNC_ID);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_COLOR);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_CREATED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_EDITED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_VIEWED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_MANUALLY);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_C) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_LIST_ITEMS_FTS_CREATE_TABLE);
+                db.execSQL(SQL_LIST_ITEMS_FTS_POPULATE);
+                db.execSQL(SQL_LIST_ITEMS_FTS_INSERT_TRIGGER);
+                db.execSQL(SQL_LIST_ITEMS_FTS_UPDATE_TRIGGER);
+                db.execSQL(SQL_LIST_ITEMS_FTS_DELETE_TRIGGER);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_D) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_AUTOINCREMENT_DROP);
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_SPREAD);
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_APPEND);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_E) {
+            db.beginTransaction();
+            try {
+                // Type of column cannot be altered, so table is rebuilt.
+                db.execSQL(SQL_LIST_ITEMS_EPOCH_CREATE_TABLE);
+                db.execSQL(SQL_LIST_ITEMS_EPOCH_COPY);
+                db.execSQL(SQL_LIST_ITEMS_EPOCH_DELETE_SEQUENCE);
+                db.execSQL(SQL_LIST_ITEMS_EPOCH_MOVE_SEQUENCE);
+                db.execSQL(SQL_LIST_ITEMS_DROP_TABLE);
+                db.execSQL(SQL_LIST_ITEMS_EPOCH_RENAME_TABLE);
+
+                // Indexes and triggers are dropped with the table. Full-text index is kept,
+                // because ids are not changed.
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_SYNC_ID);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_COLOR);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_CREATED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_EDITED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_VIEWED);
+                db.execSQL(SQL_LIST_ITEMS_CREATE_INDEX_MANUALLY);
+                db.execSQL(SQL_LIST_ITEMS_FTS_INSERT_TRIGGER);
+                db.execSQL(SQL_LIST_ITEMS_FTS_UPDATE_TRIGGER);
+                db.execSQL(SQL_LIST_ITEMS_FTS_DELETE_TRIGGER);
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_APPEND);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_F) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_LIST_ITEMS_VERSION_CREATE_TABLE);
+                db.execSQL(SQL_LIST_ITEMS_VERSION_POPULATE);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_G) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_ADD_COLUMN);
+                db.execSQL(SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_POPULATE);
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_APPEND_DROP);
+                db.execSQL(SQL_LIST_ITEMS_MANUALLY_APPEND_PREVIEW);
+                db.execSQL(SQL_LIST_ITEMS_DESCRIPTION_PREVIEW_UPDATE);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_H) {
+            db.beginTransaction();
+            try {
+                // Hash is computed in java, so existing entries are populated row by row.
+                // Synced hash is unknown, it is set on the next synchronization.
+                db.execSQL(SQL_LIST_ITEMS_CONTENT_HASH_ADD_COLUMN);
+                db.execSQL(SQL_LIST_ITEMS_SYNCED_HASH_ADD_COLUMN);
+                populateContentHash(db);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        if (oldVersion < DB_VERSION_I) {
+            db.beginTransaction();
+            try {
+                db.execSQL(SQL_CHANGE_LOG_CREATE_TABLE);
+                db.execSQL(SQL_CHANGE_LOG_POPULATE);
+                db.execSQL(SQL_CHANGE_LOG_INSERT_TRIGGER);
+                db.execSQL(SQL_CHANGE_LOG_UPDATE_TRIGGER);
+                db.execSQL(SQL_CHANGE_LOG_DELETE_TRIGGER);
+
+                db.setTransactionSuccessful();
+
+            } catch (SQLiteException e) {
+                Log.e(TAG, e.toString());
+
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    /**
+     * @param description Column or expression with full description.
+     * @return SQL expression, first {@link #LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH}
+     * characters of description. NULL remains NULL.
+     */
+    @NonNull
+    private static String getSqlDescriptionPreview(@NonNull final String description) {
+        return "substr(" + description + ", 1, " + LIST_ITEMS_DESCRIPTION_PREVIEW_LENGTH + ")";
+    }
+
+    /**
+     * @param row       "NEW" or "OLD".
+     * @param action    See CHANGE_LOG_ACTION_*.
+     * @return SQL statement of trigger body, adding id of the row to the change log.
+     */
+    @NonNull
+    private static String getSqlChangeLogInsert(
+            @NonNull final String row,
+            final int action) {
+
+        return "INSERT INTO " + CHANGE_LOG_TABLE_NAME + " ("
+                    + CHANGE_LOG_COLUMN_ENTRY_ID + ", "
+                    + CHANGE_LOG_COLUMN_ACTION + ") "
+                + "VALUES ("
+                    + row + "." + BASE_COLUMN_ID + ", "
+                    + action + "); ";
+    }
+
+    /**
+     * @param column Column with date in "YYYY-MM-DD HH:MM:SS" format (UTC).
+     * @return SQL expression, converting column to milliseconds since epoch. NULL remains NULL.
+     */
+    @NonNull
+    private static String getSqlDatetimeToEpochMillis(@NonNull final String column) {
+        return "CAST(strftime('%s', " + column + ") AS INTEGER) * 1000";
+    }
+
+    /**
+     * Compute content hash of every entry.
+     * See {@link ListEntry#getContentHash(Cursor)}.
+     * @param db Database.
+     */
+    private static void populateContentHash(@NonNull final SQLiteDatabase db) {
+        final SQLiteStatement update = db.compileStatement(SQL_LIST_ITEMS_CONTENT_HASH_UPDATE);
+        try (Cursor cursor = db.query(LIST_ITEMS_TABLE_NAME, null, null, null, null, null, null)) {
+            final int indexId = cursor.getColumnIndex(BASE_COLUMN_ID);
+            while (cursor.moveToNext()) {
+                update.bindLong(1, ListEntry.getContentHash(cursor));
+                update.bindLong(2, cursor.getLong(indexId));
+                update.executeUpdateDelete();
+            }
+
+        } finally {
+            update.close();
+        }
+    }
+
+    /**
+     * Execute pragma. Some pragmas return result, so query is used instead of execSQL().
+     * Unknown pragmas (e.g. "mmap_size" on old SQLite versions) are ignored by SQLite.
+     * @param db        Database.
+     * @param pragma    Pragma with value, without "PRAGMA" keyword.
+     */
+    private static void execPragma(
+            @NonNull final SQLiteDatabase db,
+            @NonNull final String pragma) {
+
+        try (Cursor cursor = db.rawQuery("PRAGMA " + pragma, null)) {
+            cursor.moveToFirst();
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+        }
     }
 
     private void populateDatabase(@NonNull final SQLiteDatabase db) {
@@ -287,6 +946,24 @@ public final class DbHelper extends SQLiteOpenHelper {
             @NonNull final String tableName,
             @Nullable final DbQueryBuilder queryBuilder) {
 
+        return getEntries(context, tableName, null, queryBuilder);
+    }
+
+    /**
+     * Get entries from database with specified parameters.
+     * @param context       Context.
+     * @param tableName     Table name, or join clause.
+     * @param projection    Columns to return. If null, then all columns.
+     * @param queryBuilder  Query builder, contains specified params. If null, then get all entries.
+     * @return Result cursor.
+     */
+    @Nullable
+    public static Cursor getEntries(
+            @NonNull final Context context,
+            @NonNull final String tableName,
+            @Nullable final String[] projection,
+            @Nullable final DbQueryBuilder queryBuilder) {
+
         try {
             final SQLiteDatabase db = getReadableDb(context);
             if (db == null) {
@@ -294,7 +971,7 @@ public final class DbHelper extends SQLiteOpenHelper {
             }
             return db.query(
                     tableName,
-                    null,
+                    projection,
                     queryBuilder == null ? null : queryBuilder.getSelectionResult(),
                     queryBuilder == null ? null : queryBuilder.getSelectionArgs(),
                     null,
@@ -310,7 +987,8 @@ public final class DbHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Get count of entries from database with specified parameters.
+     * Get count of entries from database with specified parameters, with "COUNT(*)" query.<br>
+     * Counts of {@link #LIST_ITEMS_TABLE_NAME} are cached, until entries are changed.
      * @param context       Context.
      * @param tableName     Table name.
      * @param queryBuilder  Query builder, contains specified params. If null, then count all entries.
@@ -318,21 +996,255 @@ public final class DbHelper extends SQLiteOpenHelper {
      */
     public static int getEntriesCount(
             @NonNull final Context context,
-            @SuppressWarnings("SameParameterValue") @NonNull final String tableName,
+            @NonNull final String tableName,
             @Nullable final DbQueryBuilder queryBuilder) {
 
-        final Cursor cursor = getEntries(context, tableName, queryBuilder);
-        if (cursor != null) {
-            try {
-                return cursor.getCount();
-            } finally {
-                cursor.close();
+        final List<DbQueryBuilder> queryBuilders = new ArrayList<>(1);
+        queryBuilders.add(queryBuilder);
+        final int[] counts = getEntriesCounts(context, tableName, queryBuilders);
+        return counts == null ? -1 : counts[0];
+    }
+
+    /**
+     * Get counts of entries from database, for every given query builder.<br>
+     * Not cached counts are computed with one query, where every count is
+     * a "SUM(CASE WHEN selection THEN 1 ELSE 0 END)" column, so table is read once.<br>
+     * Counts of {@link #LIST_ITEMS_TABLE_NAME} are cached, until entries are changed
+     * (see {@link #LIST_ITEMS_VERSION_TABLE_NAME}).
+     * @param context       Context.
+     * @param tableName     Table name.
+     * @param queryBuilders Query builders, contains specified params. If element is null,
+     *                      then count all entries.
+     * @return              If success, then return counts of rows, in the order of query builders.
+     *                      If error, then return null.
+     */
+    @Nullable
+    public static int[] getEntriesCounts(
+            @NonNull final Context context,
+            @NonNull final String tableName,
+            @NonNull final List<DbQueryBuilder> queryBuilders) {
+
+        try {
+            final DbHelper dbHelper = getInstance(context);
+            final SQLiteDatabase db = getReadableDb(context);
+            if (dbHelper == null || db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            final boolean cached = LIST_ITEMS_TABLE_NAME.equals(tableName);
+            final int n = queryBuilders.size();
+            final int[] counts = new int[n];
+            final String[] keys = new String[n];
+
+            // Seek in cache.
+            final List<Integer> notCached = new ArrayList<>(n);
+            if (cached) {
+                final long version = getListItemsVersion(db);
+                for (int i = 0; i < n; i++) {
+                    keys[i] = getEntriesCountKey(queryBuilders.get(i));
+                    final Integer count = dbHelper.getCachedEntriesCount(version, keys[i]);
+                    if (count == null) {
+                        notCached.add(i);
+                    } else {
+                        counts[i] = count;
+                    }
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    notCached.add(i);
+                }
+            }
+
+            if (notCached.isEmpty()) {
+                return counts;
+            }
+
+            // Count the rest with one query.
+            final List<String> selections = new ArrayList<>(notCached.size());
+            final List<String> selectionArgs = new ArrayList<>();
+            for (int i : notCached) {
+                final DbQueryBuilder queryBuilder = queryBuilders.get(i);
+                selections.add(queryBuilder == null ? null : queryBuilder.getSelectionResult());
+                if (queryBuilder != null && queryBuilder.getSelectionArgs() != null) {
+                    Collections.addAll(selectionArgs, queryBuilder.getSelectionArgs());
+                }
+            }
+
+            final StringBuilder sql = new StringBuilder("SELECT ");
+            if (cached) {
+                sql.append(SQL_LIST_ITEMS_VERSION_SELECT).append(", ");
+            }
+
+            if (selections.size() == 1) {
+                // One count, with "WHERE", so indexes can be used.
+                sql.append("COUNT(*) FROM ").append(tableName);
+                if (selections.get(0) != null) {
+                    sql.append(" WHERE ").append(selections.get(0));
+                }
+
+            } else {
+                boolean all = false;
+                for (int i = 0; i < selections.size(); i++) {
+                    final String selection = selections.get(i);
+                    if (i > 0) {
+                        sql.append(", ");
+                    }
+                    if (selection == null) {
+                        all = true;
+                        sql.append("COUNT(*)");
+                    } else {
+                        sql     .append("IFNULL(SUM(CASE WHEN (")
+                                .append(selection)
+                                .append(") THEN 1 ELSE 0 END), 0)");
+                    }
+                }
+                sql.append(" FROM ").append(tableName);
+
+                // Skip rows, which are not counted by any selection.
+                if (!all) {
+                    sql.append(" WHERE ");
+                    for (int i = 0; i < selections.size(); i++) {
+                        if (i > 0) {
+                            sql.append(" OR ");
+                        }
+                        sql.append('(').append(selections.get(i)).append(')');
+                    }
+                    final int caseArgs = selectionArgs.size();
+                    for (int i = 0; i < caseArgs; i++) {
+                        selectionArgs.add(selectionArgs.get(i));
+                    }
+                }
+            }
+
+            try (Cursor cursor = db.rawQuery(
+                    sql.toString(),
+                    selectionArgs.toArray(new String[selectionArgs.size()]))) {
+
+                if (!cursor.moveToFirst()) {
+                    throw new SQLiteException("[ERROR] Count query returned no rows.");
+                }
+
+                final int offset = cached ? 1 : 0;
+                for (int i = 0; i < notCached.size(); i++) {
+                    final int index = notCached.get(i);
+                    counts[index] = cursor.getInt(i + offset);
+                    if (cached) {
+                        dbHelper.putCachedEntriesCount(
+                                cursor.getLong(0),
+                                keys[index],
+                                counts[index]);
+                    }
+                }
+            }
+
+            return counts;
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param context Context.
+     * @return Version of entries, which is incremented on every change of
+     * {@link #LIST_ITEMS_TABLE_NAME}, see {@link #incrementListItemsVersion(SQLiteDatabase)}.
+     * If error, then -1.
+     */
+    public static long getListItemsVersion(@NonNull final Context context) {
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
             }
+            return getListItemsVersion(db);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
         }
 
         return -1;
     }
 
+    private static long getListItemsVersion(@NonNull final SQLiteDatabase db) {
+        return DatabaseUtils.longForQuery(db, "SELECT " + SQL_LIST_ITEMS_VERSION_SELECT, null);
+    }
+
+    /**
+     * Increment version of entries, so cached counts and search results are not valid anymore.
+     * Must be called once by every transaction, which inserts or deletes entries,
+     * or changes their fields. Changes of manual order and of synchronization state
+     * do not change counts, and do not increment version.<br>
+     * Is called in the same transaction, so new version and new entries are visible together.
+     * @param db Opened writable database.
+     * @throws SQLiteException If database error.
+     */
+    public static void incrementListItemsVersion(@NonNull final SQLiteDatabase db)
+            throws SQLiteException {
+
+        db.execSQL(SQL_LIST_ITEMS_VERSION_INCREMENT);
+    }
+
+    /**
+     * @param queryBuilder Query builder. If null, then all entries.
+     * @return Key of count in cache. Selection and arguments.
+     */
+    @NonNull
+    private static String getEntriesCountKey(@Nullable final DbQueryBuilder queryBuilder) {
+        if (queryBuilder == null || queryBuilder.getSelectionResult() == null) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(queryBuilder.getSelectionResult());
+        final String[] selectionArgs = queryBuilder.getSelectionArgs();
+        if (selectionArgs != null) {
+            for (String arg : selectionArgs) {
+                sb.append('\u0000').append(arg);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param version   Current version of entries.
+     * @param key       Key, see {@link #getEntriesCountKey(DbQueryBuilder)}.
+     * @return Cached count, or null if not exists, or entries were changed since.
+     */
+    @Nullable
+    private Integer getCachedEntriesCount(final long version, @NonNull final String key) {
+        synchronized (mEntriesCountCache) {
+            return version == mEntriesCountCacheVersion ? mEntriesCountCache.get(key) : null;
+        }
+    }
+
+    /**
+     * @param version   Version of entries, which count was computed with.
+     * @param key       Key, see {@link #getEntriesCountKey(DbQueryBuilder)}.
+     * @param count     Count.
+     */
+    private void putCachedEntriesCount(
+            final long version,
+            @NonNull final String key,
+            final int count) {
+
+        synchronized (mEntriesCountCache) {
+            if (version != mEntriesCountCacheVersion) {
+                mEntriesCountCache.clear();
+                mEntriesCountCacheVersion = version;
+            }
+            mEntriesCountCache.put(key, count);
+        }
+    }
+
+    private void clearEntriesCountCache() {
+        synchronized (mEntriesCountCache) {
+            mEntriesCountCache.clear();
+            mEntriesCountCacheVersion = -1;
+        }
+    }
+
     /**
      * Insert entry with single value, in database.
      * @param context       Context.
@@ -473,6 +1385,56 @@ public final class DbHelper extends SQLiteOpenHelper {
         return false;
     }
 
+    /**
+     * Delete entries with single value from database, in one transaction.
+     * @param context       Context.
+     * @param tableName     Table, where to delete entries.
+     * @param columnName    Column name.
+     * @param values        Values.
+     * @return              Number of deleted entries. If error, then "-1".
+     */
+    public static int deleteEntriesWithSingle(
+            @NonNull final Context context,
+            @NonNull final String tableName,
+            @SuppressWarnings("SameParameterValue") @NonNull final String columnName,
+            @NonNull final Iterable<String> values) {
+
+        try {
+            final SQLiteDatabase db = getWritableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            final SQLiteStatement delete = db.compileStatement(
+                    "DELETE FROM " + tableName + " WHERE " + columnName + " = ?");
+            int counter = 0;
+            try {
+                db.beginTransaction();
+                try {
+                    for (String value : values) {
+                        delete.bindString(1, value);
+                        counter += delete.executeUpdateDelete();
+                    }
+                    db.setTransactionSuccessful();
+
+                } finally {
+                    db.endTransaction();
+                }
+
+            } finally {
+                delete.close();
+            }
+
+            return counter;
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return -1;
+    }
+
     /**
      * Finding cursor position by given parameters.
      * @param cursor Cursor.
@@ -33,12 +33,15 @@ public final class DbQueryBuilder {
     @NonNull public static final String OPERATOR_EQUALS     = " = ";
     @NonNull public static final String OPERATOR_BETWEEN    = " BETWEEN ";
     @NonNull public static final String OPERATOR_LIKE       = " LIKE ";
+    @NonNull public static final String OPERATOR_MATCH      = " MATCH ";
 
     @NonNull private static final String OPERATOR_OR        = " OR ";
     @NonNull private static final String OPERATOR_AND       = " AND ";
 
     @NonNull private static final String SYMBOL_MASK        = " ? ";
     @NonNull private static final String SYMBOL_PERCENT     = "%";
+    @NonNull private static final String SYMBOL_QUOTE       = "\"";
+    @NonNull private static final String SYMBOL_ASTERISK    = "*";
 
     @Nullable private String[] mSelection;
     @Nullable private String[] mSelectionArgs;
@@ -63,6 +66,7 @@ public final class DbQueryBuilder {
      * See also:<br>
      *     {@link #OPERATOR_EQUALS}<br>
      *     {@link #OPERATOR_LIKE}<br>
+     *     {@link #OPERATOR_MATCH}<br>
      *     {@link #OPERATOR_BETWEEN}<br>
      *
      * @param column    Column.
@@ -88,6 +92,7 @@ public final class DbQueryBuilder {
      * See also:<br>
      *     {@link #OPERATOR_EQUALS}<br>
      *     {@link #OPERATOR_LIKE}<br>
+     *     {@link #OPERATOR_MATCH}<br>
      *     {@link #OPERATOR_BETWEEN}<br>
      *
      * @param column    Column.
@@ -176,7 +181,8 @@ public final class DbQueryBuilder {
      *
      * @param operatorPrimary   {@link #OPERATOR_OR}, {@link #OPERATOR_AND}.
      * @param column            Column.
-     * @param operatorSecondary {@link #OPERATOR_EQUALS}, {@link #OPERATOR_BETWEEN}, {@link #OPERATOR_LIKE}.
+     * @param operatorSecondary {@link #OPERATOR_EQUALS}, {@link #OPERATOR_BETWEEN}, {@link #OPERATOR_LIKE},
+     *                          {@link #OPERATOR_MATCH}.
      * @param operands          Operands.
      * @return A reference to this object.
      */
@@ -190,17 +196,20 @@ public final class DbQueryBuilder {
         // Check supported operations.
         if (!(OPERATOR_BETWEEN.equals(operatorSecondary)
                 || OPERATOR_LIKE.equals(operatorSecondary)
+                || OPERATOR_MATCH.equals(operatorSecondary)
                 || OPERATOR_EQUALS.equals(operatorSecondary))) {
             throw new IllegalArgumentException(
-                    "Supported only 'BETWEEN', 'LIKE' and '=' operators");
+                    "Supported only 'BETWEEN', 'LIKE', 'MATCH' and '=' operators");
         }
 
         /*
             Example: "OR (title LIKE ?) "
+            Example: "OR (list_items_fts MATCH ?) "
             Example: "OR (color = ?) "
             Example: "OR (created BETWEEN ? AND ?) "
 
             Example: "OR (title LIKE %Droid%) "
+            Example: "OR (list_items_fts MATCH "Droid*") "
             Example: "OR (color = 12345) "
             Example: "OR (created BETWEEN 2017-04-25 21:25:35 AND 2017-04-25 21:25:35) "
         */
@@ -231,6 +240,21 @@ public final class DbQueryBuilder {
                                 + SYMBOL_PERCENT;
                 break;
 
+            // Column is a full-text search table, which must be in "FROM" clause.
+            // Example: " MATCH ?"
+            // Example: " MATCH "Droid*" "Studio*""
+            case OPERATOR_MATCH:
+                // Check exist one operand.
+                if (operands.length != 1) {
+                    throw new IllegalArgumentException(
+                            "Operator 'MATCH' must operate with 1 operand.");
+                } else {
+                    sb      .append(OPERATOR_MATCH)
+                            .append(SYMBOL_MASK);
+                }
+                operands[0] = getPrefixMatchQuery(operands[0]);
+                break;
+
             // Example: " = ?"
             // Example: " = 12345"
             case OPERATOR_EQUALS:
@@ -268,6 +292,41 @@ public final class DbQueryBuilder {
         return this;
     }
 
+    /**
+     * Convert text to full-text search query, where every word is a prefix.<br>
+     * Quotes are removed, so user input can not break the query syntax.<br>
+     * Example: "Droid Stu" -> ""Droid*" "Stu*"".
+     *
+     * @param text Text.
+     * @return Full-text search query. Words are combined with implicit 'AND'.
+     */
+    @NonNull
+    static String getPrefixMatchQuery(@NonNull final String text) {
+        final StringBuilder sb = new StringBuilder();
+        for (String word : text.replace(SYMBOL_QUOTE, " ").trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb      .append(SYMBOL_QUOTE)
+                    .append(word)
+                    .append(SYMBOL_ASTERISK)
+                    .append(SYMBOL_QUOTE);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param text Text.
+     * @return True if text contains words for full-text search query. Text of only
+     * whitespaces and quotes gives empty query, see {@link #getPrefixMatchQuery(String)}.
+     */
+    public static boolean hasPrefixMatchQuery(@Nullable final CharSequence text) {
+        return text != null && !getPrefixMatchQuery(text.toString()).isEmpty();
+    }
+
     /**
      * Update selection clauses.<br>
      * See: {@link #mSelection}, {@link #mSelectionArgs}.
@@ -44,6 +44,13 @@ public interface ItemTouchHelperAdapter {
     boolean onItemMove(int fromPosition, int toPosition);
 
 
+    /**
+     * Called when drag or swipe of an item is finished. Moves, reported by
+     * {@link #onItemMove(int, int)}, can be saved here, once per gesture.
+     */
+    void onItemDrop();
+
+
     /**
      * Called when an item has been dismissed by a swipe.<br/>
      * <br/>
@@ -131,5 +131,8 @@ public class ItemTouchHelperCallback extends ItemTouchHelper.Callback {
             ItemTouchHelperViewHolder itemViewHolder = (ItemTouchHelperViewHolder) viewHolder;
             itemViewHolder.onItemClear();
         }
+
+        // Notify the adapter of the drop
+        mAdapter.onItemDrop();
     }
 }
@@ -1,14 +1,21 @@
 package com.gamaliev.notes.common.rest;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
+ * Streamed responses are not stored in the http cache ("no-store"), they may be large.
+ * Other responses are cached, see {@link NoteApiUtils}.
+ *
  * @author Vadim Gamaliev
  *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
  */
@@ -20,9 +27,46 @@ public interface NoteApi {
     //    Call<String> getInfo();
     // --Commented out by Inspection STOP
 
+    /**
+     * @param pageToken Token of the page, received with the previous page ("next_page_token"),
+     *                  or null, for the first page.
+     * @param limit     Maximum number of notes in the page. Server may return less.
+     * @param eTag      ETag of the notes, received with the first page of the previous
+     *                  synchronization, or null. If notes are not changed since,
+     *                  then response is "304 Not Modified", without body.
+     * @return Notes of the page, in ascending order of note ids, so every page follows
+     * the previous one by ids. Response contains "next_page_token", if it is not the last page,
+     * and, if server supports "getChanges", token for it.
+     * Server without paging returns all notes, as the last page. If page token is not valid, then response status is "error".
+     * Response has header "ETag" of all notes, if server supports it.
+     * Response body must be read as stream, see {@link NoteStreamParser}. Body must be closed.
+     */
+    @Streaming
+    @Headers("Cache-Control: no-store")
     @GET("user/{user_id}/notes")
-    Call<String> getAll(@Path("user_id") final String userId);
+    Call<ResponseBody> getPage(
+            @Path("user_id") final String userId,
+            @Query("page_token") final String pageToken,
+            @Query("limit") final int limit,
+            @Header("If-None-Match") final String eTag);
+
+    /**
+     * @param sinceToken    Token, received with the previous "getPage" or "getChanges".
+     * @return Notes, which are added or updated since token, ids of deleted notes,
+     * and new token. If token is not valid, then response status is "error".
+     * Response body must be read as stream, see {@link NoteStreamParser}. Body must be closed.
+     */
+    @Streaming
+    @Headers("Cache-Control: no-store")
+    @GET("user/{user_id}/notes/changes")
+    Call<ResponseBody> getChanges(
+            @Path("user_id") final String userId,
+            @Query("since") final String sinceToken);
 
+    /**
+     * @return Response with the note. Response is cached, and is revalidated with ETag,
+     * if server supports it, so unchanged note is not downloaded again.
+     */
     @GET("user/{user_id}/note/{note_id}")
     Call<String> get(
             @Path("user_id") final String userId,
@@ -45,4 +89,39 @@ public interface NoteApi {
     Call<String> delete(
             @Path("user_id") final String userId,
             @Path("note_id") final String noteId);
+
+
+    /*
+        Batch. See {@link NoteApiBatch}.
+     */
+
+    /**
+     * @param notesJson Json-array of notes.
+     * @return Response with json-array of assigned note ids, in order of the notes.
+     */
+    @Headers("Content-Type: application/json")
+    @POST("user/{user_id}/notes/batch")
+    Call<String> addBatch(
+            @Path("user_id") final String userId,
+            @Body final String notesJson);
+
+    /**
+     * @param notesJson Json-array of notes, each with its id.
+     * @return Response with json-array of updated note ids.
+     */
+    @Headers("Content-Type: application/json")
+    @POST("user/{user_id}/notes/batch/update")
+    Call<String> updateBatch(
+            @Path("user_id") final String userId,
+            @Body final String notesJson);
+
+    /**
+     * @param noteIdsJson Json-array of note ids.
+     * @return Response with json-array of deleted note ids.
+     */
+    @Headers("Content-Type: application/json")
+    @POST("user/{user_id}/notes/batch/delete")
+    Call<String> deleteBatch(
+            @Path("user_id") final String userId,
+            @Body final String noteIdsJson);
 }
@@ -0,0 +1,450 @@
+package com.gamaliev.notes.common.rest;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_ID;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_STATUS;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_OK;
+
+/**
+ * Adds, updates and deletes many notes of one user with batch requests of {@link NoteApi},
+ * up to {@link #BATCH_SIZE} notes per request.<br>
+ * Requests are executed by a worker pool, so up to "max requests in flight" requests
+ * are sent at the same time. Pool is created with the first parallel requests, and is kept
+ * for all operations of the instance, until {@link #shutdown()}. Results are returned in order of the notes, after all requests
+ * are completed, so caller can apply them in one database transaction.<br>
+ * If the server does not support batch requests (responds with "404", "405" or "501"),
+ * then this and all next operations of the instance fall back to single requests.<br>
+ * Operations of one instance must not be called concurrently.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public final class NoteApiBatch {
+
+    /* Logger */
+    @NonNull private static final String TAG = NoteApiBatch.class.getSimpleName();
+
+    /* ... */
+    public static final int BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 4;
+    private static final int HTTP_NOT_FOUND             = 404;
+    private static final int HTTP_METHOD_NOT_ALLOWED    = 405;
+    private static final int HTTP_NOT_IMPLEMENTED       = 501;
+
+    @NonNull private final NoteApi mNoteApi;
+    @Nullable private final String mUserId;
+    private final int mMaxRequestsInFlight;
+    private volatile boolean mBatchSupported = true;
+
+    /* Worker pool, created when needed. Used only by the calling thread */
+    @Nullable private ExecutorService mExecutor;
+
+
+    /*
+        Init
+     */
+
+    /**
+     * @param noteApi   Note api.
+     * @param userId    Sync id of the user.
+     */
+    public NoteApiBatch(
+            @NonNull final NoteApi noteApi,
+            @Nullable final String userId) {
+
+        this(noteApi, userId, DEFAULT_MAX_REQUESTS_IN_FLIGHT);
+    }
+
+    /**
+     * @param noteApi               Note api.
+     * @param userId                Sync id of the user.
+     * @param maxRequestsInFlight   Max number of requests, which are sent at the same time.
+     *                              If less than 1, then 1.
+     */
+    public NoteApiBatch(
+            @NonNull final NoteApi noteApi,
+            @Nullable final String userId,
+            final int maxRequestsInFlight) {
+
+        mNoteApi = noteApi;
+        mUserId = userId;
+        mMaxRequestsInFlight = Math.max(1, maxRequestsInFlight);
+    }
+
+
+    /*
+        ...
+     */
+
+    /**
+     * @param notes Notes in json-format, without ids.
+     * @return Assigned ids, in order of the notes. Null for notes, which are not added.
+     */
+    @NonNull
+    public List<String> add(@NonNull final List<JSONObject> notes) {
+        final String[] ids = new String[notes.size()];
+        execute(notes.size(), new Operation() {
+            @Nullable
+            @Override
+            public Call<String> getBatchCall(final int from, final int to) {
+                return mNoteApi.addBatch(
+                        mUserId,
+                        new JSONArray(notes.subList(from, to)).toString());
+            }
+
+            @NonNull
+            @Override
+            public Call<String> getSingleCall(final int index) {
+                return mNoteApi.add(mUserId, notes.get(index).toString());
+            }
+
+            @Override
+            public void onBatchResult(final int from, final int to, @NonNull final JSONArray data) {
+                for (int i = from; i < to && i - from < data.length(); i++) {
+                    ids[i] = data.optString(i - from, null);
+                }
+            }
+
+            @Override
+            public void onSingleResult(final int index, @NonNull final JSONObject response) {
+                ids[index] = response.optString(API_KEY_DATA, null);
+            }
+        });
+        return Arrays.asList(ids);
+    }
+
+    /**
+     * @param notes Notes in json-format, by id.
+     * @return Ids of the updated notes.
+     */
+    @NonNull
+    public List<String> update(@NonNull final Map<String, JSONObject> notes) {
+        final List<String> ids = new ArrayList<>(notes.keySet());
+        final List<String> updated = new ArrayList<>(ids.size());
+        execute(ids.size(), new Operation() {
+            @Nullable
+            @Override
+            public Call<String> getBatchCall(final int from, final int to) {
+                final JSONArray request = new JSONArray();
+                try {
+                    for (String id : ids.subList(from, to)) {
+                        request.put(new JSONObject(notes.get(id).toString()).put(API_KEY_ID, id));
+                    }
+                } catch (JSONException e) {
+                    Log.e(TAG, e.toString());
+                    return null;
+                }
+                return mNoteApi.updateBatch(mUserId, request.toString());
+            }
+
+            @NonNull
+            @Override
+            public Call<String> getSingleCall(final int index) {
+                final String id = ids.get(index);
+                return mNoteApi.update(mUserId, id, notes.get(id).toString());
+            }
+
+            @Override
+            public void onBatchResult(final int from, final int to, @NonNull final JSONArray data) {
+                addStrings(data, updated);
+            }
+
+            @Override
+            public void onSingleResult(final int index, @NonNull final JSONObject response) {
+                updated.add(ids.get(index));
+            }
+        });
+        return updated;
+    }
+
+    /**
+     * @param ids Ids of the notes.
+     * @return Ids of the deleted notes.
+     */
+    @NonNull
+    public List<String> delete(@NonNull final List<String> ids) {
+        final List<String> deleted = new ArrayList<>(ids.size());
+        execute(ids.size(), new Operation() {
+            @Nullable
+            @Override
+            public Call<String> getBatchCall(final int from, final int to) {
+                return mNoteApi.deleteBatch(
+                        mUserId,
+                        new JSONArray(ids.subList(from, to)).toString());
+            }
+
+            @NonNull
+            @Override
+            public Call<String> getSingleCall(final int index) {
+                return mNoteApi.delete(mUserId, ids.get(index));
+            }
+
+            @Override
+            public void onBatchResult(final int from, final int to, @NonNull final JSONArray data) {
+                addStrings(data, deleted);
+            }
+
+            @Override
+            public void onSingleResult(final int index, @NonNull final JSONObject response) {
+                deleted.add(ids.get(index));
+            }
+        });
+        return deleted;
+    }
+
+    /**
+     * Shut down the worker pool. Must be called, when all operations are done,
+     * e.g. at the end of synchronization.
+     */
+    public void shutdown() {
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+            mExecutor = null;
+        }
+    }
+
+    public boolean isBatchSupported() {
+        return mBatchSupported;
+    }
+
+    public int getMaxRequestsInFlight() {
+        return mMaxRequestsInFlight;
+    }
+
+
+    /*
+        Execution
+     */
+
+    /**
+     * Requests and results of one operation. Results are passed in order of the notes,
+     * on the calling thread.
+     */
+    private interface Operation {
+        @Nullable
+        Call<String> getBatchCall(int from, int to);
+
+        @NonNull
+        Call<String> getSingleCall(int index);
+
+        void onBatchResult(int from, int to, @NonNull JSONArray data);
+
+        void onSingleResult(int index, @NonNull JSONObject response);
+    }
+
+    /**
+     * Execute batch requests. If batch is not supported,
+     * then notes of the failed batches are sent with single requests.
+     * Notes of the other failed requests are skipped.
+     * @param size      Number of notes.
+     * @param operation Operation.
+     */
+    private void execute(
+            final int size,
+            @NonNull final Operation operation) {
+
+        final List<Integer> singles = new ArrayList<>();
+
+        if (mBatchSupported) {
+            final List<Callable<JSONArray>> tasks = new ArrayList<>();
+            for (int from = 0; from < size; from += BATCH_SIZE) {
+                final int chunkFrom = from;
+                final int chunkTo = Math.min(from + BATCH_SIZE, size);
+                tasks.add(new Callable<JSONArray>() {
+                    @Override
+                    public JSONArray call() throws Exception {
+                        final Call<String> call = operation.getBatchCall(chunkFrom, chunkTo);
+                        return call == null ? null : executeBatch(call);
+                    }
+                });
+            }
+
+            final List<JSONArray> results = executeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                final int from = i * BATCH_SIZE;
+                final int to = Math.min(from + BATCH_SIZE, size);
+                final JSONArray data = results.get(i);
+                if (data != null) {
+                    operation.onBatchResult(from, to, data);
+                } else if (!mBatchSupported) {
+                    addRange(singles, from, to);
+                }
+            }
+
+        } else {
+            addRange(singles, 0, size);
+        }
+
+        if (singles.isEmpty()) {
+            return;
+        }
+
+        final List<Callable<JSONObject>> tasks = new ArrayList<>(singles.size());
+        for (final int index : singles) {
+            tasks.add(new Callable<JSONObject>() {
+                @Override
+                public JSONObject call() throws Exception {
+                    return executeSingle(operation.getSingleCall(index));
+                }
+            });
+        }
+
+        final List<JSONObject> results = executeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            final JSONObject response = results.get(i);
+            if (response != null) {
+                operation.onSingleResult(singles.get(i), response);
+            }
+        }
+    }
+
+    /**
+     * Execute tasks, not more than {@link #mMaxRequestsInFlight} at the same time.
+     * @param tasks Tasks.
+     * @return Results, in order of the tasks. Null, if task is failed.
+     */
+    @NonNull
+    private <T> List<T> executeAll(@NonNull final List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        final int threads = Math.min(mMaxRequestsInFlight, tasks.size());
+
+        // Without pool, if there is nothing to parallelize.
+        if (threads <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (Exception e) {
+                    Log.e(TAG, e.toString());
+                    results.add(null);
+                }
+            }
+            return results;
+        }
+
+        if (mExecutor == null) {
+            mExecutor = Executors.newFixedThreadPool(mMaxRequestsInFlight);
+        }
+        try {
+            for (Future<T> future : mExecutor.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Log.e(TAG, e.toString());
+                    results.add(null);
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Log.e(TAG, e.toString());
+            Thread.currentThread().interrupt();
+            while (results.size() < tasks.size()) {
+                results.add(null);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * @param call Batch request.
+     * @return Data of the response. Null, if error, or if batch is not supported,
+     * then {@link #mBatchSupported} is set to false.
+     */
+    @Nullable
+    private JSONArray executeBatch(@NonNull final Call<String> call) {
+        try {
+            final Response<String> response = call.execute();
+            final int code = response.code();
+            if (code == HTTP_NOT_FOUND
+                    || code == HTTP_METHOD_NOT_ALLOWED
+                    || code == HTTP_NOT_IMPLEMENTED) {
+
+                Log.i(TAG, "Batch requests are not supported: " + response.toString());
+                mBatchSupported = false;
+                return null;
+            }
+
+            final JSONObject jsonResponse = getOkResponse(response);
+            return jsonResponse == null ? null : jsonResponse.optJSONArray(API_KEY_DATA);
+
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, e.toString());
+        }
+        return null;
+    }
+
+    /**
+     * @param call Single request.
+     * @return Response in json-format, if status is ok, otherwise null.
+     */
+    @Nullable
+    private static JSONObject executeSingle(@NonNull final Call<String> call) {
+        try {
+            return getOkResponse(call.execute());
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, e.toString());
+        }
+        return null;
+    }
+
+    @Nullable
+    private static JSONObject getOkResponse(@NonNull final Response<String> response) {
+        if (response.isSuccessful() && response.body() != null) {
+            try {
+                final JSONObject jsonResponse = new JSONObject(response.body());
+                if (API_STATUS_OK.equals(jsonResponse.optString(API_KEY_STATUS))) {
+                    return jsonResponse;
+                }
+            } catch (JSONException e) {
+                Log.e(TAG, e.toString());
+                return null;
+            }
+        }
+        Log.e(TAG, response.toString());
+        return null;
+    }
+
+    private static void addRange(
+            @NonNull final List<Integer> list,
+            final int from,
+            final int to) {
+
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+    }
+
+    private static void addStrings(
+            @NonNull final JSONArray data,
+            @NonNull final List<String> result) {
+
+        for (int i = 0; i < data.length(); i++) {
+            final String value = data.optString(i, null);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+    }
+}
@@ -1,11 +1,29 @@
 package com.gamaliev.notes.common.rest;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.scalars.ScalarsConverterFactory;
 
+import static com.gamaliev.notes.app.NotesApp.getAppContext;
+
 /**
+ * Creates {@link NoteApi} instances. Instances are cached by base url, and all of them
+ * share one http client, so connections to the server are kept alive and reused
+ * between requests. Thread-safe.<br>
+ * Http client has a small on-disk cache. Cached responses with ETag are revalidated
+ * with "If-None-Match", so unchanged response is not downloaded again.
+ * Streamed responses are not cached, see {@link NoteApi}.
+ *
  * @author Vadim Gamaliev
  *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
  */
@@ -20,11 +38,29 @@ public final class NoteApiUtils {
     public static final String API_STATUS_ERROR = "error";
     public static final String API_KEY_ID       = "id";
     public static final String API_KEY_EXTRA    = "extra";
+    public static final String API_KEY_TOKEN    = "token";
+    public static final String API_KEY_DELETED  = "deleted";
+    public static final String API_KEY_NEXT_PAGE_TOKEN = "next_page_token";
+    public static final String HEADER_ETAG      = "ETag";
 
     /* Tests */
     public static final String LOCALHOST        = "http://localhost";
     public static final String TEST_PORT        = "8080";
 
+    /* Http client */
+    public static final long DEFAULT_CONNECT_TIMEOUT_MS = 15000;
+    public static final long DEFAULT_READ_TIMEOUT_MS    = 30000;
+    public static final long DEFAULT_WRITE_TIMEOUT_MS   = 30000;
+    private static final int MAX_IDLE_CONNECTIONS       = 5;
+    private static final long KEEP_ALIVE_DURATION_MIN   = 5;
+    private static final String HTTP_CACHE_DIR          = "http";
+    private static final long HTTP_CACHE_SIZE_BYTES     = 1024 * 1024;
+
+    /* Cache */
+    @NonNull private static final Object LOCK = new Object();
+    @NonNull private static final Map<String, NoteApi> INSTANCES = new HashMap<>();
+    @Nullable private static OkHttpClient sHttpClient;
+
 
     /*
         Init
@@ -35,27 +71,65 @@ public final class NoteApiUtils {
     /**
      * @param baseUrl Base url for rest API. Example: "http://localhost:8080"
      * @return NoteApi.class, implemented by Retrofit-framework, representing REST API for base URL.
+     * Instance is created once for each base url, and is reused until {@link #invalidate()}.
      */
     @Nullable
     public static NoteApi newInstance(@Nullable final String baseUrl) {
-        NoteApi noteApi = null;
-
-        if (isTestMode()) {
-            noteApi = new Retrofit.Builder()
-                    .baseUrl(LOCALHOST + ':' + TEST_PORT)
-                    .addConverterFactory(ScalarsConverterFactory.create())
-                    .build()
-                    .create(NoteApi.class);
-
-        } else if (baseUrl != null) {
-            noteApi = new Retrofit.Builder()
-                    .baseUrl(baseUrl)
-                    .addConverterFactory(ScalarsConverterFactory.create())
-                    .build()
-                    .create(NoteApi.class);
+        final String url = isTestMode() ? LOCALHOST + ':' + TEST_PORT : baseUrl;
+        if (url == null) {
+            return null;
+        }
+
+        synchronized (LOCK) {
+            NoteApi noteApi = INSTANCES.get(url);
+            if (noteApi == null) {
+                noteApi = new Retrofit.Builder()
+                        .baseUrl(url)
+                        .client(getHttpClient())
+                        .addConverterFactory(ScalarsConverterFactory.create())
+                        .build()
+                        .create(NoteApi.class);
+                INSTANCES.put(url, noteApi);
+            }
+            return noteApi;
+        }
+    }
+
+    /**
+     * Set timeouts of the http client. Cached instances are discarded,
+     * next {@link #newInstance(String)} creates them with new timeouts.
+     * Connection pool is kept.
+     * @param connectTimeoutMs  Connect timeout, in milliseconds. Zero - no timeout.
+     * @param readTimeoutMs     Read timeout, in milliseconds. Zero - no timeout.
+     * @param writeTimeoutMs    Write timeout, in milliseconds. Zero - no timeout.
+     */
+    public static void setTimeouts(
+            final long connectTimeoutMs,
+            final long readTimeoutMs,
+            final long writeTimeoutMs) {
+
+        synchronized (LOCK) {
+            sHttpClient = getHttpClient()
+                    .newBuilder()
+                    .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                    .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                    .writeTimeout(writeTimeoutMs, TimeUnit.MILLISECONDS)
+                    .build();
+            INSTANCES.clear();
         }
+    }
 
-        return noteApi;
+    /**
+     * Discard cached instances and close idle connections.
+     * Must be called, when base url of the current user is changed.
+     */
+    public static void invalidate() {
+        synchronized (LOCK) {
+            INSTANCES.clear();
+            if (sHttpClient != null) {
+                sHttpClient.connectionPool().evictAll();
+            }
+        }
     }
 
 
@@ -63,6 +137,28 @@ public final class NoteApiUtils {
         ...
      */
 
+    /**
+     * Must be called with {@link #LOCK}.
+     */
+    @NonNull
+    private static OkHttpClient getHttpClient() {
+        if (sHttpClient == null) {
+            sHttpClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(
+                            MAX_IDLE_CONNECTIONS,
+                            KEEP_ALIVE_DURATION_MIN,
+                            TimeUnit.MINUTES))
+                    .connectTimeout(DEFAULT_CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .readTimeout(DEFAULT_READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .writeTimeout(DEFAULT_WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .cache(new Cache(
+                            new File(getAppContext().getCacheDir(), HTTP_CACHE_DIR),
+                            HTTP_CACHE_SIZE_BYTES))
+                    .build();
+        }
+        return sHttpClient;
+    }
+
     private static boolean isTestMode() {
         boolean isTestMode;
 
@@ -0,0 +1,198 @@
+package com.gamaliev.notes.common.rest;
+
+import android.support.annotation.NonNull;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DELETED;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_NEXT_PAGE_TOKEN;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_STATUS;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_TOKEN;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_OK;
+
+/**
+ * Incremental parser of the "getPage" response: {"status": "ok", "data": [note, ...]},
+ * with "token", and "next_page_token", if it is not the last page,
+ * and of the "getChanges" response, which has also "deleted": [note id, ...].<br>
+ * Notes are read from the stream one by one, with a pull parser, so only one note
+ * is in memory at the same time, whatever the size of the response.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public final class NoteStreamParser {
+
+    /*
+        Init
+     */
+
+    private NoteStreamParser() {}
+
+
+    /*
+        ...
+     */
+
+    /**
+     * Receives notes, in order of the response, ids of deleted notes, token,
+     * and token of the next page.
+     */
+    public interface OnChangeListener {
+        void onNote(@NonNull JSONObject note) throws JSONException;
+
+        void onDeleted(@NonNull String noteId);
+
+        void onToken(@NonNull String token);
+
+        void onNextPageToken(@NonNull String pageToken);
+    }
+
+    /**
+     * Parse response, and pass every note to the listener, when it is read.
+     * Ids of deleted notes, token, and token of the next page are passed also,
+     * if they are in the response.
+     * Status is known only at the end of the response, so the result must be checked
+     * before the notes are treated as complete list.
+     * @param in        Response body. Is closed.
+     * @param listener  Listener.
+     * @return True, if status is ok, and data is read completely, otherwise false.
+     * @throws IOException      If stream cannot be read, or is not a valid json.
+     * @throws JSONException    If listener cannot handle a note.
+     */
+    public static boolean parseChanges(
+            @NonNull final InputStream in,
+            @NonNull final OnChangeListener listener) throws IOException, JSONException {
+
+        final JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            String status = null;
+            boolean dataRead = false;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if (API_KEY_STATUS.equals(name) && reader.peek() == JsonToken.STRING) {
+                    status = reader.nextString();
+
+                } else if (API_KEY_DATA.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            listener.onNote(readObject(reader));
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endArray();
+                    dataRead = true;
+
+                } else if (API_KEY_DELETED.equals(name)
+                        && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        final JsonToken token = reader.peek();
+                        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                            listener.onDeleted(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endArray();
+
+                } else if (API_KEY_TOKEN.equals(name)
+                        && reader.peek() == JsonToken.STRING) {
+                    listener.onToken(reader.nextString());
+
+                } else if (API_KEY_NEXT_PAGE_TOKEN.equals(name)
+                        && reader.peek() == JsonToken.STRING) {
+                    listener.onNextPageToken(reader.nextString());
+
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return dataRead && API_STATUS_OK.equals(status);
+
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(e.toString(), e);
+
+        } finally {
+            reader.close();
+        }
+    }
+
+
+    /*
+        Utils
+     */
+
+    @NonNull
+    private static JSONObject readObject(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+
+        final JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            object.put(name, readValue(reader));
+        }
+        reader.endObject();
+        return object;
+    }
+
+    @NonNull
+    private static JSONArray readArray(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+
+        final JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            array.put(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+    }
+
+    /**
+     * @return Value, as it is represented in {@link JSONObject}.
+     * Integer numbers are read as long, others as double.
+     */
+    @NonNull
+    private static Object readValue(@NonNull final JsonReader reader)
+            throws IOException, JSONException {
+
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            case NUMBER:
+                final String number = reader.nextString();
+                try {
+                    return Long.parseLong(number);
+                } catch (NumberFormatException e) {
+                    return Double.parseDouble(number);
+                }
+            case STRING:
+            default:
+                return reader.nextString();
+        }
+    }
+}
@@ -185,8 +185,7 @@ final class SpMock {
                         context,
                         entriesCount,
                         db,
-                        null,
-                        false);
+                        null);
                 entriesCount += entriesCount;
             }
         }
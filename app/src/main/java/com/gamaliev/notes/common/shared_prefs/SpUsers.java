@@ -59,6 +59,9 @@ public final class SpUsers {
     public static final String SP_USER_SYNC_WIFI            = "sync_wifi";
     public static final String SP_USER_SYNC_API_URL         = "sync_api_url";
     public static final String SP_USER_SYNC_PENDING         = "sync_pending";
+    public static final String SP_USER_SYNC_TOKEN           = "sync_token";
+    public static final String SP_USER_SYNC_CHECKPOINT      = "sync_checkpoint";
+    public static final String SP_USER_SYNC_ETAG            = "sync_etag";
 
     /* Pending Sync */
     public static final String SP_USER_SYNC_PENDING_TRUE    = "true";
@@ -295,6 +298,63 @@ public final class SpUsers {
         return sp.getString(SP_USER_SYNC_PENDING, null);
     }
 
+    /**
+     * @param context   Context.
+     * @return          Sync token for current user, received from server
+     *                  with the last synchronization. Return null, if not set, or error.
+     */
+    @Nullable
+    public static String getSyncTokenForCurrentUser(@NonNull final Context context) {
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return null;
+        }
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(selected),
+                MODE_PRIVATE);
+        return sp.getString(SP_USER_SYNC_TOKEN, null);
+    }
+
+    /**
+     * @param context   Context.
+     * @return          Checkpoint of the interrupted paged synchronization for current user.
+     *                  Return null, if not set, or error.
+     */
+    @Nullable
+    public static String getSyncCheckpointForCurrentUser(@NonNull final Context context) {
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return null;
+        }
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(selected),
+                MODE_PRIVATE);
+        return sp.getString(SP_USER_SYNC_CHECKPOINT, null);
+    }
+
+    /**
+     * @param context   Context.
+     * @return          ETag of the server entries for current user, received
+     *                  with the last full synchronization. Return null, if not set, or error.
+     */
+    @Nullable
+    public static String getSyncETagForCurrentUser(@NonNull final Context context) {
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return null;
+        }
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(selected),
+                MODE_PRIVATE);
+        return sp.getString(SP_USER_SYNC_ETAG, null);
+    }
+
 
     /*
         Setters
@@ -460,6 +520,112 @@ public final class SpUsers {
         return true;
     }
 
+    /**
+     * Set sync token for current user. See {@link #setSyncToken(Context, String, String)}.
+     * @param context   Context.
+     * @param token     Token, or null.
+     * @return True, if ok, otherwise false.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static boolean setSyncTokenForCurrentUser(
+            @NonNull final Context context,
+            @Nullable final String token) {
+
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return false;
+        }
+
+        setSyncToken(context, selected, token);
+        return true;
+    }
+
+    /**
+     * Set sync token. Next synchronization receives from server only the changes since token.
+     * Checkpoint of the paged synchronization, and ETag are removed in any case.
+     * @param context   Context.
+     * @param userId    User id.
+     * @param token     Token, or null, then next synchronization receives all entries.
+     */
+    public static void setSyncToken(
+            @NonNull final Context context,
+            @NonNull final String userId,
+            @Nullable final String token) {
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(userId),
+                MODE_PRIVATE);
+
+        final SharedPreferences.Editor editor = sp
+                .edit()
+                .remove(SP_USER_SYNC_CHECKPOINT)
+                .remove(SP_USER_SYNC_ETAG);
+        if (token == null) {
+            editor.remove(SP_USER_SYNC_TOKEN).apply();
+        } else {
+            editor.putString(SP_USER_SYNC_TOKEN, token).apply();
+        }
+    }
+
+    /**
+     * Set ETag of the server entries for current user, after the full synchronization.
+     * Next full synchronization is skipped, if server entries are not changed since.
+     * ETag is removed with {@link #setSyncToken(Context, String, String)}.
+     * @param context   Context.
+     * @param eTag      ETag.
+     * @return True, if ok, otherwise false.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static boolean setSyncETagForCurrentUser(
+            @NonNull final Context context,
+            @NonNull final String eTag) {
+
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return false;
+        }
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(selected),
+                MODE_PRIVATE);
+
+        sp      .edit()
+                .putString(SP_USER_SYNC_ETAG, eTag)
+                .apply();
+        return true;
+    }
+
+    /**
+     * Set checkpoint of the paged synchronization for current user, after the page is applied.
+     * Interrupted synchronization is resumed from the checkpoint.
+     * Checkpoint is removed with {@link #setSyncToken(Context, String, String)}.
+     * @param context       Context.
+     * @param checkpoint    Checkpoint, see {@link com.gamaliev.notes.sync.utils.SyncCheckpoint}.
+     * @return True, if ok, otherwise false.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static boolean setSyncCheckpointForCurrentUser(
+            @NonNull final Context context,
+            @NonNull final String checkpoint) {
+
+        final String selected = getSelected(context);
+        if (selected == null) {
+            Log.e(TAG, "Id of selected user is null");
+            return false;
+        }
+
+        final SharedPreferences sp = context.getSharedPreferences(
+                getPreferencesName(selected),
+                MODE_PRIVATE);
+
+        sp      .edit()
+                .putString(SP_USER_SYNC_CHECKPOINT, checkpoint)
+                .apply();
+        return true;
+    }
+
     /**
      * Delete user.
      * If deleted user is selected, then set default as selected.
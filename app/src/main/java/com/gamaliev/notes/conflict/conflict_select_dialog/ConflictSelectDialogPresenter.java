@@ -21,6 +21,7 @@ import com.gamaliev.notes.sync.utils.SyncUtils;
 
 import org.json.JSONObject;
 
+import java.util.Collections;
 import java.util.Map;
 
 import retrofit2.Response;
@@ -51,6 +52,7 @@ import static com.gamaliev.notes.common.shared_prefs.SpUsers.getSyncIdForCurrent
 import static com.gamaliev.notes.conflict.ConflictFragment.EXTRA_CONFLICT_SELECT_POSITION;
 import static com.gamaliev.notes.conflict.utils.ConflictUtils.checkConflictExistsAndHideStatusBarNotification;
 import static com.gamaliev.notes.list.db.ListDbHelper.insertUpdateEntry;
+import static com.gamaliev.notes.list.db.ListDbHelper.markSynced;
 import static com.gamaliev.notes.sync.utils.SyncUtils.ACTION_UPDATED_ON_LOCAL;
 import static com.gamaliev.notes.sync.utils.SyncUtils.ACTION_UPDATED_ON_SERVER;
 import static com.gamaliev.notes.sync.utils.SyncUtils.STATUS_OK;
@@ -338,6 +340,7 @@ class ConflictSelectDialogPresenter implements ConflictSelectDialogContract.Pres
                         entry,
                         db,
                         true);
+                markSynced(db, Collections.singletonList(mSyncId));
 
                 final boolean result = deleteEntryWithSingle(
                         mContext,
@@ -392,6 +395,7 @@ class ConflictSelectDialogPresenter implements ConflictSelectDialogContract.Pres
                 final String status = jsonResponse.optString(API_KEY_STATUS);
 
                 if (API_STATUS_OK.equals(status)) {
+                    markSynced(mContext, Collections.singletonList(mSyncId));
                     final boolean result = deleteEntryWithSingle(
                             mContext,
                             null,
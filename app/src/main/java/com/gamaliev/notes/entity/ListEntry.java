@@ -35,6 +35,11 @@ public class ListEntry implements Parcelable {
     /* Logger */
     @NonNull private static final String TAG = ListEntry.class.getSimpleName();
 
+    /* Content hash. FNV-1a, 64-bit */
+    private static final long HASH_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long HASH_PRIME        = 0x100000001B3L;
+    private static final long HASH_NOT_SET      = Long.MIN_VALUE;
+
     /* ... */
     @Nullable private Long      mId;
     @Nullable private Long      mSyncId;
@@ -245,9 +250,9 @@ public class ListEntry implements Parcelable {
         final String color          = cursor.getString(indexColor);
         final String imageUrl       = cursor.getString(indexImageUrl);
         final String description    = cursor.getString(indexDescription);
-        final String created        = cursor.getString(indexCreated);
-        final String edited         = cursor.getString(indexEdited);
-        final String viewed         = cursor.getString(indexViewed);
+        final long created          = cursor.getLong(indexCreated);
+        final long edited           = cursor.getLong(indexEdited);
+        final long viewed           = cursor.getLong(indexViewed);
 
         final JSONObject jsonObject = new JSONObject();
         try {
@@ -255,9 +260,9 @@ public class ListEntry implements Parcelable {
             jsonObject.put(LIST_ITEMS_COLUMN_COLOR,     String.format("#%06X", (0xFFFFFF & Integer.parseInt(color))));
             jsonObject.put(LIST_ITEMS_COLUMN_IMAGE_URL, imageUrl);
             jsonObject.put(LIST_ITEMS_COLUMN_DESCRIPTION, description);
-            jsonObject.put(LIST_ITEMS_COLUMN_CREATED,   getStringDateIso8601(context, created));
-            jsonObject.put(LIST_ITEMS_COLUMN_EDITED,    getStringDateIso8601(context, edited));
-            jsonObject.put(LIST_ITEMS_COLUMN_VIEWED,    getStringDateIso8601(context, viewed));
+            jsonObject.put(LIST_ITEMS_COLUMN_CREATED,   getStringDateIso8601(created));
+            jsonObject.put(LIST_ITEMS_COLUMN_EDITED,    getStringDateIso8601(edited));
+            jsonObject.put(LIST_ITEMS_COLUMN_VIEWED,    getStringDateIso8601(viewed));
 
         } catch (Exception e) {
             Log.e(TAG, e.toString());
@@ -307,9 +312,6 @@ public class ListEntry implements Parcelable {
         final int color         = Color.parseColor(jsonObject.optString(LIST_ITEMS_COLUMN_COLOR, null));
         final String imageUrl   = jsonObject.optString(LIST_ITEMS_COLUMN_IMAGE_URL, null);
         final String description = jsonObject.optString(LIST_ITEMS_COLUMN_DESCRIPTION, null);
-        final String created    = jsonObject.optString(LIST_ITEMS_COLUMN_CREATED, null);
-        final String edited     = jsonObject.optString(LIST_ITEMS_COLUMN_EDITED, null);
-        final String viewed     = jsonObject.optString(LIST_ITEMS_COLUMN_VIEWED, null);
 
         final ListEntry entry = new ListEntry();
         if (syncIdLong != null) entry.setSyncId(syncIdLong);
@@ -318,9 +320,9 @@ public class ListEntry implements Parcelable {
         entry.setColor(color);
         entry.setImageUrl(imageUrl);
 
-        final Date createdDate  = getDateFromIso8601String(context, created);
-        final Date editedDate   = getDateFromIso8601String(context, edited);
-        final Date viewedDate   = getDateFromIso8601String(context, viewed);
+        final Date createdDate  = getDateFromJson(jsonObject, LIST_ITEMS_COLUMN_CREATED);
+        final Date editedDate   = getDateFromJson(jsonObject, LIST_ITEMS_COLUMN_EDITED);
+        final Date viewedDate   = getDateFromJson(jsonObject, LIST_ITEMS_COLUMN_VIEWED);
         if (createdDate != null) entry.setCreated(createdDate);
         if (editedDate != null) entry.setEdited(editedDate);
         if (viewedDate != null) entry.setViewed(viewedDate);
@@ -328,6 +330,157 @@ public class ListEntry implements Parcelable {
         return entry;
     }
 
+    /**
+     * Dates are exported in ISO-8601 format, but milliseconds since epoch are accepted too,
+     * as they are stored in database.
+     * @param jsonObject    List entry in json-format.
+     * @param name          Name of date.
+     * @return Date, or null, if not exists or has wrong format.
+     */
+    @Nullable
+    private static Date getDateFromJson(
+            @NonNull final JSONObject jsonObject,
+            @NonNull final String name) {
+
+        final Object value = jsonObject.opt(name);
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        } else if (value instanceof String) {
+            return getDateFromIso8601String((String) value);
+        }
+        return null;
+    }
+
+
+    /*
+        Content hash
+     */
+
+    /**
+     * Hash of the synchronized fields, as they are stored in database.<br>
+     * Fields are compared with the same precision, as they are exported to server:
+     * color without alpha, dates in seconds.
+     * Viewed date is not hashed, so viewing of entry is not a change:
+     * it is not logged, and is not updated on server by itself.
+     * @param title         Title.
+     * @param description   Description.
+     * @param color         Color.
+     * @param imageUrl      Image url.
+     * @param created       Created date, in milliseconds since epoch.
+     * @param edited        Edited date, in milliseconds since epoch.
+     * @return 64-bit hash. Equal hashes of different entries are very unlikely.
+     */
+    public static long getContentHash(
+            @Nullable final String title,
+            @Nullable final String description,
+            final int color,
+            @Nullable final String imageUrl,
+            final long created,
+            final long edited) {
+
+        return computeContentHash(
+                title,
+                description,
+                color & 0xFFFFFF,
+                imageUrl,
+                toSeconds(created),
+                toSeconds(edited));
+    }
+
+    /**
+     * See {@link #getContentHash(String, String, int, String, long, long)}.
+     * @param cursor Cursor, with all columns of entry.
+     * @return Hash of entry at current cursor position.
+     */
+    public static long getContentHash(@NonNull final Cursor cursor) {
+        return getContentHash(
+                cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_TITLE)),
+                cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_DESCRIPTION)),
+                cursor.getInt(cursor.getColumnIndex(LIST_ITEMS_COLUMN_COLOR)),
+                cursor.getString(cursor.getColumnIndex(LIST_ITEMS_COLUMN_IMAGE_URL)),
+                cursor.getLong(cursor.getColumnIndex(LIST_ITEMS_COLUMN_CREATED)),
+                cursor.getLong(cursor.getColumnIndex(LIST_ITEMS_COLUMN_EDITED)));
+    }
+
+    /**
+     * See {@link #getContentHash(String, String, int, String, long, long)}.
+     * Missing or wrong color and dates are hashed as "not set",
+     * so such entry is not equal to any local entry.
+     * @param jsonObject    List entry in json-format, as received from server.
+     * @return Hash of entry.
+     */
+    public static long getContentHash(
+            @NonNull final JSONObject jsonObject) {
+
+        long color = HASH_NOT_SET;
+        try {
+            color = Color.parseColor(jsonObject.optString(LIST_ITEMS_COLUMN_COLOR, null)) & 0xFFFFFF;
+        } catch (RuntimeException e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return computeContentHash(
+                jsonObject.optString(LIST_ITEMS_COLUMN_TITLE, null),
+                jsonObject.optString(LIST_ITEMS_COLUMN_DESCRIPTION, null),
+                color,
+                jsonObject.optString(LIST_ITEMS_COLUMN_IMAGE_URL, null),
+                toSeconds(getDateFromJson(jsonObject, LIST_ITEMS_COLUMN_CREATED)),
+                toSeconds(getDateFromJson(jsonObject, LIST_ITEMS_COLUMN_EDITED)));
+    }
+
+    private static long computeContentHash(
+            @Nullable final String title,
+            @Nullable final String description,
+            final long color,
+            @Nullable final String imageUrl,
+            final long createdSeconds,
+            final long editedSeconds) {
+
+        long hash = HASH_OFFSET_BASIS;
+        hash = mixHash(hash, title);
+        hash = mixHash(hash, description);
+        hash = mixHash(hash, color);
+        hash = mixHash(hash, imageUrl);
+        hash = mixHash(hash, createdSeconds);
+        hash = mixHash(hash, editedSeconds);
+        return hash;
+    }
+
+    /**
+     * Length is mixed before characters, so borders of strings are not ambiguous.
+     */
+    @SuppressWarnings("PMD.AvoidReassigningParameters")
+    private static long mixHash(long hash, @Nullable final String value) {
+        if (value == null) {
+            return mixHash(hash, HASH_NOT_SET);
+        }
+        hash = mixHash(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * HASH_PRIME;
+        }
+        return hash;
+    }
+
+    @SuppressWarnings("PMD.AvoidReassigningParameters")
+    private static long mixHash(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ (value & 0xFF)) * HASH_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    private static long toSeconds(@Nullable final Date date) {
+        return date == null ? HASH_NOT_SET : toSeconds(date.getTime());
+    }
+
+    /**
+     * @return Seconds, rounded down, as they are formatted in ISO-8601.
+     */
+    private static long toSeconds(final long millis) {
+        return millis >= 0 ? millis / 1000 : (millis - 999) / 1000;
+    }
+
 
     /*
         Equals
@@ -503,15 +503,15 @@ public final class ItemDetailsPagerItemFragment extends Fragment
         infoMessage
                 .append(getString(R.string.fragment_item_details_info_dialog_message_created))
                 .append('\n')
-                .append(getStringDateFormatSqlite(getContext(), entry.getCreated(), false))
+                .append(getStringDateFormatSqlite(entry.getCreated(), false))
                 .append('\n').append('\n')
                 .append(getString(R.string.fragment_item_details_info_dialog_message_edited))
                 .append('\n')
-                .append(getStringDateFormatSqlite(getContext(), entry.getEdited(), false))
+                .append(getStringDateFormatSqlite(entry.getEdited(), false))
                 .append('\n').append('\n')
                 .append(getString(R.string.fragment_item_details_info_dialog_message_viewed))
                 .append('\n')
-                .append(getStringDateFormatSqlite(getContext(), entry.getViewed(), false))
+                .append(getStringDateFormatSqlite(entry.getViewed(), false))
                 .append('\n').append('\n')
                 .append(getString(R.string.fragment_item_details_info_dialog_message_sync_id))
                 .append('\n')
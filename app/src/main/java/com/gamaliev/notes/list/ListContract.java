@@ -1,6 +1,5 @@
 package com.gamaliev.notes.list;
 
-import android.database.Cursor;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.app.FragmentManager;
@@ -33,11 +32,28 @@ public interface ListContract {
         void initRecyclerView(@NonNull RecyclerView rv);
 
         @Nullable
-        Cursor getCursor();
+        ListPagedDataSource getDataSource();
 
         int getItemCount();
 
-        boolean swapItems(int from, int to);
+        /**
+         * @param position Position in the list.
+         * @return Position in the data source. Differs, while item is dragging.
+         */
+        int getDataPosition(int position);
+
+        /**
+         * Move item in the visible order only. See {@link #commitMovedItem()}.
+         * @param from  Current position.
+         * @param to    New position.
+         * @return True if moved, otherwise false.
+         */
+        boolean moveItem(int from, int to);
+
+        /**
+         * Save new position of the moved item to database, and update data source.
+         */
+        void commitMovedItem();
 
         @NonNull
         FragmentManager getSupportFragmentManager();
@@ -0,0 +1,822 @@
+package com.gamaliev.notes.list;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Typeface;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.util.DiffUtil;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.text.TextUtils;
+import android.text.style.StyleSpan;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import com.gamaliev.notes.common.DateCodec;
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.db.DbQueryBuilder;
+import com.gamaliev.notes.list.db.ListDbHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.gamaliev.notes.common.CommonUtils.getMainHandler;
+import static com.gamaliev.notes.list.db.ListDbHelper.LIST_COLUMN_SORT_KEY;
+import static com.gamaliev.notes.list.db.ListDbHelper.SEARCH_SNIPPET_MATCH_END;
+import static com.gamaliev.notes.list.db.ListDbHelper.SEARCH_SNIPPET_MATCH_START;
+
+/**
+ * Data of the list, which is loaded by pages of {@link #PAGE_SIZE} rows, instead of
+ * one cursor over all entries.<br>
+ * Pages are loaded with keyset pagination (see {@link ListDbHelper#getPageWithParams}),
+ * on the background thread. The next page is prefetched, when the bound position
+ * is near the end of the loaded rows. Ids of all rows are kept, so they are stable ids
+ * of the adapter, and new data is compared with the previous
+ * (see {@link #loadAsync(Snapshot)}).
+ * Pages, which are far from the bound position, are dropped, and loaded again by
+ * the saved boundaries, when needed.<br>
+ * Queries of all data sources are run on one background thread, in order of submit.
+ * Running queries are canceled, when data source is closed, and queued ones are skipped.<br>
+ * Must be used on the main thread.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+final class ListPagedDataSource {
+
+    /* ... */
+    static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+    private static final int PAGES_KEPT_AROUND = 3;
+
+    /* Max number of rows, which are reloaded and compared with previous data */
+    private static final int MAX_RELOADED_ROWS = 20 * PAGE_SIZE;
+
+    /* Shared by all data sources, so closed data source does not stop the thread */
+    @NonNull private static final ExecutorService SINGLE_THREAD_EXECUTOR;
+
+    @NonNull private final Context mContext;
+    @Nullable private final String mConstraint;
+    @NonNull private final Map<String, String> mProfileMap;
+    @NonNull private final Listener mListener;
+    @NonNull private final ListSearchSession mSearchSession;
+    @NonNull private final Handler mMainHandler;
+    @NonNull private final CancellationSignal mCancellationSignal;
+
+    /* Ids, to which search is restricted, see {@link ListSearchSession}.
+     * Resolved once, on the background thread, before the first query */
+    @Nullable private long[] mRefinedIds;
+    private boolean mRefinedIdsResolved;
+
+    /* Loaded pages, by index */
+    @NonNull private final SparseArray<Page> mPages;
+    @NonNull private final SparseBooleanArray mLoadingPages;
+
+    /* Last rows of the pages, by index of page. Next page starts after them */
+    @NonNull private final List<String> mBoundarySortKeys;
+    @NonNull private final List<Long> mBoundaryIds;
+
+    /* Ids of all rows, including dropped pages. Stable ids of the adapter */
+    @NonNull private long[] mIds;
+
+    private int mItemCount;
+    private boolean mEndReached;
+    private volatile boolean mClosed;
+
+
+    /*
+        Init
+     */
+
+    static {
+        SINGLE_THREAD_EXECUTOR = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * @param context       Context.
+     * @param constraint    Search text.
+     * @param profileMap    Profile parameters. Copied.
+     * @param listener      Listener of changes. Called on the main thread.
+     * @param searchSession Result of the previous search, which is refined,
+     *                      if search text is extended.
+     */
+    ListPagedDataSource(
+            @NonNull final Context context,
+            @Nullable final String constraint,
+            @NonNull final Map<String, String> profileMap,
+            @NonNull final Listener listener,
+            @NonNull final ListSearchSession searchSession) {
+
+        mContext = context.getApplicationContext();
+        mConstraint = constraint;
+        mProfileMap = new HashMap<>(profileMap);
+        mListener = listener;
+        mSearchSession = searchSession;
+        mMainHandler = getMainHandler();
+        mCancellationSignal = new CancellationSignal();
+        mPages = new SparseArray<>();
+        mLoadingPages = new SparseBooleanArray();
+        mBoundarySortKeys = new ArrayList<>();
+        mBoundaryIds = new ArrayList<>();
+        mIds = new long[PAGE_SIZE];
+    }
+
+    /**
+     * Load pages on the background thread, from the first, until they cover
+     * the rows of the previous data (but not more than {@link #MAX_RELOADED_ROWS}).
+     * Then compute difference with the previous data, also on the background thread,
+     * and call {@link Listener#onLoaded(ListPagedDataSource, DiffUtil.DiffResult)}.
+     * If data source is closed before, then query is canceled, and listener is not called.
+     * Total count of rows is loaded after, see {@link Listener#onTotalCountLoaded(int)}.
+     * @param previous Snapshot of the previous data, in visible order.
+     */
+    void loadAsync(@NonNull final Snapshot previous) {
+        mLoadingPages.put(0, true);
+        SINGLE_THREAD_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (mClosed) {
+                    return;
+                }
+                final List<Page> pages = queryPages(previous.getSize());
+                if (pages == null) {
+                    return;
+                }
+
+                // If previous data is too large, then whole list is updated.
+                final DiffUtil.DiffResult diffResult = previous.getSize() > MAX_RELOADED_ROWS
+                        ? null
+                        : DiffUtil.calculateDiff(new DiffCallback(previous, pages), true);
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mLoadingPages.delete(0);
+                        if (mClosed) {
+                            return;
+                        }
+                        for (int i = 0; i < pages.size(); i++) {
+                            onPageLoaded(i, pages.get(i), false);
+                        }
+                        mListener.onLoaded(ListPagedDataSource.this, diffResult);
+                    }
+                });
+            }
+        });
+        loadTotalCount();
+    }
+
+    /**
+     * Release resources. Running queries are canceled, and results
+     * of the loading pages are ignored.
+     */
+    void close() {
+        mClosed = true;
+        mCancellationSignal.cancel();
+        mMainHandler.removeCallbacksAndMessages(null);
+        mPages.clear();
+    }
+
+    /**
+     * Run write to database on the background thread of the data sources, so main thread
+     * is not blocked, and data sources, which are loaded after, see the result.
+     * @param write     Write to database. Called on the background thread.
+     * @param written   Called on the main thread, when write is finished.
+     */
+    static void writeAsync(@NonNull final Runnable write, @NonNull final Runnable written) {
+        SINGLE_THREAD_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                write.run();
+                getMainHandler().post(written);
+            }
+        });
+    }
+
+
+    /*
+        Getters
+     */
+
+    /**
+     * @return Search text.
+     */
+    @Nullable
+    String getConstraint() {
+        return mConstraint;
+    }
+
+    /**
+     * @return Number of rows in the loaded and dropped pages.
+     * Increases, while the next pages are loaded.
+     */
+    int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * @param position Position.
+     * @return Id of the entry, even if the row is dropped. If position is out of range, then -1.
+     */
+    long getStableId(final int position) {
+        return position < 0 || position >= mItemCount ? -1 : mIds[position];
+    }
+
+    /**
+     * @param order Positions of data, in visible order. If null, then the same order.
+     *              Positions after the end of array are not moved.
+     * @return Immutable snapshot of ids and loaded rows, in visible order.
+     */
+    @NonNull
+    Snapshot getSnapshot(@Nullable final int[] order) {
+        final int[] dataPositions = new int[mItemCount];
+        final long[] ids = new long[mItemCount];
+        final Page[] pages = new Page[mItemCount];
+        for (int i = 0; i < mItemCount; i++) {
+            final int dataPosition = order == null || i >= order.length ? i : order[i];
+            dataPositions[i] = dataPosition % PAGE_SIZE;
+            ids[i] = mIds[dataPosition];
+            pages[i] = getPage(dataPosition);
+        }
+        return new Snapshot(ids, pages, dataPositions);
+    }
+
+    /**
+     * Load page of the position, if needed, prefetch the neighbour page,
+     * and drop pages, which are far from the position.
+     * @param position Position, which is bound to view.
+     */
+    void onPositionBound(final int position) {
+        final int pageIndex = position / PAGE_SIZE;
+        final int positionInPage = position % PAGE_SIZE;
+
+        loadPage(pageIndex);
+        if (positionInPage >= PAGE_SIZE - PREFETCH_DISTANCE) {
+            loadPage(pageIndex + 1);
+        } else if (pageIndex > 0 && positionInPage < PREFETCH_DISTANCE) {
+            loadPage(pageIndex - 1);
+        }
+
+        dropFarPages(pageIndex);
+    }
+
+    /**
+     * @param position Position.
+     * @return True if the row is loaded, otherwise false.
+     */
+    boolean isLoaded(final int position) {
+        return getPage(position) != null;
+    }
+
+    /**
+     * @param position Position.
+     * @return Id of the entry. If the row is not loaded, then -1.
+     */
+    long getId(final int position) {
+        final Page page = getPage(position);
+        return page == null ? -1 : page.mIds[position % PAGE_SIZE];
+    }
+
+    /**
+     * @param position Position.
+     * @return Title, or highlighted snippet of the title, if search text is not empty.
+     */
+    @Nullable
+    CharSequence getTitleText(final int position) {
+        final Page page = getPage(position);
+        return page == null ? null : page.mTitleTexts[position % PAGE_SIZE];
+    }
+
+    /**
+     * @param position Position.
+     * @return Preview of the description, or highlighted snippet of the description,
+     * if search text is not empty.
+     */
+    @Nullable
+    CharSequence getDescriptionText(final int position) {
+        final Page page = getPage(position);
+        return page == null ? null : page.mDescriptionTexts[position % PAGE_SIZE];
+    }
+
+    int getColor(final int position) {
+        final Page page = getPage(position);
+        return page == null ? 0 : page.mColors[position % PAGE_SIZE];
+    }
+
+    /**
+     * @param position Position.
+     * @return Edited date, formatted in local time zone.
+     */
+    @Nullable
+    String getEditedDate(final int position) {
+        final Page page = getPage(position);
+        return page == null ? null : page.mEditedDates[position % PAGE_SIZE];
+    }
+
+    /**
+     * @return True if search text has words, and rows contain snippets.
+     */
+    private boolean isSearch() {
+        return DbQueryBuilder.hasPrefixMatchQuery(mConstraint);
+    }
+
+
+    /*
+        Loading
+     */
+
+    private void loadPage(final int pageIndex) {
+        if (mClosed
+                || mPages.get(pageIndex) != null
+                || mLoadingPages.get(pageIndex)) {
+            return;
+        }
+
+        // Page is after the last known boundary, or after the end.
+        final int boundaryCount = mBoundaryIds.size();
+        if (pageIndex > boundaryCount
+                || pageIndex == boundaryCount && mEndReached) {
+            return;
+        }
+
+        final String afterSortKey = pageIndex == 0 ? null : mBoundarySortKeys.get(pageIndex - 1);
+        final long afterId = pageIndex == 0 ? -1 : mBoundaryIds.get(pageIndex - 1);
+
+        mLoadingPages.put(pageIndex, true);
+        SINGLE_THREAD_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (mClosed) {
+                    return;
+                }
+                final Page page = queryPage(afterSortKey, afterId);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mLoadingPages.delete(pageIndex);
+                        if (page != null && !mClosed) {
+                            onPageLoaded(pageIndex, page, true);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void loadTotalCount() {
+        SINGLE_THREAD_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (mClosed) {
+                    return;
+                }
+                final int count = isSearch()
+                        ? mSearchSession.getCount(
+                                mContext,
+                                mConstraint,
+                                mProfileMap,
+                                getRefinedIds(),
+                                mCancellationSignal)
+                        : ListDbHelper.getCountWithParams(
+                                mContext,
+                                mConstraint,
+                                mProfileMap);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (count >= 0 && !mClosed) {
+                            mListener.onTotalCountLoaded(count);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @param pageIndex Index of page.
+     * @param page      Loaded page.
+     * @param notify    Notify listener, or not.
+     */
+    private void onPageLoaded(
+            final int pageIndex,
+            @NonNull final Page page,
+            final boolean notify) {
+
+        mPages.put(pageIndex, page);
+        final int start = pageIndex * PAGE_SIZE;
+
+        // Reload of the dropped page.
+        if (pageIndex < mBoundaryIds.size()) {
+            final int count = Math.min(page.mSize, mItemCount - start);
+            if (notify && count > 0) {
+                mListener.onItemRangeChanged(start, count);
+            }
+            return;
+        }
+
+        // Next page.
+        if (page.mSize < PAGE_SIZE) {
+            mEndReached = true;
+        }
+        if (page.mSize == 0) {
+            return;
+        }
+        mBoundarySortKeys.add(page.mLastSortKey);
+        mBoundaryIds.add(page.mIds[page.mSize - 1]);
+        if (mItemCount + page.mSize > mIds.length) {
+            mIds = Arrays.copyOf(mIds, Math.max(mIds.length * 2, mItemCount + page.mSize));
+        }
+        System.arraycopy(page.mIds, 0, mIds, mItemCount, page.mSize);
+        mItemCount += page.mSize;
+        if (notify) {
+            mListener.onItemRangeInserted(start, page.mSize);
+        }
+    }
+
+    private void dropFarPages(final int pageIndex) {
+        for (int i = mPages.size() - 1; i >= 0; i--) {
+            if (Math.abs(mPages.keyAt(i) - pageIndex) > PAGES_KEPT_AROUND) {
+                mPages.removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * Load pages one by one, each after the last row of the previous.
+     * @param minItemCount Rows, which must be covered, if exist.
+     * @return Pages, at least one. If error or canceled, then null.
+     */
+    @Nullable
+    private List<Page> queryPages(final int minItemCount) {
+        final List<Page> pages = new ArrayList<>();
+
+        // Extension of search text, which was not found.
+        final long[] refinedIds = getRefinedIds();
+        if (refinedIds != null && refinedIds.length == 0) {
+            pages.add(new Page());
+            return pages;
+        }
+
+        final int target = Math.min(minItemCount, MAX_RELOADED_ROWS);
+        String afterSortKey = null;
+        long afterId = -1;
+        int count = 0;
+        do {
+            final Page page = queryPage(afterSortKey, afterId);
+            if (page == null) {
+                return null;
+            }
+            pages.add(page);
+            if (page.mSize < PAGE_SIZE) {
+                break;
+            }
+            afterSortKey = page.mLastSortKey;
+            afterId = page.mIds[page.mSize - 1];
+            count += page.mSize;
+        } while (count < target);
+
+        return pages;
+    }
+
+    /**
+     * @param afterSortKey  Sort key of the row, after which page starts.
+     * @param afterId       Id of the row, after which page starts. If negative, then first page.
+     * @return Page. If error, then null.
+     */
+    @Nullable
+    private Page queryPage(
+            @Nullable final String afterSortKey,
+            final long afterId) {
+
+        final Cursor cursor = ListDbHelper.getPageWithParams(
+                mContext,
+                mConstraint,
+                mProfileMap,
+                getRefinedIds(),
+                afterSortKey,
+                afterId,
+                PAGE_SIZE,
+                mCancellationSignal);
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            return new Page(cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Must be called on the background thread.
+     * @return Ids, to which search is restricted, if search text extends the previous.
+     * Otherwise null.
+     */
+    @Nullable
+    private long[] getRefinedIds() {
+        if (!mRefinedIdsResolved) {
+            mRefinedIds = isSearch()
+                    ? mSearchSession.getRefinedIds(mContext, mConstraint, mProfileMap)
+                    : null;
+            mRefinedIdsResolved = true;
+        }
+        return mRefinedIds;
+    }
+
+    @Nullable
+    private Page getPage(final int position) {
+        if (position < 0 || position >= mItemCount) {
+            return null;
+        }
+        final Page page = mPages.get(position / PAGE_SIZE);
+        return page == null || position % PAGE_SIZE >= page.mSize ? null : page;
+    }
+
+
+    /*
+        Page
+     */
+
+    /**
+     * Rows of one page, by columns. Cursor is not kept.<br>
+     * Built on the background thread, with texts ready to bind: highlighted snippets
+     * and formatted dates, so bind of row does not allocate.
+     */
+    private static final class Page {
+        private final int mSize;
+        @NonNull private final long[] mIds;
+        @NonNull private final String[] mTitles;
+        @NonNull private final String[] mDescriptions;
+        @NonNull private final int[] mColors;
+        @NonNull private final long[] mEdited;
+        @Nullable private final String[] mTitleSnippets;
+        @Nullable private final String[] mDescriptionSnippets;
+        @Nullable private final String mLastSortKey;
+
+        /* Texts to bind */
+        @NonNull private final CharSequence[] mTitleTexts;
+        @NonNull private final CharSequence[] mDescriptionTexts;
+        @NonNull private final String[] mEditedDates;
+
+        /**
+         * Empty page.
+         */
+        private Page() {
+            mSize = 0;
+            mIds = new long[0];
+            mTitles = new String[0];
+            mDescriptions = new String[0];
+            mColors = new int[0];
+            mEdited = new long[0];
+            mTitleSnippets = null;
+            mDescriptionSnippets = null;
+            mLastSortKey = null;
+            mTitleTexts = new CharSequence[0];
+            mDescriptionTexts = new CharSequence[0];
+            mEditedDates = new String[0];
+        }
+
+        /**
+         * @return True if rows have the same visible content, otherwise false.
+         */
+        private boolean contentEquals(
+                final int row,
+                @NonNull final Page other,
+                final int otherRow) {
+
+            return mColors[row] == other.mColors[otherRow]
+                    && mEdited[row] == other.mEdited[otherRow]
+                    && TextUtils.equals(mTitles[row], other.mTitles[otherRow])
+                    && TextUtils.equals(mDescriptions[row], other.mDescriptions[otherRow])
+                    && TextUtils.equals(
+                            mTitleSnippets == null ? null : mTitleSnippets[row],
+                            other.mTitleSnippets == null ? null : other.mTitleSnippets[otherRow])
+                    && TextUtils.equals(
+                            mDescriptionSnippets == null ? null : mDescriptionSnippets[row],
+                            other.mDescriptionSnippets == null
+                                    ? null
+                                    : other.mDescriptionSnippets[otherRow]);
+        }
+
+        private Page(@NonNull final Cursor cursor) {
+            mSize = cursor.getCount();
+            mIds = new long[mSize];
+            mTitles = new String[mSize];
+            mDescriptions = new String[mSize];
+            mColors = new int[mSize];
+            mEdited = new long[mSize];
+
+            final int indexId           = cursor.getColumnIndex(DbHelper.BASE_COLUMN_ID);
+            final int indexTitle        = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_TITLE);
+            final int indexDescription  = cursor.getColumnIndex(
+                    DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW);
+            final int indexColor        = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_COLOR);
+            final int indexEdited       = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_EDITED);
+            final int indexSortKey      = cursor.getColumnIndex(LIST_COLUMN_SORT_KEY);
+
+            // Snippets exist only in search results.
+            final int indexTitleSnippet = cursor.getColumnIndex(
+                    DbHelper.LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET);
+            final int indexDescriptionSnippet = cursor.getColumnIndex(
+                    DbHelper.LIST_ITEMS_FTS_COLUMN_DESCRIPTION_SNIPPET);
+            mTitleSnippets = indexTitleSnippet == -1 ? null : new String[mSize];
+            mDescriptionSnippets = indexDescriptionSnippet == -1 ? null : new String[mSize];
+
+            String lastSortKey = null;
+            int i = 0;
+            while (i < mSize && cursor.moveToNext()) {
+                mIds[i]             = cursor.getLong(indexId);
+                mTitles[i]          = cursor.getString(indexTitle);
+                mDescriptions[i]    = cursor.getString(indexDescription);
+                mColors[i]          = cursor.getInt(indexColor);
+                mEdited[i]          = cursor.getLong(indexEdited);
+                if (mTitleSnippets != null) {
+                    mTitleSnippets[i] = cursor.getString(indexTitleSnippet);
+                }
+                if (mDescriptionSnippets != null) {
+                    mDescriptionSnippets[i] = cursor.getString(indexDescriptionSnippet);
+                }
+                lastSortKey = cursor.getString(indexSortKey);
+                i++;
+            }
+            mLastSortKey = lastSortKey;
+
+            mTitleTexts = new CharSequence[mSize];
+            mDescriptionTexts = new CharSequence[mSize];
+            mEditedDates = new String[mSize];
+            for (int j = 0; j < mSize; j++) {
+                mTitleTexts[j] = mTitleSnippets == null
+                        ? mTitles[j]
+                        : getHighlightedSnippet(mTitleSnippets[j]);
+                mDescriptionTexts[j] = mDescriptionSnippets == null
+                        ? mDescriptions[j]
+                        : getHighlightedSnippet(mDescriptionSnippets[j]);
+                mEditedDates[j] = DateCodec.formatDate(mEdited[j], false);
+            }
+        }
+
+        /**
+         * @param snippet Snippet of search result, where matched words are marked with
+         *                {@link ListDbHelper#SEARCH_SNIPPET_MATCH_START}
+         *                and {@link ListDbHelper#SEARCH_SNIPPET_MATCH_END}.
+         * @return Snippet without markers, where matched words are bold.
+         * Immutable, so text view does not copy it.
+         */
+        @Nullable
+        private static CharSequence getHighlightedSnippet(@Nullable final String snippet) {
+            if (snippet == null) {
+                return null;
+            }
+
+            final SpannableStringBuilder sb = new SpannableStringBuilder();
+            int from = 0;
+            int start;
+            while ((start = snippet.indexOf(SEARCH_SNIPPET_MATCH_START, from)) != -1) {
+                final int end = snippet.indexOf(SEARCH_SNIPPET_MATCH_END, start);
+                if (end == -1) {
+                    break;
+                }
+                sb.append(snippet, from, start);
+
+                final int spanStart = sb.length();
+                sb.append(snippet, start + SEARCH_SNIPPET_MATCH_START.length(), end);
+                sb.setSpan(
+                        new StyleSpan(Typeface.BOLD),
+                        spanStart,
+                        sb.length(),
+                        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+                from = end + SEARCH_SNIPPET_MATCH_END.length();
+            }
+            sb.append(snippet, from, snippet.length());
+
+            return new SpannedString(sb);
+        }
+    }
+
+
+    /*
+        Snapshot
+     */
+
+    /**
+     * Ids and loaded rows, in visible order. Immutable, so can be read
+     * on the background thread.
+     */
+    static final class Snapshot {
+        @NonNull static final Snapshot EMPTY = new Snapshot(new long[0], new Page[0], new int[0]);
+
+        @NonNull private final long[] mIds;
+        @NonNull private final Page[] mPages;
+        @NonNull private final int[] mRows;
+
+        private Snapshot(
+                @NonNull final long[] ids,
+                @NonNull final Page[] pages,
+                @NonNull final int[] rows) {
+
+            mIds = ids;
+            mPages = pages;
+            mRows = rows;
+        }
+
+        int getSize() {
+            return mIds.length;
+        }
+    }
+
+    /**
+     * Compares previous snapshot and new pages, by id and visible content.
+     * If previous row was not loaded, then it is changed, so placeholder is bound again.
+     */
+    private static final class DiffCallback extends DiffUtil.Callback {
+        @NonNull private final Snapshot mPrevious;
+        @NonNull private final List<Page> mPages;
+        private final int mNewSize;
+
+        private DiffCallback(
+                @NonNull final Snapshot previous,
+                @NonNull final List<Page> pages) {
+
+            mPrevious = previous;
+            mPages = pages;
+            int size = 0;
+            for (Page page : pages) {
+                size += page.mSize;
+            }
+            mNewSize = size;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mPrevious.getSize();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewSize;
+        }
+
+        @Override
+        public boolean areItemsTheSame(final int oldItemPosition, final int newItemPosition) {
+            return mPrevious.mIds[oldItemPosition]
+                    == mPages.get(newItemPosition / PAGE_SIZE).mIds[newItemPosition % PAGE_SIZE];
+        }
+
+        @Override
+        public boolean areContentsTheSame(final int oldItemPosition, final int newItemPosition) {
+            final Page previousPage = mPrevious.mPages[oldItemPosition];
+            return previousPage != null && previousPage.contentEquals(
+                    mPrevious.mRows[oldItemPosition],
+                    mPages.get(newItemPosition / PAGE_SIZE),
+                    newItemPosition % PAGE_SIZE);
+        }
+    }
+
+
+    /*
+        Listener
+     */
+
+    /**
+     * Changes of the data. Called on the main thread.
+     */
+    interface Listener {
+
+        /**
+         * Pages are loaded asynchronously, see {@link #loadAsync(Snapshot)}.
+         * @param dataSource Data source.
+         * @param diffResult Difference with the previous data. If null, then whole
+         *                   list must be updated.
+         */
+        void onLoaded(
+                @NonNull ListPagedDataSource dataSource,
+                @Nullable DiffUtil.DiffResult diffResult);
+
+        /**
+         * Next page is loaded, and its rows are appended.
+         */
+        void onItemRangeInserted(int positionStart, int itemCount);
+
+        /**
+         * Dropped page is loaded again.
+         */
+        void onItemRangeChanged(int positionStart, int itemCount);
+
+        /**
+         * @param count Count of all rows, with given params.
+         */
+        void onTotalCountLoaded(int count);
+    }
+}
@@ -1,10 +1,11 @@
 package com.gamaliev.notes.list;
 
-import android.database.Cursor;
+import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.app.FragmentActivity;
 import android.support.v4.app.FragmentManager;
+import android.support.v7.util.DiffUtil;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.helper.ItemTouchHelper;
 import android.util.Log;
@@ -17,11 +18,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static com.gamaliev.notes.app.NotesApp.getAppContext;
-import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
-import static com.gamaliev.notes.common.db.DbHelper.findColumnValueByCursorPosition;
+import static com.gamaliev.notes.common.CommonUtils.getMainHandler;
 import static com.gamaliev.notes.common.shared_prefs.SpCommon.convertJsonToMap;
-import static com.gamaliev.notes.list.db.ListDbHelper.getCursorWithParams;
-import static com.gamaliev.notes.list.db.ListDbHelper.swapManuallyColumnValue;
+import static com.gamaliev.notes.list.db.ListDbHelper.moveManuallyColumnValue;
 
 
 /**
@@ -30,18 +29,38 @@ import static com.gamaliev.notes.list.db.ListDbHelper.swapManuallyColumnValue;
  */
 
 @SuppressWarnings("NullableProblems")
-class ListPresenter implements ListContract.Presenter, OnStartDragListener {
+class ListPresenter implements ListContract.Presenter, OnStartDragListener,
+        ListPagedDataSource.Listener {
 
     /* Logger */
     @NonNull private static final String TAG = ListPresenter.class.getSimpleName();
 
+    /* Search. Delay after the last change of search text, in milliseconds */
+    private static final long SEARCH_DEBOUNCE_DELAY = 300;
+
     /* ... */
     @NonNull private final FragmentActivity mActivity;
     @NonNull private final ListContract.View mListView;
     @NonNull private Map<String, String> mFilterProfileMap;
     @NonNull private ListRecyclerViewAdapter mAdapter;
     @NonNull private ItemTouchHelper mItemTouchHelper;
-    @Nullable private Cursor mCursor;
+    @Nullable private ListPagedDataSource mDataSource;
+
+    /* Search. Data source, which is loading, and replaces current, when first page is loaded */
+    @NonNull private final Handler mSearchHandler;
+    @Nullable private ListPagedDataSource mPendingDataSource;
+    @NonNull private final ListSearchSession mSearchSession;
+    @Nullable private Runnable mPendingSearch;
+
+    /* Drag & Drop. Data positions in visible order, while item is dragging,
+       and until data source with saved order is loaded */
+    @Nullable private int[] mOrder;
+    private boolean mDragging;
+
+    /* Drag & Drop. Search text of data source, which was loaded while item was dragging */
+    @Nullable private String mDeferredText;
+    private int mMovedFromPosition;
+    private int mMovedToPosition;
 
 
     /*
@@ -55,6 +74,8 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
         mActivity = activity;
         mListView = listView;
         mFilterProfileMap = new HashMap<>();
+        mSearchHandler = getMainHandler();
+        mSearchSession = new ListSearchSession();
 
         mListView.setPresenter(this);
     }
@@ -89,11 +110,27 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
         }
     }
 
+    /**
+     * Query is executed on the background thread. While search text is changing,
+     * query is started after {@link #SEARCH_DEBOUNCE_DELAY} ms without changes,
+     * and previous query is canceled. Current rows are shown, until the newest query
+     * is loaded, then only changed rows are updated.
+     * @param newText Search text.
+     */
     @Override
     public void updateAdapter(@NonNull final String newText) {
-        updateCursor(newText);
-        mAdapter.notifyDataSetChanged();
-        mListView.showFoundNotification(mAdapter.getItemCount());
+        cancelPendingSearch();
+
+        final boolean textChanged = mDataSource != null
+                && !newText.equals(mDataSource.getConstraint());
+        mPendingSearch = new Runnable() {
+            @Override
+            public void run() {
+                mPendingSearch = null;
+                loadDataSource(newText);
+            }
+        };
+        mSearchHandler.postDelayed(mPendingSearch, textChanged ? SEARCH_DEBOUNCE_DELAY : 0);
     }
 
     @Override
@@ -110,46 +147,115 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
 
     @Nullable
     @Override
-    public Cursor getCursor() {
-        return mCursor;
+    public ListPagedDataSource getDataSource() {
+        return mDataSource;
     }
 
     @Override
     public int getItemCount() {
-        return mCursor == null || mCursor.isClosed() ? 0 : mCursor.getCount();
+        return mDataSource == null ? 0 : mDataSource.getItemCount();
     }
 
     @Override
-    public boolean swapItems(int from, int to) {
-        if (mCursor == null || mCursor.isClosed()) {
-            return false;
-        }
+    public int getDataPosition(final int position) {
+        // Rows, which are appended while item is dragging, are not moved.
+        return mOrder == null || position >= mOrder.length ? position : mOrder[position];
+    }
 
-        final String entryIdFrom = findColumnValueByCursorPosition(
-                mCursor,
-                BASE_COLUMN_ID,
-                from);
-        if (entryIdFrom == null) {
+    @Override
+    public boolean moveItem(final int from, final int to) {
+        final int count = getItemCount();
+        if (from < 0 || from >= count || to < 0 || to >= count) {
             return false;
         }
 
-        final String entryIdTo = findColumnValueByCursorPosition(
-                mCursor,
-                BASE_COLUMN_ID,
-                to);
-        if (entryIdTo == null) {
-            return false;
+        // Order model is created on the first move of the gesture.
+        if (!mDragging) {
+            mDragging = true;
+            mMovedFromPosition = from;
+            if (mOrder == null) {
+                mOrder = new int[count];
+                for (int i = 0; i < count; i++) {
+                    mOrder[i] = i;
+                }
+            }
         }
 
-        swapManuallyColumnValue(
-                getAppContext(),
-                entryIdFrom,
-                entryIdTo);
+        final int moved = mOrder[from];
+        if (from < to) {
+            System.arraycopy(mOrder, from + 1, mOrder, from, to - from);
+        } else {
+            System.arraycopy(mOrder, to, mOrder, to + 1, from - to);
+        }
+        mOrder[to] = moved;
+        mMovedToPosition = to;
 
-        updateCursor("");
         return true;
     }
 
+    @Override
+    public void commitMovedItem() {
+        final int[] order = mOrder;
+        final ListPagedDataSource dataSource = mDataSource;
+        if (!mDragging || order == null || dataSource == null) {
+            return;
+        }
+        mDragging = false;
+
+        // Dropped on the start position.
+        if (mMovedFromPosition == mMovedToPosition) {
+            if (mDeferredText != null) {
+                loadDataSource(mDeferredText);
+            } else if (mPendingDataSource == null) {
+                mOrder = null;
+            }
+            return;
+        }
+
+        // Neighbours of the new position. Ids are known for all rows,
+        // even if their pages are dropped. If not exists, then -1.
+        final long entryIdMoved = dataSource.getStableId(order[mMovedToPosition]);
+        final long entryIdPrevious = mMovedToPosition == 0
+                ? -1
+                : dataSource.getStableId(order[mMovedToPosition - 1]);
+        final long entryIdNext = mMovedToPosition == order.length - 1
+                ? -1
+                : dataSource.getStableId(order[mMovedToPosition + 1]);
+
+        // Id is unknown, so move is canceled, instead of moving to the start or the end.
+        if (entryIdMoved < 0
+                || mMovedToPosition > 0 && entryIdPrevious < 0
+                || mMovedToPosition < order.length - 1 && entryIdNext < 0) {
+            loadDataSource("");
+            return;
+        }
+
+        // Keys of all entries may be rebalanced, so write is not on the main thread.
+        // Visible order is kept, until new data is loaded. Then order is the same,
+        // so nothing is moved.
+        ListPagedDataSource.writeAsync(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        moveManuallyColumnValue(
+                                getAppContext(),
+                                Long.toString(entryIdMoved),
+                                entryIdPrevious < 0 ? null : Long.toString(entryIdPrevious),
+                                entryIdNext < 0 ? null : Long.toString(entryIdNext));
+                    }
+                },
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        // View is destroyed.
+                        if (mDataSource == null) {
+                            return;
+                        }
+                        loadDataSource("");
+                    }
+                });
+    }
+
     @NonNull
     @Override
     public FragmentManager getSupportFragmentManager() {
@@ -158,7 +264,8 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
 
     @Override
     public void onDestroyView() {
-        closeCursor();
+        cancelPendingSearch();
+        closeDataSource();
     }
 
 
@@ -172,6 +279,56 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
     }
 
 
+    /*
+        ListPagedDataSource.Listener
+     */
+
+    @Override
+    public void onLoaded(
+            @NonNull final ListPagedDataSource dataSource,
+            @Nullable final DiffUtil.DiffResult diffResult) {
+
+        if (dataSource != mPendingDataSource) {
+            return;
+        }
+
+        // Difference is not valid, after item is moved. Loaded again, when dropped.
+        if (mDragging) {
+            final String text = dataSource.getConstraint();
+            mDeferredText = text == null ? "" : text;
+            dataSource.close();
+            mPendingDataSource = null;
+            return;
+        }
+
+        // Found notification is shown, when total count is loaded.
+        mPendingDataSource = null;
+        mOrder = null;
+        closeDataSource();
+        mDataSource = dataSource;
+        if (diffResult == null) {
+            mAdapter.notifyDataSetChanged();
+        } else {
+            diffResult.dispatchUpdatesTo(mAdapter);
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(final int positionStart, final int itemCount) {
+        mAdapter.notifyItemRangeInserted(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeChanged(final int positionStart, final int itemCount) {
+        mAdapter.notifyItemRangeChanged(positionStart, itemCount);
+    }
+
+    @Override
+    public void onTotalCountLoaded(final int count) {
+        mListView.showFoundNotification(count);
+    }
+
+
     /*
         ...
      */
@@ -181,22 +338,39 @@ class ListPresenter implements ListContract.Presenter, OnStartDragListener {
     }
 
     /**
-     * Update cursor of the recycler view adapter.
+     * Start loading of the new data source, on the background thread. It replaces
+     * current, when loaded. See {@link #onLoaded(ListPagedDataSource, DiffUtil.DiffResult)}.
      * @param text              Search text.
      */
-    private void updateCursor(@NonNull final String text) {
-        closeCursor();
-        mCursor = getCursorWithParams(
+    private void loadDataSource(@NonNull final String text) {
+        cancelPendingSearch();
+        mDeferredText = null;
+        mPendingDataSource = new ListPagedDataSource(
                 getAppContext(),
                 text,
-                mFilterProfileMap);
+                mFilterProfileMap,
+                this,
+                mSearchSession);
+        mPendingDataSource.loadAsync(mDataSource == null
+                ? ListPagedDataSource.Snapshot.EMPTY
+                : mDataSource.getSnapshot(mOrder));
     }
 
-    private void closeCursor() {
-        if (mCursor != null && !mCursor.isClosed()) {
-            mCursor.close();
+    private void cancelPendingSearch() {
+        if (mPendingSearch != null) {
+            mSearchHandler.removeCallbacks(mPendingSearch);
+            mPendingSearch = null;
+        }
+        if (mPendingDataSource != null) {
+            mPendingDataSource.close();
+            mPendingDataSource = null;
         }
     }
-}
-
 
+    private void closeDataSource() {
+        if (mDataSource != null) {
+            mDataSource.close();
+            mDataSource = null;
+        }
+    }
+}
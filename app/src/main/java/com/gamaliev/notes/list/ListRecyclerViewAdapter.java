@@ -2,22 +2,23 @@ package com.gamaliev.notes.list;
 
 import android.content.Context;
 import android.content.DialogInterface;
-import android.database.Cursor;
 import android.graphics.Color;
+import android.graphics.ColorFilter;
 import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v4.app.FragmentActivity;
 import android.support.v4.view.ViewCompat;
 import android.support.v7.app.AlertDialog;
 import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.gamaliev.notes.R;
-import com.gamaliev.notes.common.CommonUtils;
-import com.gamaliev.notes.common.db.DbHelper;
 import com.gamaliev.notes.common.recycler_view_item_touch_helper.ItemTouchHelperAdapter;
 import com.gamaliev.notes.common.recycler_view_item_touch_helper.ItemTouchHelperViewHolder;
 import com.gamaliev.notes.common.recycler_view_item_touch_helper.OnStartDragListener;
@@ -43,6 +44,12 @@ final class ListRecyclerViewAdapter
     @NonNull private final Context mContext;
     @NonNull private final ListContract.Presenter mPresenter;
     @NonNull private final OnStartDragListener mDragStartListener;
+    @Nullable private RecyclerView mRecyclerView;
+
+    /* Bind. Shared by all rows */
+    @NonNull private final View.OnClickListener mOnClickListener;
+    @NonNull private final View.OnLongClickListener mOnLongClickListener;
+    @NonNull private final SparseArray<ColorFilter> mColorFilters;
     @SuppressWarnings("unused")
     private boolean mSwipeEnable;
 
@@ -59,6 +66,38 @@ final class ListRecyclerViewAdapter
         mContext = activity;
         mPresenter = presenter;
         mDragStartListener = dragStartListener;
+
+        mColorFilters = new SparseArray<>();
+        mOnClickListener = new View.OnClickListener() {
+            @Override
+            public void onClick(final View v) {
+                final ViewHolder holder = findViewHolder(v);
+                final ListPagedDataSource dataSource = mPresenter.getDataSource();
+                if (holder == null || dataSource == null) {
+                    return;
+                }
+                final int dataPosition = mPresenter.getDataPosition(holder.getAdapterPosition());
+                if (!dataSource.isLoaded(dataPosition)) {
+                    return;
+                }
+                showItemDetails(v, dataSource.getId(dataPosition));
+            }
+        };
+
+        // Drag & Drop
+        mOnLongClickListener = new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(final View v) {
+                final ViewHolder holder = findViewHolder(v);
+                if (holder != null && dragDropEnable()) {
+                    mDragStartListener.onStartDrag(holder);
+                }
+                return false;
+            }
+        };
+
+        // Rows are updated by difference of data, by ids.
+        setHasStableIds(true);
     }
 
 
@@ -71,72 +110,54 @@ final class ListRecyclerViewAdapter
         final View view = LayoutInflater
                 .from(parent.getContext())
                 .inflate(R.layout.fragment_list_item, parent, false);
+        view.setOnClickListener(mOnClickListener);
+        view.setOnLongClickListener(mOnLongClickListener);
         return new ViewHolder(view);
     }
 
+    @Override
+    public void onAttachedToRecyclerView(final RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(final RecyclerView recyclerView) {
+        mRecyclerView = null;
+        super.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    /**
+     * Bind from the columnar pages of data source, where texts are ready to bind.
+     * Listeners are shared by all rows, so nothing is allocated.
+     */
     @Override
     public void onBindViewHolder(final ViewHolder holder, final int position) {
-        final Cursor cursor = mPresenter.getCursor();
-        if (cursor == null || !cursor.moveToPosition(position)) {
+        final ListPagedDataSource dataSource = mPresenter.getDataSource();
+        if (dataSource == null) {
             return;
         }
 
-        final int indexId           = cursor.getColumnIndex(DbHelper.BASE_COLUMN_ID);
-        final int indexTitle        = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_TITLE);
-        final int indexDescription  = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION);
-        final int indexEdited       = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_EDITED);
-        final int indexColor        = cursor.getColumnIndex(DbHelper.LIST_ITEMS_COLUMN_COLOR);
-
-        final long id               = cursor.getLong(indexId);
-        final String title          = cursor.getString(indexTitle);
-        final String description    = cursor.getString(indexDescription);
-        final String localDate      = CommonUtils
-                .convertUtcToLocal(mContext, cursor.getString(indexEdited));
-        final String edited         = localDate == null ? null : localDate.split(" ")[0];
-        final int color             = cursor.getInt(indexColor);
-
-        holder.mTitleView       .setText(title);
-        holder.mDescriptionView .setText(description);
-        holder.mEditedView      .setText(edited);
+        final int dataPosition = mPresenter.getDataPosition(position);
+        dataSource.onPositionBound(dataPosition);
+
+        // Page is loading. Row is bound again, when loaded.
+        if (!dataSource.isLoaded(dataPosition)) {
+            holder.mTitleView       .setText(null);
+            holder.mDescriptionView .setText(null);
+            holder.mEditedView      .setText(null);
+            holder.mColorView
+                    .getBackground()
+                    .clearColorFilter();
+            return;
+        }
+
+        holder.mTitleView       .setText(dataSource.getTitleText(dataPosition));
+        holder.mDescriptionView .setText(dataSource.getDescriptionText(dataPosition));
+        holder.mEditedView      .setText(dataSource.getEditedDate(dataPosition));
         holder.mColorView
                 .getBackground()
-                .setColorFilter(color, PorterDuff.Mode.SRC);
-
-        holder.mParentView.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                final ItemDetailsFragment fragment =
-                        ItemDetailsFragment.newInstance(id);
-
-                // Transitions.
-                final View colorView = v.findViewById(R.id.fragment_list_item_color);
-                final String colorTransName =
-                        mContext.getString(R.string.shared_transition_name_color_box);
-                final String viewTransName =
-                        mContext.getString(R.string.shared_transition_name_layout);
-                ViewCompat.setTransitionName(colorView, colorTransName);
-                ViewCompat.setTransitionName(v, viewTransName);
-
-                mPresenter.getSupportFragmentManager()
-                        .beginTransaction()
-                        .addSharedElement(v, viewTransName)
-                        .addSharedElement(colorView, colorTransName)
-                        .replace(R.id.activity_main_fragment_container, fragment)
-                        .addToBackStack(null)
-                        .commit();
-            }
-        });
-
-        // Drag & Drop
-        holder.mParentView.setOnLongClickListener(new View.OnLongClickListener() {
-            @Override
-            public boolean onLongClick(final View v) {
-                if (dragDropEnable()) {
-                    mDragStartListener.onStartDrag(holder);
-                }
-                return false;
-            }
-        });
+                .setColorFilter(getColorFilter(dataSource.getColor(dataPosition)));
     }
 
     @Override
@@ -144,6 +165,74 @@ final class ListRecyclerViewAdapter
         return mPresenter.getItemCount();
     }
 
+    @Override
+    public long getItemId(final int position) {
+        final ListPagedDataSource dataSource = mPresenter.getDataSource();
+        return dataSource == null
+                ? RecyclerView.NO_ID
+                : dataSource.getStableId(mPresenter.getDataPosition(position));
+    }
+
+
+    /*
+        ...
+     */
+
+    /**
+     * @param view View of the row.
+     * @return View holder of the row, if it is bound to position, otherwise null.
+     */
+    @Nullable
+    private ViewHolder findViewHolder(@NonNull final View view) {
+        if (mRecyclerView == null) {
+            return null;
+        }
+        final RecyclerView.ViewHolder holder = mRecyclerView.findContainingViewHolder(view);
+        return holder == null || holder.getAdapterPosition() == RecyclerView.NO_POSITION
+                ? null
+                : (ViewHolder) holder;
+    }
+
+    /**
+     * @param color Color.
+     * @return Color filter, which is created once for every color.
+     */
+    @NonNull
+    private ColorFilter getColorFilter(final int color) {
+        ColorFilter filter = mColorFilters.get(color);
+        if (filter == null) {
+            filter = new PorterDuffColorFilter(color, PorterDuff.Mode.SRC);
+            mColorFilters.put(color, filter);
+        }
+        return filter;
+    }
+
+    /**
+     * @param view  View of the row.
+     * @param id    Id of the entry.
+     */
+    private void showItemDetails(@NonNull final View view, final long id) {
+        final ItemDetailsFragment fragment =
+                ItemDetailsFragment.newInstance(id);
+
+        // Transitions.
+        final View colorView = view.findViewById(R.id.fragment_list_item_color);
+        final String colorTransName =
+                mContext.getString(R.string.shared_transition_name_color_box);
+        final String viewTransName =
+                mContext.getString(R.string.shared_transition_name_layout);
+        ViewCompat.setTransitionName(colorView, colorTransName);
+        ViewCompat.setTransitionName(view, viewTransName);
+
+        mPresenter.getSupportFragmentManager()
+                .beginTransaction()
+                .addSharedElement(view, viewTransName)
+                .addSharedElement(colorView, colorTransName)
+                .replace(R.id.activity_main_fragment_container, fragment)
+                .addToBackStack(null)
+                .commit();
+    }
+
 
     /*
         ViewHolder
@@ -230,11 +319,16 @@ final class ListRecyclerViewAdapter
 
     @Override
     public boolean onItemMove(final int fromPosition, final int toPosition) {
-        if (!mPresenter.swapItems(fromPosition, toPosition)) {
+        if (!mPresenter.moveItem(fromPosition, toPosition)) {
             return false;
         }
 
         notifyItemMoved(fromPosition, toPosition);
         return true;
     }
+
+    @Override
+    public void onItemDrop() {
+        mPresenter.commitMovedItem();
+    }
 }
@@ -0,0 +1,195 @@
+package com.gamaliev.notes.list;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.gamaliev.notes.common.db.DbHelper;
+import com.gamaliev.notes.common.db.DbQueryBuilder;
+import com.gamaliev.notes.list.db.ListDbHelper;
+
+import java.util.Map;
+
+/**
+ * Ids of the entries, which were found by the previous search text.<br>
+ * Search text, which extends the previous (every word is extended, or new words are added),
+ * can only match the subset of the previous entries. So its queries are restricted
+ * to the previous ids (see {@link #getRefinedIds(Context, String, Map)}): page is queried
+ * only among them, and count is found by the full-text search only, without join with
+ * entries and without profile parameters. If the previous result is empty,
+ * then database is not queried at all.<br>
+ * Other search text, other profile parameters, changed entries
+ * (see {@link DbHelper#getListItemsVersion(Context)}), or too many previous ids
+ * lead to the full queries.<br>
+ * Thread-safe.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+final class ListSearchSession {
+
+    /* ... */
+    @NonNull private static final String SYMBOL_QUOTE = "\"";
+
+    /* Max number of previous ids, to which queries are restricted */
+    private static final int MAX_REFINED_IDS = 1000;
+
+    /* Previous result */
+    @Nullable private String mConstraint;
+    @Nullable private String mFilterKey;
+    @Nullable private long[] mIds;
+    private long mVersion = -1;
+
+
+    /*
+        ...
+     */
+
+    /**
+     * @param context       Context.
+     * @param constraint    Search text. Must not be empty.
+     * @param profileMap    Profile parameters.
+     * @return Ids of the previous result, in ascending order, if search text extends
+     * the previous, with the same profile parameters, and entries are not changed since.
+     * Result of search text is among them. Otherwise null.
+     */
+    @Nullable
+    long[] getRefinedIds(
+            @NonNull final Context context,
+            @NonNull final String constraint,
+            @NonNull final Map<String, String> profileMap) {
+
+        final long[] previousIds = getPreviousIds(
+                constraint,
+                getFilterKey(context, profileMap),
+                DbHelper.getListItemsVersion(context));
+        return previousIds == null || previousIds.length > MAX_REFINED_IDS
+                ? null
+                : previousIds;
+    }
+
+    /**
+     * Get count of the entries, which match search text, and remember their ids.
+     * @param context       Context.
+     * @param constraint    Search text. Must not be empty.
+     * @param profileMap    Profile parameters.
+     * @param refinedIds    Ids, to which search is restricted,
+     *                      see {@link #getRefinedIds(Context, String, Map)}. Nullable.
+     * @param signal        Signal to cancel the query. Nullable.
+     * @return              Count of the entries. If error or canceled, then -1.
+     */
+    int getCount(
+            @NonNull final Context context,
+            @NonNull final String constraint,
+            @NonNull final Map<String, String> profileMap,
+            @Nullable final long[] refinedIds,
+            @Nullable final CancellationSignal signal) {
+
+        final String filterKey = getFilterKey(context, profileMap);
+        final long version = DbHelper.getListItemsVersion(context);
+
+        final long[] ids;
+        if (refinedIds == null) {
+            ids = ListDbHelper.getSearchIds(context, constraint, profileMap, signal);
+        } else if (refinedIds.length == 0) {
+            ids = refinedIds;
+        } else {
+            ids = ListDbHelper.getMatchedIds(context, constraint, refinedIds, signal);
+        }
+
+        if (ids == null) {
+            return -1;
+        }
+        synchronized (this) {
+            mConstraint = constraint;
+            mFilterKey = filterKey;
+            mIds = ids;
+            mVersion = version;
+        }
+        return ids.length;
+    }
+
+
+    /*
+        Utils
+     */
+
+    /**
+     * @return Ids of the previous result, if search text extends the previous,
+     * with the same profile parameters and version of entries. Otherwise null.
+     */
+    @Nullable
+    private synchronized long[] getPreviousIds(
+            @NonNull final String constraint,
+            @NonNull final String filterKey,
+            final long version) {
+
+        if (mConstraint == null
+                || mIds == null
+                || version < 0
+                || version != mVersion
+                || !filterKey.equals(mFilterKey)
+                || !isExtension(mConstraint, constraint)) {
+            return null;
+        }
+        return mIds;
+    }
+
+    /**
+     * Full-text query of search text is a prefix query of every word,
+     * combined with "AND" (see {@link DbQueryBuilder#OPERATOR_MATCH}). So, if every word
+     * of the previous text is a prefix of the word in the same position of the new text,
+     * then new text matches only entries, which previous text matches.
+     * @param previous  Previous search text.
+     * @param current   New search text.
+     * @return True if new text extends previous, otherwise false.
+     */
+    static boolean isExtension(
+            @NonNull final String previous,
+            @NonNull final String current) {
+
+        final String[] previousWords = getWords(previous);
+        final String[] currentWords = getWords(current);
+        if (previousWords.length == 0 || currentWords.length < previousWords.length) {
+            return false;
+        }
+        for (int i = 0; i < previousWords.length; i++) {
+            if (!currentWords[i].startsWith(previousWords[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param text Search text.
+     * @return Words, as they are split in full-text query.
+     */
+    @NonNull
+    private static String[] getWords(@NonNull final String text) {
+        final String trimmed = text.replace(SYMBOL_QUOTE, " ").trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * @return Selection and arguments of profile parameters, without search text.
+     */
+    @NonNull
+    private static String getFilterKey(
+            @NonNull final Context context,
+            @NonNull final Map<String, String> profileMap) {
+
+        final DbQueryBuilder queryBuilder =
+                ListDbHelper.convertToQueryBuilder(context, null, profileMap);
+        final StringBuilder sb = new StringBuilder();
+        sb.append(queryBuilder.getSelectionResult());
+        final String[] selectionArgs = queryBuilder.getSelectionArgs();
+        if (selectionArgs != null) {
+            for (String arg : selectionArgs) {
+                sb.append('\u0000').append(arg);
+            }
+        }
+        return sb.toString();
+    }
+}
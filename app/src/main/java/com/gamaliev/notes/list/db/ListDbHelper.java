@@ -3,57 +3,80 @@ package com.gamaliev.notes.list.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.MergeCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import android.util.Log;
 import android.widget.Toast;
 
-import com.gamaliev.notes.common.CommonUtils;
+import com.gamaliev.notes.common.DateCodec;
 import com.gamaliev.notes.common.ProgressNotificationHelper;
 import com.gamaliev.notes.common.db.DbHelper;
 import com.gamaliev.notes.common.db.DbQueryBuilder;
 import com.gamaliev.notes.common.shared_prefs.SpFilterProfiles;
 import com.gamaliev.notes.entity.ListEntry;
 
-import java.text.DateFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
-import static com.gamaliev.notes.common.CommonUtils.EXTRA_DATES_FROM_DATE;
+import static com.gamaliev.notes.common.CommonUtils.EXTRA_DATES_FROM_DATETIME;
 import static com.gamaliev.notes.common.CommonUtils.EXTRA_DATES_TO_DATETIME;
 import static com.gamaliev.notes.common.CommonUtils.getDateFromProfileMap;
 import static com.gamaliev.notes.common.CommonUtils.getDefaultColor;
-import static com.gamaliev.notes.common.CommonUtils.getStringDateFormatSqlite;
 import static com.gamaliev.notes.common.CommonUtils.showToast;
+import static com.gamaliev.notes.common.CommonUtils.showToastRunOnUiThread;
 import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
+import static com.gamaliev.notes.common.db.DbHelper.CHANGE_LOG_COLUMN_ENTRY_ID;
+import static com.gamaliev.notes.common.db.DbHelper.CHANGE_LOG_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
 import static com.gamaliev.notes.common.db.DbHelper.FAVORITE_COLUMN_COLOR;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_COLOR;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_CONTENT_HASH;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_CREATED;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_EDITED;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_IMAGE_URL;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_MANUALLY;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNCED_HASH;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_MANUALLY_GAP;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_VIEWED;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_COLUMN_DESCRIPTION_SNIPPET;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_COLUMN_DOC_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASCENDING;
+import static com.gamaliev.notes.common.db.DbHelper.ORDER_DESCENDING;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_CONFLICT_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_DELETED_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.deleteEntryWithSingle;
 import static com.gamaliev.notes.common.db.DbHelper.getDbFailMessage;
 import static com.gamaliev.notes.common.db.DbHelper.getEntries;
+import static com.gamaliev.notes.common.db.DbHelper.getEntriesCount;
 import static com.gamaliev.notes.common.db.DbHelper.getReadableDb;
 import static com.gamaliev.notes.common.db.DbHelper.getWritableDb;
+import static com.gamaliev.notes.common.db.DbHelper.incrementListItemsVersion;
 import static com.gamaliev.notes.common.db.DbHelper.insertEntryWithSingleValue;
 import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_BETWEEN;
 import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_EQUALS;
-import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_LIKE;
+import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_MATCH;
+import static com.gamaliev.notes.common.db.DbQueryBuilder.hasPrefixMatchQuery;
 
 /**
  * @author Vadim Gamaliev
@@ -71,6 +94,106 @@ public final class ListDbHelper {
             LIST_ITEMS_COLUMN_VIEWED
     };
 
+    /* Bulk insert. Number of entries per transaction */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /* Bulk insert. Entries, whose sync id already exists, are skipped (unique index) */
+    @NonNull private static final String SQL_LIST_ITEMS_INSERT =
+            "INSERT OR IGNORE INTO " + LIST_ITEMS_TABLE_NAME + " ("
+                    + COMMON_COLUMN_SYNC_ID + ", "
+                    + LIST_ITEMS_COLUMN_TITLE + ", "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION + ", "
+                    + LIST_ITEMS_COLUMN_COLOR + ", "
+                    + LIST_ITEMS_COLUMN_IMAGE_URL + ", "
+                    + LIST_ITEMS_COLUMN_CREATED + ", "
+                    + LIST_ITEMS_COLUMN_EDITED + ", "
+                    + LIST_ITEMS_COLUMN_VIEWED + ", "
+                    + LIST_ITEMS_COLUMN_CONTENT_HASH + ") "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @NonNull private static final String SQL_LIST_ITEMS_UPDATE_BY_SYNC_ID =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + LIST_ITEMS_COLUMN_TITLE + " = ?, "
+                    + LIST_ITEMS_COLUMN_DESCRIPTION + " = ?, "
+                    + LIST_ITEMS_COLUMN_COLOR + " = ?, "
+                    + LIST_ITEMS_COLUMN_IMAGE_URL + " = ?, "
+                    + LIST_ITEMS_COLUMN_CREATED + " = ?, "
+                    + LIST_ITEMS_COLUMN_EDITED + " = ?, "
+                    + LIST_ITEMS_COLUMN_VIEWED + " = ?, "
+                    + LIST_ITEMS_COLUMN_CONTENT_HASH + " = ? "
+                    + "WHERE " + COMMON_COLUMN_SYNC_ID + " = ?";
+
+    /* Sync. Content, which is added to server or received from it, is synchronized */
+    @NonNull private static final String SQL_LIST_ITEMS_UPDATE_SYNC_ID =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + COMMON_COLUMN_SYNC_ID + " = ?, "
+                    + LIST_ITEMS_COLUMN_SYNCED_HASH + " = " + LIST_ITEMS_COLUMN_CONTENT_HASH + " "
+                    + "WHERE " + BASE_COLUMN_ID + " = ?";
+
+    @NonNull private static final String SQL_LIST_ITEMS_MARK_SYNCED =
+            "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                    + LIST_ITEMS_COLUMN_SYNCED_HASH + " = " + LIST_ITEMS_COLUMN_CONTENT_HASH + " "
+                    + "WHERE " + COMMON_COLUMN_SYNC_ID + " = ?";
+
+    /* Sync. Logged entries, changed on local only, and not conflicting. Lookups by id. */
+    @NonNull private static final String SQL_LIST_ITEMS_CHANGED_SINCE_SYNC =
+            BASE_COLUMN_ID + " IN ("
+                    + "SELECT " + CHANGE_LOG_COLUMN_ENTRY_ID + " FROM " + CHANGE_LOG_TABLE_NAME + ") "
+                    + "AND " + COMMON_COLUMN_SYNC_ID + " IS NOT NULL "
+                    + "AND " + LIST_ITEMS_COLUMN_SYNCED_HASH + " IS NOT NULL "
+                    + "AND " + LIST_ITEMS_COLUMN_CONTENT_HASH + " IS NOT "
+                    + LIST_ITEMS_COLUMN_SYNCED_HASH + " "
+                    + "AND " + COMMON_COLUMN_SYNC_ID + " NOT IN ("
+                    + "SELECT " + COMMON_COLUMN_SYNC_ID + " FROM " + SYNC_CONFLICT_TABLE_NAME + ")";
+
+    /* Sync. Log records of the entries, which are deleted, new, or synchronized */
+    @NonNull private static final String SQL_CHANGE_LOG_CLEAR_SYNCED =
+            "NOT EXISTS ("
+                    + "SELECT 1 FROM " + LIST_ITEMS_TABLE_NAME + " "
+                    + "WHERE " + LIST_ITEMS_TABLE_NAME + "." + BASE_COLUMN_ID + " = "
+                    + CHANGE_LOG_TABLE_NAME + "." + CHANGE_LOG_COLUMN_ENTRY_ID + " "
+                    + "AND " + COMMON_COLUMN_SYNC_ID + " IS NOT NULL "
+                    + "AND " + LIST_ITEMS_COLUMN_CONTENT_HASH + " IS NOT "
+                    + LIST_ITEMS_COLUMN_SYNCED_HASH + ")";
+
+    /* Search. Markers of matched words in snippets */
+    @NonNull public static final String SEARCH_SNIPPET_MATCH_START  = "\u0002";
+    @NonNull public static final String SEARCH_SNIPPET_MATCH_END    = "\u0003";
+    @NonNull private static final String SEARCH_SNIPPET_ELLIPSIS    = "\u2026";
+    private static final int SEARCH_SNIPPET_TITLE_TOKENS            = 64;
+    private static final int SEARCH_SNIPPET_DESCRIPTION_TOKENS      = 16;
+
+    /* Search. Entries with full-text search table */
+    @NonNull private static final String SQL_LIST_ITEMS_FTS_JOIN =
+            LIST_ITEMS_TABLE_NAME + " INNER JOIN " + LIST_ITEMS_FTS_TABLE_NAME + " "
+                    + "ON " + LIST_ITEMS_FTS_TABLE_NAME + "." + LIST_ITEMS_FTS_COLUMN_DOC_ID
+                    + " = " + LIST_ITEMS_TABLE_NAME + "." + BASE_COLUMN_ID;
+
+    /* List. Only columns, which are shown in the list. Full description is not loaded */
+    @NonNull private static final String[] LIST_PROJECTION = {
+            BASE_COLUMN_ID,
+            LIST_ITEMS_COLUMN_TITLE,
+            LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW,
+            LIST_ITEMS_COLUMN_COLOR,
+            LIST_ITEMS_COLUMN_EDITED
+    };
+
+    /* Pagination. Value of the sort column, which is the key of the next page */
+    @NonNull public static final String LIST_COLUMN_SORT_KEY = "sort_key";
+
+    /* Search. List columns, with highlighted snippets of title and description */
+    @NonNull private static final String[] SEARCH_PROJECTION = {
+            BASE_COLUMN_ID,
+            LIST_ITEMS_COLUMN_TITLE,
+            LIST_ITEMS_COLUMN_DESCRIPTION_PREVIEW,
+            LIST_ITEMS_COLUMN_COLOR,
+            LIST_ITEMS_COLUMN_EDITED,
+            getSnippetColumn(0, SEARCH_SNIPPET_TITLE_TOKENS)
+                    + " AS " + LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET,
+            getSnippetColumn(1, SEARCH_SNIPPET_DESCRIPTION_TOKENS)
+                    + " AS " + LIST_ITEMS_FTS_COLUMN_DESCRIPTION_SNIPPET
+    };
+
 
     /*
         Init
@@ -139,24 +262,15 @@ public final class ListDbHelper {
         cv.put(LIST_ITEMS_COLUMN_COLOR,         color);
         cv.put(LIST_ITEMS_COLUMN_IMAGE_URL,     imageUrl);
 
-        final String utcCreatedDate =
-                getStringDateFormatSqlite(
-                        context,
-                        entry.getCreated() == null ? new Date() : entry.getCreated(),
-                        true);
-        final String utcEditedDate =
-                getStringDateFormatSqlite(
-                        context,
-                        entry.getEdited() == null ? new Date() : entry.getEdited(),
-                        true);
-        final String utcViewedDate =
-                getStringDateFormatSqlite(
-                        context,
-                        entry.getViewed() == null ? new Date() : entry.getViewed(),
-                        true);
-        cv.put(LIST_ITEMS_COLUMN_CREATED,   utcCreatedDate);
-        cv.put(LIST_ITEMS_COLUMN_EDITED,    utcEditedDate);
-        cv.put(LIST_ITEMS_COLUMN_VIEWED,    utcViewedDate);
+        final long now      = System.currentTimeMillis();
+        final long created  = getTimeOrDefault(entry.getCreated(), now);
+        final long edited   = getTimeOrDefault(entry.getEdited(), now);
+        final long viewed   = getTimeOrDefault(entry.getViewed(), now);
+        cv.put(LIST_ITEMS_COLUMN_CREATED,   created);
+        cv.put(LIST_ITEMS_COLUMN_EDITED,    edited);
+        cv.put(LIST_ITEMS_COLUMN_VIEWED,    viewed);
+        cv.put(LIST_ITEMS_COLUMN_CONTENT_HASH, ListEntry.getContentHash(
+                title, description, color, imageUrl, created, edited));
 
         if (updateBySyncId) {
             final int updateResult = db.update(
@@ -180,6 +294,204 @@ public final class ListDbHelper {
                 throw new SQLiteException(error);
             }
         }
+        incrementListItemsVersion(db);
+    }
+
+    /**
+     * Insert new entries in database. Entries, whose sync id already exists, are skipped.<br>
+     * See {@link #insertEntries(Context, SQLiteDatabase, Iterable, boolean)}.
+     * @param context   Context.
+     * @param entries   Entries.
+     * @return Number of inserted entries. If error, then return "-1".
+     */
+    public static int insertEntries(
+            @NonNull final Context context,
+            @NonNull final Iterable<ListEntry> entries) {
+
+        return insertEntriesHandled(context, entries, false);
+    }
+
+    /**
+     * Update entries in database by sync id, or insert if sync id is not exists or not set.<br>
+     * See {@link #insertEntries(Context, SQLiteDatabase, Iterable, boolean)}.
+     * @param context   Context.
+     * @param entries   Entries.
+     * @return Number of inserted and updated entries. If error, then return "-1".
+     */
+    public static int upsertBySyncId(
+            @NonNull final Context context,
+            @NonNull final Iterable<ListEntry> entries) {
+
+        return insertEntriesHandled(context, entries, true);
+    }
+
+    private static int insertEntriesHandled(
+            @NonNull final Context context,
+            @NonNull final Iterable<ListEntry> entries,
+            final boolean upsertBySyncId) {
+
+        try {
+            final SQLiteDatabase db = getWritableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+            return insertEntries(context, db, entries, upsertBySyncId);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Insert entries in database, with compiled statements, which are reused for every entry.
+     * Entries are committed by chunks of {@link #BULK_CHUNK_SIZE}, so other connections
+     * are not blocked for the whole operation. If database is already in transaction,
+     * then entries are inserted in it, and are committed with it, by the caller.
+     * @param context           Context.
+     * @param db                Opened writable database.
+     * @param entries           Entries. Iterated once, so can be lazy.
+     * @param upsertBySyncId    If true, then entries with existing sync id are updated,
+     *                          otherwise skipped.
+     * @return Number of inserted (and updated) entries.
+     * @throws SQLiteException If database error.
+     */
+    public static int insertEntries(
+            @NonNull final Context context,
+            @NonNull final SQLiteDatabase db,
+            @NonNull final Iterable<ListEntry> entries,
+            final boolean upsertBySyncId) throws SQLiteException {
+
+        final long now          = System.currentTimeMillis();
+        final int defaultColor  = getDefaultColor(context);
+
+        final SQLiteStatement insert = db.compileStatement(SQL_LIST_ITEMS_INSERT);
+        final SQLiteStatement update = upsertBySyncId
+                ? db.compileStatement(SQL_LIST_ITEMS_UPDATE_BY_SYNC_ID)
+                : null;
+
+        // Nested transactions are committed only with the outermost, so chunks are not nested.
+        final boolean chunked = !db.inTransaction();
+
+        int counter = 0;
+        int chunk = 0;
+        try {
+            db.beginTransaction();
+            try {
+                for (ListEntry entry : entries) {
+                    final Long syncId = entry.getSyncId() == null || entry.getSyncId() == 0
+                            ? null
+                            : entry.getSyncId();
+
+                    // Existing entry is updated, otherwise inserted.
+                    boolean updated = false;
+                    if (update != null && syncId != null) {
+                        bindEntry(update, 1, entry, now, defaultColor);
+                        update.bindLong(9, syncId);
+                        updated = update.executeUpdateDelete() > 0;
+                    }
+
+                    if (updated) {
+                        counter++;
+
+                    } else {
+                        if (syncId == null) {
+                            insert.bindNull(1);
+                        } else {
+                            insert.bindLong(1, syncId);
+                        }
+                        bindEntry(insert, 2, entry, now, defaultColor);
+                        if (insert.executeInsert() != -1) {
+                            counter++;
+                        }
+                    }
+
+                    // Commit chunk, and begin next.
+                    if (chunked && ++chunk == BULK_CHUNK_SIZE) {
+                        chunk = 0;
+                        incrementListItemsVersion(db);
+                        db.setTransactionSuccessful();
+                        db.endTransaction();
+                        db.beginTransaction();
+                    }
+                }
+                incrementListItemsVersion(db);
+                db.setTransactionSuccessful();
+
+            } finally {
+                db.endTransaction();
+            }
+
+        } finally {
+            insert.close();
+            if (update != null) {
+                update.close();
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Bind title, description, color, image url, dates and content hash of entry, to statement.
+     * @param statement     Statement.
+     * @param index         Index of the first binding parameter (title), 1-based.
+     * @param entry         Entry.
+     * @param now           Current date in milliseconds, for not set dates.
+     * @param defaultColor  Color, if not set.
+     */
+    private static void bindEntry(
+            @NonNull final SQLiteStatement statement,
+            final int index,
+            @NonNull final ListEntry entry,
+            final long now,
+            final int defaultColor) {
+
+        final int color     = entry.getColor() == null ? defaultColor : entry.getColor();
+        final long created  = getTimeOrDefault(entry.getCreated(), now);
+        final long edited   = getTimeOrDefault(entry.getEdited(), now);
+        final long viewed   = getTimeOrDefault(entry.getViewed(), now);
+
+        bindStringOrNull(statement, index,      entry.getTitle());
+        bindStringOrNull(statement, index + 1,  entry.getDescription());
+        statement.bindLong(index + 2, color);
+        bindStringOrNull(statement, index + 3,  entry.getImageUrl());
+        statement.bindLong(index + 4, created);
+        statement.bindLong(index + 5, edited);
+        statement.bindLong(index + 6, viewed);
+        statement.bindLong(index + 7, ListEntry.getContentHash(
+                entry.getTitle(),
+                entry.getDescription(),
+                color,
+                entry.getImageUrl(),
+                created,
+                edited));
+    }
+
+    /**
+     * @param date          Date.
+     * @param defaultTime   Time in milliseconds, if date is null.
+     * @return Time of date in milliseconds since epoch, or default.
+     */
+    private static long getTimeOrDefault(
+            @Nullable final Date date,
+            final long defaultTime) {
+
+        return date == null ? defaultTime : date.getTime();
+    }
+
+    private static void bindStringOrNull(
+            @NonNull final SQLiteStatement statement,
+            final int index,
+            @Nullable final String value) {
+
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
     }
 
     /**
@@ -219,22 +531,58 @@ public final class ListDbHelper {
                     : entry.getColor();
             final String imageUrl       = entry.getImageUrl();
 
+            final long now              = System.currentTimeMillis();
+            final String[] selectionArgs = {Long.toString(id)};
+
             final ContentValues cv = new ContentValues();
             cv.put(COMMON_COLUMN_SYNC_ID,           syncId);
             cv.put(LIST_ITEMS_COLUMN_TITLE,         title);
             cv.put(LIST_ITEMS_COLUMN_DESCRIPTION,   description);
             cv.put(LIST_ITEMS_COLUMN_COLOR,         color);
             cv.put(LIST_ITEMS_COLUMN_IMAGE_URL,     imageUrl);
-            cv.put(editedViewedColumn,              getStringDateFormatSqlite(context, new Date(), true));
+            cv.put(editedViewedColumn,              now);
 
-            final int updateResult = db.update(
-                    LIST_ITEMS_TABLE_NAME,
-                    cv,
-                    BASE_COLUMN_ID + " = ?",
-                    new String[]{Long.toString(id)});
+            db.beginTransaction();
+            try {
+                // Not updated dates are read from the row, so entry is updated once,
+                // together with its content hash.
+                final long created;
+                final long edited;
+                try (Cursor cursor = db.query(
+                        LIST_ITEMS_TABLE_NAME,
+                        new String[] {LIST_ITEMS_COLUMN_CREATED, LIST_ITEMS_COLUMN_EDITED},
+                        BASE_COLUMN_ID + " = ?",
+                        selectionArgs,
+                        null,
+                        null,
+                        null)) {
 
-            if (updateResult == 0) {
-                throw new SQLiteException("[ERROR] The number of rows affected is 0");
+                    if (!cursor.moveToFirst()) {
+                        throw new SQLiteException("[ERROR] Entry is not exists: " + id);
+                    }
+                    created = cursor.getLong(0);
+                    edited = LIST_ITEMS_COLUMN_EDITED.equals(editedViewedColumn)
+                            ? now
+                            : cursor.getLong(1);
+                }
+                cv.put(LIST_ITEMS_COLUMN_CONTENT_HASH, ListEntry.getContentHash(
+                        title, description, color, imageUrl, created, edited));
+
+                final int updateResult = db.update(
+                        LIST_ITEMS_TABLE_NAME,
+                        cv,
+                        BASE_COLUMN_ID + " = ?",
+                        selectionArgs);
+
+                if (updateResult == 0) {
+                    throw new SQLiteException("[ERROR] The number of rows affected is 0");
+                }
+
+                incrementListItemsVersion(db);
+                db.setTransactionSuccessful();
+
+            } finally {
+                db.endTransaction();
             }
 
             return true;
@@ -249,6 +597,7 @@ public final class ListDbHelper {
 
     /**
      * Update synchronization id, in database, of the select entry.
+     * Entry is just added to server, so its current content is the synchronized version.
      * @param context   Context.
      * @param entryId   Entry id.
      * @param syncId    Sync id.
@@ -266,17 +615,16 @@ public final class ListDbHelper {
                 throw new SQLiteException(getDbFailMessage());
             }
 
-            final ContentValues cv = new ContentValues();
-            cv.put(COMMON_COLUMN_SYNC_ID, syncId);
-
-            final int updateResult = db.update(
-                    LIST_ITEMS_TABLE_NAME,
-                    cv,
-                    BASE_COLUMN_ID + " = ?",
-                    new String[]{entryId});
+            final SQLiteStatement update = db.compileStatement(SQL_LIST_ITEMS_UPDATE_SYNC_ID);
+            try {
+                update.bindString(1, syncId);
+                update.bindString(2, entryId);
+                if (update.executeUpdateDelete() == 0) {
+                    throw new SQLiteException("[ERROR] The number of rows affected is 0");
+                }
 
-            if (updateResult == 0) {
-                throw new SQLiteException("[ERROR] The number of rows affected is 0");
+            } finally {
+                update.close();
             }
 
             return true;
@@ -289,6 +637,259 @@ public final class ListDbHelper {
         return false;
     }
 
+    /**
+     * Update synchronization ids of many entries, in one transaction.
+     * See {@link #updateSyncId(Context, String, String)}.
+     * @param context       Context.
+     * @param syncIdsById   Sync ids, by entry id.
+     * @return Number of updated entries. If error, then return "-1".
+     */
+    public static int updateSyncIds(
+            @NonNull final Context context,
+            @NonNull final Map<String, String> syncIdsById) {
+
+        try {
+            final SQLiteDatabase db = getWritableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            final SQLiteStatement update = db.compileStatement(SQL_LIST_ITEMS_UPDATE_SYNC_ID);
+            int counter = 0;
+            try {
+                db.beginTransaction();
+                try {
+                    for (Map.Entry<String, String> entry : syncIdsById.entrySet()) {
+                        update.bindString(1, entry.getValue());
+                        update.bindString(2, entry.getKey());
+                        counter += update.executeUpdateDelete();
+                    }
+                    db.setTransactionSuccessful();
+
+                } finally {
+                    db.endTransaction();
+                }
+
+            } finally {
+                update.close();
+            }
+
+            return counter;
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Remember current content of entries, as synchronized with server.
+     * See {@link #markSynced(SQLiteDatabase, Iterable)}.
+     * @param context   Context.
+     * @param syncIds   Sync ids of entries.
+     * @return Number of updated entries. If error, then return "-1".
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static int markSynced(
+            @NonNull final Context context,
+            @NonNull final Iterable<String> syncIds) {
+
+        try {
+            final SQLiteDatabase db = getWritableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+            return markSynced(db, syncIds);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Set synced hash of entries to their content hash. Next synchronization compares
+     * both with the hash of server entry, to find, which side is changed.
+     * @param db        Opened writable database.
+     * @param syncIds   Sync ids of entries.
+     * @return Number of updated entries.
+     * @throws SQLiteException If database error.
+     */
+    public static int markSynced(
+            @NonNull final SQLiteDatabase db,
+            @NonNull final Iterable<String> syncIds) throws SQLiteException {
+
+        final SQLiteStatement update = db.compileStatement(SQL_LIST_ITEMS_MARK_SYNCED);
+        int counter = 0;
+        try {
+            db.beginTransaction();
+            try {
+                for (String syncId : syncIds) {
+                    update.bindString(1, syncId);
+                    counter += update.executeUpdateDelete();
+                }
+                db.setTransactionSuccessful();
+
+            } finally {
+                db.endTransaction();
+            }
+
+        } finally {
+            update.close();
+        }
+
+        return counter;
+    }
+
+    /**
+     * Get sync state of the entries with sync id in the given range:
+     * id, sync id, content hash and synced hash. Other columns are not loaded.
+     * @param context       Context.
+     * @param afterSyncId   Sync ids are greater than it. If null, then from the first.
+     * @param toSyncId      Sync ids are less than or equal to it. If null, then to the last.
+     * @return Result cursor. If error, then null.
+     */
+    @Nullable
+    public static Cursor getSyncStates(
+            @NonNull final Context context,
+            @Nullable final Long afterSyncId,
+            @Nullable final Long toSyncId) {
+
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            final StringBuilder selection = new StringBuilder(COMMON_COLUMN_SYNC_ID + " IS NOT NULL");
+            final List<String> selectionArgs = new ArrayList<>(2);
+            if (afterSyncId != null) {
+                selection.append(" AND " + COMMON_COLUMN_SYNC_ID + " > ?");
+                selectionArgs.add(afterSyncId.toString());
+            }
+            if (toSyncId != null) {
+                selection.append(" AND " + COMMON_COLUMN_SYNC_ID + " <= ?");
+                selectionArgs.add(toSyncId.toString());
+            }
+
+            return db.query(
+                    LIST_ITEMS_TABLE_NAME,
+                    new String[] {
+                            BASE_COLUMN_ID,
+                            COMMON_COLUMN_SYNC_ID,
+                            LIST_ITEMS_COLUMN_CONTENT_HASH,
+                            LIST_ITEMS_COLUMN_SYNCED_HASH},
+                    selection.toString(),
+                    selectionArgs.toArray(new String[selectionArgs.size()]),
+                    null,
+                    null,
+                    null);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get sync state of the entries with given sync ids, see {@link #getSyncStates(Context, Long, Long)}.
+     * @param context   Context.
+     * @param syncIds   Sync ids. Not more than 999.
+     * @return Result cursor. If error, then null.
+     */
+    @Nullable
+    public static Cursor getSyncStates(
+            @NonNull final Context context,
+            @NonNull final Collection<String> syncIds) {
+
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+            final String[] placeholders = new String[syncIds.size()];
+            Arrays.fill(placeholders, "?");
+            return db.query(
+                    LIST_ITEMS_TABLE_NAME,
+                    new String[] {
+                            BASE_COLUMN_ID,
+                            COMMON_COLUMN_SYNC_ID,
+                            LIST_ITEMS_COLUMN_CONTENT_HASH,
+                            LIST_ITEMS_COLUMN_SYNCED_HASH},
+                    COMMON_COLUMN_SYNC_ID + " IN (" + TextUtils.join(", ", placeholders) + ")",
+                    syncIds.toArray(new String[syncIds.size()]),
+                    null,
+                    null,
+                    null);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get entries, which are changed on local since the last synchronization,
+     * and must be updated on server. Only entries from the change log are checked.
+     * @param context Context.
+     * @return Result cursor. If error, then null.
+     */
+    @Nullable
+    public static Cursor getChangedSinceSync(@NonNull final Context context) {
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+            return db.query(
+                    LIST_ITEMS_TABLE_NAME,
+                    null,
+                    SQL_LIST_ITEMS_CHANGED_SINCE_SYNC,
+                    null,
+                    null,
+                    null,
+                    null);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove from the change log the records of entries, which are synchronized with server,
+     * or do not need it. Records of entries, which are still changed
+     * (e.g. update on server is failed, or entry is conflicting), are kept for the next time.
+     * @param context Context.
+     * @return Number of removed records. If error, then return "-1".
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static int clearChangeLog(@NonNull final Context context) {
+        try {
+            final SQLiteDatabase db = getWritableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+            return db.delete(CHANGE_LOG_TABLE_NAME, SQL_CHANGE_LOG_CLEAR_SYNCED, null);
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return -1;
+    }
+
     /**
      * Get entries from database, where sync id is null.
      * @return Result cursor.
@@ -365,19 +966,15 @@ public final class ListDbHelper {
                     entry.setColor(         cursor.getInt(      indexColor));
                     entry.setImageUrl(      cursor.getString(   indexImageUrl));
 
-                    DateFormat df   = CommonUtils.getDateFormatSqlite(context, true);
-                    Date created    = df.parse(cursor.getString(indexCreated));
-                    Date edited     = df.parse(cursor.getString(indexEdited));
-                    Date viewed     = df.parse(cursor.getString(indexViewed));
-                    entry.setCreated(created);
-                    entry.setEdited(edited);
-                    entry.setViewed(viewed);
+                    entry.setCreated(       new Date(cursor.getLong(indexCreated)));
+                    entry.setEdited(        new Date(cursor.getLong(indexEdited)));
+                    entry.setViewed(        new Date(cursor.getLong(indexViewed)));
                 }
 
                 return entry;
             }
 
-        } catch (ParseException | SQLiteException e) {
+        } catch (SQLiteException e) {
             Log.e(TAG, e.toString());
             showToast(getDbFailMessage(), Toast.LENGTH_SHORT);
         }
@@ -440,6 +1037,7 @@ public final class ListDbHelper {
                     throw new SQLiteException("[ERROR] The number of rows affected is 0");
                 }
 
+                incrementListItemsVersion(db);
                 db.setTransactionSuccessful();
 
             } finally {
@@ -501,20 +1099,13 @@ public final class ListDbHelper {
                 throw new SQLiteException(getDbFailMessage());
             }
 
-            db.beginTransaction();
-            try {
-                ListDbMockHelper.addMockEntries(
-                        context,
-                        numberOfEntries,
-                        db,
-                        notification,
-                        true);
-                db.setTransactionSuccessful();
-                return numberOfEntries;
-
-            } finally {
-                db.endTransaction();
-            }
+            // Entries are committed by chunks.
+            ListDbMockHelper.addMockEntries(
+                    context,
+                    numberOfEntries,
+                    db,
+                    notification);
+            return numberOfEntries;
 
         } catch (SQLiteException e) {
             Log.e(TAG, e.toString());
@@ -526,9 +1117,15 @@ public final class ListDbHelper {
 
     /**
      * @param context       Context.
-     * @param constraint    Search text.
+     * @param constraint    Search text. If not empty, then cursor also contains
+     *                      {@link DbHelper#LIST_ITEMS_FTS_COLUMN_TITLE_SNIPPET} and
+     *                      {@link DbHelper#LIST_ITEMS_FTS_COLUMN_DESCRIPTION_SNIPPET} columns,
+     *                      where matched words are between {@link #SEARCH_SNIPPET_MATCH_START}
+     *                      and {@link #SEARCH_SNIPPET_MATCH_END}.
      * @param profileMap    Profile parameters.
-     * @return              Cursor, with given params.
+     * @return              Cursor, with given params. Contains only columns of the list:
+     *                      id, title, description preview, color and edited date.
+     *                      See {@link #getEntry(Context, Long)} for all columns.
      */
     @Nullable
     public static Cursor getCursorWithParams(
@@ -539,33 +1136,367 @@ public final class ListDbHelper {
         final DbQueryBuilder resultQueryBuilder =
                 convertToQueryBuilder(
                         context, constraint, profileMap);
-        return getEntries(context, LIST_ITEMS_TABLE_NAME, resultQueryBuilder);
+
+        if (!hasPrefixMatchQuery(constraint)) {
+            return getEntries(context, LIST_ITEMS_TABLE_NAME, LIST_PROJECTION, resultQueryBuilder);
+        }
+        return getEntries(context, SQL_LIST_ITEMS_FTS_JOIN, SEARCH_PROJECTION, resultQueryBuilder);
     }
 
     /**
+     * Get one page of the list, with keyset pagination: page starts after the given row,
+     * by current sort order, so every page is a seek by index, instead of skipping
+     * the previous rows with "OFFSET".<br>
+     * Rows are ordered by sort column of profile and by id, so order is strict.
+     * Rows with NULL in sort column are first in ascending order, and last in descending
+     * order. If page reaches them, then it is continued with the second query.
      * @param context       Context.
-     * @param constraint    Search text.
+     * @param constraint    Search text. See {@link #getCursorWithParams(Context, CharSequence, Map)}.
      * @param profileMap    Profile parameters.
-     * @return              Filled database query builder.
+     * @param withinIds     Ids of the entries, to which page is restricted, in addition
+     *                      to profile parameters and search text. If null, then not restricted.
+     * @param afterSortKey  Value of sort column of the row, after which page starts.
+     *                      See {@link #LIST_COLUMN_SORT_KEY}.
+     * @param afterId       Id of the row, after which page starts. If negative,
+     *                      then the first page is returned.
+     * @param limit         Max number of rows.
+     * @param signal        Signal to cancel the query. Nullable.
+     * @return              Cursor with columns of {@link #getCursorWithParams(Context, CharSequence, Map)},
+     *                      and {@link #LIST_COLUMN_SORT_KEY}. If error or canceled, then null.
      */
-    @NonNull
-    public static DbQueryBuilder convertToQueryBuilder(
+    @Nullable
+    public static Cursor getPageWithParams(
+            @NonNull final Context context,
+            @Nullable final CharSequence constraint,
+            @NonNull final Map<String, String> profileMap,
+            @Nullable final long[] withinIds,
+            @Nullable final String afterSortKey,
+            final long afterId,
+            final int limit,
+            @Nullable final CancellationSignal signal) {
+
+        final DbQueryBuilder queryBuilder = convertToQueryBuilder(context, constraint, profileMap);
+        final String order = profileMap.get(SpFilterProfiles.SP_FILTER_ORDER);
+        final boolean ascending = !ORDER_DESCENDING.equals(
+                profileMap.get(SpFilterProfiles.SP_FILTER_ORDER_ASC));
+
+        final String table;
+        final String[] listProjection;
+        if (!hasPrefixMatchQuery(constraint)) {
+            table = LIST_ITEMS_TABLE_NAME;
+            listProjection = LIST_PROJECTION;
+        } else {
+            table = SQL_LIST_ITEMS_FTS_JOIN;
+            listProjection = SEARCH_PROJECTION;
+        }
+        final String[] projection = Arrays.copyOf(listProjection, listProjection.length + 1);
+        projection[listProjection.length] = order + " AS " + LIST_COLUMN_SORT_KEY;
+
+        final String ascDesc = ascending ? ORDER_ASCENDING : ORDER_DESCENDING;
+        final String orderBy = BASE_COLUMN_ID.equals(order)
+                ? BASE_COLUMN_ID + " " + ascDesc
+                : order + " " + ascDesc + ", " + BASE_COLUMN_ID + " " + ascDesc;
+        final String idOperator = ascending ? " > ?" : " < ?";
+        final String within = withinIds == null
+                ? null
+                : getIdsSelection(LIST_ITEMS_TABLE_NAME + "." + BASE_COLUMN_ID, withinIds);
+
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            // First page.
+            if (afterId < 0) {
+                return queryPage(db, table, projection, queryBuilder, within,
+                        null,
+                        null,
+                        orderBy,
+                        limit,
+                        signal);
+            }
+
+            // Sorted by id.
+            if (BASE_COLUMN_ID.equals(order)) {
+                return queryPage(db, table, projection, queryBuilder, within,
+                        BASE_COLUMN_ID + idOperator,
+                        new String[] {Long.toString(afterId)},
+                        orderBy,
+                        limit,
+                        signal);
+            }
+
+            // Inside of the NULL rows, or inside of the other rows.
+            final boolean insideNull = afterSortKey == null;
+            final Cursor cursor = insideNull
+                    ? queryPage(db, table, projection, queryBuilder, within,
+                            order + " IS NULL AND " + BASE_COLUMN_ID + idOperator,
+                            new String[] {Long.toString(afterId)},
+                            orderBy,
+                            limit,
+                            signal)
+                    : queryPage(db, table, projection, queryBuilder, within,
+                            order + (ascending ? " >= ?" : " <= ?")
+                                    + " AND (" + order + (ascending ? " > ?" : " < ?")
+                                    + " OR " + BASE_COLUMN_ID + idOperator + ")",
+                            new String[] {afterSortKey, afterSortKey, Long.toString(afterId)},
+                            orderBy,
+                            limit,
+                            signal);
+
+            // NULL rows are followed by the other rows in ascending order, and vice versa.
+            if (cursor.getCount() >= limit || insideNull != ascending) {
+                return cursor;
+            }
+            try {
+                final Cursor continuation = queryPage(db, table, projection, queryBuilder, within,
+                        order + (insideNull ? " IS NOT NULL" : " IS NULL"),
+                        null,
+                        orderBy,
+                        limit - cursor.getCount(),
+                        signal);
+                return new MergeCursor(new Cursor[] {cursor, continuation});
+            } catch (RuntimeException e) {
+                cursor.close();
+                throw e;
+            }
+
+        } catch (OperationCanceledException e) {
+            // Query is not needed anymore.
+            Log.i(TAG, e.toString());
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param context       Context.
+     * @param constraint    Search text. See {@link #getCursorWithParams(Context, CharSequence, Map)}.
+     * @param profileMap    Profile parameters.
+     * @return              Count of entries, with given params. If error, then -1.
+     */
+    public static int getCountWithParams(
             @NonNull final Context context,
             @Nullable final CharSequence constraint,
             @NonNull final Map<String, String> profileMap) {
 
-        final DbQueryBuilder searchTextQueryBuilder = new DbQueryBuilder();
-        if (!TextUtils.isEmpty(constraint)) {
-            searchTextQueryBuilder
-                    .addOr(LIST_ITEMS_COLUMN_TITLE,
-                            OPERATOR_LIKE,
-                            new String[] {constraint.toString()})
+        return getEntriesCount(
+                context,
+                hasPrefixMatchQuery(constraint) ? SQL_LIST_ITEMS_FTS_JOIN : LIST_ITEMS_TABLE_NAME,
+                convertToQueryBuilder(context, constraint, profileMap));
+    }
+
+    /**
+     * @param context       Context.
+     * @param constraint    Search text. Must not be empty.
+     * @param profileMap    Profile parameters.
+     * @param signal        Signal to cancel the query. Nullable.
+     * @return              Ids of the entries, with given params, in ascending order.
+     *                      If error or canceled, then null.
+     */
+    @Nullable
+    public static long[] getSearchIds(
+            @NonNull final Context context,
+            @NonNull final CharSequence constraint,
+            @NonNull final Map<String, String> profileMap,
+            @Nullable final CancellationSignal signal) {
+
+        final DbQueryBuilder queryBuilder = convertToQueryBuilder(context, constraint, profileMap);
+        return getIds(
+                context,
+                "SELECT " + LIST_ITEMS_TABLE_NAME + "." + BASE_COLUMN_ID + " "
+                        + "FROM " + SQL_LIST_ITEMS_FTS_JOIN + " "
+                        + "WHERE " + queryBuilder.getSelectionResult()
+                        + "ORDER BY " + LIST_ITEMS_TABLE_NAME + "." + BASE_COLUMN_ID,
+                queryBuilder.getSelectionArgs(),
+                signal);
+    }
+
+    /**
+     * Full-text search only, without profile parameters and without join with entries.
+     * @param context       Context.
+     * @param constraint    Search text. Must not be empty.
+     * @param withinIds     Ids of the entries, to which search is restricted.
+     * @param signal        Signal to cancel the query. Nullable.
+     * @return              Ids of the given entries, which match search text, in ascending order.
+     *                      If error or canceled, then null.
+     */
+    @Nullable
+    public static long[] getMatchedIds(
+            @NonNull final Context context,
+            @NonNull final CharSequence constraint,
+            @NonNull final long[] withinIds,
+            @Nullable final CancellationSignal signal) {
+
+        // Text without words is not a filter, so then only the given ids are selected.
+        final DbQueryBuilder queryBuilder = new DbQueryBuilder();
+        if (hasPrefixMatchQuery(constraint)) {
+            queryBuilder.addAnd(
+                    LIST_ITEMS_FTS_TABLE_NAME,
+                    OPERATOR_MATCH,
+                    new String[] {constraint.toString()});
+        }
+        final String[] selectionArgs = queryBuilder.getSelectionArgs();
+        return getIds(
+                context,
+                "SELECT " + LIST_ITEMS_FTS_COLUMN_DOC_ID + " "
+                        + "FROM " + LIST_ITEMS_FTS_TABLE_NAME + " "
+                        + "WHERE "
+                        + (selectionArgs == null ? "" : queryBuilder.getSelectionResult() + "AND ")
+                        + getIdsSelection(LIST_ITEMS_FTS_COLUMN_DOC_ID, withinIds) + " "
+                        + "ORDER BY " + LIST_ITEMS_FTS_COLUMN_DOC_ID,
+                selectionArgs,
+                signal);
+    }
+
+    @Nullable
+    private static long[] getIds(
+            @NonNull final Context context,
+            @NonNull final String sql,
+            @Nullable final String[] selectionArgs,
+            @Nullable final CancellationSignal signal) {
+
+        try {
+            final SQLiteDatabase db = getReadableDb(context);
+            if (db == null) {
+                throw new SQLiteException(getDbFailMessage());
+            }
+
+            try (Cursor cursor = db.rawQuery(sql, selectionArgs, signal)) {
+                final long[] ids = new long[cursor.getCount()];
+                for (int i = 0; cursor.moveToNext(); i++) {
+                    ids[i] = cursor.getLong(0);
+                }
+                return ids;
+            }
 
-                    .addOr(LIST_ITEMS_COLUMN_DESCRIPTION,
-                            OPERATOR_LIKE,
-                            new String[] {constraint.toString()});
+        } catch (OperationCanceledException e) {
+            // Query is not needed anymore.
+            Log.i(TAG, e.toString());
+
+        } catch (SQLiteException e) {
+            Log.e(TAG, e.toString());
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
         }
 
+        return null;
+    }
+
+    /**
+     * @param column    Column of ids.
+     * @param ids       Ids.
+     * @return Selection "column IN (ids)". Ids are numbers, so they are inlined,
+     * instead of arguments, whose number is limited.
+     */
+    @NonNull
+    private static String getIdsSelection(
+            @NonNull final String column,
+            @NonNull final long[] ids) {
+
+        final StringBuilder sb = new StringBuilder(column).append(" IN (");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(ids[i]);
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * @param db            Database.
+     * @param table         Table name, or join clause.
+     * @param projection    Columns.
+     * @param queryBuilder  Query builder of profile.
+     * @param within        Selection of ids, which is combined with "AND". Nullable.
+     * @param keyset        Additional selection, which is combined with "AND". Nullable.
+     * @param keysetArgs    Arguments of additional selection. Nullable.
+     * @param orderBy       Order.
+     * @param limit         Max number of rows.
+     * @param signal        Signal to cancel the query. Nullable.
+     * @return Cursor with fetched rows.
+     */
+    @NonNull
+    private static Cursor queryPage(
+            @NonNull final SQLiteDatabase db,
+            @NonNull final String table,
+            @NonNull final String[] projection,
+            @NonNull final DbQueryBuilder queryBuilder,
+            @Nullable final String within,
+            @Nullable final String keyset,
+            @Nullable final String[] keysetArgs,
+            @NonNull final String orderBy,
+            final int limit,
+            @Nullable final CancellationSignal signal) throws SQLiteException {
+
+        final List<String> args = new ArrayList<>();
+        final StringBuilder selection = new StringBuilder();
+
+        final String profileSelection = queryBuilder.getSelectionResult();
+        final String[] profileArgs = queryBuilder.getSelectionArgs();
+        if (profileSelection != null) {
+            selection.append('(').append(profileSelection).append(')');
+            if (profileArgs != null) {
+                Collections.addAll(args, profileArgs);
+            }
+        }
+        if (within != null) {
+            if (selection.length() > 0) {
+                selection.append(" AND ");
+            }
+            selection.append(within);
+        }
+        if (keyset != null) {
+            if (selection.length() > 0) {
+                selection.append(" AND ");
+            }
+            selection.append('(').append(keyset).append(')');
+            if (keysetArgs != null) {
+                Collections.addAll(args, keysetArgs);
+            }
+        }
+
+        final Cursor cursor = db.query(
+                false,
+                table,
+                projection,
+                selection.length() == 0 ? null : selection.toString(),
+                args.isEmpty() ? null : args.toArray(new String[args.size()]),
+                null,
+                null,
+                orderBy,
+                Integer.toString(limit),
+                signal);
+
+        // Fill the window now, on the calling thread. Query can be canceled here.
+        try {
+            cursor.getCount();
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    /**
+     * @param context       Context.
+     * @param constraint    Search text. If not empty, then query builder contains
+     *                      full-text search clause, and query must be joined with
+     *                      {@link DbHelper#LIST_ITEMS_FTS_TABLE_NAME}.
+     * @param profileMap    Profile parameters.
+     * @return              Filled database query builder.
+     */
+    @NonNull
+    public static DbQueryBuilder convertToQueryBuilder(
+            @NonNull final Context context,
+            @Nullable final CharSequence constraint,
+            @NonNull final Map<String, String> profileMap) {
+
         final DbQueryBuilder resultQueryBuilder = new DbQueryBuilder();
         if (!TextUtils.isEmpty(profileMap.get(FAVORITE_COLUMN_COLOR))) {
             resultQueryBuilder.addAnd(
@@ -576,7 +1507,6 @@ public final class ListDbHelper {
 
         for (String datesColumn : DATES_COLUMNS) {
             final String dates = getDateFromProfileMap(
-                    context,
                     profileMap,
                     datesColumn,
                     EXTRA_DATES_TO_DATETIME);
@@ -586,25 +1516,20 @@ public final class ListDbHelper {
             }
 
             try {
-                final DateFormat df = CommonUtils.getDateFormatSqlite(context, false);
-                Date dateUtc = df.parse(dates);
+                final long dateFrom = DateCodec.parseSqlite(getDateFromProfileMap(
+                        profileMap,
+                        datesColumn,
+                        EXTRA_DATES_FROM_DATETIME), true);
 
                 // Add +1 day to dateTo.
                 final Calendar newDateTo = Calendar.getInstance();
-                newDateTo.setTime(dateUtc);
+                newDateTo.setTimeInMillis(DateCodec.parseSqlite(dates, true));
                 newDateTo.add(Calendar.DATE, 1);
 
-                // Create array for queryBuilder.
+                // Create array for queryBuilder. Dates are compared as milliseconds.
                 final String[] datesArray = new String[2];
-                datesArray[0] = getDateFromProfileMap(
-                        context,
-                        profileMap,
-                        datesColumn,
-                        EXTRA_DATES_FROM_DATE);
-                datesArray[1] = getStringDateFormatSqlite(
-                        context,
-                        newDateTo.getTime(),
-                        false);
+                datesArray[0] = Long.toString(dateFrom);
+                datesArray[1] = Long.toString(newDateTo.getTimeInMillis() - 1);
 
                 // Add viewed filter, if not empty or null.
                 if (!TextUtils.isEmpty(profileMap.get(datesColumn))) {
@@ -618,9 +1543,14 @@ public final class ListDbHelper {
             }
         }
 
-        // Add search text inner filter, if not empty or null.
-        if (!TextUtils.isEmpty(constraint)) {
-            resultQueryBuilder.addAndInner(searchTextQueryBuilder);
+        // Add search text filter, if it has words. Text of only whitespaces and quotes
+        // gives empty full-text query, so it is not a filter.
+        // Title and description, with prefix matching of every word.
+        if (hasPrefixMatchQuery(constraint)) {
+            resultQueryBuilder.addAnd(
+                    LIST_ITEMS_FTS_TABLE_NAME,
+                    OPERATOR_MATCH,
+                    new String[] {constraint.toString()});
         }
 
         // Set sort order.
@@ -631,17 +1561,47 @@ public final class ListDbHelper {
     }
 
     /**
-     * Swapping two values.
-     * @param context       Context.
-     * @param entryFirstId  First entry id.
-     * @param entrySecondId Second entry id.
+     * @param column    Column index of full-text search table. "0" - title, "1" - description.
+     * @param tokens    Max number of tokens in snippet.
+     * @return          Snippet function of full-text search table, with highlighted matches.
+     */
+    @NonNull
+    private static String getSnippetColumn(final int column, final int tokens) {
+        return String.format(
+                Locale.ENGLISH,
+                "snippet(%s, '%s', '%s', '%s', %d, %d)",
+                LIST_ITEMS_FTS_TABLE_NAME,
+                SEARCH_SNIPPET_MATCH_START,
+                SEARCH_SNIPPET_MATCH_END,
+                SEARCH_SNIPPET_ELLIPSIS,
+                column,
+                tokens);
+    }
+
+    /**
+     * Move entry between two neighbours, in ascending order of "manually" column.<br>
+     * Entry gets a key in the middle of the gap between neighbours, so only one row is updated.
+     * If there is no gap, then keys of all entries are rebalanced first,
+     * see {@link #rebalanceManuallyColumn(SQLiteDatabase)}.
+     *
+     * @param context           Context.
+     * @param entryId           Id of entry to move.
+     * @param previousEntryId   Id of entry, which will be before the moved entry.
+     *                          If null, then move to the beginning.
+     * @param nextEntryId       Id of entry, which will be after the moved entry.
+     *                          If null, then move to the end.
      * @return True if ok, else false.
      */
     @SuppressWarnings("UnusedReturnValue")
-    public static boolean swapManuallyColumnValue(
+    public static boolean moveManuallyColumnValue(
             @NonNull final Context context,
-            @NonNull final String entryFirstId,
-            @NonNull final String entrySecondId) {
+            @NonNull final String entryId,
+            @Nullable final String previousEntryId,
+            @Nullable final String nextEntryId) {
+
+        if (previousEntryId == null && nextEntryId == null) {
+            return true;
+        }
 
         try {
             final SQLiteDatabase db = getWritableDb(context.getApplicationContext());
@@ -651,26 +1611,22 @@ public final class ListDbHelper {
 
             db.beginTransaction();
             try {
-                final String entryFirstValue = getManuallyColumnValue(db, entryFirstId);
-                if (entryFirstValue == null) {
-                    throw new SQLiteException(
-                            String.format(
-                                    Locale.ENGLISH,
-                                    "Getting value, from 'manually column', with entry id: %s",
-                                    entryFirstId));
+                Long newValue = getManuallyValueBetween(db, previousEntryId, nextEntryId);
+                if (newValue == null) {
+                    rebalanceManuallyColumn(db);
+                    newValue = getManuallyValueBetween(db, previousEntryId, nextEntryId);
                 }
-
-                final String entrySecondValue = getManuallyColumnValue(db, entrySecondId);
-                if (entrySecondValue == null) {
+                if (newValue == null) {
                     throw new SQLiteException(
                             String.format(
                                     Locale.ENGLISH,
-                                    "Getting value, from 'manually column', with entry id: %s",
-                                    entrySecondId));
+                                    "Cannot move entry '%s' between entries '%s' and '%s'",
+                                    entryId, previousEntryId, nextEntryId));
                 }
 
-                updateManuallyColumnValue(db, entryFirstId, entrySecondValue);
-                updateManuallyColumnValue(db, entrySecondId, entryFirstValue);
+                if (!updateManuallyColumnValue(db, entryId, newValue.toString())) {
+                    return false;
+                }
 
                 db.setTransactionSuccessful();
                 return true;
@@ -681,12 +1637,85 @@ public final class ListDbHelper {
 
         } catch (SQLiteException e) {
             Log.e(TAG, e.toString());
-            showToast(getDbFailMessage(), Toast.LENGTH_SHORT);
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
         }
 
         return false;
     }
 
+    /**
+     * Renumber "manually" column of all entries, with {@link DbHelper#LIST_ITEMS_MANUALLY_GAP}
+     * between neighbours, keeping the current order.
+     * @param db Opened writable database.
+     */
+    public static void rebalanceManuallyColumn(@NonNull final SQLiteDatabase db) {
+        final SQLiteStatement statement = db.compileStatement(
+                "UPDATE " + LIST_ITEMS_TABLE_NAME + " SET "
+                        + LIST_ITEMS_COLUMN_MANUALLY + " = ? "
+                        + "WHERE " + BASE_COLUMN_ID + " = ?");
+
+        try (Cursor cursor = db.query(
+                    LIST_ITEMS_TABLE_NAME,
+                    new String[] {BASE_COLUMN_ID},
+                    null,
+                    null,
+                    null,
+                    null,
+                    LIST_ITEMS_COLUMN_MANUALLY + ", " + BASE_COLUMN_ID)) {
+
+            long value = 0;
+            while (cursor.moveToNext()) {
+                value += LIST_ITEMS_MANUALLY_GAP;
+                statement.bindLong(1, value);
+                statement.bindLong(2, cursor.getLong(0));
+                statement.executeUpdateDelete();
+            }
+
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * @param db                Opened database.
+     * @param previousEntryId   Id of previous entry. If null, then value before next entry.
+     * @param nextEntryId       Id of next entry. If null, then value after previous entry.
+     * @return Value of "manually" column, between given entries.
+     * If there is no gap between entries, or entry not found, then null.
+     */
+    @Nullable
+    private static Long getManuallyValueBetween(
+            @NonNull final SQLiteDatabase db,
+            @Nullable final String previousEntryId,
+            @Nullable final String nextEntryId) {
+
+        final String previousValue = previousEntryId == null
+                ? null
+                : getManuallyColumnValue(db, previousEntryId);
+        final String nextValue = nextEntryId == null
+                ? null
+                : getManuallyColumnValue(db, nextEntryId);
+
+        if (previousEntryId != null && previousValue == null
+                || nextEntryId != null && nextValue == null
+                || previousValue == null && nextValue == null) {
+            return null;
+        }
+        if (previousValue == null) {
+            return Long.parseLong(nextValue) - LIST_ITEMS_MANUALLY_GAP;
+        }
+        if (nextValue == null) {
+            return Long.parseLong(previousValue) + LIST_ITEMS_MANUALLY_GAP;
+        }
+
+        final long previous = Long.parseLong(previousValue);
+        final long next = Long.parseLong(nextValue);
+        if (next - previous < 2) {
+            return null;
+        }
+        return previous + (next - previous) / 2;
+    }
+
     @Nullable
     private static String getManuallyColumnValue(
             @NonNull final SQLiteDatabase db,
@@ -737,7 +1766,7 @@ public final class ListDbHelper {
 
         if (updateResult == 0) {
             Log.e(TAG, "[ERROR] The number of rows affected is 0");
-            showToast(getDbFailMessage(), Toast.LENGTH_SHORT);
+            showToastRunOnUiThread(getDbFailMessage(), Toast.LENGTH_SHORT);
             return false;
         }
 
@@ -1,6 +1,5 @@
 package com.gamaliev.notes.list.db;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
@@ -9,19 +8,16 @@ import android.support.annotation.Nullable;
 
 import com.gamaliev.notes.R;
 import com.gamaliev.notes.color_picker.db.ColorPickerDbHelper;
+import com.gamaliev.notes.common.DateCodec;
 import com.gamaliev.notes.common.ProgressNotificationHelper;
+import com.gamaliev.notes.entity.ListEntry;
 
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_COLOR;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_CREATED;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_DESCRIPTION;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_EDITED;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_IMAGE_URL;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_VIEWED;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
-
 /**
  * @author Vadim Gamaliev
  *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
@@ -71,6 +67,8 @@ public final class ListDbMockHelper {
 
     /**
      * Add mock entries in given database, with given params.<br>
+     * Entries are generated lazily, and inserted with
+     * {@link ListDbHelper#insertEntries(Context, SQLiteDatabase, Iterable, boolean)}.
      *
      * @param entriesNumber Number of inserting entries.
      * @param db            Opened database.
@@ -80,39 +78,63 @@ public final class ListDbMockHelper {
             @NonNull    final Context           context,
                         final int               entriesNumber,
             @NonNull    final SQLiteDatabase    db,
-            @Nullable   final ProgressNotificationHelper notification,
-                        final boolean           yieldIfContendedSafely) throws SQLiteException {
+            @Nullable   final ProgressNotificationHelper notification) throws SQLiteException {
 
         final Random random = new Random();
-        int percent = 0;
-
-        for (int i = 0; i < entriesNumber; i++) {
-            final ContentValues cv = new ContentValues();
-            cv.put(LIST_ITEMS_COLUMN_TITLE,         getRandomMockName(random));
-            cv.put(LIST_ITEMS_COLUMN_DESCRIPTION,   getRandomMockDescription(random));
-            cv.put(LIST_ITEMS_COLUMN_COLOR,         getRandomFavoriteColor(random));
-            cv.put(LIST_ITEMS_COLUMN_IMAGE_URL,     getRandomImageUrl(context));
-            cv.put(LIST_ITEMS_COLUMN_CREATED,       getRandomMockDate(random));
-            cv.put(LIST_ITEMS_COLUMN_EDITED,        getRandomMockDate(random));
-            cv.put(LIST_ITEMS_COLUMN_VIEWED,        getRandomMockDate(random));
-
-            if (db.insert(LIST_ITEMS_TABLE_NAME, null, cv) == -1) {
-                throw new SQLiteException("[ERROR] Add mock entries.");
-            }
-
-            // Update progress. Without flooding. 0-100%
-            if (notification != null) {
-                final int percentNew = i * 100 / entriesNumber;
-                if (percentNew > percent) {
-                    percent = percentNew;
-                    notification.setProgress(100, percentNew);
-                }
+        final Date[] dates = getMockDates();
+        final int[] colors = ColorPickerDbHelper.getFavoriteColorsDefault();
+        final String imageUrl = getRandomImageUrl(context);
+
+        final Iterable<ListEntry> entries = new Iterable<ListEntry>() {
+            @Override
+            public Iterator<ListEntry> iterator() {
+                return new Iterator<ListEntry>() {
+                    private int mIndex;
+                    private int mPercent;
+
+                    @Override
+                    public boolean hasNext() {
+                        return mIndex < entriesNumber;
+                    }
+
+                    @Override
+                    public ListEntry next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final ListEntry entry = new ListEntry();
+                        entry.setTitle(         getRandomMockName(random));
+                        entry.setDescription(   getRandomMockDescription(random));
+                        entry.setColor(         colors[random.nextInt(colors.length)]);
+                        entry.setImageUrl(      imageUrl);
+                        entry.setCreated(       dates[random.nextInt(dates.length)]);
+                        entry.setEdited(        dates[random.nextInt(dates.length)]);
+                        entry.setViewed(        dates[random.nextInt(dates.length)]);
+
+                        // Update progress. Without flooding. 0-100%
+                        if (notification != null) {
+                            final int percentNew = mIndex * 100 / entriesNumber;
+                            if (percentNew > mPercent) {
+                                mPercent = percentNew;
+                                notification.setProgress(100, percentNew);
+                            }
+                        }
+
+                        mIndex++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
             }
+        };
 
-            //
-            if (yieldIfContendedSafely && i % 100 == 0) {
-                db.yieldIfContendedSafely();
-            }
+        if (ListDbHelper.insertEntries(context, db, entries, false) != entriesNumber) {
+            throw new SQLiteException("[ERROR] Add mock entries.");
         }
 
         if (notification != null) {
@@ -143,28 +165,25 @@ public final class ListDbMockHelper {
         return sb.toString();
     }
 
-    /**
-     * @param random Generator of pseudo-random numbers.
-     * @return Random favorite color from
-     * {@link ColorPickerDbHelper#FAVORITE_COLORS_DEFAULT}
-     */
-    @NonNull
-    private static String getRandomFavoriteColor(@NonNull final Random random) {
-        final int[] colors = ColorPickerDbHelper.getFavoriteColorsDefault();
-        return String.valueOf(colors[random.nextInt(colors.length)]);
-    }
-
     @NonNull
     private static String getRandomImageUrl(@NonNull final Context context) {
         return context.getString(R.string.mock_entries_default_image);
     }
 
     /**
-     * @param random Generator of pseudo-random numbers.
-     * @return Random date from {@link #LIST_MOCK_DATE}
+     * @return Parsed dates from {@link #LIST_MOCK_DATE}
+     * @throws SQLiteException If mock date has wrong format.
      */
     @NonNull
-    private static String getRandomMockDate(@NonNull final Random random) {
-        return LIST_MOCK_DATE[random.nextInt(LIST_MOCK_DATE.length)];
+    private static Date[] getMockDates() {
+        final Date[] dates = new Date[LIST_MOCK_DATE.length];
+        try {
+            for (int i = 0; i < LIST_MOCK_DATE.length; i++) {
+                dates[i] = new Date(DateCodec.parseSqlite(LIST_MOCK_DATE[i], true));
+            }
+        } catch (ParseException e) {
+            throw new SQLiteException(e.toString());
+        }
+        return dates;
     }
 }
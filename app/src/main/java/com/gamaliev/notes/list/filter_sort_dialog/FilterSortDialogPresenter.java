@@ -10,15 +10,17 @@ import android.util.Log;
 import android.widget.DatePicker;
 
 import com.gamaliev.notes.R;
-import com.gamaliev.notes.common.CommonUtils;
+import com.gamaliev.notes.common.DateCodec;
+import com.gamaliev.notes.common.db.DbQueryBuilder;
 import com.gamaliev.notes.list.db.ListDbHelper;
 
-import java.text.DateFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -38,6 +40,7 @@ import static com.gamaliev.notes.common.CommonUtils.getMainHandler;
 import static com.gamaliev.notes.common.CommonUtils.getStringDateFormatSqlite;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.getEntriesCount;
+import static com.gamaliev.notes.common.db.DbHelper.getEntriesCounts;
 import static com.gamaliev.notes.common.shared_prefs.SpCommon.convertJsonToMap;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_COLOR;
 import static com.gamaliev.notes.common.shared_prefs.SpFilterProfiles.SP_FILTER_ID;
@@ -146,6 +149,10 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             return;
         }
 
+        // Profiles without cached count, which are counted by one query.
+        final List<String> notCachedIds = new ArrayList<>();
+        final List<DbQueryBuilder> notCachedQueryBuilders = new ArrayList<>();
+
         for (String profileJson : profilesSet) {
             final Map<String, String> profileMap = convertJsonToMap(profileJson);
             if (profileMap == null) {
@@ -160,33 +167,9 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             // Cache.
             final String foundedEntriesCache = mFoundedEntriesCache.get(filterId);
             if (foundedEntriesCache == null) {
-                mRunnableTasks.add(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (mFilterSortDialogView.isActive()) {
-                            final int foundedEntries = getEntriesCount(
-                                    mContext,
-                                    LIST_ITEMS_TABLE_NAME,
-                                    ListDbHelper.convertToQueryBuilder(
-                                            mContext,
-                                            null,
-                                            profileMap));
-
-                            mFoundedEntriesCache.put(filterId, String.valueOf(foundedEntries));
-
-                            if (mFilterSortDialogView.isActive()) {
-                                getMainHandler().post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        mFilterSortDialogView.showProfileFoundedEntriesText(
-                                                filterId,
-                                                String.valueOf(foundedEntries));
-                                    }
-                                });
-                            }
-                        }
-                    }
-                });
+                notCachedIds.add(filterId);
+                notCachedQueryBuilders.add(
+                        ListDbHelper.convertToQueryBuilder(mContext, null, profileMap));
 
             } else {
                 mFilterSortDialogView.showProfileFoundedEntriesText(filterId, foundedEntriesCache);
@@ -198,6 +181,42 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
                 mFilterSortDialogView.highlightProfileTitle(filterId);
             }
         }
+
+        if (!notCachedIds.isEmpty()) {
+            mRunnableTasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    if (mFilterSortDialogView.isActive()) {
+                        final int[] foundedEntries = getEntriesCounts(
+                                mContext,
+                                LIST_ITEMS_TABLE_NAME,
+                                notCachedQueryBuilders);
+                        if (foundedEntries == null) {
+                            return;
+                        }
+
+                        for (int i = 0; i < foundedEntries.length; i++) {
+                            mFoundedEntriesCache.put(
+                                    notCachedIds.get(i),
+                                    String.valueOf(foundedEntries[i]));
+                        }
+
+                        if (mFilterSortDialogView.isActive()) {
+                            getMainHandler().post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    for (int i = 0; i < foundedEntries.length; i++) {
+                                        mFilterSortDialogView.showProfileFoundedEntriesText(
+                                                notCachedIds.get(i),
+                                                String.valueOf(foundedEntries[i]));
+                                    }
+                                }
+                            });
+                        }
+                    }
+                }
+            });
+        }
     }
 
     @Override
@@ -323,13 +342,11 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             final int dateToId) {
 
         if (!TextUtils.isEmpty(getDateFromProfileMap(
-                mContext,
                 mFilterProfileMap,
                 filterCategory,
                 EXTRA_DATES_BOTH))) {
 
             final String localtimeDateFrom = getDateFromProfileMap(
-                    mContext,
                     mFilterProfileMap,
                     filterCategory,
                     EXTRA_DATES_FROM_DATE_UTC_TO_LOCALTIME);
@@ -340,7 +357,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             }
 
             final String localtimeDateTo = getDateFromProfileMap(
-                    mContext,
                     mFilterProfileMap,
                     filterCategory,
                     EXTRA_DATES_TO_DATE_UTC_TO_LOCALTIME);
@@ -447,7 +463,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
         int dayOfMonth;
 
         if (!TextUtils.isEmpty(getDateFromProfileMap(
-                mContext,
                 mFilterProfileMap,
                 filterCategory,
                 EXTRA_DATES_BOTH))) {
@@ -455,7 +470,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             if (isDateFrom) {
                 // If "date_from".
                 final String dateFrom = getDateFromProfileMap(
-                        mContext,
                         mFilterProfileMap,
                         filterCategory,
                         EXTRA_DATES_FROM_DATE_UTC_TO_LOCALTIME);
@@ -473,7 +487,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             } else {
                 // If "date_to".
                 final String dateTo = getDateFromProfileMap(
-                        mContext,
                         mFilterProfileMap,
                         filterCategory,
                         EXTRA_DATES_TO_DATE_UTC_TO_LOCALTIME);
@@ -567,7 +580,7 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
                     final Calendar date = Calendar.getInstance();
                     date.set(year, month, dayOfMonth, 0, 0, 0);
                     final String resultDate =
-                            getStringDateFormatSqlite(mContext, date.getTime(), false);
+                            getStringDateFormatSqlite(date.getTime(), false);
 
                     updateDateSettings(filterCategory, resultDate, isDateFrom);
                     mSelectedFilterProfile = SP_FILTER_PROFILE_CURRENT_ID;
@@ -582,15 +595,13 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
             @NonNull final String resultLocaltimeDateS,
             final boolean isDateFrom) {
 
-        final String resultUtcDateS = convertLocalToUtc(mContext, resultLocaltimeDateS);
+        final String resultUtcDateS = convertLocalToUtc(resultLocaltimeDateS);
         String newUtcDateFromS;
         String newUtcDateToS;
 
-        final DateFormat dateFormatUtc = CommonUtils.getDateFormatSqlite(mContext, true);
-
         Date resultUtcDateD = null;
         try {
-            resultUtcDateD = dateFormatUtc.parse(resultLocaltimeDateS);
+            resultUtcDateD = new Date(DateCodec.parseSqlite(resultLocaltimeDateS, true));
         } catch (ParseException e) {
             Log.e(TAG, e.toString());
         }
@@ -599,27 +610,26 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
         }
 
         if (!TextUtils.isEmpty(getDateFromProfileMap(
-                mContext,
                 mFilterProfileMap,
                 filterCategory,
                 EXTRA_DATES_BOTH))) {
 
             try {
                 // Parse "date_from".
-                final Date utcDateFrom = dateFormatUtc.parse(
+                final Date utcDateFrom = new Date(DateCodec.parseSqlite(
                         getDateFromProfileMap(
-                                mContext,
                                 mFilterProfileMap,
                                 filterCategory,
-                                EXTRA_DATES_FROM_DATETIME));
+                                EXTRA_DATES_FROM_DATETIME),
+                        true));
 
                 // Parse "date_to".
-                final Date utcDateTo = dateFormatUtc.parse(
+                final Date utcDateTo = new Date(DateCodec.parseSqlite(
                         getDateFromProfileMap(
-                                mContext,
                                 mFilterProfileMap,
                                 filterCategory,
-                                EXTRA_DATES_TO_DATETIME));
+                                EXTRA_DATES_TO_DATETIME),
+                        true));
 
                 if (isDateFrom) {
                     // Set new date;
@@ -629,7 +639,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
                     // else change to new.
                     newUtcDateToS = resultUtcDateD.before(utcDateTo)
                             ? getDateFromProfileMap(
-                            mContext,
                             mFilterProfileMap,
                             filterCategory,
                             EXTRA_DATES_TO_DATETIME)
@@ -640,7 +649,6 @@ class FilterSortDialogPresenter implements FilterSortDialogContract.Presenter {
                     // else change to new.
                     newUtcDateFromS = resultUtcDateD.after(utcDateFrom)
                             ? getDateFromProfileMap(
-                            mContext,
                             mFilterProfileMap,
                             filterCategory,
                             EXTRA_DATES_FROM_DATETIME)
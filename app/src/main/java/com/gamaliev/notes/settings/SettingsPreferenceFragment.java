@@ -13,9 +13,12 @@ import android.util.Log;
 import android.view.View;
 
 import com.gamaliev.notes.R;
+import com.gamaliev.notes.common.rest.NoteApiUtils;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
 
 import static android.content.Context.MODE_PRIVATE;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_API_URL;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_ID;
 
 /**
  * @author Vadim Gamaliev
@@ -106,6 +109,13 @@ public class SettingsPreferenceFragment extends PreferenceFragmentCompat
 
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        if (SP_USER_SYNC_API_URL.equals(key)) {
+            NoteApiUtils.invalidate();
+        }
+        // Token is valid only for the same server and the same user on it.
+        if (SP_USER_SYNC_API_URL.equals(key) || SP_USER_SYNC_ID.equals(key)) {
+            SpUsers.setSyncTokenForCurrentUser(getActivity(), null);
+        }
         setPreferenceScreen(null);
         addPreferencesFromResource(R.xml.preference_settings);
     }
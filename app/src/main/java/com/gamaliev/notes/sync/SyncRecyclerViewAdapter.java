@@ -65,7 +65,7 @@ class SyncRecyclerViewAdapter
         final int indexAmount   = cursor.getColumnIndex(DbHelper.SYNC_COLUMN_AMOUNT);
 
         final String finished   = CommonUtils
-                .convertUtcToLocal(mContext, cursor.getString(indexFinished));
+                .convertUtcToLocal(cursor.getString(indexFinished));
         final int actionIndex   = Integer.parseInt(cursor.getString(indexAction));
         final String action     = mContext.getString(getActionText()[actionIndex]);
         final int statusIndex   = Integer.parseInt(cursor.getString(indexStatus));
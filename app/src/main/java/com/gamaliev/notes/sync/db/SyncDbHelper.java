@@ -70,7 +70,6 @@ public final class SyncDbHelper {
 
             final String utcFinishedDate =
                     getStringDateFormatSqlite(
-                            context,
                             entry.getFinished() == null ? new Date() : entry.getFinished(),
                             true);
             final Integer action = entry.getAction() == null ? ACTION_NOTHING : entry.getAction();
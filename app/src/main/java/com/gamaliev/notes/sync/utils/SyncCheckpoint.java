@@ -0,0 +1,134 @@
+package com.gamaliev.notes.sync.utils;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.gamaliev.notes.common.shared_prefs.SpUsers;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Checkpoint of the paged synchronization, which is saved after every applied page,
+ * see {@link SpUsers#setSyncCheckpointForCurrentUser(Context, String)}.
+ * Interrupted synchronization is resumed from the next page, instead of the first one.<br>
+ * Pages are in ascending order of sync ids, so all server entries with sync id
+ * up to the last sync id are already applied to local.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public final class SyncCheckpoint {
+
+    /* Logger */
+    @NonNull private static final String TAG = SyncCheckpoint.class.getSimpleName();
+
+    /* Json */
+    private static final String KEY_PAGE_TOKEN      = "page_token";
+    private static final String KEY_LAST_SYNC_ID    = "last_sync_id";
+    private static final String KEY_TOKEN           = "token";
+    private static final String KEY_ETAG            = "etag";
+
+    /* ... */
+    @NonNull private final String mPageToken;
+    @Nullable private final Long mLastSyncId;
+    @Nullable private final String mToken;
+    @Nullable private final String mETag;
+
+
+    /*
+        Init
+     */
+
+    /**
+     * @param pageToken     Token of the next page.
+     * @param lastSyncId    Max sync id of the applied pages, or null, if they are empty.
+     * @param token         Token for changes, received with the first page, or null.
+     * @param eTag          ETag of the notes, received with the first page, or null.
+     */
+    public SyncCheckpoint(
+            @NonNull final String pageToken,
+            @Nullable final Long lastSyncId,
+            @Nullable final String token,
+            @Nullable final String eTag) {
+
+        mPageToken = pageToken;
+        mLastSyncId = lastSyncId;
+        mToken = token;
+        mETag = eTag;
+    }
+
+
+    /*
+        Json
+     */
+
+    /**
+     * @param json Checkpoint in json-format, see {@link #toJson()}.
+     * @return Checkpoint, or null, if json is null or not valid.
+     */
+    @Nullable
+    public static SyncCheckpoint fromJson(@Nullable final String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            final JSONObject jsonObject = new JSONObject(json);
+            return new SyncCheckpoint(
+                    jsonObject.getString(KEY_PAGE_TOKEN),
+                    jsonObject.has(KEY_LAST_SYNC_ID) ? jsonObject.getLong(KEY_LAST_SYNC_ID) : null,
+                    jsonObject.optString(KEY_TOKEN, null),
+                    jsonObject.optString(KEY_ETAG, null));
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return Checkpoint in json-format, or null, if error.
+     */
+    @Nullable
+    public String toJson() {
+        try {
+            final JSONObject jsonObject = new JSONObject();
+            jsonObject.put(KEY_PAGE_TOKEN, mPageToken);
+            jsonObject.putOpt(KEY_LAST_SYNC_ID, mLastSyncId);
+            jsonObject.putOpt(KEY_TOKEN, mToken);
+            jsonObject.putOpt(KEY_ETAG, mETag);
+            return jsonObject.toString();
+
+        } catch (JSONException e) {
+            Log.e(TAG, e.toString());
+            return null;
+        }
+    }
+
+
+    /*
+        Getters
+     */
+
+    @NonNull
+    public String getPageToken() {
+        return mPageToken;
+    }
+
+    @Nullable
+    public Long getLastSyncId() {
+        return mLastSyncId;
+    }
+
+    @Nullable
+    public String getToken() {
+        return mToken;
+    }
+
+    @Nullable
+    public String getETag() {
+        return mETag;
+    }
+}
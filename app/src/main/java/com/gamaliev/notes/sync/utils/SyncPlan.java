@@ -0,0 +1,258 @@
+package com.gamaliev.notes.sync.utils;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.gamaliev.notes.entity.ListEntry;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_CONTENT_HASH;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNCED_HASH;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNC_ID_JSON;
+
+/**
+ * Result of comparison of the part of received server entries with the local entries,
+ * which have the same sync ids.<br>
+ * Sync state of local entries (id, content hash and synced hash) is indexed once,
+ * then server entries of the part are compared one by one
+ * (see {@link #addServerEntry(Context, JSONObject)}).
+ * Content is compared by hashes only (see {@link ListEntry#getContentHash(Cursor)}):
+ * local hash, server hash, and synced hash, which is the hash of the last synchronized version.
+ * Every server entry is classified:
+ * <ul>
+ *     <li>added - exists on server only, must be added to local;</li>
+ *     <li>unchanged - local and server hashes are equal;</li>
+ *     <li>changed locally - server hash is equal to synced hash. Is not collected, because
+ *     local changes are updated on server from the change log;</li>
+ *     <li>changed remotely - local hash is equal to synced hash, must be updated on local;</li>
+ *     <li>conflicting - changed on both sides, or synced hash is not known.</li>
+ * </ul>
+ * Local entries, which are not received from server, are not classified here,
+ * they are deleted by the range of the received page, see {@link SyncUtils}.
+ * Local entries without sync id are not compared, they are added to server before.
+ *
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public final class SyncPlan {
+
+    /* Logger */
+    @NonNull private static final String TAG = SyncPlan.class.getSimpleName();
+
+    /* Local entries, by sync id */
+    @NonNull private final Map<Long, LocalEntry> mLocalEntries;
+
+    /* Entries to apply on local. Are taken by parts, while server entries are received */
+    @NonNull private List<ListEntry> mAdded;
+    @NonNull private List<ListEntry> mChangedRemotely;
+
+    /* ... */
+    @NonNull private final List<String> mConflictingSyncIds;
+    @NonNull private final List<String> mUnmarkedSyncIds;
+    private int mAddedCount;
+    private int mChangedLocallyCount;
+    private int mChangedRemotelyCount;
+    private int mUnchangedCount;
+
+
+    /*
+        Init
+     */
+
+    private SyncPlan(@NonNull final Map<Long, LocalEntry> localEntries) {
+        mLocalEntries = localEntries;
+        mAdded = new ArrayList<>();
+        mChangedRemotely = new ArrayList<>();
+        mConflictingSyncIds = new ArrayList<>();
+        mUnmarkedSyncIds = new ArrayList<>();
+    }
+
+    /**
+     * Index sync state of local entries.
+     * @param localCursor   Cursor with local entries, with columns: sync id,
+     *                      content hash and synced hash, see
+     *                      {@link com.gamaliev.notes.list.db.ListDbHelper#getSyncStates(Context, Long, Long)}.
+     *                      Entries without sync id are ignored. Is not closed.
+     * @return Sync plan, without server entries.
+     */
+    @NonNull
+    public static SyncPlan newInstance(@NonNull final Cursor localCursor) {
+        final Map<Long, LocalEntry> localEntries = new HashMap<>(localCursor.getCount() * 2);
+
+        final int indexSyncId = localCursor.getColumnIndex(COMMON_COLUMN_SYNC_ID);
+        final int indexContentHash = localCursor.getColumnIndex(LIST_ITEMS_COLUMN_CONTENT_HASH);
+        final int indexSyncedHash = localCursor.getColumnIndex(LIST_ITEMS_COLUMN_SYNCED_HASH);
+        localCursor.moveToPosition(-1);
+        while (localCursor.moveToNext()) {
+            if (localCursor.isNull(indexSyncId)) {
+                continue;
+            }
+            try {
+                localEntries.put(
+                        Long.parseLong(localCursor.getString(indexSyncId)),
+                        new LocalEntry(
+                                !localCursor.isNull(indexContentHash),
+                                localCursor.getLong(indexContentHash),
+                                !localCursor.isNull(indexSyncedHash),
+                                localCursor.getLong(indexSyncedHash)));
+            } catch (NumberFormatException e) {
+                Log.e(TAG, e.toString());
+            }
+        }
+
+        return new SyncPlan(localEntries);
+    }
+
+
+    /*
+        ...
+     */
+
+    /**
+     * Compare server entry with local entry, which has the same sync id.
+     * @param context       Context.
+     * @param jsonServer    Server entry in json-format.
+     */
+    public void addServerEntry(
+            @NonNull final Context context,
+            @NonNull final JSONObject jsonServer) {
+
+        final String syncIdServer = jsonServer.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
+        if (syncIdServer == null) {
+            return;
+        }
+
+        try {
+            final LocalEntry localEntry = mLocalEntries.get(Long.parseLong(syncIdServer));
+
+            // Server entries, whose sync id is not exists on local, are new.
+            if (localEntry == null) {
+                mAdded.add(ListEntry.convertJsonToListEntry(context, jsonServer));
+                mAddedCount++;
+                return;
+            }
+
+            // Without local hash, entry is conflicting.
+            if (!localEntry.mHasContentHash) {
+                mConflictingSyncIds.add(syncIdServer);
+                return;
+            }
+            final long localHash = localEntry.mContentHash;
+            final long serverHash = ListEntry.getContentHash(jsonServer);
+            final boolean synced = localEntry.mHasSyncedHash;
+            final long syncedHash = localEntry.mSyncedHash;
+
+            if (localHash == serverHash) {
+                mUnchangedCount++;
+                if (!synced || syncedHash != localHash) {
+                    mUnmarkedSyncIds.add(syncIdServer);
+                }
+
+            } else if (synced && syncedHash == serverHash) {
+                mChangedLocallyCount++;
+
+            } else if (synced && syncedHash == localHash) {
+                mChangedRemotely.add(ListEntry.convertJsonToListEntry(context, jsonServer));
+                mChangedRemotelyCount++;
+
+            } else {
+                mConflictingSyncIds.add(syncIdServer);
+            }
+
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, e.toString());
+        }
+    }
+
+
+
+    /*
+        Getters
+     */
+
+    /**
+     * @return Entries, which must be added to local, since the previous call.
+     */
+    @NonNull
+    public List<ListEntry> takeAdded() {
+        final List<ListEntry> added = mAdded;
+        mAdded = new ArrayList<>();
+        return added;
+    }
+
+    /**
+     * @return Server entries, with sync id, which must be updated on local,
+     * since the previous call.
+     */
+    @NonNull
+    public List<ListEntry> takeChangedRemotely() {
+        final List<ListEntry> changedRemotely = mChangedRemotely;
+        mChangedRemotely = new ArrayList<>();
+        return changedRemotely;
+    }
+
+    /**
+     * @return Sync ids of the entries, which are changed on both sides.
+     */
+    @NonNull
+    public List<String> getConflictingSyncIds() {
+        return Collections.unmodifiableList(mConflictingSyncIds);
+    }
+
+    /**
+     * @return Sync ids of the unchanged entries, whose synced hash is not set yet,
+     * or is outdated (entry was changed the same way on both sides).
+     */
+    @NonNull
+    public List<String> getUnmarkedSyncIds() {
+        return Collections.unmodifiableList(mUnmarkedSyncIds);
+    }
+
+    @Override
+    public String toString() {
+        return "SyncPlan{"
+                + "added=" + mAddedCount
+                + ", changedLocally=" + mChangedLocallyCount
+                + ", changedRemotely=" + mChangedRemotelyCount
+                + ", conflicting=" + mConflictingSyncIds.size()
+                + ", unchanged=" + mUnchangedCount
+                + '}';
+    }
+
+
+    /*
+        ...
+     */
+
+    /**
+     * Sync state of local entry.
+     */
+    private static final class LocalEntry {
+        private final boolean mHasContentHash;
+        private final long mContentHash;
+        private final boolean mHasSyncedHash;
+        private final long mSyncedHash;
+
+        private LocalEntry(
+                final boolean hasContentHash,
+                final long contentHash,
+                final boolean hasSyncedHash,
+                final long syncedHash) {
+
+            mHasContentHash = hasContentHash;
+            mContentHash = contentHash;
+            mHasSyncedHash = hasSyncedHash;
+            mSyncedHash = syncedHash;
+        }
+    }
+}
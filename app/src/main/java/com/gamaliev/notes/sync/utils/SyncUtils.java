@@ -3,30 +3,36 @@ package com.gamaliev.notes.sync.utils;
 import android.content.Context;
 import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import android.widget.Toast;
 
 import com.gamaliev.notes.R;
+import com.gamaliev.notes.common.LongHashSet;
 import com.gamaliev.notes.common.ProgressNotificationHelper;
-import com.gamaliev.notes.common.db.DbQueryBuilder;
 import com.gamaliev.notes.common.network.NetworkUtils;
 import com.gamaliev.notes.common.rest.NoteApi;
+import com.gamaliev.notes.common.rest.NoteApiBatch;
 import com.gamaliev.notes.common.rest.NoteApiUtils;
-import com.gamaliev.notes.common.shared_prefs.SpCommon;
+import com.gamaliev.notes.common.rest.NoteStreamParser;
 import com.gamaliev.notes.common.shared_prefs.SpUsers;
 import com.gamaliev.notes.entity.ListEntry;
 import com.gamaliev.notes.entity.SyncEntry;
 import com.gamaliev.notes.list.db.ListDbHelper;
 import com.gamaliev.notes.sync.db.SyncDbHelper;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import okhttp3.ResponseBody;
 import retrofit2.Response;
 
 import static com.gamaliev.notes.common.CommonUtils.showToastRunOnUiThread;
@@ -37,31 +43,33 @@ import static com.gamaliev.notes.common.codes.ResultCode.RESULT_CODE_SYNC_SUCCES
 import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
 import static com.gamaliev.notes.common.db.DbHelper.COMMON_COLUMN_SYNC_ID;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNC_ID_JSON;
-import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_CONFLICT_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.SYNC_DELETED_TABLE_NAME;
-import static com.gamaliev.notes.common.db.DbHelper.deleteEntryWithSingle;
+import static com.gamaliev.notes.common.db.DbHelper.deleteEntriesWithSingle;
 import static com.gamaliev.notes.common.db.DbHelper.getEntries;
-import static com.gamaliev.notes.common.db.DbHelper.getEntriesCount;
 import static com.gamaliev.notes.common.db.DbHelper.insertEntryWithSingleValue;
 import static com.gamaliev.notes.common.observers.ObserverHelper.SYNC;
 import static com.gamaliev.notes.common.observers.ObserverHelper.notifyObservers;
-import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_DATA;
-import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_EXTRA;
-import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_ID;
-import static com.gamaliev.notes.common.rest.NoteApiUtils.API_KEY_STATUS;
-import static com.gamaliev.notes.common.rest.NoteApiUtils.API_STATUS_OK;
+import static com.gamaliev.notes.common.rest.NoteApiUtils.HEADER_ETAG;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_PENDING_FALSE;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.SP_USER_SYNC_PENDING_TRUE;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.getApiUrlForCurrentUser;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.getPendingSyncStatusForCurrentUser;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.getProgressNotificationTimerForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.getSyncCheckpointForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.getSyncETagForCurrentUser;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.getSyncIdForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.getSyncTokenForCurrentUser;
 import static com.gamaliev.notes.common.shared_prefs.SpUsers.setPendingSyncStatusForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.setSyncCheckpointForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.setSyncETagForCurrentUser;
+import static com.gamaliev.notes.common.shared_prefs.SpUsers.setSyncTokenForCurrentUser;
 import static com.gamaliev.notes.conflict.utils.ConflictUtils.checkConflictExistsAndShowStatusBarNotification;
 import static com.gamaliev.notes.list.db.ListDbHelper.deleteEntry;
 import static com.gamaliev.notes.list.db.ListDbHelper.getNewEntries;
-import static com.gamaliev.notes.list.db.ListDbHelper.insertUpdateEntry;
+import static com.gamaliev.notes.list.db.ListDbHelper.insertEntries;
+import static com.gamaliev.notes.list.db.ListDbHelper.markSynced;
+import static com.gamaliev.notes.list.db.ListDbHelper.upsertBySyncId;
 
 /**
  * @author Vadim Gamaliev
@@ -75,7 +83,6 @@ public final class SyncUtils {
     @NonNull private static final String TAG = SyncUtils.class.getSimpleName();
 
     /* ... */
-    @SuppressWarnings("unused")
     public static final int STATUS_ERROR    = 0;
     public static final int STATUS_OK       = 1;
 
@@ -93,6 +100,7 @@ public final class SyncUtils {
     public static final int ACTION_CONFLICTING_ADDED    = 11;
     public static final int ACTION_PENDING_START_NO_WIFI = 12;
     public static final int ACTION_PENDING_START_NO_INTERNET = 13;
+    public static final int ACTION_REQUESTS_IN_FLIGHT   = 14;
 
     @NonNull private static final int[] STATUS_TEXT = {
             R.string.fragment_sync_item_status_error,
@@ -113,11 +121,19 @@ public final class SyncUtils {
             R.string.fragment_sync_item_action_delete_all_from_server_completed,
             R.string.fragment_sync_item_action_conflict,
             R.string.fragment_sync_item_action_pending_start_no_wifi,
-            R.string.fragment_sync_item_action_pending_start_no_internet
+            R.string.fragment_sync_item_action_pending_start_no_internet,
+            R.string.fragment_sync_item_action_requests_in_flight
     };
     
     private static final ExecutorService SINGLE_THREAD_EXECUTOR;
     private static boolean sSyncRunning = false;
+    private static int sMaxRequestsInFlight = NoteApiBatch.DEFAULT_MAX_REQUESTS_IN_FLIGHT;
+
+    /* Number of received server entries, which are applied to local at once */
+    private static final int APPLY_PART_SIZE = 500;
+
+    /* Max number of server entries, which are requested with one page */
+    private static final int PAGE_SIZE = 500;
 
 
     /*
@@ -144,6 +160,23 @@ public final class SyncUtils {
     }
 
 
+    /*
+        Requests in flight
+     */
+
+    public static synchronized int getMaxRequestsInFlight() {
+        return sMaxRequestsInFlight;
+    }
+
+    /**
+     * @param maxRequestsInFlight Max number of requests to server, which are sent
+     *                            at the same time, during synchronization. If less than 1, then 1.
+     */
+    public static synchronized void setMaxRequestsInFlight(final int maxRequestsInFlight) {
+        sMaxRequestsInFlight = Math.max(1, maxRequestsInFlight);
+    }
+
+
     /*
         Network
      */
@@ -219,10 +252,12 @@ public final class SyncUtils {
 
     /**
      * Starting synchronization of note entries with server in sync mode.
+     * If server entries are not received completely, then synchronization is completed
+     * with error status in journal.
      * @param context Context.
      * @return {@code true} if ok, else {@code false}.
      */
-    @SuppressWarnings({"UnusedReturnValue", "SameReturnValue"})
+    @SuppressWarnings("UnusedReturnValue")
     public static boolean makeSynchronize(@NonNull final Context context) {
         setSyncRunning(true);
 
@@ -244,10 +279,37 @@ public final class SyncUtils {
                 getProgressNotificationTimerForCurrentUser(context.getApplicationContext()),
                 true);
 
-        int added   = addNewToServer(context);
-        int deleted = deleteFromServer(context);
-        int updated = synchronizeFromServer(context);
-        int sum     = added + deleted + updated;
+        // One api instance, with one kept-alive connection, for all requests.
+        int sum = 0;
+        boolean completed = false;
+        final NoteApi noteApi = NoteApiUtils.newInstance(getApiUrlForCurrentUser(context));
+        if (noteApi == null) {
+            Log.e(TAG, "Cannot get note api.");
+
+        } else {
+            final NoteApiBatch noteApiBatch = new NoteApiBatch(
+                    noteApi,
+                    getSyncIdForCurrentUser(context),
+                    getMaxRequestsInFlight());
+            addToSyncJournalAndLogAndNotify(
+                    context,
+                    ACTION_REQUESTS_IN_FLIGHT,
+                    STATUS_OK,
+                    noteApiBatch.getMaxRequestsInFlight(),
+                    RESULT_CODE_SYNC_START,
+                    false);
+
+            final SyncCounters counters = new SyncCounters();
+            try {
+                int added   = addNewToServer(context, noteApiBatch);
+                int deleted = deleteFromServer(context, noteApiBatch);
+                completed   = synchronizeFromServer(context, noteApi, noteApiBatch, counters);
+                sum         = added + deleted + counters.getSum();
+
+            } finally {
+                noteApiBatch.shutdown();
+            }
+        }
 
         checkConflictExistsAndShowStatusBarNotification(context);
         notification.endProgress();
@@ -255,61 +317,52 @@ public final class SyncUtils {
         addToSyncJournalAndLogAndNotify(
                 context,
                 ACTION_COMPLETE,
-                STATUS_OK,
+                completed ? STATUS_OK : STATUS_ERROR,
                 sum,
-                RESULT_CODE_SYNC_SUCCESS,
+                completed ? RESULT_CODE_SYNC_SUCCESS : RESULT_CODE_SYNC_FAILED,
                 true);
 
         setPendingSyncStatusForCurrentUser(context, SP_USER_SYNC_PENDING_FALSE);
         setSyncRunning(false);
-        return true;
+        return completed;
     }
 
-    private static int addNewToServer(@NonNull final Context context) {
-        int counter = 0;
+    private static int addNewToServer(
+            @NonNull final Context context,
+            @NonNull final NoteApiBatch noteApiBatch) {
+
+        // Collect new entries, then add them with batch requests.
+        final List<String> ids = new ArrayList<>();
+        final List<JSONObject> jsonNewEntries = new ArrayList<>();
         final Cursor cursor = getNewEntries(context);
         if (cursor != null) {
+            final int indexId = cursor.getColumnIndex(BASE_COLUMN_ID);
             while (cursor.moveToNext()) {
                 final JSONObject jsonNewEntry = ListEntry.getJsonObjectFromCursor(context, cursor);
-                if (jsonNewEntry == null) {
-                    continue;
-                }
-                try {
-                    final NoteApi noteApi = NoteApiUtils.newInstance(getApiUrlForCurrentUser(context));
-                    if (noteApi == null) {
-                        throw new Exception("Cannot get note api.");
-                    }
-                    final Response<String> response = noteApi
-                            .add(getSyncIdForCurrentUser(context), jsonNewEntry.toString())
-                            .execute();
-
-                    if (response.isSuccessful()) {
-                        final String body = response.body();
-                        final JSONObject jsonResponse = new JSONObject(body);
-                        final String status = jsonResponse.optString(API_KEY_STATUS);
-
-                        if (API_STATUS_OK.equals(status)) {
-                            final String newSyncId = jsonResponse.optString(API_KEY_DATA);
-                            final String id = cursor.getString(cursor.getColumnIndex(BASE_COLUMN_ID));
-                            ListDbHelper.updateSyncId(context, id, newSyncId);
-                            counter++;
-
-                        } else {
-                            Log.e(TAG, response.toString());
-                        }
-
-                    } else {
-                        Log.e(TAG, response.toString());
-                    }
-
-                } catch (Exception e) {
-                    Log.e(TAG, e.toString());
+                if (jsonNewEntry != null) {
+                    ids.add(cursor.getString(indexId));
+                    jsonNewEntries.add(jsonNewEntry);
                 }
             }
-
             cursor.close();
         }
 
+        // Apply assigned sync ids in one transaction.
+        final List<String> newSyncIds = noteApiBatch.add(jsonNewEntries);
+        final Map<String, String> syncIdsById = new LinkedHashMap<>(newSyncIds.size());
+        for (int i = 0; i < newSyncIds.size(); i++) {
+            final String newSyncId = newSyncIds.get(i);
+            if (newSyncId != null) {
+                syncIdsById.put(ids.get(i), newSyncId);
+            }
+        }
+        final int counter = Math.max(0, ListDbHelper.updateSyncIds(context, syncIdsById));
+
+        addFailedToSyncJournal(
+                context,
+                ACTION_ADDED_TO_SERVER,
+                jsonNewEntries.size() - syncIdsById.size());
+
         addToSyncJournalAndLogAndNotify(
                 context,
                 ACTION_ADDED_TO_SERVER,
@@ -321,56 +374,37 @@ public final class SyncUtils {
         return counter;
     }
 
-    private static int deleteFromServer(@NonNull final Context context) {
-        int counter = 0;
+    private static int deleteFromServer(
+            @NonNull final Context context,
+            @NonNull final NoteApiBatch noteApiBatch) {
+
+        // Collect deleted entries, then delete them with batch requests.
+        final List<String> syncIds = new ArrayList<>();
         final Cursor cursor = getEntries(
                 context,
                 SYNC_DELETED_TABLE_NAME,
                 null);
         if (cursor != null) {
+            final int indexSyncId = cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID);
             while (cursor.moveToNext()) {
-                final String syncId = cursor.getString(cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID));
-                try {
-                    final NoteApi noteApi = NoteApiUtils.newInstance(getApiUrlForCurrentUser(context));
-                    if (noteApi == null) {
-                        throw new Exception("Cannot get note api.");
-                    }
-                    final Response<String> response = noteApi
-                            .delete(getSyncIdForCurrentUser(context),
-                                    syncId)
-                            .execute();
-
-                    if (response.isSuccessful()) {
-                        final String body = response.body();
-                        final JSONObject jsonResponse = new JSONObject(body);
-                        final String status = jsonResponse.optString(API_KEY_STATUS);
-
-                        if (API_STATUS_OK.equals(status)) {
-                            deleteEntryWithSingle(
-                                    context,
-                                    null,
-                                    SYNC_DELETED_TABLE_NAME,
-                                    COMMON_COLUMN_SYNC_ID,
-                                    syncId,
-                                    true);
-                            counter++;
-
-                        } else {
-                            Log.e(TAG, response.toString());
-                        }
-
-                    } else {
-                        Log.e(TAG, response.toString());
-                    }
-
-                } catch (Exception e) {
-                    Log.e(TAG, e.toString());
-                }
+                syncIds.add(cursor.getString(indexSyncId));
             }
-
             cursor.close();
         }
 
+        // Remove deleted from the table in one transaction.
+        final List<String> deleted = noteApiBatch.delete(syncIds);
+        final int counter = Math.max(0, deleteEntriesWithSingle(
+                context,
+                SYNC_DELETED_TABLE_NAME,
+                COMMON_COLUMN_SYNC_ID,
+                deleted));
+
+        addFailedToSyncJournal(
+                context,
+                ACTION_DELETED_FROM_SERVER,
+                syncIds.size() - deleted.size());
+
         addToSyncJournalAndLogAndNotify(
                 context,
                 ACTION_DELETED_FROM_SERVER,
@@ -382,155 +416,578 @@ public final class SyncUtils {
         return counter;
     }
 
-    private static int synchronizeFromServer(@NonNull final Context context) {
-        int counterAddedOnLocal     = 0;
-        int counterConflicting      = 0;
-        int counterDeletedOnLocal   = 0;
-
-        try {
-            final NoteApi noteApi = NoteApiUtils.newInstance(getApiUrlForCurrentUser(context));
-            if (noteApi == null) {
-                throw new Exception("Cannot get note api.");
+    /**
+     * @param counters Counters of the applied changes.
+     * @return True, if server entries are received completely, otherwise false.
+     */
+    private static boolean synchronizeFromServer(
+            @NonNull final Context context,
+            @NonNull final NoteApi noteApi,
+            @NonNull final NoteApiBatch noteApiBatch,
+            @NonNull final SyncCounters counters) {
+
+        // Only changes since the last synchronization, if server has given token for it.
+        boolean completed = false;
+        final String token = getSyncTokenForCurrentUser(context);
+        if (token != null) {
+            completed = synchronizeChangesFromServer(context, noteApi, noteApiBatch, token, counters);
+            if (!completed) {
+                Log.i(TAG, "Changes since token are not received, synchronize all entries.");
+                setSyncTokenForCurrentUser(context, null);
             }
-            final Response<String> response = noteApi
-                    .getAll(getSyncIdForCurrentUser(context))
-                    .execute();
+        }
+        if (!completed) {
+            completed = synchronizeAllFromServer(context, noteApi, noteApiBatch, counters);
+        }
+
+        addToSyncJournalAndLogAndNotify(
+                context,
+                ACTION_ADDED_TO_LOCAL,
+                STATUS_OK,
+                counters.mAddedOnLocal,
+                RESULT_CODE_SYNC_SUCCESS,
+                false);
 
-            if (response.isSuccessful()) {
-                final String body = response.body();
-                final JSONObject jsonResponse = new JSONObject(body);
-                final String status = jsonResponse.optString(API_KEY_STATUS);
-
-                if (API_STATUS_OK.equals(status)) {
-                    final JSONArray data = jsonResponse.getJSONArray(API_KEY_DATA);
-                    if (data != null) {
-
-                        // Add new to local.
-                        for (int i = 0; i < data.length(); i++) {
-                            final JSONObject jsonObject = data.getJSONObject(i);
-                            final String syncId = jsonObject.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
-
-                            if (syncId != null) {
-                                final DbQueryBuilder queryBuilder = new DbQueryBuilder();
-                                queryBuilder.addOr(
-                                        COMMON_COLUMN_SYNC_ID,
-                                        DbQueryBuilder.OPERATOR_EQUALS,
-                                        new String[]{syncId});
-                                final long entriesCount = getEntriesCount(
-                                        context,
-                                        LIST_ITEMS_TABLE_NAME,
-                                        queryBuilder);
-
-                                if (entriesCount == 0) {
-                                    insertUpdateEntry(
-                                            context,
-                                            ListEntry.convertJsonToListEntry(
-                                                    context,
-                                                    jsonObject),
-                                            false);
-                                    counterAddedOnLocal++;
-                                }
-                            }
-                        }
+        addToSyncJournalAndLogAndNotify(
+                context,
+                ACTION_DELETED_FROM_LOCAL,
+                STATUS_OK,
+                counters.mDeletedOnLocal,
+                RESULT_CODE_SYNC_SUCCESS,
+                false);
 
-                        addToSyncJournalAndLogAndNotify(
-                                context,
-                                ACTION_ADDED_TO_LOCAL,
-                                STATUS_OK,
-                                counterAddedOnLocal,
-                                RESULT_CODE_SYNC_SUCCESS,
-                                false);
+        addToSyncJournalAndLogAndNotify(
+                context,
+                ACTION_UPDATED_ON_LOCAL,
+                STATUS_OK,
+                counters.mUpdatedOnLocal,
+                RESULT_CODE_SYNC_SUCCESS,
+                false);
 
-                        // Delete from local and seek changes
-                        final Cursor cursor = getEntries(
-                                context,
-                                LIST_ITEMS_TABLE_NAME,
-                                null);
-                        if (cursor != null) {
-                            start:
-                            while (cursor.moveToNext()) {
-                                final String syncIdLocal = cursor
-                                        .getString(cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID));
-
-                                if (syncIdLocal != null) {
-                                    for (int i = 0; i < data.length(); i++) {
-                                        final JSONObject jsonServer = data.getJSONObject(i);
-                                        final String syncIdServer = jsonServer
-                                                .optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
-
-                                        if (syncIdLocal.equals(syncIdServer)) {
-                                            final JSONObject jsonLocal =
-                                                    ListEntry.getJsonObjectFromCursor(context, cursor);
-                                            if (jsonLocal == null) {
-                                                continue;
-                                            }
-                                            final Map<String, String> mapLocal =
-                                                    SpCommon.convertJsonToMap(jsonLocal.toString());
-                                            final Map<String, String> mapServer =
-                                                    SpCommon.convertJsonToMap(data.getString(i));
-                                            if (mapLocal == null || mapServer == null) {
-                                                continue;
-                                            }
-                                            mapServer.remove(API_KEY_ID);
-                                            mapServer.remove(API_KEY_EXTRA);
-
-                                            // Add to conflict table, if entries not equals.
-                                            if (!mapLocal.equals(mapServer)) {
-                                                insertEntryWithSingleValue(
-                                                        context,
-                                                        null,
-                                                        SYNC_CONFLICT_TABLE_NAME,
-                                                        COMMON_COLUMN_SYNC_ID,
-                                                        syncIdLocal);
-                                                counterConflicting++;
-                                            }
-                                            continue start;
-                                        }
-                                    }
-
-                                    // Delete from local, if syncId not exists on server
-                                    deleteEntry(
-                                            context,
-                                            cursor.getLong(cursor.getColumnIndex(BASE_COLUMN_ID)),
-                                            false);
-                                    counterDeletedOnLocal++;
-                                }
-                            }
-                            cursor.close();
-                        }
+        addToSyncJournalAndLogAndNotify(
+                context,
+                ACTION_UPDATED_ON_SERVER,
+                STATUS_OK,
+                counters.mUpdatedOnServer,
+                RESULT_CODE_SYNC_SUCCESS,
+                false);
 
-                        addToSyncJournalAndLogAndNotify(
-                                context,
-                                ACTION_DELETED_FROM_LOCAL,
-                                STATUS_OK,
-                                counterDeletedOnLocal,
-                                RESULT_CODE_SYNC_SUCCESS,
-                                false);
+        addToSyncJournalAndLogAndNotify(
+                context,
+                ACTION_CONFLICTING_ADDED,
+                STATUS_OK,
+                counters.mConflicting,
+                RESULT_CODE_SYNC_SUCCESS,
+                false);
 
-                        addToSyncJournalAndLogAndNotify(
-                                context,
-                                ACTION_CONFLICTING_ADDED,
-                                STATUS_OK,
-                                counterConflicting,
-                                RESULT_CODE_SYNC_SUCCESS,
-                                false);
-                    }
+        return completed;
+    }
 
-                } else {
+    /**
+     * Receive all server entries by pages, and compare them with the local entries,
+     * which have the same sync ids. Pages are in ascending order of sync ids, so local entries
+     * in the range of the page, which are not received with it, are deleted on server.
+     * Checkpoint is saved after every applied page, and interrupted synchronization
+     * is resumed from it, see {@link SyncCheckpoint}.<br>
+     * First page is requested with ETag of the previous full synchronization,
+     * so if server entries are not changed since, then they are not received and compared.
+     * @return True, if all pages are received, or are not modified, otherwise false.
+     */
+    private static boolean synchronizeAllFromServer(
+            @NonNull final Context context,
+            @NonNull final NoteApi noteApi,
+            @NonNull final NoteApiBatch noteApiBatch,
+            @NonNull final SyncCounters counters) {
+
+        String pageToken = null;
+        Long afterSyncId = null;
+        String token = null;
+        String eTag = null;
+        String ifNoneMatch = null;
+
+        final SyncCheckpoint checkpoint =
+                SyncCheckpoint.fromJson(getSyncCheckpointForCurrentUser(context));
+        if (checkpoint != null) {
+            Log.i(TAG, "Synchronization is resumed from checkpoint.");
+            pageToken = checkpoint.getPageToken();
+            afterSyncId = checkpoint.getLastSyncId();
+            token = checkpoint.getToken();
+            eTag = checkpoint.getETag();
+        } else {
+            ifNoneMatch = getSyncETagForCurrentUser(context);
+        }
+
+        try {
+            while (true) {
+                final Response<ResponseBody> response = noteApi
+                        .getPage(
+                                getSyncIdForCurrentUser(context),
+                                pageToken,
+                                PAGE_SIZE,
+                                ifNoneMatch)
+                        .execute();
+
+                // Not changed since the previous full synchronization.
+                if (ifNoneMatch != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    Log.i(TAG, "Server entries are not modified.");
+                    eTag = ifNoneMatch;
+                    break;
+                }
+                ifNoneMatch = null;
+                if (pageToken == null) {
+                    eTag = response.headers().get(HEADER_ETAG);
+                }
+
+                final ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
                     Log.e(TAG, response.toString());
+                    return false;
+                }
+
+                // Server entries are compared while they are received,
+                // and are applied by parts.
+                final ServerEntriesApplier applier = new ServerEntriesApplier(context, counters);
+                final boolean completed = NoteStreamParser.parseChanges(body.byteStream(), applier);
+                applier.apply();
+
+                if (!completed) {
+                    // Page token may be not valid anymore. Checkpoint is removed with token,
+                    // so the next synchronization starts from the first page.
+                    Log.e(TAG, "Page is not received completely: " + response.toString());
+                    setSyncTokenForCurrentUser(context, null);
+                    return false;
+                }
+                if (applier.isFailed()) {
+                    Log.e(TAG, "Page is not applied completely.");
+                    return false;
+                }
+
+                // Changes after the first page are received with the next synchronization.
+                if (token == null) {
+                    token = applier.getToken();
+                }
+
+                // Delete from local, if sync id is in range of the page, but is not received.
+                final String nextPageToken = applier.getNextPageToken();
+                final Long maxSyncId = applier.getMaxSyncId();
+                final Long lastSyncId = maxSyncId == null ? afterSyncId : maxSyncId;
+                if (!applier.deleteNotReceived(
+                        afterSyncId,
+                        nextPageToken == null ? null : lastSyncId)) {
+
+                    return false;
+                }
+
+                if (nextPageToken == null) {
+                    break;
                 }
+                pageToken = nextPageToken;
+                afterSyncId = lastSyncId;
 
-            } else {
+                final String checkpointJson =
+                        new SyncCheckpoint(pageToken, afterSyncId, token, eTag).toJson();
+                if (checkpointJson != null) {
+                    setSyncCheckpointForCurrentUser(context, checkpointJson);
+                }
+            }
+
+            // Update server, if changed on local only. Entries, changed on server,
+            // are already applied, or are conflicting.
+            updateOnServer(
+                    context,
+                    noteApiBatch,
+                    getChangedLocallySinceSync(context),
+                    counters);
+
+            finishSynchronization(context, token, eTag);
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, e.toString());
+        }
+
+        return false;
+    }
+
+    /**
+     * Receive server entries, which are added, updated or deleted since token,
+     * and compare them with the local entries with the same sync ids.
+     * Local entries, which are changed since the last synchronization, are found
+     * by the change log, so local entries are not scanned.
+     * @return True, if all changes are received, otherwise false.
+     */
+    private static boolean synchronizeChangesFromServer(
+            @NonNull final Context context,
+            @NonNull final NoteApi noteApi,
+            @NonNull final NoteApiBatch noteApiBatch,
+            @NonNull final String token,
+            @NonNull final SyncCounters counters) {
+
+        try {
+            final Response<ResponseBody> response = noteApi
+                    .getChanges(getSyncIdForCurrentUser(context), token)
+                    .execute();
+
+            final ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
                 Log.e(TAG, response.toString());
+                return false;
+            }
+
+            final ServerEntriesApplier applier = new ServerEntriesApplier(context, counters);
+            final boolean completed = NoteStreamParser.parseChanges(body.byteStream(), applier);
+            applier.apply();
+
+            if (!completed || applier.isFailed()) {
+                Log.e(TAG, "Server changes are not received completely: " + response.toString());
+                return false;
             }
 
+            // Update server, if changed on local only. Entries, changed on server,
+            // are already applied, or are conflicting.
+            updateOnServer(
+                    context,
+                    noteApiBatch,
+                    getChangedLocallySinceSync(context),
+                    counters);
+
+            finishSynchronization(context, applier.getToken(), null);
+            return true;
+
         } catch (Exception e) {
             Log.e(TAG, e.toString());
         }
 
-        return counterAddedOnLocal
-                + counterConflicting
-                + counterDeletedOnLocal;
+        return false;
+    }
+
+    /**
+     * Update entries on server, and remember them as synchronized.
+     * @param entries Entries in json-format, by sync id.
+     */
+    private static void updateOnServer(
+            @NonNull final Context context,
+            @NonNull final NoteApiBatch noteApiBatch,
+            @NonNull final Map<String, JSONObject> entries,
+            @NonNull final SyncCounters counters) {
+
+        final List<String> updatedOnServer = noteApiBatch.update(entries);
+        counters.mUpdatedOnServer += updatedOnServer.size();
+        markSynced(context, updatedOnServer);
+        addFailedToSyncJournal(
+                context,
+                ACTION_UPDATED_ON_SERVER,
+                entries.size() - updatedOnServer.size());
+    }
+
+    /**
+     * Add entries to conflict table.
+     * @param syncIds   Sync ids of entries, which are changed on both sides.
+     * @return Number of entries.
+     */
+    private static int insertConflicting(
+            @NonNull final Context context,
+            @NonNull final List<String> syncIds) {
+
+        for (String syncId : syncIds) {
+            insertEntryWithSingleValue(
+                    context,
+                    null,
+                    SYNC_CONFLICT_TABLE_NAME,
+                    COMMON_COLUMN_SYNC_ID,
+                    syncId);
+        }
+        return syncIds.size();
+    }
+
+    /**
+     * Clear synchronized entries from the change log, and remember token,
+     * so the next synchronization receives only the changes since it.
+     * @param token Token from server. If null, then next synchronization is full.
+     * @param eTag  ETag of the server entries, received with the full synchronization, or null.
+     */
+    private static void finishSynchronization(
+            @NonNull final Context context,
+            @Nullable final String token,
+            @Nullable final String eTag) {
+
+        ListDbHelper.clearChangeLog(context);
+        setSyncTokenForCurrentUser(context, token);
+        if (eTag != null) {
+            setSyncETagForCurrentUser(context, eTag);
+        }
+    }
+
+    /**
+     * Counters of synchronization from server.
+     */
+    private static final class SyncCounters {
+        private int mAddedOnLocal;
+        private int mUpdatedOnLocal;
+        private int mDeletedOnLocal;
+        private int mUpdatedOnServer;
+        private int mConflicting;
+
+        private int getSum() {
+            return mAddedOnLocal
+                    + mConflicting
+                    + mDeletedOnLocal
+                    + mUpdatedOnLocal
+                    + mUpdatedOnServer;
+        }
+    }
+
+    /**
+     * Receives server entries, and compares them with the local entries,
+     * which have the same sync ids, see {@link SyncPlan}. Received entries are applied
+     * to local by parts of {@link #APPLY_PART_SIZE}, so the number of server entries
+     * in memory is limited. Local entries are read by parts, by sync ids of the received entries.
+     */
+    private static final class ServerEntriesApplier implements NoteStreamParser.OnChangeListener {
+        @NonNull private final Context mContext;
+        @NonNull private final SyncCounters mCounters;
+        @NonNull private final List<JSONObject> mNotes;
+        @NonNull private final List<String> mDeletedSyncIds;
+        @NonNull private final LongHashSet mReceivedSyncIds;
+        @Nullable private Long mMaxSyncId;
+        @Nullable private String mToken;
+        @Nullable private String mNextPageToken;
+        private boolean mFailed;
+
+        private ServerEntriesApplier(
+                @NonNull final Context context,
+                @NonNull final SyncCounters counters) {
+
+            mContext = context;
+            mCounters = counters;
+            mNotes = new ArrayList<>();
+            mDeletedSyncIds = new ArrayList<>();
+            mReceivedSyncIds = new LongHashSet();
+        }
+
+        @Override
+        public void onNote(@NonNull final JSONObject note) {
+            final String syncId = note.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
+            if (syncId != null) {
+                try {
+                    final long id = Long.parseLong(syncId);
+                    mReceivedSyncIds.add(id);
+                    if (mMaxSyncId == null || id > mMaxSyncId) {
+                        mMaxSyncId = id;
+                    }
+                } catch (NumberFormatException e) {
+                    Log.e(TAG, e.toString());
+                }
+            }
+
+            mNotes.add(note);
+            if (mNotes.size() >= APPLY_PART_SIZE) {
+                applyNotes();
+            }
+        }
+
+        @Override
+        public void onDeleted(@NonNull final String noteId) {
+            mDeletedSyncIds.add(noteId);
+            if (mDeletedSyncIds.size() >= APPLY_PART_SIZE) {
+                applyDeleted();
+            }
+        }
+
+        @Override
+        public void onToken(@NonNull final String token) {
+            mToken = token;
+        }
+
+        @Override
+        public void onNextPageToken(@NonNull final String pageToken) {
+            mNextPageToken = pageToken;
+        }
+
+        /**
+         * Apply received, but not applied yet, entries.
+         */
+        private void apply() {
+            applyNotes();
+            applyDeleted();
+        }
+
+        private void applyNotes() {
+            if (mNotes.isEmpty()) {
+                return;
+            }
+
+            final List<String> syncIds = new ArrayList<>(mNotes.size());
+            for (JSONObject note : mNotes) {
+                final String syncId = note.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
+                if (syncId != null) {
+                    syncIds.add(syncId);
+                }
+            }
+
+            final Cursor cursor = ListDbHelper.getSyncStates(mContext, syncIds);
+            if (cursor == null) {
+                mFailed = true;
+                mNotes.clear();
+                return;
+            }
+            final SyncPlan plan;
+            try {
+                plan = SyncPlan.newInstance(cursor);
+            } finally {
+                cursor.close();
+            }
+
+            for (JSONObject note : mNotes) {
+                plan.addServerEntry(mContext, note);
+            }
+            mNotes.clear();
+
+            // Add new to local, and update local, if changed on server only, in batches.
+            final List<ListEntry> added = plan.takeAdded();
+            mCounters.mAddedOnLocal += Math.max(0, insertEntries(mContext, added));
+            markSynced(mContext, getSyncIds(added));
+
+            final List<ListEntry> changedRemotely = plan.takeChangedRemotely();
+            mCounters.mUpdatedOnLocal += Math.max(0, upsertBySyncId(mContext, changedRemotely));
+            markSynced(mContext, getSyncIds(changedRemotely));
+
+            // Changed on local only are updated on server with the other local changes.
+            markSynced(mContext, plan.getUnmarkedSyncIds());
+            mCounters.mConflicting += insertConflicting(mContext, plan.getConflictingSyncIds());
+        }
+
+        private void applyDeleted() {
+            if (mDeletedSyncIds.isEmpty()) {
+                return;
+            }
+
+            final Cursor cursor = ListDbHelper.getSyncStates(mContext, mDeletedSyncIds);
+            mDeletedSyncIds.clear();
+            if (cursor == null) {
+                mFailed = true;
+                return;
+            }
+            try {
+                final int indexId = cursor.getColumnIndex(BASE_COLUMN_ID);
+                while (cursor.moveToNext()) {
+                    deleteEntry(mContext, cursor.getLong(indexId), false);
+                    mCounters.mDeletedOnLocal++;
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        /**
+         * Delete local entries with sync id in the given range, which are not received.
+         * Must be called after {@link #apply()}.
+         * @param afterSyncId   Sync ids are greater than it. If null, then from the first.
+         * @param toSyncId      Sync ids are less than or equal to it. If null, then to the last.
+         * @return True, if ok, otherwise false.
+         */
+        private boolean deleteNotReceived(
+                @Nullable final Long afterSyncId,
+                @Nullable final Long toSyncId) {
+
+            final Cursor cursor = ListDbHelper.getSyncStates(mContext, afterSyncId, toSyncId);
+            if (cursor == null) {
+                return false;
+            }
+            final List<Long> ids = new ArrayList<>();
+            try {
+                final int indexId = cursor.getColumnIndex(BASE_COLUMN_ID);
+                final int indexSyncId = cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID);
+                while (cursor.moveToNext()) {
+                    if (!mReceivedSyncIds.contains(cursor.getLong(indexSyncId))) {
+                        ids.add(cursor.getLong(indexId));
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+
+            for (Long id : ids) {
+                deleteEntry(mContext, id, false);
+                mCounters.mDeletedOnLocal++;
+            }
+            return true;
+        }
+
+        /**
+         * @return True, if some of received entries cannot be applied, otherwise false.
+         */
+        private boolean isFailed() {
+            return mFailed;
+        }
+
+        /**
+         * @return Token, if it is received, otherwise null.
+         */
+        @Nullable
+        private String getToken() {
+            return mToken;
+        }
+
+        /**
+         * @return Token of the next page, or null, if it is the last page.
+         */
+        @Nullable
+        private String getNextPageToken() {
+            return mNextPageToken;
+        }
+
+        /**
+         * @return Max sync id of the received entries, or null, if they are not received.
+         */
+        @Nullable
+        private Long getMaxSyncId() {
+            return mMaxSyncId;
+        }
+    }
+
+    /**
+     * @param entries Entries with sync id.
+     * @return Sync ids of the entries.
+     */
+    @NonNull
+    private static List<String> getSyncIds(@NonNull final List<ListEntry> entries) {
+        final List<String> syncIds = new ArrayList<>(entries.size());
+        for (ListEntry entry : entries) {
+            if (entry.getSyncId() != null) {
+                syncIds.add(entry.getSyncId().toString());
+            }
+        }
+        return syncIds;
+    }
+
+    /**
+     * Get local entries in json-format, which are changed since the last synchronization,
+     * see {@link ListDbHelper#getChangedSinceSync(Context)}.
+     * @param context   Context.
+     * @return Entries in json-format, by sync id.
+     */
+    @NonNull
+    private static Map<String, JSONObject> getChangedLocallySinceSync(
+            @NonNull final Context context) {
+
+        final Map<String, JSONObject> entries = new LinkedHashMap<>();
+        final Cursor cursor = ListDbHelper.getChangedSinceSync(context);
+        if (cursor == null) {
+            return entries;
+        }
+        try {
+            final int indexSyncId = cursor.getColumnIndex(COMMON_COLUMN_SYNC_ID);
+            while (cursor.moveToNext()) {
+                final JSONObject json = ListEntry.getJsonObjectFromCursor(context, cursor);
+                if (json != null) {
+                    entries.put(cursor.getString(indexSyncId), json);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return entries;
     }
 
 
@@ -605,34 +1062,36 @@ public final class SyncUtils {
             if (noteApi == null) {
                 throw new Exception("Cannot get note api.");
             }
-            final Response<String> response = noteApi
-                    .getAll(currentUser)
-                    .execute();
+            final NoteApiBatch noteApiBatch =
+                    new NoteApiBatch(noteApi, currentUser, getMaxRequestsInFlight());
+
+            // Page by page, only sync ids of the page are kept.
+            String pageToken = null;
+            try {
+                do {
+                    final Response<ResponseBody> response = noteApi
+                            .getPage(currentUser, pageToken, PAGE_SIZE, null)
+                            .execute();
+
+                    final ResponseBody body = response.body();
+                    if (!response.isSuccessful() || body == null) {
+                        Log.e(TAG, response.toString());
+                        break;
+                    }
 
-            if (response.isSuccessful()) {
-                final String body = response.body();
-                final JSONObject jsonResponse = new JSONObject(body);
-                final String status = jsonResponse.optString(API_KEY_STATUS);
-
-                if (API_STATUS_OK.equals(status)) {
-                    final JSONArray entries = jsonResponse.getJSONArray(API_KEY_DATA);
-                    for (int i = 0; i < entries.length(); i++) {
-                        final JSONObject jsonObject = entries.getJSONObject(i);
-                        final String syncId = jsonObject.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
-
-                        if (syncId != null) {
-                            noteApi .delete(currentUser, syncId)
-                                    .execute();
-                            counter++;
-                        }
+                    final SyncIdsReceiver receiver = new SyncIdsReceiver();
+                    if (!NoteStreamParser.parseChanges(body.byteStream(), receiver)) {
+                        Log.e(TAG, response.toString());
+                        break;
                     }
 
-                } else {
-                    Log.e(TAG, response.toString());
-                }
+                    counter += noteApiBatch.delete(receiver.mSyncIds).size();
+                    pageToken = receiver.mNextPageToken;
 
-            } else {
-                Log.e(TAG, response.toString());
+                } while (pageToken != null);
+
+            } finally {
+                noteApiBatch.shutdown();
             }
 
         } catch (Exception e) {
@@ -651,6 +1110,34 @@ public final class SyncUtils {
     }
 
 
+    /**
+     * Receives sync ids of the server entries, and token of the next page.
+     */
+    private static final class SyncIdsReceiver implements NoteStreamParser.OnChangeListener {
+        @NonNull private final List<String> mSyncIds = new ArrayList<>();
+        @Nullable private String mNextPageToken;
+
+        @Override
+        public void onNote(@NonNull final JSONObject note) {
+            final String syncId = note.optString(LIST_ITEMS_COLUMN_SYNC_ID_JSON, null);
+            if (syncId != null) {
+                mSyncIds.add(syncId);
+            }
+        }
+
+        @Override
+        public void onDeleted(@NonNull final String noteId) {}
+
+        @Override
+        public void onToken(@NonNull final String token) {}
+
+        @Override
+        public void onNextPageToken(@NonNull final String pageToken) {
+            mNextPageToken = pageToken;
+        }
+    }
+
+
     /*
         Logging
      */
@@ -666,7 +1153,7 @@ public final class SyncUtils {
     public static void addToSyncJournalAndLogAndNotify(
             @NonNull final Context context,
             final int action,
-            @SuppressWarnings("SameParameterValue") final int status,
+            final int status,
             final int count,
             final int resultCode,
             final boolean showToast) {
@@ -692,6 +1179,28 @@ public final class SyncUtils {
                 null);
     }
 
+    /**
+     * Add entry with error status, if some entries are failed.
+     * @param context       Context.
+     * @param action        See: {@link SyncDbHelper}, ACTION*.
+     * @param failedCount   Count of failed entries.
+     */
+    private static void addFailedToSyncJournal(
+            @NonNull final Context context,
+            final int action,
+            final int failedCount) {
+
+        if (failedCount > 0) {
+            addToSyncJournalAndLogAndNotify(
+                    context,
+                    action,
+                    STATUS_ERROR,
+                    failedCount,
+                    RESULT_CODE_SYNC_FAILED,
+                    false);
+        }
+    }
+
     /**
      * Logging message with info level. Showing toast if needed.
      * Notifying registered observers with given result code.
@@ -0,0 +1,172 @@
+package com.gamaliev.notes.common;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class DateCodecTest {
+
+    /* ... */
+    @NonNull private static final String[] TIME_ZONES = {
+            "UTC", "Europe/Moscow", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe"};
+    private static final int NUMBER = 20000;
+    private static final long RANGE_MILLIS = 4000000000000L;
+
+    @NonNull private static final TimeZone DEFAULT_TIME_ZONE = TimeZone.getDefault();
+
+
+    /*
+        Init
+     */
+
+    @After
+    public void after() throws Exception {
+        TimeZone.setDefault(DEFAULT_TIME_ZONE);
+        DateCodec.setTimeZone(DEFAULT_TIME_ZONE);
+    }
+
+
+    /*
+        Tests
+     */
+
+    @Test
+    public void formatSqlite() throws Exception {
+        final DateFormat dfUtc = getDateFormat("yyyy-MM-dd HH:mm:ss", true);
+        final Random random = new Random(1);
+
+        for (String id : TIME_ZONES) {
+            setTimeZone(id);
+            final DateFormat dfLocal = getDateFormat("yyyy-MM-dd HH:mm:ss", false);
+            final DateFormat dfDate = getDateFormat("yyyy-MM-dd", false);
+
+            for (int i = 0; i < NUMBER; i++) {
+                final long millis = getRandomMillis(random);
+                final Date date = new Date(millis);
+
+                // #
+                assertEquals(dfUtc.format(date), DateCodec.formatSqlite(millis, true));
+                assertEquals(dfLocal.format(date), DateCodec.formatSqlite(millis, false));
+                assertEquals(dfDate.format(date), DateCodec.formatDate(millis, false));
+            }
+        }
+    }
+
+    @Test
+    public void parseSqlite() throws Exception {
+        final DateFormat dfUtc = getDateFormat("yyyy-MM-dd HH:mm:ss", true);
+        final Random random = new Random(2);
+
+        for (String id : TIME_ZONES) {
+            setTimeZone(id);
+            final DateFormat dfLocal = getDateFormat("yyyy-MM-dd HH:mm:ss", false);
+
+            for (int i = 0; i < NUMBER; i++) {
+                final long millis = getRandomMillis(random);
+                final String utc = dfUtc.format(new Date(millis));
+                final String local = dfLocal.format(new Date(millis));
+
+                // #
+                assertEquals(millis, DateCodec.parseSqlite(utc, true));
+                assertEquals(dfLocal.parse(local).getTime(), DateCodec.parseSqlite(local, false));
+            }
+        }
+    }
+
+    @Test
+    public void formatParseIso8601() throws Exception {
+        final Random random = new Random(3);
+
+        for (String id : TIME_ZONES) {
+            final TimeZone timeZone = setTimeZone(id);
+            final DateFormat df = getDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX", false);
+
+            for (int i = 0; i < NUMBER; i++) {
+                final long millis = getRandomMillis(random);
+                final String expected = df.format(new Date(millis)).replace("Z", "+00:00");
+                final String actual = DateCodec.formatIso8601(millis);
+
+                // #
+                assertEquals(expected, actual);
+
+                // Historical offsets with seconds are truncated by the pattern.
+                if (timeZone.getOffset(millis) % 60000 == 0) {
+                    assertEquals(millis, DateCodec.parseIso8601(actual));
+                }
+            }
+        }
+
+        // #
+        assertEquals(1493951135000L, DateCodec.parseIso8601("2017-05-05T02:25:35Z"));
+        assertEquals(1493951135000L, DateCodec.parseIso8601("2017-05-05T07:25:35+05:00"));
+        assertEquals(1493951135000L, DateCodec.parseIso8601("2017-05-05T07:25:35+0500"));
+        assertEquals(1493951135000L, DateCodec.parseIso8601("2017-05-04T21:25:35-05"));
+    }
+
+    @Test
+    public void formatToBuffer() throws Exception {
+        setTimeZone("Asia/Kolkata");
+        final char[] buffer = new char[DateCodec.LENGTH_ISO_8601 + 2];
+
+        // #
+        assertEquals(DateCodec.LENGTH_ISO_8601, DateCodec.formatIso8601(1493951135000L, buffer, 2));
+        assertEquals("2017-05-05T07:55:35+05:30", new String(buffer, 2, DateCodec.LENGTH_ISO_8601));
+        assertEquals(DateCodec.LENGTH_DATE, DateCodec.formatDate(1493951135000L, true, buffer, 0));
+        assertEquals("2017-05-05", new String(buffer, 0, DateCodec.LENGTH_DATE));
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseWrongSqlite() throws Exception {
+        DateCodec.parseSqlite("2017-05-05T02:25:35", true);
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseWrongIso8601() throws Exception {
+        DateCodec.parseIso8601("2017-05-05T02:25:35+5");
+    }
+
+
+    /*
+        Utils
+     */
+
+    @NonNull
+    private static TimeZone setTimeZone(@NonNull final String id) {
+        final TimeZone timeZone = TimeZone.getTimeZone(id);
+        TimeZone.setDefault(timeZone);
+        DateCodec.setTimeZone(timeZone);
+        return timeZone;
+    }
+
+    @NonNull
+    private static DateFormat getDateFormat(@NonNull final String pattern, final boolean utc) {
+        final DateFormat df = new SimpleDateFormat(pattern, Locale.ENGLISH);
+        if (utc) {
+            df.setTimeZone(TimeZone.getTimeZone("UTC"));
+        }
+        return df;
+    }
+
+    /**
+     * @param random Generator of pseudo-random numbers.
+     * @return Random time in seconds precision, about 1843-2096 years.
+     */
+    private static long getRandomMillis(@NonNull final Random random) {
+        return (random.nextLong() % RANGE_MILLIS) / 1000 * 1000;
+    }
+}
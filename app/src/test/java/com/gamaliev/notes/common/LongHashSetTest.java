@@ -0,0 +1,73 @@
+package com.gamaliev.notes.common;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class LongHashSetTest {
+
+    @Test
+    public void addContains() throws Exception {
+        final LongHashSet set = new LongHashSet();
+
+        // #
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1));
+
+        assertTrue(set.add(0));
+        assertTrue(set.add(1));
+        assertTrue(set.add(-1));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertTrue(set.add(Long.MIN_VALUE));
+
+        // #
+        assertFalse(set.add(0));
+        assertFalse(set.add(1));
+        assertEquals(5, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(-1));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertFalse(set.contains(2));
+    }
+
+    @Test
+    public void rehash() throws Exception {
+        final int number = 20000;
+        final LongHashSet set = new LongHashSet();
+        final Set<Long> expected = new HashSet<>();
+        final Random random = new Random(1);
+
+        // Sequential and random values.
+        for (long i = 1; i <= number; i++) {
+            set.add(i);
+            expected.add(i);
+        }
+        for (int i = 0; i < number; i++) {
+            final long value = random.nextLong();
+            set.add(value);
+            expected.add(value);
+        }
+
+        // #
+        assertEquals(expected.size(), set.size());
+        for (long value : expected) {
+            assertTrue(set.contains(value));
+        }
+        for (long i = number + 1; i <= 2 * number; i++) {
+            assertEquals(expected.contains(i), set.contains(i));
+        }
+    }
+}
@@ -8,13 +8,17 @@ import static com.gamaliev.notes.common.db.DbHelper.BASE_COLUMN_ID;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_MANUALLY;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_SYNC_ID_JSON;
 import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_COLUMN_TITLE;
+import static com.gamaliev.notes.common.db.DbHelper.LIST_ITEMS_FTS_TABLE_NAME;
 import static com.gamaliev.notes.common.db.DbHelper.ORDER_ASCENDING;
 import static com.gamaliev.notes.common.db.DbHelper.ORDER_DESCENDING;
 import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_BETWEEN;
 import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_EQUALS;
 import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_LIKE;
+import static com.gamaliev.notes.common.db.DbQueryBuilder.OPERATOR_MATCH;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Vadim Gamaliev
@@ -131,6 +135,47 @@ public class DbQueryBuilderTest {
         assertArrayEquals(expectedArgs, builder.getSelectionArgs());
     }
 
+    @Test
+    public void addAndMatch() throws Exception {
+        final DbQueryBuilder builder = new DbQueryBuilder();
+
+        // (_id = ?)AND(list_items_fts MATCH ?)
+        final String expectedSelection = "(" + BASE_COLUMN_ID + OPERATOR_EQUALS + "?)"
+                + "AND" + "(" + LIST_ITEMS_FTS_TABLE_NAME + OPERATOR_MATCH + "?)";
+        final String[] expectedArgs = new String[] {"123", "\"abc*\" \"de*\""};
+
+        builder .addAnd(
+                    BASE_COLUMN_ID,
+                    OPERATOR_EQUALS,
+                    new String[] {"123"})
+                .addAnd(
+                    LIST_ITEMS_FTS_TABLE_NAME,
+                    OPERATOR_MATCH,
+                    new String[] {"  abc \"de\" "});
+
+        assertEquals(expectedSelection, removeWhiteSpacesFromQuery(builder.getSelectionResult()));
+        assertArrayEquals(expectedArgs, builder.getSelectionArgs());
+    }
+
+    @Test
+    public void getPrefixMatchQuery() throws Exception {
+        assertEquals("\"Droid*\"", DbQueryBuilder.getPrefixMatchQuery("Droid"));
+        assertEquals("\"Droid*\" \"Stu*\"", DbQueryBuilder.getPrefixMatchQuery("Droid\tStu"));
+        assertEquals("\"Dro*\" \"id*\"", DbQueryBuilder.getPrefixMatchQuery("Dro\"id"));
+        assertEquals("", DbQueryBuilder.getPrefixMatchQuery(" \" "));
+    }
+
+    @Test
+    public void hasPrefixMatchQuery() throws Exception {
+        assertTrue(DbQueryBuilder.hasPrefixMatchQuery("Droid"));
+        assertTrue(DbQueryBuilder.hasPrefixMatchQuery(" \"Droid"));
+        assertFalse(DbQueryBuilder.hasPrefixMatchQuery(null));
+        assertFalse(DbQueryBuilder.hasPrefixMatchQuery(""));
+        assertFalse(DbQueryBuilder.hasPrefixMatchQuery(" "));
+        assertFalse(DbQueryBuilder.hasPrefixMatchQuery("\""));
+        assertFalse(DbQueryBuilder.hasPrefixMatchQuery(" \"\t\" "));
+    }
+
     @Test
     public void setOrder() throws Exception {
         final DbQueryBuilder builder = new DbQueryBuilder();
@@ -266,6 +311,14 @@ public class DbQueryBuilderTest {
                 new String[] {"123", "abc"}); /* Must be 1 operand */
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongMatchArguments() throws Exception {
+        new DbQueryBuilder().addOr(
+                LIST_ITEMS_FTS_TABLE_NAME,
+                OPERATOR_MATCH,
+                new String[] {"123", "abc"}); /* Must be 1 operand */
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void wrongBetweenArguments() throws Exception {
         new DbQueryBuilder().addOr(
@@ -0,0 +1,32 @@
+package com.gamaliev.notes.list;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vadim Gamaliev
+ *         <a href="mailto:gamaliev-vadim@yandex.com">(e-mail: gamaliev-vadim@yandex.com)</a>
+ */
+public class ListSearchSessionTest {
+
+    @Test
+    public void isExtension() throws Exception {
+
+        // #
+        assertTrue(ListSearchSession.isExtension("mee", "meet"));
+        assertTrue(ListSearchSession.isExtension("mee", "mee"));
+        assertTrue(ListSearchSession.isExtension("meet", "meet "));
+        assertTrue(ListSearchSession.isExtension("meet", "meet  at"));
+        assertTrue(ListSearchSession.isExtension("meet a", "meeting at"));
+        assertTrue(ListSearchSession.isExtension(" \"meet\" ", "meet"));
+
+        assertFalse(ListSearchSession.isExtension("meet", "mee"));
+        assertFalse(ListSearchSession.isExtension("meet", "greet"));
+        assertFalse(ListSearchSession.isExtension("meet at", "meet"));
+        assertFalse(ListSearchSession.isExtension("meet at", "at meet"));
+        assertFalse(ListSearchSession.isExtension("", "meet"));
+        assertFalse(ListSearchSession.isExtension(" ", "meet"));
+    }
+}